@@ -0,0 +1,346 @@
+package org.example;
+
+import org.example.models.SmtpAccount;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads relay sends over the configured sending accounts and takes failing ones out
+ * of rotation.
+ *
+ * With the "accountRotation" setting at "round-robin" (the default) healthy accounts take
+ * turns; with "quota" each account gets a share proportional to what is left of its daily
+ * quota (smooth weighted round robin, unlimited accounts weigh as much as the largest
+ * remaining quota). An account that fails authentication, or keeps answering with rate-limit
+ * errors, cools down with an exponential backoff (an unreachable server is the send engine's
+ * {@link CircuitBreaker}'s business). Once the cooldown is over it
+ * stays out of rotation until a health check (see {@link #getAccountsToProbe}) reconnects it.
+ * When every account is cooling down the one that recovers soonest is used anyway, so a
+ * single-account setup behaves as if there were no rotation; accounts that used up their
+ * daily quota are never used. Today's usage can be saved with {@link #getUsage} and handed
+ * back through {@link #restoreUsage}, so a restart does not reset the quotas.
+ */
+public class AccountRotator {
+
+    public enum Strategy { ROUND_ROBIN, QUOTA }
+
+    private static final int RATE_LIMIT_FAILURES_BEFORE_COOLDOWN = 3;
+    private static final long MIN_COOLDOWN_MILLIS = 60_000;
+    private static final long MAX_COOLDOWN_MILLIS = 30 * 60_000;
+    private static final long AUTH_COOLDOWN_MILLIS = 10 * 60_000;
+    private static final int UNLIMITED_WEIGHT = 1_000;
+
+    private static final class State {
+        private SmtpAccount account;
+        private LocalDate day = LocalDate.now();
+        private int sentToday;
+        private int consecutiveFailures;
+        private int cooldowns;
+        private long cooldownUntil;
+        private boolean needsProbe;
+        private int currentWeight;
+
+        private State(SmtpAccount account) {
+            this.account = account;
+        }
+
+        private int remainingQuota() {
+            if (!day.equals(LocalDate.now())) {
+                day = LocalDate.now();
+                sentToday = 0;
+            }
+            return account.getDailyQuota() > 0 ? Math.max(0, account.getDailyQuota() - sentToday) : Integer.MAX_VALUE;
+        }
+
+        private boolean isAvailable() {
+            return !needsProbe && cooldownUntil == 0 && remainingQuota() > 0;
+        }
+    }
+
+    // Insertion order is rotation order; guarded by this
+    private final Map<SmtpAccount, State> states = new LinkedHashMap<>();
+    private Strategy strategy = Strategy.ROUND_ROBIN;
+    private int nextIndex;
+    // Messages sent today by account (see #accountKey), for accounts not configured yet
+    private final Map<String, Integer> restoredUsage = new HashMap<>();
+    private LocalDate restoredDay;
+
+    /**
+     * Replace the account list, keeping usage and health of accounts that remain
+     */
+    public synchronized void configure(List<SmtpAccount> accounts, Strategy strategy) {
+        Map<SmtpAccount, State> previous = new LinkedHashMap<>(states);
+        states.clear();
+        for (SmtpAccount account : accounts) {
+            State state = previous.get(account);
+            if (state == null) {
+                state = new State(account);
+                if (state.day.equals(restoredDay)) {
+                    state.sentToday = restoredUsage.getOrDefault(accountKey(account), 0);
+                }
+            }
+            // Equal accounts may still differ in quota
+            state.account = account;
+            states.put(account, state);
+        }
+        this.strategy = strategy;
+    }
+
+    public static Strategy strategyFromSettings(Map<String, Object> settings) {
+        return "quota".equalsIgnoreCase(String.valueOf(settings.get("accountRotation")))
+            ? Strategy.QUOTA : Strategy.ROUND_ROBIN;
+    }
+
+    public synchronized boolean isEmpty() {
+        return states.isEmpty();
+    }
+
+    public synchronized List<SmtpAccount> getAccounts() {
+        return new ArrayList<>(states.keySet());
+    }
+
+    /**
+     * Choose the account for the next message, skipping the given ones (already tried for
+     * this message). Returns null when no account is left to try or all quotas are used up.
+     */
+    public synchronized SmtpAccount pick(Collection<SmtpAccount> exclude) {
+        long now = System.currentTimeMillis();
+        List<State> candidates = new ArrayList<>();
+        State fallback = null;
+        for (State state : states.values()) {
+            if (exclude.contains(state.account)) continue;
+            if (state.cooldownUntil != 0 && state.cooldownUntil <= now) {
+                state.cooldownUntil = 0;
+                state.needsProbe = true;
+            }
+            if (state.isAvailable()) {
+                candidates.add(state);
+            } else if (state.remainingQuota() > 0 && (fallback == null || recoversAt(state) < recoversAt(fallback))) {
+                fallback = state;
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return fallback != null ? fallback.account : null;
+        }
+        return strategy == Strategy.QUOTA ? pickByQuota(candidates) : pickRoundRobin(candidates);
+    }
+
+    /**
+     * When a relay send can get an account again: now if some account has quota left (or
+     * none is configured), otherwise at the next local midnight, when the quotas reset.
+     * Cooling down accounts still count, as {@link #pick} falls back on them.
+     */
+    public synchronized long availableAt(long nowMillis) {
+        if (states.isEmpty()) {
+            return nowMillis;
+        }
+        for (State state : states.values()) {
+            if (state.remainingQuota() > 0) {
+                return nowMillis;
+            }
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        return LocalDate.now(zone).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Messages sent today by each account that sent any, keyed by account but not password
+     */
+    public synchronized Map<String, Integer> getUsage() {
+        Map<String, Integer> usage = new HashMap<>();
+        for (State state : states.values()) {
+            state.remainingQuota();
+            if (state.sentToday > 0) {
+                usage.merge(accountKey(state.account), state.sentToday, Math::max);
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Take over the usage saved on {@code day} from {@link #getUsage}; ignored unless it is today
+     */
+    public synchronized void restoreUsage(LocalDate day, Map<String, Integer> usage) {
+        restoredDay = day;
+        restoredUsage.clear();
+        restoredUsage.putAll(usage);
+        for (State state : states.values()) {
+            if (state.day.equals(day)) {
+                state.sentToday = Math.max(state.sentToday, usage.getOrDefault(accountKey(state.account), 0));
+            }
+        }
+    }
+
+    public synchronized void recordSuccess(SmtpAccount account) {
+        State state = states.get(account);
+        if (state == null) return;
+        state.remainingQuota();
+        state.sentToday++;
+        state.consecutiveFailures = 0;
+        state.cooldowns = 0;
+        state.cooldownUntil = 0;
+        state.needsProbe = false;
+    }
+
+    /**
+     * Record a failed send.
+     *
+     * @return true if the failure is the account's fault (authentication, rate limiting,
+     *         unreachable server), so the message is worth retrying on another account
+     */
+    public synchronized boolean recordFailure(SmtpAccount account, int smtpCode) {
+        if (!isAccountFailure(smtpCode)) {
+            return false;
+        }
+        State state = states.get(account);
+        if (state == null) {
+            return true;
+        }
+        // Unreachable or busy host: worth another account, but not this account's fault
+        if (smtpCode == 0 || smtpCode == 421) {
+            return true;
+        }
+        state.consecutiveFailures++;
+        if (state.cooldownUntil > System.currentTimeMillis()) {
+            // Sends that were already in flight when the account was paused
+            return true;
+        }
+        if (isAuthFailure(smtpCode)) {
+            startCooldown(state, AUTH_COOLDOWN_MILLIS);
+            System.err.println("Sending account " + account + " failed to authenticate; taking it out of rotation");
+        } else if (state.consecutiveFailures >= RATE_LIMIT_FAILURES_BEFORE_COOLDOWN) {
+            long cooldown = Math.min(MAX_COOLDOWN_MILLIS, MIN_COOLDOWN_MILLIS << Math.min(state.cooldowns, 5));
+            startCooldown(state, cooldown);
+            System.err.println("Sending account " + account + " is being throttled; pausing it for "
+                + cooldown / 1000 + " s");
+        }
+        return true;
+    }
+
+    /**
+     * Accounts whose cooldown is over and that should be reconnected before they get traffic again
+     */
+    public synchronized List<SmtpAccount> getAccountsToProbe() {
+        long now = System.currentTimeMillis();
+        List<SmtpAccount> due = new ArrayList<>();
+        for (State state : states.values()) {
+            if (state.cooldownUntil != 0 && state.cooldownUntil <= now) {
+                state.cooldownUntil = 0;
+                state.needsProbe = true;
+            }
+            if (state.needsProbe) {
+                due.add(state.account);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Outcome of a health check: a healthy account rejoins the rotation, a failing one
+     * cools down again for longer
+     */
+    public synchronized void recordProbe(SmtpAccount account, boolean healthy) {
+        State state = states.get(account);
+        if (state == null) return;
+        if (healthy) {
+            state.needsProbe = false;
+            state.consecutiveFailures = 0;
+        } else {
+            startCooldown(state, Math.min(MAX_COOLDOWN_MILLIS, MIN_COOLDOWN_MILLIS << Math.min(state.cooldowns, 5)));
+        }
+    }
+
+    /**
+     * Human readable state of each account, e.g. for the status bar
+     */
+    public synchronized Map<SmtpAccount, String> describe() {
+        long now = System.currentTimeMillis();
+        Map<SmtpAccount, String> result = new LinkedHashMap<>();
+        for (State state : states.values()) {
+            String status;
+            if (state.cooldownUntil > now) {
+                status = "cooling down for " + (state.cooldownUntil - now) / 1000 + " s";
+            } else if (state.needsProbe || state.cooldownUntil != 0) {
+                status = "waiting for health check";
+            } else if (state.remainingQuota() == 0) {
+                status = "daily quota used";
+            } else {
+                status = "active";
+            }
+            result.put(state.account, status + ", " + state.sentToday + " sent today");
+        }
+        return result;
+    }
+
+    public static boolean isAccountFailure(int smtpCode) {
+        // 0: could not connect; 421/451/452/454: server busy or rate limiting; 53x: authentication
+        return smtpCode == 0 || smtpCode == 421 || smtpCode == 451 || smtpCode == 452
+            || smtpCode == 454 || isAuthFailure(smtpCode);
+    }
+
+    private static boolean isAuthFailure(int smtpCode) {
+        return smtpCode == 530 || smtpCode == 534 || smtpCode == 535;
+    }
+
+    private void startCooldown(State state, long millis) {
+        state.cooldownUntil = System.currentTimeMillis() + millis;
+        state.cooldowns++;
+        state.needsProbe = false;
+        state.currentWeight = 0;
+    }
+
+    private static String accountKey(SmtpAccount account) {
+        return account.getUsername() + "@" + account.getHost() + ":" + account.getPort();
+    }
+
+    private static long recoversAt(State state) {
+        return state.cooldownUntil != 0 ? state.cooldownUntil : Long.MAX_VALUE - 1;
+    }
+
+    private SmtpAccount pickRoundRobin(List<State> candidates) {
+        // Rotate over the full list so an account coming back keeps its turn
+        List<State> all = new ArrayList<>(states.values());
+        for (int i = 0; i < all.size(); i++) {
+            State state = all.get((nextIndex + i) % all.size());
+            if (candidates.contains(state)) {
+                nextIndex = (nextIndex + i + 1) % all.size();
+                return state.account;
+            }
+        }
+        return candidates.get(0).account;
+    }
+
+    private static SmtpAccount pickByQuota(List<State> candidates) {
+        int largestLimited = 0;
+        for (State state : candidates) {
+            int remaining = state.remainingQuota();
+            if (remaining != Integer.MAX_VALUE) {
+                largestLimited = Math.max(largestLimited, remaining);
+            }
+        }
+        int unlimitedWeight = Math.max(UNLIMITED_WEIGHT, largestLimited);
+
+        // Smooth weighted round robin, as in SendQueue
+        int totalWeight = 0;
+        State chosen = null;
+        for (State state : candidates) {
+            int remaining = state.remainingQuota();
+            int weight = remaining == Integer.MAX_VALUE ? unlimitedWeight : remaining;
+            state.currentWeight += weight;
+            totalWeight += weight;
+            if (chosen == null || state.currentWeight > chosen.currentWeight) {
+                chosen = state;
+            }
+        }
+        chosen.currentWeight -= totalWeight;
+        return chosen.account;
+    }
+}
@@ -0,0 +1,153 @@
+package org.example;
+
+/**
+ * Concurrency limit that adapts to how the SMTP servers respond.
+ *
+ * Every send holds a permit while in flight and reports its latency and outcome when done.
+ * The limit grows additively (about one more parallel send per round of sends) while
+ * latency stays close to the best seen recently, and shrinks multiplicatively when servers
+ * answer with transient 4xx errors, drop connections, or latency climbs well above that
+ * baseline - the usual sign that a relay started queueing or throttling us. Decreases are
+ * spaced at least one smoothed round trip apart, so a burst of failures from sends that
+ * were already in flight counts as one congestion signal.
+ */
+public class AdaptiveLimiter {
+
+    /**
+     * How a send ended, as far as server load is concerned
+     */
+    public enum Outcome {
+        /** Accepted */
+        SUCCESS,
+        /** Transient failure that signals load: 4xx reply, timeout, dropped connection */
+        OVERLOAD,
+        /** Says nothing about load, e.g. a permanent rejection of the recipient */
+        IGNORE
+    }
+
+    private static final double BACKOFF_FACTOR = 0.7;
+    private static final double LATENCY_BACKOFF_FACTOR = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double SMOOTHING = 0.2;
+    private static final int BASELINE_RESET_SAMPLES = 500;
+
+    private int minLimit;
+    private int maxLimit;
+    private double limit;
+    private int inFlight;
+
+    // Latency baseline (best recent) and smoothed latency, in nanos
+    private long baselineNanos = Long.MAX_VALUE;
+    private long nextBaselineNanos = Long.MAX_VALUE;
+    private int baselineSamples;
+    private double smoothedNanos;
+    private double errorRate;
+    private long lastDecreaseNanos;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = clamp(initialLimit);
+    }
+
+    /**
+     * Wait until a send may start
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Give back a permit without a measurement, e.g. when no send happened
+     */
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Give back a permit and adjust the limit from the send's latency and outcome
+     */
+    public synchronized void release(long latencyNanos, Outcome outcome) {
+        inFlight--;
+        long now = System.nanoTime();
+
+        if (outcome != Outcome.IGNORE) {
+            errorRate += SMOOTHING * ((outcome == Outcome.OVERLOAD ? 1 : 0) - errorRate);
+        }
+
+        if (outcome == Outcome.OVERLOAD) {
+            decrease(now, BACKOFF_FACTOR);
+        } else if (outcome == Outcome.SUCCESS) {
+            recordLatency(latencyNanos);
+            if (latencyNanos > baselineNanos * LATENCY_TOLERANCE && smoothedNanos > baselineNanos * LATENCY_TOLERANCE) {
+                decrease(now, LATENCY_BACKOFF_FACTOR);
+            } else if (inFlight + 1 >= (int) limit) {
+                // Only grow when the limit is actually the bottleneck
+                limit = clamp(limit + 1.0 / limit);
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Change the bounds, e.g. after the connection settings changed; equal bounds fix the limit
+     */
+    public synchronized void setBounds(int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = clamp(limit);
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Smoothed send latency in milliseconds, 0 before the first measurement
+     */
+    public synchronized long getLatencyMillis() {
+        return (long) (smoothedNanos / 1_000_000);
+    }
+
+    /**
+     * Smoothed share of sends that ended in an overload signal, 0 to 1
+     */
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    private void recordLatency(long latencyNanos) {
+        smoothedNanos = smoothedNanos == 0 ? latencyNanos : smoothedNanos + SMOOTHING * (latencyNanos - smoothedNanos);
+
+        // Track the minimum over a window and start a new window now and then, so the
+        // baseline follows a relay whose normal speed changed
+        nextBaselineNanos = Math.min(nextBaselineNanos, latencyNanos);
+        baselineNanos = Math.min(baselineNanos, latencyNanos);
+        if (++baselineSamples >= BASELINE_RESET_SAMPLES) {
+            baselineNanos = nextBaselineNanos;
+            nextBaselineNanos = Long.MAX_VALUE;
+            baselineSamples = 0;
+        }
+    }
+
+    private void decrease(long now, double factor) {
+        if (now - lastDecreaseNanos < (long) smoothedNanos) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = clamp(limit * factor);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
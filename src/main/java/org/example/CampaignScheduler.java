@@ -0,0 +1,316 @@
+package org.example;
+
+import org.example.models.Campaign;
+import org.example.models.Contact;
+import org.example.models.DeliveryLedger;
+import org.example.models.EmailHistory;
+import org.example.models.ScheduledCampaign;
+import org.example.utils.DataManager;
+import org.example.utils.TimerWheel;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs campaigns at a scheduled time.
+ *
+ * Jobs live in the data directory (schedule/jobs plus one recipient spool per job), so they
+ * survive restarts: on start every pending job is armed on a timer wheel, jobs whose time
+ * passed while the app was closed fire immediately, and jobs that were interrupted mid-send
+ * resume from their last ledger checkpoint. Due jobs go to the shared send engine at bulk
+ * priority, where they interleave with each other and yield to interactive sends; a job with
+ * a spread window paces its messages so the remaining recipients finish at the end of the window.
+ */
+public class CampaignScheduler {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+    private static final int CHECKPOINT_EVERY = 25;
+    private static final int FINISHED_RETENTION_DAYS = 7;
+
+    private final DataManager dataManager;
+    private final SendEngine sendEngine;
+    private final TimerWheel timerWheel = new TimerWheel("Campaign-Timer", TICK_MILLIS, WHEEL_SIZE);
+    private final ExecutorService worker = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Campaign-Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this
+    private final Map<String, ScheduledCampaign> jobs = new LinkedHashMap<>();
+    private final Map<String, TimerWheel.Timeout> timeouts = new HashMap<>();
+    private final Map<String, Future<?>> runningJobs = new HashMap<>();
+
+    private final List<Consumer<ScheduledCampaign>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean stopping;
+
+    public CampaignScheduler(DataManager dataManager, SendEngine sendEngine) {
+        this.dataManager = dataManager;
+        this.sendEngine = sendEngine;
+    }
+
+    /**
+     * Load persisted jobs and arm the pending ones
+     */
+    public synchronized void start() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(FINISHED_RETENTION_DAYS);
+        for (ScheduledCampaign job : dataManager.loadScheduledCampaigns()) {
+            // Jobs saved before finish times were recorded age out from their creation
+            LocalDateTime finishedAt = job.getFinishedAt() != null ? job.getFinishedAt() : job.getCreatedAt();
+            if (isFinished(job) && finishedAt != null && finishedAt.isBefore(cutoff)) {
+                dataManager.deleteSpool(job.getId());
+                continue;
+            }
+            jobs.put(job.getId(), job);
+            if (job.getStatus() == ScheduledCampaign.Status.RUNNING) {
+                // Interrupted by a shutdown; resume from the checkpointed ledger
+                job.setStatus(ScheduledCampaign.Status.SCHEDULED);
+            }
+            if (job.getStatus() == ScheduledCampaign.Status.SCHEDULED) {
+                arm(job);
+            }
+        }
+        persist();
+    }
+
+    /**
+     * Schedule a campaign. Recipients are spooled to disk right away.
+     *
+     * @param spreadMinutes length of the send window, 0 to send at the normal pace
+     */
+    public ScheduledCampaign schedule(String subject, String content, List<Contact> recipients,
+                                      LocalDateTime scheduledAt, int spreadMinutes) throws IOException {
+        ScheduledCampaign job = new ScheduledCampaign(subject, content, recipients.size(), scheduledAt, Math.max(0, spreadMinutes));
+        dataManager.saveSpool(job.getId(), new ArrayList<>(recipients));
+
+        synchronized (this) {
+            jobs.put(job.getId(), job);
+            arm(job);
+            persist();
+        }
+        notifyListeners(job);
+        return job;
+    }
+
+    /**
+     * Cancel a pending or running job. A running job stops after its current message and
+     * what was sent so far is kept in history.
+     */
+    public void cancel(String jobId) {
+        ScheduledCampaign job;
+        synchronized (this) {
+            job = jobs.get(jobId);
+            if (job == null || isFinished(job)) {
+                return;
+            }
+
+            boolean running = job.getStatus() == ScheduledCampaign.Status.RUNNING;
+            job.setStatus(ScheduledCampaign.Status.CANCELLED);
+
+            TimerWheel.Timeout timeout = timeouts.remove(jobId);
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            Future<?> future = runningJobs.get(jobId);
+            if (future != null) {
+                future.cancel(true);
+            }
+            if (!running) {
+                job.setFinishedAt(LocalDateTime.now());
+                dataManager.deleteSpool(jobId);
+            }
+            persist();
+        }
+        notifyListeners(job);
+    }
+
+    /**
+     * All known jobs in scheduling order, including recently finished ones
+     */
+    public synchronized List<ScheduledCampaign> getScheduledCampaigns() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Notify about job status changes; called from scheduler threads
+     */
+    public void addListener(Consumer<ScheduledCampaign> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stop timers and interrupt running jobs. Each stops handing out recipients and writes a
+     * checkpoint once the send engine has settled its messages in flight, so shut the engine
+     * down next and then wait for the checkpoints with {@link #awaitTermination}.
+     */
+    public void shutdown() {
+        stopping = true;
+        timerWheel.stop();
+        worker.shutdownNow();
+    }
+
+    /**
+     * Wait for interrupted jobs to finish writing their checkpoint
+     *
+     * @return false if a job was still running when the timeout elapsed
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return worker.awaitTermination(timeout, unit);
+    }
+
+    private void arm(ScheduledCampaign job) {
+        long delay = job.getScheduledAt() != null
+            ? Duration.between(LocalDateTime.now(), job.getScheduledAt()).toMillis() : 0;
+        String jobId = job.getId();
+
+        // The wheel thread only hands the job to the worker
+        timeouts.put(jobId, timerWheel.schedule(() -> {
+            synchronized (CampaignScheduler.this) {
+                timeouts.remove(jobId);
+                if (!worker.isShutdown()) {
+                    runningJobs.put(jobId, worker.submit(() -> run(jobId)));
+                }
+            }
+        }, delay));
+    }
+
+    private void run(String jobId) {
+        ScheduledCampaign job;
+        synchronized (this) {
+            job = jobs.get(jobId);
+            if (job == null || job.getStatus() != ScheduledCampaign.Status.SCHEDULED) {
+                runningJobs.remove(jobId);
+                return;
+            }
+        }
+
+        List<Contact> recipients = dataManager.loadSpool(jobId);
+        if (recipients == null) {
+            finish(job, ScheduledCampaign.Status.FAILED, "Spooled recipients are missing");
+            return;
+        }
+
+        DeliveryLedger ledger = dataManager.loadSpoolLedger(jobId);
+        if (ledger == null || ledger.size() != recipients.size()) {
+            ledger = new DeliveryLedger(jobId, recipients.size());
+        }
+
+        synchronized (this) {
+            if (job.getStatus() != ScheduledCampaign.Status.SCHEDULED) {
+                runningJobs.remove(jobId);
+                return;
+            }
+            job.setStatus(ScheduledCampaign.Status.RUNNING);
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(LocalDateTime.now());
+            }
+            persist();
+        }
+        notifyListeners(job);
+
+        // The history entry shares the job id, so a resumed run updates the same entry
+        EmailHistory history = Campaign.create(job.getSubject(), job.getContent(), recipients, null).getHistory();
+        history.setId(jobId);
+        history.setSentAt(job.getStartedAt());
+        Campaign campaign = new Campaign(history, recipients, ledger);
+        campaign.setPriority(Campaign.Priority.BULK);
+
+        int pending = ledger.count(DeliveryLedger.RecipientStatus.PENDING);
+        campaign.setSendIntervalMillis(sendInterval(job, pending));
+        int alreadyDone = recipients.size() - pending;
+
+        DeliveryLedger checkpointLedger = ledger;
+        int[] processed = {0};
+        try {
+            sendEngine.send(campaign, (done, total, contact, success) -> {
+                processed[0]++;
+                job.setSentCount(alreadyDone + processed[0]);
+                if (processed[0] % CHECKPOINT_EVERY == 0) {
+                    checkpoint(job, checkpointLedger);
+                }
+            });
+            if (stopping && checkpointLedger.count(DeliveryLedger.RecipientStatus.PENDING) > 0) {
+                // The engine stopped the campaign before this thread saw the interrupt
+                throw new InterruptedException("Stopped by shutdown");
+            }
+            finish(job, ScheduledCampaign.Status.COMPLETED, null);
+        } catch (InterruptedException e) {
+            if (job.getStatus() == ScheduledCampaign.Status.CANCELLED) {
+                finish(job, ScheduledCampaign.Status.CANCELLED, null);
+            } else {
+                // Shutting down: keep the job RUNNING so the next start resumes it
+                checkpoint(job, checkpointLedger);
+                synchronized (this) {
+                    runningJobs.remove(jobId);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Scheduled campaign failed: " + e.getMessage());
+            finish(job, ScheduledCampaign.Status.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Pause between messages: the normal pace, or slower so the remaining recipients
+     * are spread evenly over what is left of the window
+     */
+    private static long sendInterval(ScheduledCampaign job, int pending) {
+        if (job.getSpreadMinutes() <= 0 || pending <= 1) {
+            return Campaign.DEFAULT_SEND_INTERVAL_MILLIS;
+        }
+        long remainingMillis = Duration.between(LocalDateTime.now(), job.getWindowEnd()).toMillis();
+        return Math.max(Campaign.DEFAULT_SEND_INTERVAL_MILLIS, remainingMillis / (pending - 1));
+    }
+
+    private void checkpoint(ScheduledCampaign job, DeliveryLedger ledger) {
+        try {
+            dataManager.saveSpoolLedger(job.getId(), ledger);
+        } catch (IOException e) {
+            System.err.println("Failed to checkpoint scheduled campaign: " + e.getMessage());
+        }
+        synchronized (this) {
+            persist();
+        }
+    }
+
+    private void finish(ScheduledCampaign job, ScheduledCampaign.Status status, String errorMessage) {
+        synchronized (this) {
+            job.setStatus(status);
+            job.setErrorMessage(errorMessage);
+            job.setFinishedAt(LocalDateTime.now());
+            runningJobs.remove(job.getId());
+            dataManager.deleteSpool(job.getId());
+            persist();
+        }
+        notifyListeners(job);
+    }
+
+    private void persist() {
+        dataManager.saveScheduledCampaigns(new ArrayList<>(jobs.values()));
+    }
+
+    private void notifyListeners(ScheduledCampaign job) {
+        for (Consumer<ScheduledCampaign> listener : listeners) {
+            listener.accept(job);
+        }
+    }
+
+    private static boolean isFinished(ScheduledCampaign job) {
+        return job.getStatus() == ScheduledCampaign.Status.COMPLETED
+            || job.getStatus() == ScheduledCampaign.Status.CANCELLED
+            || job.getStatus() == ScheduledCampaign.Status.FAILED;
+    }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import jakarta.mail.MessagingException;
+
+import java.io.IOException;
+
+/**
+ * Circuit breaker for one SMTP host.
+ *
+ * Closed while the host answers. After {@code failureThreshold} consecutive connection
+ * failures (timeouts, refused connections, 421 service unavailable) it opens: no messages
+ * go to the host, so a campaign waits instead of failing every remaining recipient one
+ * connect timeout at a time. Once the open period is over the breaker is half-open and
+ * waits for a probe - a plain reconnect made by the send engine, not a real message. A
+ * successful probe closes it, a failed one opens it again for twice as long.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final long MAX_OPEN_MILLIS = 5 * 60_000;
+
+    private final String host;
+    private final int failureThreshold;
+    private final long initialOpenMillis;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openMillis;
+    private long openUntil;
+
+    public CircuitBreaker(String host, int failureThreshold, long openMillis) {
+        this.host = host;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.initialOpenMillis = Math.max(1_000, openMillis);
+        this.openMillis = this.initialOpenMillis;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public synchronized State getState() {
+        refresh(System.currentTimeMillis());
+        return state;
+    }
+
+    /**
+     * Whether messages may go to the host right now
+     */
+    public synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * When messages may go to the host again: {@code now} while closed, the end of the open
+     * period while open, or Long.MAX_VALUE while waiting for a probe result
+     */
+    public synchronized long availableAt(long now) {
+        refresh(now);
+        switch (state) {
+            case CLOSED: return now;
+            case OPEN: return openUntil;
+            default: return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Whether the open period is over and the host should be probed
+     */
+    public synchronized boolean isProbeDue() {
+        refresh(System.currentTimeMillis());
+        return state == State.HALF_OPEN;
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            System.err.println("SMTP host " + host + " is reachable again");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openMillis = initialOpenMillis;
+    }
+
+    /**
+     * Record a connection failure
+     *
+     * @return true if this failure opened the breaker
+     */
+    public synchronized boolean recordFailure() {
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Outcome of a probe made while half-open
+     */
+    public synchronized void recordProbe(boolean healthy) {
+        if (healthy) {
+            recordSuccess();
+        } else if (state != State.CLOSED) {
+            openMillis = Math.min(MAX_OPEN_MILLIS, openMillis * 2);
+            open();
+        }
+    }
+
+    /**
+     * Whether a send failure says the host itself is unavailable, as opposed to rejecting
+     * one message or recipient: a 421 reply, or a connection that failed at the I/O level.
+     * Other failures without a reply, such as a domain without MX records, are about the
+     * recipient.
+     */
+    public static boolean isHostFailure(Throwable failure) {
+        int smtpCode = MailSender.getSmtpReturnCode(failure);
+        if (smtpCode != 0) {
+            return smtpCode == 421;
+        }
+        Throwable current = failure;
+        while (current != null) {
+            if (current instanceof IOException) {
+                return true;
+            }
+            Throwable next = current instanceof MessagingException 
+                ? ((MessagingException) current).getNextException() : null;
+            current = next != null ? next : current.getCause();
+        }
+        return false;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = System.currentTimeMillis() + openMillis;
+        System.err.println("SMTP host " + host + " is unavailable; pausing sends to it for " + openMillis / 1000 + " s");
+    }
+
+    private void refresh(long now) {
+        if (state == State.OPEN && now >= openUntil) {
+            state = State.HALF_OPEN;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.example;
+
+import org.example.models.ContactTable;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.regex.Pattern;
+
+/**
+ * Reads contacts from a CSV or Excel file and hands them over in chunks while reading.
+ *
+ * Each chunk is a new {@link ContactTable} of up to {@link #CHUNK_ROWS} valid, not yet seen
+ * contacts that the listener takes ownership of, together with running counts of rows
+ * read, valid, invalid and duplicate, so the first contacts can be shown and sent long
+ * before a large file is done. An interrupted import stops at the next row with a
+ * {@link CancellationException}.
+ */
+public class ContactImporter {
+
+    public static final int CHUNK_ROWS = 5000;
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+
+    /**
+     * Counts so far; rows read = valid + invalid + duplicates
+     */
+    public static final class Progress {
+        private final int rowsRead;
+        private final int valid;
+        private final int invalid;
+        private final int duplicates;
+
+        private Progress(int rowsRead, int valid, int invalid, int duplicates) {
+            this.rowsRead = rowsRead;
+            this.valid = valid;
+            this.invalid = invalid;
+            this.duplicates = duplicates;
+        }
+
+        public int getRowsRead() { return rowsRead; }
+        public int getValid() { return valid; }
+        public int getInvalid() { return invalid; }
+        public int getDuplicates() { return duplicates; }
+    }
+
+    public interface Listener {
+        /**
+         * Called on the reading thread for every chunk, the last one possibly empty
+         */
+        void onChunk(ContactTable chunk, Progress progress);
+    }
+
+    private final Listener listener;
+    private final Set<String> seenEmails = new HashSet<>();
+    private ContactTable chunk = new ContactTable(CHUNK_ROWS);
+    private int rowsRead;
+    private int valid;
+    private int invalid;
+    private int duplicates;
+
+    private ContactImporter(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Import a .csv or .xlsx file
+     *
+     * @return the final counts
+     */
+    public static Progress importFile(File file, Listener listener) throws Exception {
+        ContactImporter importer = new ContactImporter(listener);
+        String fileName = file.getName().toLowerCase();
+        if (fileName.endsWith(".xlsx")) {
+            ExcelReader.readExcel(file.getAbsolutePath(), importer::excelRow);
+        } else if (fileName.endsWith(".csv")) {
+            CsvReader.readCsv(file.getAbsolutePath(), importer::csvRow);
+        }
+        return importer.publish();
+    }
+
+    private void excelRow(Map<String, String> row) {
+        add(row.get("name"), row.get("email"), null);
+    }
+
+    private void csvRow(Map<String, String> row) {
+        // Try common column names for name and email
+        String name = row.get("name");
+        if (name == null) name = row.get("Name");
+        if (name == null) name = row.get("NAME");
+
+        String email = row.get("email");
+        if (email == null) email = row.get("Email");
+        if (email == null) email = row.get("EMAIL");
+        if (email == null) email = row.get("e-mail");
+        if (email == null) email = row.get("E-mail");
+
+        String company = row.get("company");
+        if (company == null) company = row.get("Company");
+
+        add(name, email, company);
+    }
+
+    private void add(String name, String email, String company) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Import stopped after " + rowsRead + " rows");
+        }
+        rowsRead++;
+        if (email == null || email.isEmpty() || !EMAIL_PATTERN.matcher(email).matches()) {
+            invalid++;
+            return;
+        }
+        if (!seenEmails.add(email)) {
+            duplicates++;
+            return;
+        }
+        valid++;
+        chunk.add(name != null && !name.isEmpty() ? name : email, email,
+            company != null && !company.isEmpty() ? company : null);
+        if (chunk.size() == CHUNK_ROWS) {
+            publish();
+        }
+    }
+
+    private Progress publish() {
+        Progress progress = new Progress(rowsRead, valid, invalid, duplicates);
+        ContactTable full = chunk;
+        chunk = new ContactTable(CHUNK_ROWS);
+        listener.onChunk(full, progress);
+        return progress;
+    }
+}
@@ -1,13 +1,27 @@
 package org.example;
 
+import org.example.utils.SendEvents;
+
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class CsvReader {
     public static List<Map<String, String>> readCsv(String filePath) throws IOException {
         List<Map<String, String>> data = new ArrayList<>();
+        readCsv(filePath, data::add);
+        return data;
+    }
+    
+    /**
+     * Hand each row to {@code rowHandler} as it is read, without keeping the rows
+     *
+     * @return the number of rows read
+     */
+    public static int readCsv(String filePath, Consumer<Map<String, String>> rowHandler) throws IOException {
+        int rows = 0;
         
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
             String headerLine = br.readLine();
@@ -16,19 +30,31 @@ public class CsvReader {
             }
             
             String[] headers = headerLine.split(",");
+            for (int i = 0; i < headers.length; i++) {
+                headers[i] = headers[i].trim();
+            }
             String line;
+            SendEvents.ImportChunk chunk = SendEvents.ImportChunk.start(filePath, 0);
             
             while ((line = br.readLine()) != null) {
                 String[] values = line.split(",");
-                Map<String, String> record = new HashMap<>();
+                int columns = Math.min(headers.length, values.length);
+                Map<String, String> record = new HashMap<>(Math.max(4, columns * 2));
                 
-                for (int i = 0; i < Math.min(headers.length, values.length); i++) {
-                    record.put(headers[i].trim(), values[i].trim());
+                for (int i = 0; i < columns; i++) {
+                    record.put(headers[i], values[i].trim());
+                }
+                rowHandler.accept(record);
+                rows++;
+                
+                if (rows % SendEvents.ImportChunk.ROWS == 0) {
+                    chunk.finish(SendEvents.ImportChunk.ROWS);
+                    chunk = SendEvents.ImportChunk.start(filePath, rows);
                 }
-                data.add(record);
             }
+            chunk.finish(rows - chunk.firstRow);
         }
         
-        return data;
+        return rows;
     }
 }
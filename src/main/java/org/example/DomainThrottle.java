@@ -0,0 +1,158 @@
+package org.example;
+
+import org.example.utils.RateLimiter;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-recipient-domain concurrency caps and rate limits.
+ *
+ * Large mailbox providers throttle or greylist senders that open many parallel sessions
+ * or push too many messages per minute, so each provider gets its own budget: at most
+ * {@code maxConcurrent} messages in flight and {@code perMinute} messages per minute.
+ * Domains that belong to the same provider (gmail.com and googlemail.com, ...) share one
+ * budget. Limits come from built-in defaults, overridden by the "domainLimits" setting:
+ * <pre>
+ * "domainLimits": { "gmail.com": { "maxConcurrent": 2, "perMinute": 120 }, "*": { "maxConcurrent": 4 } }
+ * </pre>
+ * where "*" applies to every domain without its own entry and a perMinute of 0 means unlimited.
+ * All methods are non-blocking; callers poll {@link #availableAt} and claim with {@link #tryAcquire}.
+ */
+public class DomainThrottle {
+
+    /**
+     * Budget for one provider
+     */
+    public static final class DomainLimit {
+        private final int maxConcurrent;
+        private final int perMinute;
+
+        public DomainLimit(int maxConcurrent, int perMinute) {
+            this.maxConcurrent = Math.max(1, maxConcurrent);
+            this.perMinute = Math.max(0, perMinute);
+        }
+
+        public int getMaxConcurrent() { return maxConcurrent; }
+        public int getPerMinute() { return perMinute; }
+    }
+
+    private static final String DEFAULT_KEY = "*";
+
+    // Domains served by the same provider share a budget
+    private static final Map<String, String> ALIASES = Map.of(
+        "googlemail.com", "gmail.com",
+        "hotmail.com", "outlook.com",
+        "live.com", "outlook.com",
+        "msn.com", "outlook.com",
+        "ymail.com", "yahoo.com",
+        "rocketmail.com", "yahoo.com",
+        "aim.com", "aol.com");
+
+    private static final Map<String, DomainLimit> DEFAULT_LIMITS = Map.of(
+        "gmail.com", new DomainLimit(2, 120),
+        "outlook.com", new DomainLimit(2, 60),
+        "yahoo.com", new DomainLimit(1, 30),
+        "aol.com", new DomainLimit(1, 30),
+        "icloud.com", new DomainLimit(2, 60),
+        DEFAULT_KEY, new DomainLimit(2, 0));
+
+    private static final class State {
+        private final DomainLimit limit;
+        private final RateLimiter bucket;
+        private int inFlight;
+
+        private State(DomainLimit limit) {
+            this.limit = limit;
+            this.bucket = limit.perMinute > 0 ? new RateLimiter(limit.perMinute / 60.0, 1) : null;
+        }
+    }
+
+    private Map<String, DomainLimit> limits = new HashMap<>(DEFAULT_LIMITS);
+    private final Map<String, State> states = new HashMap<>();
+
+    public DomainThrottle(Map<String, Object> settings) {
+        configure(settings);
+    }
+
+    /**
+     * Reload limits from settings. Budgets already in use keep their limits until idle.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void configure(Map<String, Object> settings) {
+        Map<String, DomainLimit> configured = new HashMap<>(DEFAULT_LIMITS);
+        Object value = settings.get("domainLimits");
+        if (value instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                if (!(entry.getValue() instanceof Map)) continue;
+                Map<String, Object> limit = (Map<String, Object>) entry.getValue();
+                String key = entry.getKey().trim().toLowerCase(Locale.ROOT);
+                DomainLimit fallback = configured.getOrDefault(key, DEFAULT_LIMITS.get(DEFAULT_KEY));
+                configured.put(key, new DomainLimit(
+                    intValue(limit.get("maxConcurrent"), fallback.maxConcurrent),
+                    intValue(limit.get("perMinute"), fallback.perMinute)));
+            }
+        }
+        this.limits = configured;
+        states.values().removeIf(state -> state.inFlight == 0);
+    }
+
+    /**
+     * Budget key for a recipient: the provider's main domain
+     */
+    public static String keyFor(String email) {
+        int at = email != null ? email.lastIndexOf('@') : -1;
+        String domain = at >= 0 ? email.substring(at + 1).trim().toLowerCase(Locale.ROOT) : "";
+        return ALIASES.getOrDefault(domain, domain);
+    }
+
+    /**
+     * Earliest time a message to this budget could start: {@code now} if one can start right
+     * away, or Long.MAX_VALUE while the concurrency cap is reached (a release frees it)
+     */
+    public synchronized long availableAt(String key, long now) {
+        State state = states.get(key);
+        if (state == null) {
+            return now;
+        }
+        if (state.inFlight >= state.limit.maxConcurrent) {
+            return Long.MAX_VALUE;
+        }
+        return state.bucket != null ? now + state.bucket.millisUntilAvailable() : now;
+    }
+
+    /**
+     * Claim a slot and a rate token for one message, if both are available
+     */
+    public synchronized boolean tryAcquire(String key) {
+        State state = states.computeIfAbsent(key, k -> new State(limits.getOrDefault(k, limits.get(DEFAULT_KEY))));
+        if (state.inFlight >= state.limit.maxConcurrent) {
+            return false;
+        }
+        if (state.bucket != null && !state.bucket.tryAcquire()) {
+            return false;
+        }
+        state.inFlight++;
+        return true;
+    }
+
+    /**
+     * Give back the slot taken by {@link #tryAcquire}
+     */
+    public synchronized void release(String key) {
+        State state = states.get(key);
+        if (state == null) {
+            return;
+        }
+        state.inFlight--;
+        // Unthrottled domains carry no state worth keeping; don't let the long tail accumulate
+        if (state.inFlight <= 0 && state.bucket == null) {
+            states.remove(key);
+        }
+    }
+
+    private static int intValue(Object value, int defaultValue) {
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+}
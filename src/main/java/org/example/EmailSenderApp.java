@@ -5,16 +5,31 @@ import javafx.application.Platform;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import org.example.controllers.MainController;
+import org.example.models.BackupSnapshot;
+import org.example.models.Campaign;
+import org.example.models.ContactTable;
+import org.example.models.DeliveryLedger;
+import org.example.models.MappedContactTable;
+import org.example.models.RecipientSource;
+import org.example.utils.DataManager;
+import org.example.utils.PerformanceManager;
 import org.example.utils.ThemeManager;
 import org.example.views.MainView;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * EmailSender Application - Single Entry Point
@@ -25,7 +40,10 @@ import java.util.Map;
  * 
  * Usage:
  * - GUI Mode: java EmailSenderApp
- * - Console Mode: java EmailSenderApp --console
+ * - Console Mode: java EmailSenderApp --console [--metrics-port &lt;port&gt;] [--off-heap]
+ * - Backup: java EmailSenderApp --backup &lt;backupDir&gt;
+ * - Restore: java EmailSenderApp --restore &lt;backupDir&gt; [snapshotId]
+ * - List backups: java EmailSenderApp --list-backups &lt;backupDir&gt;
  */
 public class EmailSenderApp extends Application {
     
@@ -56,11 +74,15 @@ public class EmailSenderApp extends Application {
         Scene scene = new Scene(mainView.getRoot(), MIN_WIDTH, MIN_HEIGHT);
         themeManager.applyTheme(scene, ThemeManager.Theme.LIGHT);
         
+        // F12 toggles the frame timing overlay
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.F12), mainController::togglePerformanceOverlay);
+        
         primaryStage.setScene(scene);
         showApplication();
         
         // Handle close request gracefully
         primaryStage.setOnCloseRequest(event -> {
+            mainController.shutdown();
             Platform.exit();
             System.exit(0);
         });
@@ -100,23 +122,24 @@ public class EmailSenderApp extends Application {
     }
     
     /**
-     * Console mode for bulk email sending from files
+     * Console mode for bulk email sending from files, through the send engine with the
+     * SMTP settings saved by the GUI. With --metrics-port the run can be scraped at
+     * http://localhost:&lt;port&gt;/metrics and followed at /status. With --off-heap the
+     * recipients are kept in memory-mapped temporary files instead of on the heap, for
+     * lists of tens of millions.
      */
     private static void runConsoleMode(String[] args) {
         System.out.println("🚀 EmailSender Console Mode");
         System.out.println("==========================");
         
+        SendEngine sendEngine = null;
+        MetricsServer metricsServer = null;
+        MappedContactTable.Writer offHeapWriter = null;
         try {
-            List<Map<String, String>> people = null;
-            
             // Try to read from Excel file first, then CSV
-            if (new File("emails.xlsx").exists()) {
-                System.out.println("📖 Reading from emails.xlsx...");
-                people = ExcelReader.readExcel("emails.xlsx");
-            } else if (new File("emails.csv").exists()) {
-                System.out.println("📖 Reading from emails.csv...");
-                people = CsvReader.readCsv("emails.csv");
-            } else {
+            String dataFile = new File("emails.xlsx").exists() ? "emails.xlsx" 
+                : new File("emails.csv").exists() ? "emails.csv" : null;
+            if (dataFile == null) {
                 System.err.println("❌ Error: No email data file found!");
                 System.err.println("📋 Please create either 'emails.xlsx' or 'emails.csv' with columns 'name' and 'email'");
                 System.err.println("📝 Example CSV content:");
@@ -125,54 +148,154 @@ public class EmailSenderApp extends Application {
                 System.exit(1);
             }
             
-            if (people == null || people.isEmpty()) {
-                System.err.println("❌ No valid email records found in the file!");
-                System.exit(1);
-            }
-            
-            // Email configuration
-            String subject = "Welcome to Our Service!";
-            String bodyTemplate = "<h2>Hello %s,</h2><p>This is a test email from our Java app.</p>";
-            
-            System.out.println("📊 Found " + people.size() + " recipients");
-            System.out.println("📧 Starting email sending process...");
-            
-            int successCount = 0;
-            int failureCount = 0;
+            ContactTable table = new ContactTable();
+            offHeapWriter = hasArgument(args, "--off-heap") ? MappedContactTable.writer() : null;
+            MappedContactTable.Writer writer = offHeapWriter;
+            int[] skipped = new int[1];
             
-            for (Map<String, String> person : people) {
+            // Rows go straight into the recipient store as they are read
+            Consumer<Map<String, String>> addPerson = person -> {
                 String name = person.get("name");
                 String email = person.get("email");
                 
                 if (name == null || email == null) {
                     System.err.println("⚠️  Warning: Skipping record with missing name or email");
-                    failureCount++;
-                    continue;
+                    skipped[0]++;
+                    return;
+                }
+                if (writer == null) {
+                    table.add(name, email, null);
+                    return;
                 }
-                
-                String body = String.format(bodyTemplate, name);
-                
                 try {
-                    MailSender.sendMail(email, subject, body);
-                    System.out.println("✅ Mail sent to " + email);
-                    successCount++;
-                    Thread.sleep(2000); // Delay to avoid spam detection
-                } catch (Exception e) {
-                    System.err.println("❌ Failed to send email to " + email + ": " + e.getMessage());
-                    failureCount++;
+                    writer.add(name, email, null);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
+            };
+            
+            System.out.println("📖 Reading from " + dataFile + (writer != null ? " into off-heap storage..." : "..."));
+            int rows = dataFile.endsWith(".xlsx") 
+                ? ExcelReader.readExcel(dataFile, addPerson) : CsvReader.readCsv(dataFile, addPerson);
+            
+            RecipientSource recipients = writer != null ? writer.finish() : table;
+            if (recipients.size() == 0) {
+                System.err.println("❌ No valid email records found in the file!");
+                System.exit(1);
+            }
+            
+            // Email configuration
+            String subject = "Welcome to Our Service!";
+            String bodyTemplate = "<h2>Hello {name},</h2><p>This is a test email from our Java app.</p>";
+            
+            System.out.println("📊 Found " + recipients.size() + " recipients");
+            
+            sendEngine = new SendEngine(new DataManager());
+            int metricsPort = metricsPortArgument(args);
+            if (metricsPort > 0) {
+                metricsServer = MetricsServer.start(metricsPort, sendEngine);
+                PerformanceManager.timeSeries();
+                System.out.println("📡 Metrics at http://localhost:" + metricsServer.getPort() + "/metrics, status at /status");
             }
             
+            System.out.println("📧 Starting email sending process...");
+            Campaign campaign = Campaign.create(subject, bodyTemplate, recipients, null);
+            sendEngine.send(campaign, (done, total, contact, success) -> {
+                if (success) {
+                    System.out.println("✅ [" + done + "/" + total + "] Mail sent to " + contact.getEmail());
+                } else {
+                    System.err.println("❌ [" + done + "/" + total + "] Failed to send email to " + contact.getEmail());
+                }
+            });
+            
+            DeliveryLedger ledger = campaign.getLedger();
             System.out.println("\n📈 Email Sending Summary:");
-            System.out.println("✅ Successful: " + successCount);
-            System.out.println("❌ Failed: " + failureCount);
-            System.out.println("📧 Total processed: " + people.size());
+            System.out.println("✅ Successful: " + ledger.count(DeliveryLedger.RecipientStatus.SENT));
+            System.out.println("❌ Failed: " + (ledger.count(DeliveryLedger.RecipientStatus.FAILED) + skipped[0]));
+            System.out.println("⏳ Deferred: " + ledger.count(DeliveryLedger.RecipientStatus.DEFERRED));
+            System.out.println("📧 Total processed: " + rows);
             System.out.println("🎉 Email sending process completed!");
             
         } catch (Exception e) {
             System.err.println("❌ Fatal error: " + e.getMessage());
             e.printStackTrace();
             System.exit(1);
+        } finally {
+            if (offHeapWriter != null) {
+                try {
+                    offHeapWriter.close();
+                } catch (IOException e) {
+                    System.err.println("⚠️  Warning: Failed to remove recipient files: " + e.getMessage());
+                }
+            }
+            if (metricsServer != null) {
+                metricsServer.stop();
+            }
+            if (sendEngine != null) {
+                sendEngine.shutdown();
+            }
+        }
+    }
+    
+    private static boolean hasArgument(String[] args, String name) {
+        for (int i = 1; i < args.length; i++) {
+            if (name.equals(args[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static int metricsPortArgument(String[] args) {
+        for (int i = 1; i < args.length - 1; i++) {
+            if ("--metrics-port".equals(args[i])) {
+                try {
+                    return Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    System.err.println("⚠️  Warning: Ignoring invalid metrics port " + args[i + 1]);
+                }
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Backup, restore and list-backups commands
+     */
+    private static void runBackupCommand(String[] args) {
+        if (args.length < 2) {
+            System.err.println("❌ Usage: " + args[0] + " <backupDir>" + ("--restore".equals(args[0]) ? " [snapshotId]" : ""));
+            System.exit(1);
+        }
+        
+        DataManager dataManager = new DataManager();
+        Path backupDirectory = Paths.get(args[1]);
+        
+        try {
+            switch (args[0]) {
+                case "--backup" -> {
+                    BackupSnapshot snapshot = dataManager.backupData(backupDirectory);
+                    System.out.printf("✅ Backup %s created: %d files, %,d bytes (%,d bytes new)%n",
+                        snapshot.getId(), snapshot.getFiles().size(), snapshot.getTotalBytes(), snapshot.getNewBytes());
+                }
+                case "--restore" -> {
+                    BackupSnapshot snapshot = dataManager.restoreBackup(backupDirectory, args.length > 2 ? args[2] : null);
+                    System.out.println("✅ Restored backup " + snapshot.getId() + " (" + snapshot.getFiles().size() + " files)");
+                }
+                default -> {
+                    List<BackupSnapshot> snapshots = dataManager.listBackups(backupDirectory);
+                    if (snapshots.isEmpty()) {
+                        System.out.println("📭 No backups found in " + backupDirectory);
+                    }
+                    for (BackupSnapshot snapshot : snapshots) {
+                        System.out.printf("📦 %s  %d files  %,d bytes  (%,d bytes new)%n",
+                            snapshot.getId(), snapshot.getFiles().size(), snapshot.getTotalBytes(), snapshot.getNewBytes());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("❌ " + e.getMessage());
+            System.exit(1);
         }
     }
     
@@ -186,6 +309,12 @@ public class EmailSenderApp extends Application {
             return;
         }
         
+        // Backup management commands
+        if (args.length > 0 && ("--backup".equals(args[0]) || "--restore".equals(args[0]) || "--list-backups".equals(args[0]))) {
+            runBackupCommand(args);
+            return;
+        }
+        
         // GUI Mode (default)
         System.out.println("🚀 Starting EmailSender Pro (GUI Mode)");
         System.out.println("💡 For console mode, use: java EmailSenderApp --console");
@@ -1,30 +1,111 @@
 package org.example;
 
-import org.apache.poi.ss.usermodel.*;
-import java.io.File;
-import java.io.FileInputStream;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.example.utils.SendEvents;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
 import java.util.*;
+import java.util.function.Consumer;
 
+/**
+ * Reads contacts (name in column A, email in column B, header in row 1) from the first
+ * sheet of an .xlsx file. The sheet is parsed as a SAX stream, so rows reach the handler
+ * while the file is still being read and the workbook is never held in memory; only the
+ * shared strings table is.
+ */
 public class ExcelReader {
     public static List<Map<String, String>> readExcel(String filePath) throws Exception {
         List<Map<String, String>> data = new ArrayList<>();
+        readExcel(filePath, data::add);
+        return data;
+    }
+
+    /**
+     * Hand each row to {@code rowHandler} as it is read, without keeping the rows
+     *
+     * @return the number of rows read
+     */
+    public static int readExcel(String filePath, Consumer<Map<String, String>> rowHandler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(filePath, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            RowHandler handler = new RowHandler(filePath, rowHandler);
+
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(),
+                new ReadOnlySharedStringsTable(pkg), handler, new DataFormatter(), false));
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+
+            handler.chunk.finish(handler.rows - handler.chunk.firstRow);
+            return handler.rows;
+        }
+    }
 
-        FileInputStream fis = new FileInputStream(new File(filePath));
-        Workbook workbook = WorkbookFactory.create(fis);
-        Sheet sheet = workbook.getSheetAt(0);
+    /**
+     * Collects the first two cells of each row after the header
+     */
+    private static final class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final String filePath;
+        private final Consumer<Map<String, String>> rowHandler;
+        private SendEvents.ImportChunk chunk;
+        private int rows;
+        private String name;
+        private String email;
 
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            Row row = sheet.getRow(i);
-            String name = row.getCell(0).getStringCellValue();
-            String email = row.getCell(1).getStringCellValue();
+        private RowHandler(String filePath, Consumer<Map<String, String>> rowHandler) {
+            this.filePath = filePath;
+            this.rowHandler = rowHandler;
+            this.chunk = SendEvents.ImportChunk.start(filePath, 0);
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            name = "";
+            email = "";
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null || formattedValue == null) {
+                return;
+            }
+            int column = new CellReference(cellReference).getCol();
+            if (column == 0) {
+                name = formattedValue;
+            } else if (column == 1) {
+                email = formattedValue;
+            }
+        }
 
-            Map<String, String> person = new HashMap<>();
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) {
+                return;
+            }
+            Map<String, String> person = new HashMap<>(4);
             person.put("name", name);
             person.put("email", email);
-            data.add(person);
-        }
+            rowHandler.accept(person);
+            rows++;
 
-        workbook.close();
-        return data;
+            if (rows % SendEvents.ImportChunk.ROWS == 0) {
+                chunk.finish(SendEvents.ImportChunk.ROWS);
+                chunk = SendEvents.ImportChunk.start(filePath, rows);
+            }
+        }
     }
 }
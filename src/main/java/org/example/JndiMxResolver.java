@@ -0,0 +1,80 @@
+package org.example;
+
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * MX lookups through the JDK's JNDI DNS provider, using the system's resolvers.
+ * JNDI does not expose record TTLs, so results carry a fixed cache lifetime.
+ */
+public class JndiMxResolver implements MxResolver {
+
+    private static final long DEFAULT_TTL_SECONDS = 3600;
+
+    private final Hashtable<String, String> environment = new Hashtable<>();
+
+    public JndiMxResolver() {
+        environment.put("java.naming.factory.initial", "com.sun.jndi.dns.DnsContextFactory");
+        environment.put("com.sun.jndi.dns.timeout.initial", "2000");
+        environment.put("com.sun.jndi.dns.timeout.retries", "2");
+    }
+
+    @Override
+    public MxRecords resolve(String domain) throws IOException {
+        DirContext context = null;
+        try {
+            context = new InitialDirContext(environment);
+            Attributes attributes = context.getAttributes(domain, new String[] {"MX", "A", "AAAA"});
+
+            Attribute mx = attributes.get("MX");
+            if (mx == null || mx.size() == 0) {
+                // No MX: the domain's own address is the implicit mail exchanger
+                boolean hasAddress = attributes.get("A") != null || attributes.get("AAAA") != null;
+                return new MxRecords(hasAddress ? List.of(domain) : List.of(), DEFAULT_TTL_SECONDS);
+            }
+
+            List<String[]> records = new ArrayList<>();
+            NamingEnumeration<?> values = mx.getAll();
+            while (values.hasMore()) {
+                // "<preference> <host>."
+                String[] parts = values.next().toString().trim().split("\\s+");
+                if (parts.length == 2) {
+                    records.add(parts);
+                }
+            }
+            records.sort(Comparator.comparingInt(parts -> Integer.parseInt(parts[0])));
+
+            List<String> hosts = new ArrayList<>(records.size());
+            for (String[] parts : records) {
+                String host = parts[1].endsWith(".") ? parts[1].substring(0, parts[1].length() - 1) : parts[1];
+                // A null MX (RFC 7505) means the domain accepts no mail
+                if (!host.isEmpty()) {
+                    hosts.add(host);
+                }
+            }
+            return new MxRecords(hosts, DEFAULT_TTL_SECONDS);
+        } catch (NameNotFoundException e) {
+            return new MxRecords(List.of(), DEFAULT_TTL_SECONDS);
+        } catch (NamingException | NumberFormatException e) {
+            throw new IOException("MX lookup failed for " + domain + ": " + e.getMessage(), e);
+        } finally {
+            if (context != null) {
+                try {
+                    context.close();
+                } catch (NamingException e) {
+                    // Nothing to release
+                }
+            }
+        }
+    }
+}
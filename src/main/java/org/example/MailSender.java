@@ -2,9 +2,21 @@ package org.example;
 
 import jakarta.mail.*;
 import jakarta.mail.internet.*;
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import com.sun.mail.smtp.SMTPSenderFailedException;
+import org.example.models.SmtpAccount;
+
 import java.util.Properties;
 
 public class MailSender {
+    
+    // Socket timeouts for every new SMTP connection, in milliseconds
+    private static volatile int connectTimeoutMillis = 15_000;
+    private static volatile int readTimeoutMillis = 60_000;
+    private static volatile int writeTimeoutMillis = 60_000;
+    
+
     public static void sendMail(String toEmail, String subject, String body, 
                                String fromEmail, String password, 
                                String smtpHost, String smtpPort, 
@@ -14,15 +26,28 @@ public class MailSender {
             throw new Exception("Email credentials not configured! Please configure email settings in the Settings tab.");
         }
 
+        SmtpAccount account = new SmtpAccount(smtpHost, smtpPort, fromEmail, password, enableSSL, enableSTARTTLS);
+        Message message = createMessage(createSession(account), fromEmail, toEmail, subject, body);
+
+        Transport.send(message);
+        System.out.println("✅ Mail sent to " + toEmail);
+    }
+    
+    /**
+     * Create a mail session for an SMTP account. Sessions are thread-safe and can be shared
+     * by every connection to the same account.
+     */
+    public static Session createSession(SmtpAccount account) {
+        String smtpHost = account.getHost() != null ? account.getHost() : "smtp.gmail.com";
         Properties props = new Properties();
         props.put("mail.smtp.auth", "true");
         
         // Configure SSL/TLS settings
-        if (enableSTARTTLS) {
+        if (account.isEnableSTARTTLS()) {
             props.put("mail.smtp.starttls.enable", "true");
             props.put("mail.smtp.starttls.required", "true");
         }
-        if (enableSSL && !enableSTARTTLS) {
+        if (account.isEnableSSL() && !account.isEnableSTARTTLS()) {
             // Only use SSL if STARTTLS is not enabled (they conflict)
             props.put("mail.smtp.ssl.enable", "true");
             props.put("mail.smtp.socketFactory.class", "javax.net.ssl.SSLSocketFactory");
@@ -30,25 +55,125 @@ public class MailSender {
         
         // Additional Gmail-specific settings
         props.put("mail.smtp.ssl.protocols", "TLSv1.2");
-        props.put("mail.smtp.ssl.trust", smtpHost != null ? smtpHost : "smtp.gmail.com");
+        props.put("mail.smtp.ssl.trust", smtpHost);
         
-        props.put("mail.smtp.host", smtpHost != null ? smtpHost : "smtp.gmail.com");
-        props.put("mail.smtp.port", smtpPort != null ? smtpPort : "587");
-
-        Session session = Session.getInstance(props, new Authenticator() {
+        props.put("mail.smtp.host", smtpHost);
+        props.put("mail.smtp.port", account.getPort() != null ? account.getPort() : "587");
+        applyTimeouts(props);
+        
+        String username = account.getUsername();
+        String password = account.getPassword();
+        return timed(Session.getInstance(props, new Authenticator() {
             protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(fromEmail, password);
+                return new PasswordAuthentication(username, password);
             }
-        });
-
+        }));
+    }
+    
+    /**
+     * Create a session for direct delivery to a recipient domain's mail exchanger (port 25
+     * unless testing against a local server): no authentication, STARTTLS when the server
+     * offers it. MX certificates rarely match the host name, so TLS here is opportunistic
+     * and certificates are not verified.
+     */
+    public static Session createDirectSession(String mxHost, int port) {
+        Properties props = new Properties();
+        props.put("mail.smtp.host", mxHost);
+        props.put("mail.smtp.port", String.valueOf(port));
+        props.put("mail.smtp.auth", "false");
+        props.put("mail.smtp.starttls.enable", "true");
+        props.put("mail.smtp.ssl.trust", "*");
+        applyTimeouts(props);
+        return timed(Session.getInstance(props));
+    }
+    
+    /**
+     * Make the session's SMTP transports record connect and auth times
+     */
+    private static Session timed(Session session) {
+        try {
+            session.setProvider(TimedSmtpTransport.PROVIDER);
+        } catch (NoSuchProviderException e) {
+            System.err.println("Failed to install timed SMTP transport: " + e.getMessage());
+        }
+        return session;
+    }
+    
+    /**
+     * Set the connect, read and write timeouts used from now on. Without them a relay that
+     * stops answering blocks a send for as long as the operating system keeps the socket open.
+     */
+    public static void setTimeouts(int connectMillis, int readMillis, int writeMillis) {
+        connectTimeoutMillis = Math.max(1_000, connectMillis);
+        readTimeoutMillis = Math.max(1_000, readMillis);
+        writeTimeoutMillis = Math.max(1_000, writeMillis);
+    }
+    
+    /**
+     * Put the configured timeouts into session properties. Sessions read them on every
+     * connect, so this also updates sessions that already exist.
+     */
+    public static void applyTimeouts(Properties props) {
+        props.put("mail.smtp.connectiontimeout", String.valueOf(connectTimeoutMillis));
+        props.put("mail.smtp.timeout", String.valueOf(readTimeoutMillis));
+        props.put("mail.smtp.writetimeout", String.valueOf(writeTimeoutMillis));
+    }
+    
+    /**
+     * Build an HTML message ready to be sent over a transport of the same session
+     */
+    public static Message createMessage(Session session, String fromEmail, String toEmail, 
+                                        String subject, String body) throws MessagingException {
         Message message = new MimeMessage(session);
         message.setFrom(new InternetAddress(fromEmail));
         message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail));
         message.setSubject(subject);
         message.setContent(body, "text/html; charset=utf-8");
-
-        Transport.send(message);
-        System.out.println("✅ Mail sent to " + toEmail);
+        message.saveChanges();
+        return message;
+    }
+    
+    /**
+     * Whether a send failure concerns only the recipient address (malformed, or rejected at
+     * RCPT TO), as opposed to the connection, the account or the message
+     */
+    public static boolean isRecipientFailure(Throwable error) {
+        Throwable current = error;
+        while (current != null) {
+            if (current instanceof SMTPAddressFailedException || current instanceof AddressException) {
+                return true;
+            }
+            Throwable next = current instanceof MessagingException 
+                ? ((MessagingException) current).getNextException() : null;
+            current = next != null ? next : current.getCause();
+        }
+        return false;
+    }
+    
+    /**
+     * Extract the SMTP reply code from a send failure, or 0 if the server never replied
+     */
+    public static int getSmtpReturnCode(Throwable error) {
+        Throwable current = error;
+        while (current != null) {
+            if (current instanceof SMTPSendFailedException) {
+                return ((SMTPSendFailedException) current).getReturnCode();
+            }
+            if (current instanceof SMTPAddressFailedException) {
+                return ((SMTPAddressFailedException) current).getReturnCode();
+            }
+            if (current instanceof SMTPSenderFailedException) {
+                return ((SMTPSenderFailedException) current).getReturnCode();
+            }
+            if (current instanceof AuthenticationFailedException) {
+                return 535;
+            }
+            
+            Throwable next = current instanceof MessagingException 
+                ? ((MessagingException) current).getNextException() : null;
+            current = next != null ? next : current.getCause();
+        }
+        return 0;
     }
     
     // Backward compatibility method - deprecated
@@ -0,0 +1,181 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.models.SmtpAccount;
+import org.example.utils.LatencyHistogram;
+import org.example.utils.MetricsSnapshot;
+import org.example.utils.MetricsTimeSeries;
+import org.example.utils.PerformanceManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Small HTTP endpoint for watching sends without the GUI, bound to localhost only.
+ *
+ * GET /metrics returns the {@link PerformanceManager#metrics()} registry in the Prometheus
+ * text format: counters as "emailsender_..._total", gauges as is, and latency histograms as
+ * summaries in seconds with p50, p90 and p99 quantiles. GET /status returns JSON with the
+ * send engine's throughput, concurrency, account health and the progress of every queued
+ * campaign.
+ */
+public class MetricsServer {
+
+    private static final String PREFIX = "emailsender_";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SendEngine sendEngine;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MetricsServer(HttpServer server, SendEngine sendEngine) {
+        this.server = server;
+        this.sendEngine = sendEngine;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MetricsServer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", exchange -> handle(exchange, "text/plain; version=0.0.4", this::prometheus));
+        server.createContext("/status", exchange -> handle(exchange, "application/json", this::status));
+    }
+
+    /**
+     * Start serving on the loopback interface
+     */
+    public static MetricsServer start(int port, SendEngine sendEngine) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        MetricsServer metricsServer = new MetricsServer(server, sendEngine);
+        server.start();
+        return metricsServer;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private interface Body {
+        String render() throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, String contentType, Body body) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] content;
+            try {
+                content = body.render().getBytes(StandardCharsets.UTF_8);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Failed to render " + exchange.getRequestURI() + ": " + e.getMessage());
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(content);
+            }
+        }
+    }
+
+    private String prometheus() {
+        MetricsSnapshot snapshot = PerformanceManager.metrics().snapshot();
+        StringBuilder out = new StringBuilder(4096);
+
+        snapshot.getCounters().forEach((name, value) -> {
+            String metric = metricName(name) + "_total";
+            out.append("# TYPE ").append(metric).append(" counter\n");
+            out.append(metric).append(' ').append(value).append('\n');
+        });
+
+        snapshot.getGauges().forEach((name, value) -> {
+            String metric = metricName(name);
+            out.append("# TYPE ").append(metric).append(" gauge\n");
+            out.append(metric).append(' ').append(format(value)).append('\n');
+        });
+
+        snapshot.getHistograms().forEach((name, histogram) -> {
+            String metric = metricName(name) + "_seconds";
+            out.append("# TYPE ").append(metric).append(" summary\n");
+            for (double quantile : QUANTILES) {
+                out.append(metric).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(format(histogram.getPercentileMicros(quantile * 100) / 1e6)).append('\n');
+            }
+            out.append(metric).append("_sum ").append(format(histogram.getTotalMicros() / 1e6)).append('\n');
+            out.append(metric).append("_count ").append(histogram.getCount()).append('\n');
+        });
+
+        return out.toString();
+    }
+
+    private String status() throws IOException {
+        MetricsTimeSeries timeSeries = PerformanceManager.timeSeries();
+        AdaptiveLimiter limiter = sendEngine.getConcurrencyLimiter();
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("timestamp", System.currentTimeMillis());
+        status.put("sentPerSecond", timeSeries.latest(MetricsTimeSeries.Series.SENT_PER_SECOND));
+        status.put("errorRate", timeSeries.latest(MetricsTimeSeries.Series.ERROR_RATE));
+        status.put("queuedCampaigns", sendEngine.getQueuedCampaigns());
+        status.put("pendingRecipients", PerformanceManager.metrics().gaugeValue("send.pending"));
+        status.put("concurrencyLimit", limiter.getLimit());
+        status.put("inFlight", limiter.getInFlight());
+        status.put("latencyMillis", limiter.getLatencyMillis());
+
+        Map<String, String> accounts = new LinkedHashMap<>();
+        for (Map.Entry<SmtpAccount, String> account : sendEngine.getAccountStatus().entrySet()) {
+            accounts.put(account.getKey().toString(), account.getValue());
+        }
+        status.put("accounts", accounts);
+        status.put("campaigns", sendEngine.getCampaignStatus());
+
+        return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(status);
+    }
+
+    /**
+     * "import.rowsPerSecond" becomes "emailsender_import_rows_per_second"
+     */
+    static String metricName(String name) {
+        StringBuilder result = new StringBuilder(PREFIX);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                result.append('_').append(Character.toLowerCase(c));
+            } else if (Character.isLetterOrDigit(c)) {
+                result.append(c);
+            } else {
+                result.append('_');
+            }
+        }
+        return result.toString();
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+            ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,73 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TTL cache in front of an {@link MxResolver}. Successful lookups are kept for their TTL,
+ * failed lookups briefly, so a campaign with thousands of recipients at one domain
+ * resolves it once and an unreachable DNS server is not hammered.
+ */
+public class MxCache {
+
+    private static final long FAILURE_TTL_MILLIS = 60_000;
+    private static final long MAX_TTL_MILLIS = 24 * 3600_000L;
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private static final class Entry {
+        private final List<String> hosts;
+        private final IOException failure;
+        private final long expiresAt;
+
+        private Entry(List<String> hosts, IOException failure, long expiresAt) {
+            this.hosts = hosts;
+            this.failure = failure;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final MxResolver resolver;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public MxCache(MxResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * MX hosts for a domain in preference order, from cache when fresh
+     */
+    public List<String> lookup(String domain) throws IOException {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(domain);
+        if (entry == null || entry.expiresAt <= now) {
+            entry = refresh(domain, now);
+        }
+        if (entry.failure != null) {
+            throw entry.failure;
+        }
+        return entry.hosts;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private Entry refresh(String domain, long now) {
+        Entry entry;
+        try {
+            MxResolver.MxRecords records = resolver.resolve(domain);
+            long ttlMillis = Math.min(MAX_TTL_MILLIS, Math.max(0, records.getTtlSeconds()) * 1000);
+            entry = new Entry(records.getHosts(), null, now + ttlMillis);
+        } catch (IOException e) {
+            entry = new Entry(List.of(), e, now + FAILURE_TTL_MILLIS);
+        }
+        // Concurrent lookups of the same domain may both resolve; the last one wins, which is harmless
+        if (entries.size() >= PRUNE_THRESHOLD) {
+            entries.values().removeIf(old -> old.expiresAt <= now);
+        }
+        entries.put(domain, entry);
+        return entry;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Looks up the mail exchangers of a recipient domain. Pluggable so tests and offline
+ * setups can substitute a stub for real DNS.
+ */
+public interface MxResolver {
+
+    /**
+     * Result of one lookup: MX hosts in preference order and how long they may be cached
+     */
+    final class MxRecords {
+        private final List<String> hosts;
+        private final long ttlSeconds;
+
+        public MxRecords(List<String> hosts, long ttlSeconds) {
+            this.hosts = List.copyOf(hosts);
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public List<String> getHosts() { return hosts; }
+        public long getTtlSeconds() { return ttlSeconds; }
+    }
+
+    /**
+     * Resolve the MX hosts of a domain. A domain without MX records but with an address
+     * record returns the domain itself (the implicit MX); an empty list means the domain
+     * does not accept mail.
+     */
+    MxRecords resolve(String domain) throws IOException;
+}
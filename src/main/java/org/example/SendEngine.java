@@ -0,0 +1,1146 @@
+package org.example;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import org.example.models.AppendableContactTable;
+import org.example.models.Campaign;
+import org.example.models.Contact;
+import org.example.models.ContactTable;
+import org.example.models.DeliveryLedger;
+import org.example.models.EmailHistory;
+import org.example.models.SmtpAccount;
+import org.example.utils.DataManager;
+import org.example.utils.LatencyHistogram;
+import org.example.utils.MetricsRegistry;
+import org.example.utils.PerformanceManager;
+import org.example.utils.RateLimiter;
+import org.example.utils.SendEvents;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends campaigns through a shared priority queue, recording each outcome in the campaign's
+ * delivery ledger and persisting the history entry and ledger when a campaign is done.
+ *
+ * Campaigns from every caller (composer, resend, scheduler) go into one {@link SendQueue},
+ * so a transactional message is picked ahead of a running newsletter instead of waiting
+ * for it to finish. A fixed set of worker threads takes recipients from the queue, waits
+ * for the global token-bucket rate limit and sends over pooled SMTP connections.
+ *
+ * Within a campaign recipients are grouped by domain and handed out round robin across
+ * domains, subject to each provider's {@link DomainThrottle} budget, so a throttled
+ * provider slows down only its own share of the list while other domains keep flowing.
+ *
+ * With the "deliveryMode" setting at "direct", messages skip the configured relay and go
+ * straight to each recipient domain's mail exchangers (looked up through a cached
+ * {@link MxResolver}), over connections pooled per MX host. A recipient that cannot be
+ * delivered directly falls back to the relay unless the receiving server rejected it
+ * permanently or no relay credentials are configured.
+ *
+ * Relay sends are spread over every configured sending account by an {@link AccountRotator}.
+ * When an account fails with an authentication, rate-limit or connection error the message
+ * is retried on the next account, and the failing account is paused until the periodic
+ * health check can connect to it again.
+ *
+ * Every SMTP host (relay or MX) has a {@link CircuitBreaker}. When a host stops answering
+ * its breaker opens: campaigns that depend on the relays pause in the queue instead of
+ * failing each remaining recipient after a connect timeout, and resume once a background
+ * probe reaches a host again. Socket timeouts come from the "smtp*TimeoutSeconds" settings.
+ *
+ * How many sends run in parallel is decided by an {@link AdaptiveLimiter}: it starts at the
+ * "smtpConnections" setting and moves between 1 and "maxSmtpConnections" as send latency and
+ * the rate of transient failures change. With "adaptiveConcurrency" off it stays fixed.
+ */
+public class SendEngine {
+
+    /**
+     * Progress callback, invoked from a send worker; calls for one campaign never overlap
+     */
+    public interface Listener {
+        void onRecipientDone(int done, int total, Contact contact, boolean success);
+    }
+
+    private static final int DEFAULT_CONNECTIONS = 2;
+    private static final int DEFAULT_MAX_CONNECTIONS = 8;
+    private static final double DEFAULT_RATE_PER_SECOND = 1.0;
+    private static final int DIRECT_CONNECTIONS_PER_HOST = 2;
+    private static final int DEFAULT_MX_PORT = 25;
+    private static final int MAX_MX_HOSTS_TRIED = 3;
+    // Pending recipients grouped by domain at a time, and how far a job looks ahead past throttled domains
+    private static final int DOMAIN_WINDOW = 4096;
+    private static final int MAX_DOMAIN_WINDOW = 1 << 18;
+    private static final long IDLE_CONNECTION_MILLIS = 60_000;
+    private static final int DEFAULT_BREAKER_FAILURES = 5;
+    private static final int DEFAULT_BREAKER_OPEN_SECONDS = 30;
+
+    private static final MetricsRegistry METRICS = PerformanceManager.metrics();
+    private static final LatencyHistogram DATA_TIME = METRICS.histogram("smtp.data");
+    private static final LatencyHistogram PERSONALIZE_TIME = METRICS.histogram("send.personalize");
+    private static final LatencyHistogram RECIPIENT_TIME = METRICS.histogram("send.recipient");
+    private static final LongAdder SENT = METRICS.counter("send.sent");
+    private static final LongAdder FAILED = METRICS.counter("send.failed");
+    private static final LongAdder DEFERRED = METRICS.counter("send.deferred");
+    // Recipients queued and not yet attempted, across all campaigns
+    private final AtomicInteger pendingRecipients = new AtomicInteger();
+
+    private final DataManager dataManager;
+    private final SendQueue<SendJob> queue = new SendQueue<>();
+    // Campaigns queued or sending, for status reports
+    private final Set<SendJob> activeJobs = ConcurrentHashMap.newKeySet();
+    private final RateLimiter rateLimiter;
+    private final AdaptiveLimiter concurrencyLimiter;
+    private final DomainThrottle domainThrottle;
+    private final Map<SmtpAccount, SmtpConnectionPool> pools = new ConcurrentHashMap<>();
+    private final Map<String, SmtpConnectionPool> directPools = new ConcurrentHashMap<>();
+    private final MxCache mxCache;
+    private final AccountRotator accountRotator = new AccountRotator();
+    // Last usage handed to the data manager; only touched on the maintenance thread and at shutdown
+    private volatile Map<String, Integer> savedAccountUsage = Map.of();
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private volatile int breakerFailures = DEFAULT_BREAKER_FAILURES;
+    private volatile long breakerOpenMillis = DEFAULT_BREAKER_OPEN_SECONDS * 1000L;
+    private volatile int mxPort = DEFAULT_MX_PORT;
+    // How long shutdown waits for messages in flight: one connect, write and read timeout
+    private volatile long drainMillis = (15 + 60 + 60) * 1000L;
+    private final int connections;
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SendEngine-Maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SendEngine(DataManager dataManager) {
+        this(dataManager, new JndiMxResolver());
+    }
+
+    /**
+     * Engine with a custom MX resolver for direct delivery
+     */
+    public SendEngine(DataManager dataManager, MxResolver mxResolver) {
+        this.dataManager = dataManager;
+        this.mxCache = new MxCache(mxResolver);
+
+        Map<String, Object> settings = dataManager.loadSettings();
+        int initialConnections = Math.max(1, intSetting(settings, "smtpConnections", DEFAULT_CONNECTIONS));
+        this.connections = Math.max(initialConnections, intSetting(settings, "maxSmtpConnections", DEFAULT_MAX_CONNECTIONS));
+        this.concurrencyLimiter = new AdaptiveLimiter(initialConnections, 1, connections);
+        configureConcurrency(settings);
+        this.rateLimiter = new RateLimiter(rateSetting(settings), 1);
+        this.domainThrottle = new DomainThrottle(settings);
+        LocalDate today = LocalDate.now();
+        accountRotator.restoreUsage(today, dataManager.loadAccountUsage(today));
+
+        for (int i = 0; i < connections; i++) {
+            Thread worker = new Thread(this::runWorker, "SendEngine-Worker-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        METRICS.gauge("send.queue.campaigns", queue::size);
+        METRICS.gauge("send.pending", pendingRecipients::get);
+        METRICS.gauge("send.concurrency.limit", concurrencyLimiter::getLimit);
+        METRICS.gauge("send.inflight", concurrencyLimiter::getInFlight);
+
+        // Direct delivery touches many MX hosts; don't keep their connections open forever
+        maintenance.scheduleWithFixedDelay(this::closeIdleConnections, 30, 30, TimeUnit.SECONDS);
+        maintenance.scheduleWithFixedDelay(this::probeAccounts, 15, 15, TimeUnit.SECONDS);
+        maintenance.scheduleWithFixedDelay(this::probeHosts, 5, 5, TimeUnit.SECONDS);
+        maintenance.scheduleWithFixedDelay(this::saveAccountUsage, 10, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queue a campaign and return immediately. The future completes once every recipient
+     * has been attempted and the history entry and ledger are saved.
+     */
+    public CompletableFuture<Campaign> submit(Campaign campaign, Listener listener) throws Exception {
+        return enqueue(campaign, listener).completion;
+    }
+
+    /**
+     * Send a campaign and wait for it to finish. Only recipients are personalised, one at a time,
+     * as they are sent. Recipients the ledger already marks as done are skipped, so a campaign
+     * rebuilt from a saved ledger resumes where it stopped. If the calling thread is interrupted
+     * no further recipients are started, the outcomes so far are recorded and
+     * InterruptedException is thrown.
+     */
+    public void send(Campaign campaign, Listener listener) throws Exception {
+        SendJob job = enqueue(campaign, listener);
+        try {
+            job.completion.get();
+        } catch (InterruptedException e) {
+            job.cancel();
+            queue.remove(job);
+            job.completion.join();
+            throw new InterruptedException("Sending stopped after " + job.getProcessed() + " of "
+                + job.pendingCount + " recipients");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * Stop sending and close pooled connections. No further recipients are handed out;
+     * messages already in flight get as long as one SMTP exchange may take to finish, and
+     * every campaign's history entry and ledger are saved with what was sent so far.
+     *
+     * @return false if sends were still in flight when the wait ran out
+     */
+    public boolean shutdown() {
+        queue.close();
+        activeJobs.forEach(SendJob::cancel);
+
+        boolean drained = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainMillis);
+        for (SendJob job : new ArrayList<>(activeJobs)) {
+            try {
+                job.completion.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                drained = false;
+                break;
+            } catch (ExecutionException e) {
+                // Already reported by the job
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drained = false;
+                break;
+            }
+        }
+
+        workers.forEach(Thread::interrupt);
+        maintenance.shutdownNow();
+        saveAccountUsage();
+        pools.values().forEach(SmtpConnectionPool::close);
+        directPools.values().forEach(SmtpConnectionPool::close);
+        return drained;
+    }
+
+    /**
+     * Campaigns waiting in the queue or being sent
+     */
+    public int getQueuedCampaigns() {
+        return queue.size();
+    }
+
+    private SendJob enqueue(Campaign campaign, Listener listener) throws Exception {
+        // Settings are read once per campaign, not once per recipient
+        Map<String, Object> settings = dataManager.loadSettings();
+        SmtpAccount account = SmtpAccount.fromSettings(settings);
+        List<SmtpAccount> accounts = SmtpAccount.listFromSettings(settings);
+        boolean direct = "direct".equalsIgnoreCase(String.valueOf(settings.get("deliveryMode")));
+        if (direct ? account.getUsername().isEmpty() : accounts.isEmpty()) {
+            throw new Exception("Email credentials not configured! Please configure email settings in the Settings tab.");
+        }
+        accountRotator.configure(accounts, AccountRotator.strategyFromSettings(settings));
+        rateLimiter.setRate(rateSetting(settings), 1);
+        domainThrottle.configure(settings);
+        configureConcurrency(settings);
+        configureTimeouts(settings);
+        mxPort = intSetting(settings, "mxPort", DEFAULT_MX_PORT);
+
+        EmailHistory history = campaign.getHistory();
+        history.setSenderEmail(!account.getUsername().isEmpty() ? account.getUsername() : accounts.get(0).getUsername());
+        history.setStatus(EmailHistory.Status.SENT);
+        if (history.getSentAt() == null) {
+            history.setSentAt(LocalDateTime.now());
+        }
+
+        // In direct mode the relays are only a fallback, and only if credentials exist
+        SendJob job = new SendJob(campaign, listener, history.getSenderEmail(), !accounts.isEmpty(), direct);
+        SendEvents.CampaignStart event = new SendEvents.CampaignStart();
+        if (event.shouldCommit()) {
+            event.campaignId = history.getId();
+            event.subject = campaign.getSubject();
+            event.recipients = campaign.getRecipients().size();
+            event.pending = job.pendingCount;
+            event.priority = campaign.getPriority().name();
+            event.direct = direct;
+            event.commit();
+        }
+        pendingRecipients.addAndGet(job.pendingCount);
+        activeJobs.add(job);
+        boolean complete;
+        synchronized (job) {
+            complete = job.isComplete();
+        }
+        if (complete) {
+            job.finish();
+        } else {
+            queue.add(job);
+        }
+        return job;
+    }
+
+    private void runWorker() {
+        try {
+            while (true) {
+                SendQueue.Dispatch<SendJob> dispatch = queue.take();
+                if (dispatch == null) {
+                    return;
+                }
+                // Take the permit and then the rate token only once there is a message to
+                // send, so idle workers neither count as in flight nor bank tokens
+                try {
+                    concurrencyLimiter.acquire();
+                } catch (InterruptedException e) {
+                    abandon(dispatch);
+                    throw e;
+                }
+                boolean measured = false;
+                try {
+                    rateLimiter.acquire();
+                    long start = System.nanoTime();
+                    AdaptiveLimiter.Outcome outcome = sendOne(dispatch.getJob(), dispatch.getIndex());
+                    concurrencyLimiter.release(System.nanoTime() - start, outcome);
+                    measured = true;
+                } catch (InterruptedException e) {
+                    abandon(dispatch);
+                    throw e;
+                } catch (RuntimeException e) {
+                    // Keep the worker alive; sendOne has already settled the recipient
+                    System.err.println("Send worker error: " + e);
+                } finally {
+                    if (!measured) {
+                        concurrencyLimiter.release();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // Engine shut down
+        }
+    }
+
+    /**
+     * Hand back a recipient that was taken but never tried; it stays pending in the ledger
+     */
+    private void abandon(SendQueue.Dispatch<SendJob> dispatch) {
+        SendJob job = dispatch.getJob();
+        String domainKey = job.releaseDomain(dispatch.getIndex());
+        if (domainKey != null) {
+            domainThrottle.release(domainKey);
+        }
+        job.skip();
+    }
+
+    private AdaptiveLimiter.Outcome sendOne(SendJob job, int index) {
+        Campaign campaign = job.campaign;
+        Contact contact = null;
+        boolean handedOver = false;
+        try {
+            contact = campaign.getRecipients().get(index);
+            handedOver = true;
+            if (job.cancelled) {
+                // Stopped after this recipient was handed out; leave it pending
+                job.skip();
+                return AdaptiveLimiter.Outcome.IGNORE;
+            }
+            return deliver(job, index, contact);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to send to recipient " + index + " of " + campaign.getSubject() + ": " + e);
+            if (!handedOver) {
+                campaign.getLedger().record(index, DeliveryLedger.RecipientStatus.FAILED, 0);
+                FAILED.increment();
+                job.done(contact, false);
+            }
+            return AdaptiveLimiter.Outcome.IGNORE;
+        } finally {
+            String domainKey = job.releaseDomain(index);
+            if (domainKey != null) {
+                domainThrottle.release(domainKey);
+            }
+            queue.wakeUp();
+        }
+    }
+
+    /**
+     * Send to one recipient and record the result in the ledger. The recipient is always
+     * settled with {@link SendJob#done}, whatever goes wrong.
+     *
+     * @return what the result says about server load
+     */
+    private AdaptiveLimiter.Outcome deliver(SendJob job, int index, Contact contact) {
+        Campaign campaign = job.campaign;
+        DeliveryLedger ledger = campaign.getLedger();
+        long start = System.nanoTime();
+        Exception failure = null;
+        AdaptiveLimiter.Outcome outcome = AdaptiveLimiter.Outcome.IGNORE;
+
+        try {
+            try {
+                String personalizedContent = personalizeContent(campaign.getContent(), contact);
+                PERSONALIZE_TIME.recordSince(start);
+                if (job.direct) {
+                    try {
+                        sendDirect(job, contact, personalizedContent);
+                    } catch (Exception e) {
+                        failure = e;
+                    }
+                    // A permanent rejection from the recipient's own server would not fare better via the relay
+                    if (failure != null && job.hasRelay && MailSender.getSmtpReturnCode(failure) < 500) {
+                        System.err.println("Direct delivery to " + contact.getEmail() + " failed, using relay: " + failure.getMessage());
+                        failure = null;
+                        sendViaRelay(contact, campaign.getSubject(), personalizedContent);
+                    }
+                } else {
+                    sendViaRelay(contact, campaign.getSubject(), personalizedContent);
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+
+            if (failure == null) {
+                ledger.record(index, DeliveryLedger.RecipientStatus.SENT, 250);
+                SENT.increment();
+                outcome = AdaptiveLimiter.Outcome.SUCCESS;
+            } else {
+                // 4xx replies are transient and worth retrying later, as are unreachable hosts
+                // and relays that are all down or out of quota for today
+                int smtpCode = MailSender.getSmtpReturnCode(failure);
+                boolean hostFailure = CircuitBreaker.isHostFailure(failure);
+                boolean transientFailure = smtpCode >= 400 && smtpCode < 500 || hostFailure
+                    || failure instanceof NoAccountAvailableException;
+                ledger.record(index, transientFailure
+                    ? DeliveryLedger.RecipientStatus.DEFERRED : DeliveryLedger.RecipientStatus.FAILED, smtpCode);
+                (transientFailure ? DEFERRED : FAILED).increment();
+                System.err.println("Failed to send to " + contact.getEmail() + ": " + failure.getMessage());
+                // Busy replies and lost connections mean the servers want fewer parallel sends
+                boolean overload = smtpCode >= 400 && smtpCode < 500 || hostFailure;
+                outcome = overload ? AdaptiveLimiter.Outcome.OVERLOAD : AdaptiveLimiter.Outcome.IGNORE;
+            }
+        } catch (RuntimeException e) {
+            // Recording the outcome itself failed; count the recipient as failed
+            System.err.println("Failed to record delivery to " + contact.getEmail() + ": " + e);
+            failure = e;
+            FAILED.increment();
+        } finally {
+            RECIPIENT_TIME.recordSince(start);
+            job.done(contact, failure == null);
+        }
+        return outcome;
+    }
+
+    /**
+     * Send one message over a pooled connection
+     */
+    private void sendVia(SmtpConnectionPool pool, String sender, Contact contact, String subject, String content) throws Exception {
+        Message message = MailSender.createMessage(pool.getSession(), sender, contact.getEmail(), subject, content);
+        CircuitBreaker breaker = breakerFor(pool.getAccount());
+        SmtpConnectionPool.Connection connection;
+        try {
+            connection = pool.borrow();
+        } catch (MessagingException e) {
+            recordHostFailure(breaker, e);
+            throw e;
+        }
+        try {
+            long start = System.nanoTime();
+            connection.getTransport().sendMessage(message, message.getAllRecipients());
+            DATA_TIME.recordSince(start);
+            pool.release(connection, true);
+            breaker.recordSuccess();
+        } catch (Exception e) {
+            // A reply code means the server is still talking to us, so the connection is reusable
+            pool.release(connection, MailSender.getSmtpReturnCode(e) != 0);
+            recordHostFailure(breaker, e);
+            throw e;
+        }
+    }
+
+    private void recordHostFailure(CircuitBreaker breaker, Exception failure) {
+        if (CircuitBreaker.isHostFailure(failure)) {
+            breaker.recordFailure();
+        } else {
+            breaker.recordSuccess();
+        }
+    }
+
+    private CircuitBreaker breakerFor(SmtpAccount account) {
+        return breakers.computeIfAbsent(account.getHost().toLowerCase(Locale.ROOT) + ":" + account.getPort(),
+            key -> new CircuitBreaker(key, breakerFailures, breakerOpenMillis));
+    }
+
+    /**
+     * Send through the relay accounts, moving on to the next account while failures are
+     * the account's fault rather than the recipient's
+     */
+    private void sendViaRelay(Contact contact, String subject, String content) throws Exception {
+        // Accounts on a host that is down are not worth a connect timeout
+        List<SmtpAccount> tried = new ArrayList<>();
+        for (SmtpAccount candidate : accountRotator.getAccounts()) {
+            if (!breakerFor(candidate).isClosed()) {
+                tried.add(candidate);
+            }
+        }
+        Exception lastFailure = null;
+        SmtpAccount account;
+        while ((account = accountRotator.pick(tried)) != null) {
+            tried.add(account);
+            SmtpConnectionPool pool = pools.computeIfAbsent(account, key -> new SmtpConnectionPool(key, connections));
+            try {
+                sendVia(pool, account.getUsername(), contact, subject, content);
+                accountRotator.recordSuccess(account);
+                return;
+            } catch (Exception e) {
+                lastFailure = e;
+                // A recipient the relay refused would be refused by the next account too
+                if (MailSender.isRecipientFailure(e) || !accountRotator.recordFailure(account, MailSender.getSmtpReturnCode(e))) {
+                    throw e;
+                }
+            }
+        }
+        if (lastFailure != null) {
+            throw lastFailure;
+        }
+        throw new NoAccountAvailableException(relayAvailableAt(System.currentTimeMillis()) > System.currentTimeMillis()
+            ? "Every SMTP relay is unreachable" : "No sending account has quota left today");
+    }
+
+    /**
+     * Reconnect to hosts whose circuit breaker waits for a probe, and let paused campaigns
+     * continue when one answers. Any SMTP reply counts as reachable.
+     */
+    private void probeHosts() {
+        for (CircuitBreaker breaker : breakers.values()) {
+            if (!breaker.isProbeDue()) {
+                continue;
+            }
+            SmtpConnectionPool pool = directPools.get(breaker.getHost());
+            if (pool == null) {
+                pool = pools.values().stream()
+                    .filter(candidate -> breakerFor(candidate.getAccount()) == breaker)
+                    .findFirst().orElse(null);
+            }
+            if (pool == null) {
+                // Nothing uses the host any more; the next real send will find out
+                breaker.recordProbe(true);
+                continue;
+            }
+
+            boolean healthy;
+            try {
+                pool.closeIdle(0);
+                pool.release(pool.borrow(), true);
+                healthy = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                healthy = !CircuitBreaker.isHostFailure(e);
+            }
+            breaker.recordProbe(healthy);
+            if (healthy) {
+                queue.wakeUp();
+            }
+        }
+    }
+
+    /**
+     * When relay sends can go out again: now if some relay host is up, otherwise when the
+     * first open breaker may be probed (Long.MAX_VALUE while probes are pending)
+     */
+    private long relayAvailableAt(long nowMillis) {
+        long earliest = Long.MAX_VALUE;
+        for (SmtpAccount account : accountRotator.getAccounts()) {
+            earliest = Math.min(earliest, breakerFor(account).availableAt(nowMillis));
+            if (earliest <= nowMillis) {
+                break;
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * Persist today's per-account send counts when they changed, so quotas hold across restarts
+     */
+    private void saveAccountUsage() {
+        Map<String, Integer> usage = accountRotator.getUsage();
+        if (!usage.equals(savedAccountUsage)) {
+            dataManager.saveAccountUsage(LocalDate.now(), usage);
+            savedAccountUsage = usage;
+        }
+    }
+
+    /**
+     * Reconnect paused accounts whose cooldown is over; those that authenticate rejoin the rotation
+     */
+    private void probeAccounts() {
+        for (SmtpAccount account : accountRotator.getAccountsToProbe()) {
+            SmtpConnectionPool pool = pools.computeIfAbsent(account, key -> new SmtpConnectionPool(key, connections));
+            boolean healthy;
+            try {
+                // Drop connections from before the failure so the check really reconnects
+                pool.closeIdle(0);
+                pool.release(pool.borrow(), true);
+                healthy = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Health check of sending account " + account + " failed: " + e.getMessage());
+                healthy = false;
+            }
+            accountRotator.recordProbe(account, healthy);
+        }
+    }
+
+    /**
+     * Sends currently allowed to run in parallel
+     */
+    public int getConcurrencyLimit() {
+        return concurrencyLimiter.getLimit();
+    }
+
+    /**
+     * The concurrency limiter, for its latency and error-rate readings
+     */
+    public AdaptiveLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Description of each relay account's health and usage
+     */
+    public Map<SmtpAccount, String> getAccountStatus() {
+        return accountRotator.describe();
+    }
+
+    /**
+     * Progress of every campaign queued or being sent, one map per campaign with the keys
+     * id, subject, priority, recipients, processed, sent, failed, deferred, pending and
+     * queuedAt (epoch milliseconds)
+     */
+    public List<Map<String, Object>> getCampaignStatus() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SendJob job : activeJobs) {
+            DeliveryLedger ledger = job.campaign.getLedger();
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("id", job.campaign.getHistory().getId());
+            status.put("subject", job.campaign.getSubject());
+            status.put("priority", job.campaign.getPriority().name());
+            status.put("recipients", job.campaign.getRecipients().size());
+            status.put("processed", job.alreadyDone + job.getProcessed());
+            status.put("sent", ledger.count(DeliveryLedger.RecipientStatus.SENT));
+            status.put("failed", ledger.count(DeliveryLedger.RecipientStatus.FAILED));
+            status.put("deferred", ledger.count(DeliveryLedger.RecipientStatus.DEFERRED));
+            status.put("pending", ledger.count(DeliveryLedger.RecipientStatus.PENDING));
+            status.put("queuedAt", job.queuedAt);
+            result.add(status);
+        }
+        result.sort(Comparator.comparing(status -> (Long) status.get("queuedAt")));
+        return result;
+    }
+
+    /**
+     * Deliver to the recipient domain's MX hosts in preference order. The next host is
+     * only tried when the previous one could not be reached; any SMTP reply is final.
+     */
+    private void sendDirect(SendJob job, Contact contact, String content) throws Exception {
+        String email = contact.getEmail();
+        String domain = email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+        List<String> hosts = mxCache.lookup(domain);
+        if (hosts.isEmpty()) {
+            throw new MessagingException("Domain " + domain + " has no mail exchanger");
+        }
+
+        Exception lastFailure = null;
+        for (String host : hosts.subList(0, Math.min(MAX_MX_HOSTS_TRIED, hosts.size()))) {
+            int port = mxPort;
+            String mxHost = host.toLowerCase(Locale.ROOT);
+            CircuitBreaker breaker = breakers.get(mxHost + ":" + port);
+            if (breaker != null && !breaker.isClosed()) {
+                lastFailure = new MessagingException("Mail exchanger " + mxHost + " is unavailable");
+                continue;
+            }
+            SmtpConnectionPool pool = directPools.computeIfAbsent(mxHost + ":" + port, key ->
+                new SmtpConnectionPool(new SmtpAccount(mxHost, String.valueOf(port), job.sender, null, false, true),
+                    MailSender.createDirectSession(mxHost, port), DIRECT_CONNECTIONS_PER_HOST));
+            try {
+                sendVia(pool, job.sender, contact, job.campaign.getSubject(), content);
+                return;
+            } catch (Exception e) {
+                if (MailSender.getSmtpReturnCode(e) != 0) {
+                    throw e;
+                }
+                lastFailure = e;
+            }
+        }
+        throw lastFailure;
+    }
+
+    private void closeIdleConnections() {
+        pools.values().forEach(pool -> pool.closeIdle(IDLE_CONNECTION_MILLIS));
+        directPools.values().removeIf(pool -> pool.closeIdle(IDLE_CONNECTION_MILLIS) == 0);
+    }
+
+    /**
+     * Build a campaign from the failed and deferred recipients of a past campaign, with the
+     * personalisation fields saved alongside its ledger where available.
+     * Returns null when there is nothing to resend.
+     */
+    public Campaign createRetryCampaign(EmailHistory original, DeliveryLedger ledger) {
+        int[] indices = ledger.indicesWithStatus(DeliveryLedger.RecipientStatus.FAILED,
+            DeliveryLedger.RecipientStatus.DEFERRED, DeliveryLedger.RecipientStatus.PENDING);
+        if (indices.length == 0) {
+            return null;
+        }
+
+        ContactTable saved = dataManager.loadRecipients(original, indices);
+        if (saved != null) {
+            return Campaign.create(original.getSubject(), original.getContent(), saved, original.getSenderEmail());
+        }
+
+        // Entries from before recipients were saved only know names and emails
+        if (original.getRecipients() == null) {
+            return null;
+        }
+        List<String> emails = original.getRecipients();
+        List<String> names = original.getRecipientNames();
+        List<Contact> recipients = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            if (index >= emails.size()) continue;
+            String email = emails.get(index);
+            String name = names != null && index < names.size() && names.get(index) != null ? names.get(index) : email;
+            recipients.add(new Contact(name, email));
+        }
+
+        return Campaign.create(original.getSubject(), original.getContent(), recipients, original.getSenderEmail());
+    }
+
+    private static String personalizeContent(String content, Contact contact) {
+        String personalized = content;
+
+        // Replace placeholders
+        personalized = personalized.replace("{name}", contact.getName() != null ? contact.getName() : "Valued Customer");
+        personalized = personalized.replace("{email}", contact.getEmail());
+        personalized = personalized.replace("{company}", contact.getCompany() != null ? contact.getCompany() : "your organization");
+
+        return personalized;
+    }
+
+    private void configureTimeouts(Map<String, Object> settings) {
+        int connectMillis = intSetting(settings, "smtpConnectTimeoutSeconds", 15) * 1000;
+        int readMillis = intSetting(settings, "smtpReadTimeoutSeconds", 60) * 1000;
+        int writeMillis = intSetting(settings, "smtpWriteTimeoutSeconds", 60) * 1000;
+        MailSender.setTimeouts(connectMillis, readMillis, writeMillis);
+        drainMillis = (long) connectMillis + readMillis + writeMillis;
+        pools.values().forEach(pool -> MailSender.applyTimeouts(pool.getSession().getProperties()));
+        directPools.values().forEach(pool -> MailSender.applyTimeouts(pool.getSession().getProperties()));
+        breakerFailures = Math.max(1, intSetting(settings, "circuitBreakerFailures", DEFAULT_BREAKER_FAILURES));
+        breakerOpenMillis = Math.max(1, intSetting(settings, "circuitBreakerOpenSeconds", DEFAULT_BREAKER_OPEN_SECONDS)) * 1000L;
+    }
+
+    private static int intSetting(Map<String, Object> settings, String key, int defaultValue) {
+        Object value = settings.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    /**
+     * Let the concurrency limit range from 1 to "maxSmtpConnections", or pin it to
+     * "smtpConnections" when adaptive concurrency is off. Never more than there are workers.
+     */
+    private void configureConcurrency(Map<String, Object> settings) {
+        int configured = Math.min(connections, Math.max(1, intSetting(settings, "smtpConnections", DEFAULT_CONNECTIONS)));
+        if (Boolean.FALSE.equals(settings.get("adaptiveConcurrency"))) {
+            concurrencyLimiter.setBounds(configured, configured);
+        } else {
+            int max = Math.max(configured, intSetting(settings, "maxSmtpConnections", DEFAULT_MAX_CONNECTIONS));
+            concurrencyLimiter.setBounds(1, Math.min(max, connections));
+        }
+    }
+
+    private static double rateSetting(Map<String, Object> settings) {
+        Object value = settings.get("sendRatePerSecond");
+        double rate = value instanceof Number ? ((Number) value).doubleValue() : DEFAULT_RATE_PER_SECOND;
+        return rate > 0 ? rate : DEFAULT_RATE_PER_SECOND;
+    }
+
+    /**
+     * Queue state of one campaign. Recipient hand-out runs under the queue's lock,
+     * completion bookkeeping under the job's own lock.
+     */
+    private final class SendJob implements SendQueue.Job {
+        private final Campaign campaign;
+        private final Listener listener;
+        private final String sender;
+        private final boolean hasRelay;
+        private final boolean direct;
+        private final int alreadyDone;
+        // Recipients still arriving, or null
+        private final AppendableContactTable openRecipients;
+        private final CompletableFuture<Campaign> completion = new CompletableFuture<>();
+        private final SendEvents.CampaignEnd endEvent = new SendEvents.CampaignEnd();
+        private final long queuedAt = System.currentTimeMillis();
+        // Domain budget claimed by each recipient in flight, released when it is settled
+        private final Map<Integer, String> claimedDomains = new ConcurrentHashMap<>();
+
+        // Guarded by the queue: a window of pending recipients in per-domain queues, taken
+        // in round-robin order and refilled from the ledger as it drains
+        private final ArrayDeque<DomainQueue> domains = new ArrayDeque<>();
+        private final Map<String, DomainQueue> domainsByKey = new HashMap<>();
+        private int scanFrom;
+        private int buffered;
+        private int remaining;
+        private long eligibleAt;
+
+        // Guarded by this, and only grown under the queue's lock too
+        private int pendingCount;
+
+        // Guarded by this
+        private int inFlight;
+        private int processed;
+        private boolean finished;
+        private volatile boolean cancelled;
+
+        SendJob(Campaign campaign, Listener listener, String sender, boolean hasRelay, boolean direct) {
+            this.campaign = campaign;
+            this.listener = listener;
+            this.sender = sender;
+            this.hasRelay = hasRelay;
+            this.direct = direct;
+            DeliveryLedger ledger = campaign.getLedger();
+            this.pendingCount = ledger.count(DeliveryLedger.RecipientStatus.PENDING);
+            this.alreadyDone = ledger.size() - pendingCount;
+            this.remaining = pendingCount;
+            this.openRecipients = campaign.getRecipientSource() instanceof AppendableContactTable 
+                ? (AppendableContactTable) campaign.getRecipientSource() : null;
+            if (openRecipients != null) {
+                openRecipients.addListener(this::recipientsChanged);
+                takeAppended();
+            }
+            endEvent.begin();
+        }
+
+        /**
+         * Count recipients appended since the last call as pending; runs under the queue's lock
+         */
+        private void takeAppended() {
+            DeliveryLedger ledger = campaign.getLedger();
+            int known = ledger.size();
+            int current = campaign.getRecipients().size();
+            if (current <= known || cancelled) {
+                return;
+            }
+            ledger.grow(current);
+            int added = current - known;
+            remaining += added;
+            synchronized (this) {
+                pendingCount += added;
+            }
+            pendingRecipients.addAndGet(added);
+        }
+
+        /**
+         * Recipients were appended or the source was closed: wake the workers, and finish if
+         * everything was already sent when the source closed
+         */
+        private void recipientsChanged() {
+            queue.wakeUp();
+            boolean last;
+            synchronized (this) {
+                last = isComplete();
+            }
+            if (last) {
+                // Persisting the outcome is not the appending thread's business
+                maintenance.execute(this::finish);
+            }
+        }
+
+        private boolean isOpen() {
+            return openRecipients != null && !openRecipients.isClosed();
+        }
+
+        @Override
+        public Campaign.Priority getPriority() {
+            return campaign.getPriority();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (openRecipients != null) {
+                takeAppended();
+            }
+            // An open job waits in the queue for more recipients
+            return !cancelled && (remaining > 0 || isOpen());
+        }
+
+        @Override
+        public long getEligibleAt(long nowMillis) {
+            if (eligibleAt > nowMillis) {
+                return eligibleAt;
+            }
+            if (!direct) {
+                // Wait out a relay outage or used up quotas instead of deferring the remaining recipients
+                long relayAt = Math.max(relayAvailableAt(nowMillis), accountRotator.availableAt(nowMillis));
+                if (relayAt > nowMillis) {
+                    return relayAt;
+                }
+            }
+            fillWindow(DOMAIN_WINDOW);
+            while (true) {
+                long earliest = Long.MAX_VALUE;
+                for (DomainQueue domain : domains) {
+                    earliest = Math.min(earliest, domainThrottle.availableAt(domain.key, nowMillis));
+                    if (earliest <= nowMillis) {
+                        return earliest;
+                    }
+                }
+                // Every domain in the window is throttled; look further down the list for others
+                if (buffered >= MAX_DOMAIN_WINDOW || !fillWindow(buffered + DOMAIN_WINDOW)) {
+                    return earliest;
+                }
+            }
+        }
+
+        /**
+         * Group further pending recipients into the domain queues until {@code target} are
+         * buffered, keeping list order within each domain
+         *
+         * @return whether any were added
+         */
+        private boolean fillWindow(int target) {
+            DeliveryLedger ledger = campaign.getLedger();
+            List<Contact> recipients = campaign.getRecipients();
+            // The ledger covers the recipients taken so far, appended ones included
+            int known = ledger.size();
+            boolean added = false;
+            while (buffered < target && scanFrom < known) {
+                int index = ledger.nextWithStatus(scanFrom, DeliveryLedger.RecipientStatus.PENDING);
+                if (index < 0) {
+                    scanFrom = known;
+                    break;
+                }
+                scanFrom = index + 1;
+                String key = DomainThrottle.keyFor(recipients.get(index).getEmail());
+                DomainQueue domain = domainsByKey.get(key);
+                if (domain == null) {
+                    domain = new DomainQueue(key);
+                    domainsByKey.put(key, domain);
+                    domains.addLast(domain);
+                }
+                domain.add(index);
+                buffered++;
+                added = true;
+            }
+            return added;
+        }
+
+        @Override
+        public int next(long nowMillis) {
+            for (int i = domains.size(); i > 0; i--) {
+                DomainQueue domain = domains.pollFirst();
+                if (!domainThrottle.tryAcquire(domain.key)) {
+                    domains.addLast(domain);
+                    continue;
+                }
+                int index = domain.poll();
+                if (domain.isEmpty()) {
+                    domainsByKey.remove(domain.key);
+                } else {
+                    domains.addLast(domain);
+                }
+                buffered--;
+                remaining--;
+                synchronized (this) {
+                    inFlight++;
+                }
+                claimedDomains.put(index, domain.key);
+                eligibleAt = nowMillis + campaign.getSendIntervalMillis();
+                return index;
+            }
+            // Another worker took the last slot since getEligibleAt
+            return -1;
+        }
+
+        /**
+         * Forget the domain budget claimed for a recipient
+         *
+         * @return the domain key to release, or null if none was claimed
+         */
+        String releaseDomain(int index) {
+            return claimedDomains.remove(index);
+        }
+
+        synchronized int getProcessed() {
+            return processed;
+        }
+
+        void done(Contact contact, boolean success) {
+            boolean last;
+            pendingRecipients.decrementAndGet();
+            synchronized (this) {
+                processed++;
+                inFlight--;
+                try {
+                    listener.onRecipientDone(alreadyDone + processed, campaign.getRecipients().size(), contact, success);
+                } catch (RuntimeException e) {
+                    System.err.println("Send listener failed: " + e);
+                }
+                last = isComplete();
+            }
+            if (last) {
+                finish();
+            }
+        }
+
+        void skip() {
+            boolean last;
+            synchronized (this) {
+                inFlight--;
+                last = isComplete();
+            }
+            if (last) {
+                finish();
+            }
+        }
+
+        void cancel() {
+            boolean last;
+            synchronized (this) {
+                cancelled = true;
+                last = isComplete();
+            }
+            if (last) {
+                finish();
+            }
+        }
+
+        private boolean isComplete() {
+            if (inFlight != 0) {
+                return false;
+            }
+            if (cancelled) {
+                return true;
+            }
+            // Appended recipients not yet counted in pendingCount are still to send
+            return processed == pendingCount && !isOpen()
+                && (openRecipients == null || alreadyDone + pendingCount == openRecipients.size());
+        }
+
+        /**
+         * Summarise the ledger into the history entry and persist both, exactly once
+         */
+        void finish() {
+            int unattempted;
+            synchronized (this) {
+                if (finished) return;
+                finished = true;
+                unattempted = pendingCount - processed;
+            }
+            // Recipients a cancelled campaign never got to
+            pendingRecipients.addAndGet(-unattempted);
+            activeJobs.remove(this);
+            try {
+                summarize();
+                completion.complete(campaign);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to finish campaign " + campaign.getSubject() + ": " + e);
+                completion.completeExceptionally(e);
+            }
+        }
+
+        private void summarize() {
+            EmailHistory history = campaign.getHistory();
+            DeliveryLedger ledger = campaign.getLedger();
+            // Recipients appended after a cancel stay pending, so a resend covers them
+            ledger.grow(campaign.getRecipients().size());
+            history.setTotalRecipients(campaign.getRecipients().size());
+            int successful = ledger.count(DeliveryLedger.RecipientStatus.SENT);
+            int failed = ledger.count(DeliveryLedger.RecipientStatus.FAILED)
+                + ledger.count(DeliveryLedger.RecipientStatus.DEFERRED);
+            history.setSuccessfulDeliveries(successful);
+            history.setFailedDeliveries(failed);
+            if (successful > 0) {
+                history.setStatus(EmailHistory.Status.DELIVERED);
+                history.setDeliveredAt(LocalDateTime.now());
+            } else if (failed > 0) {
+                history.setStatus(EmailHistory.Status.FAILED);
+            }
+
+            dataManager.addHistoryEntry(history);
+            dataManager.saveLedger(history, ledger);
+            if (successful < ledger.size() || history.getRecipients() == null) {
+                // Keep company and other fields for a later resend of the rest, and the
+                // recipients of entries too large to list them
+                dataManager.saveRecipients(history, campaign.getRecipients());
+            }
+
+            endEvent.end();
+            if (endEvent.shouldCommit()) {
+                endEvent.campaignId = history.getId();
+                endEvent.sent = successful;
+                endEvent.failed = ledger.count(DeliveryLedger.RecipientStatus.FAILED);
+                endEvent.deferred = ledger.count(DeliveryLedger.RecipientStatus.DEFERRED);
+                endEvent.cancelled = cancelled;
+                endEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * Pending recipients of one campaign for one domain budget, in list order
+     */
+    private static final class DomainQueue {
+        private final String key;
+        private int[] indices = new int[8];
+        private int head;
+        private int tail;
+
+        private DomainQueue(String key) {
+            this.key = key;
+        }
+
+        private boolean isEmpty() {
+            return head == tail;
+        }
+
+        private void add(int index) {
+            if (tail == indices.length) {
+                if (head >= indices.length / 2) {
+                    System.arraycopy(indices, head, indices, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                } else {
+                    indices = Arrays.copyOf(indices, indices.length * 2);
+                }
+            }
+            indices[tail++] = index;
+        }
+
+        private int poll() {
+            return indices[head++];
+        }
+    }
+
+    /**
+     * No relay account can take the message: quotas are used up or every relay host is down
+     */
+    private static final class NoAccountAvailableException extends MessagingException {
+        private static final long serialVersionUID = 1L;
+
+        NoAccountAvailableException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.example;
+
+import org.example.models.Campaign;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Multi-level queue of campaigns waiting for send workers.
+ *
+ * There is one level per {@link Campaign.Priority}. Levels share the workers by smooth
+ * weighted round robin, so transactional mail gets most turns while bulk mail still makes
+ * progress; within a level campaigns take turns one recipient at a time, so a large
+ * newsletter cannot starve a small campaign of the same priority. A job that is paced or
+ * whose remaining recipients are all throttled is skipped until it is due; call
+ * {@link #wakeUp()} when capacity is freed early.
+ */
+public class SendQueue<J extends SendQueue.Job> {
+
+    /**
+     * A campaign in the queue, handing out recipient indices one at a time
+     */
+    public interface Job {
+        Campaign.Priority getPriority();
+
+        boolean hasNext();
+
+        /**
+         * Earliest time in epoch millis the next recipient may be handed out, or
+         * Long.MAX_VALUE if that depends on capacity being released
+         */
+        long getEligibleAt(long nowMillis);
+
+        /**
+         * Claim the next recipient index, or return -1 if capacity ran out since
+         * {@link #getEligibleAt}; only called when that is due
+         */
+        int next(long nowMillis);
+    }
+
+    /**
+     * One recipient handed to a worker
+     */
+    public static final class Dispatch<J> {
+        private final J job;
+        private final int index;
+
+        private Dispatch(J job, int index) {
+            this.job = job;
+            this.index = index;
+        }
+
+        public J getJob() { return job; }
+        public int getIndex() { return index; }
+    }
+
+    private static final Campaign.Priority[] LEVELS = Campaign.Priority.values();
+
+    private final Map<Campaign.Priority, ArrayDeque<J>> levels = new EnumMap<>(Campaign.Priority.class);
+    private final int[] currentWeights = new int[LEVELS.length];
+    private boolean closed;
+
+    public SendQueue() {
+        for (Campaign.Priority level : LEVELS) {
+            levels.put(level, new ArrayDeque<>());
+        }
+    }
+
+    public synchronized void add(J job) {
+        levels.get(job.getPriority()).addLast(job);
+        notifyAll();
+    }
+
+    public synchronized void remove(J job) {
+        levels.get(job.getPriority()).remove(job);
+    }
+
+    /**
+     * Wake waiting workers, e.g. after a paced job changed its interval
+     */
+    public synchronized void wakeUp() {
+        notifyAll();
+    }
+
+    /**
+     * Stop handing out work; blocked and future {@link #take()} calls return null
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (ArrayDeque<J> level : levels.values()) {
+            size += level.size();
+        }
+        return size;
+    }
+
+    /**
+     * Wait for the next recipient to send, or return null once the queue is closed
+     */
+    public synchronized Dispatch<J> take() throws InterruptedException {
+        while (!closed) {
+            long now = System.currentTimeMillis();
+            long wakeAt = Long.MAX_VALUE;
+
+            // Smooth weighted round robin over the levels that have a due job
+            int totalWeight = 0;
+            Campaign.Priority chosen = null;
+            for (Campaign.Priority level : LEVELS) {
+                long eligibleAt = earliestEligible(levels.get(level), now);
+                if (eligibleAt > now) {
+                    wakeAt = Math.min(wakeAt, eligibleAt);
+                    continue;
+                }
+                int ordinal = level.ordinal();
+                currentWeights[ordinal] += level.getWeight();
+                totalWeight += level.getWeight();
+                if (chosen == null || currentWeights[ordinal] > currentWeights[chosen.ordinal()]) {
+                    chosen = level;
+                }
+            }
+
+            if (chosen != null) {
+                currentWeights[chosen.ordinal()] -= totalWeight;
+                Dispatch<J> dispatch = takeFrom(levels.get(chosen), now);
+                if (dispatch != null) {
+                    return dispatch;
+                }
+                // Every due job lost its capacity to another worker; look again shortly
+                wakeAt = now + 1;
+            }
+
+            if (wakeAt == Long.MAX_VALUE) {
+                wait();
+            } else {
+                wait(Math.max(1, wakeAt - now));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Round robin within a level: the first due job hands out one recipient and moves to
+     * the back, or leaves the queue when it has none left. Returns null if no due job
+     * could hand out a recipient.
+     */
+    private Dispatch<J> takeFrom(ArrayDeque<J> level, long now) {
+        Iterator<J> iterator = level.iterator();
+        while (iterator.hasNext()) {
+            J job = iterator.next();
+            if (!job.hasNext()) {
+                iterator.remove();
+            } else if (job.getEligibleAt(now) <= now) {
+                int index;
+                try {
+                    index = job.next(now);
+                } catch (RuntimeException e) {
+                    // A broken job must not take the queue down with it
+                    iterator.remove();
+                    System.err.println("Dropping job from send queue: " + e);
+                    continue;
+                }
+                if (index < 0) {
+                    continue;
+                }
+                iterator.remove();
+                if (job.hasNext()) {
+                    level.addLast(job);
+                }
+                return new Dispatch<>(job, index);
+            }
+        }
+        return null;
+    }
+
+    private long earliestEligible(ArrayDeque<J> level, long now) {
+        long earliest = Long.MAX_VALUE;
+        Iterator<J> iterator = level.iterator();
+        while (iterator.hasNext()) {
+            J job = iterator.next();
+            if (!job.hasNext()) {
+                iterator.remove();
+            } else {
+                earliest = Math.min(earliest, job.getEligibleAt(now));
+                if (earliest <= now) {
+                    break;
+                }
+            }
+        }
+        return earliest;
+    }
+}
@@ -0,0 +1,175 @@
+package org.example;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import org.example.models.SmtpAccount;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pool of authenticated SMTP connections to one account.
+ *
+ * Connections are opened lazily up to {@code maxConnections} and reused across messages
+ * and campaigns, so a burst of sends pays the TLS handshake and AUTH once per connection
+ * instead of once per message. A connection that sat idle is checked before reuse and
+ * one that failed mid-send is closed rather than returned.
+ */
+public class SmtpConnectionPool {
+
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 15_000;
+
+    /**
+     * A borrowed connection; hand it back with {@link SmtpConnectionPool#release}
+     */
+    public static final class Connection {
+        private final Transport transport;
+        private long lastUsedMillis;
+
+        private Connection(Transport transport) {
+            this.transport = transport;
+        }
+
+        public Transport getTransport() {
+            return transport;
+        }
+    }
+
+    private final SmtpAccount account;
+    private final Session session;
+    private final int maxConnections;
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private int openConnections;
+    private boolean closed;
+
+    public SmtpConnectionPool(SmtpAccount account, int maxConnections) {
+        this(account, MailSender.createSession(account), maxConnections);
+    }
+
+    /**
+     * Pool over a prepared session, e.g. one for direct delivery to an MX host
+     */
+    public SmtpConnectionPool(SmtpAccount account, Session session, int maxConnections) {
+        this.account = account;
+        this.session = session;
+        this.maxConnections = Math.max(1, maxConnections);
+    }
+
+    /**
+     * Take an idle connection or open a new one, waiting while all are in use
+     */
+    public Connection borrow() throws MessagingException, InterruptedException {
+        Connection connection = null;
+        synchronized (this) {
+            while (idle.isEmpty() && openConnections >= maxConnections && !closed) {
+                wait();
+            }
+            if (closed) {
+                throw new MessagingException("Connection pool for " + account + " is closed");
+            }
+            if (!idle.isEmpty()) {
+                connection = idle.pollFirst();
+            } else {
+                openConnections++;
+            }
+        }
+
+        try {
+            if (connection != null && System.currentTimeMillis() - connection.lastUsedMillis > VALIDATE_AFTER_IDLE_MILLIS
+                    && !connection.transport.isConnected()) {
+                // The server dropped it while idle; reconnect the same transport
+                connection.transport.connect();
+            }
+            if (connection == null) {
+                Transport transport = session.getTransport("smtp");
+                transport.connect();
+                connection = new Connection(transport);
+            }
+            return connection;
+        } catch (MessagingException | RuntimeException e) {
+            if (connection != null) {
+                closeQuietly(connection);
+            }
+            synchronized (this) {
+                openConnections--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Return a connection. Pass {@code healthy = false} after an I/O failure so the
+     * connection is closed and frees its slot.
+     */
+    public void release(Connection connection, boolean healthy) {
+        synchronized (this) {
+            if (healthy && !closed) {
+                connection.lastUsedMillis = System.currentTimeMillis();
+                idle.addFirst(connection);
+                notifyAll();
+                return;
+            }
+            openConnections--;
+            notifyAll();
+        }
+        closeQuietly(connection);
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public SmtpAccount getAccount() {
+        return account;
+    }
+
+    /**
+     * Close connections that have been idle longer than the given time
+     *
+     * @return connections still open (idle or in use)
+     */
+    public int closeIdle(long maxIdleMillis) {
+        Deque<Connection> toClose = new ArrayDeque<>();
+        int open;
+        synchronized (this) {
+            long cutoff = System.currentTimeMillis() - maxIdleMillis;
+            idle.removeIf(connection -> {
+                if (connection.lastUsedMillis < cutoff) {
+                    toClose.add(connection);
+                    return true;
+                }
+                return false;
+            });
+            openConnections -= toClose.size();
+            open = openConnections;
+            notifyAll();
+        }
+        toClose.forEach(SmtpConnectionPool::closeQuietly);
+        return open;
+    }
+
+    /**
+     * Close idle connections; connections in use are closed when released
+     */
+    public void close() {
+        Deque<Connection> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            openConnections -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+        toClose.forEach(SmtpConnectionPool::closeQuietly);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            // Already broken, nothing to do
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example;
+
+import com.sun.mail.smtp.SMTPTransport;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Provider;
+import jakarta.mail.Session;
+import jakarta.mail.URLName;
+import org.example.utils.LatencyHistogram;
+import org.example.utils.MetricsRegistry;
+import org.example.utils.PerformanceManager;
+import org.example.utils.SendEvents;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * SMTP transport that times connection setup in two phases: "smtp.connect" from the start
+ * until the server greeted us (TCP connect, and the TLS handshake on SSL ports), and
+ * "smtp.auth" from the first EHLO until the connection is ready (STARTTLS and AUTH).
+ * Jakarta Mail runs both inside one connect call, so the first EHLO marks the boundary.
+ * Connections and messages are also reported as {@link SendEvents} to Flight Recorder.
+ */
+public class TimedSmtpTransport extends SMTPTransport {
+
+    /**
+     * Provider to install on a session so its "smtp" transports are timed
+     */
+    public static final Provider PROVIDER = new Provider(Provider.Type.TRANSPORT, "smtp",
+        TimedSmtpTransport.class.getName(), "Oracle", "2.0.1");
+
+    private static final MetricsRegistry METRICS = PerformanceManager.metrics();
+    private static final LatencyHistogram CONNECT = METRICS.histogram("smtp.connect");
+    private static final LatencyHistogram AUTH = METRICS.histogram("smtp.auth");
+
+    private long greetedNanos;
+    private String connectedHost;
+    private long dataBytes;
+
+    public TimedSmtpTransport(Session session, URLName urlname) {
+        super(session, urlname);
+    }
+
+    @Override
+    protected synchronized boolean protocolConnect(String host, int port, String user, String password) throws MessagingException {
+        long start = System.nanoTime();
+        greetedNanos = 0;
+        connectedHost = host;
+        boolean connected = false;
+        SendEvents.SmtpConnect event = new SendEvents.SmtpConnect();
+        event.begin();
+        try {
+            // A false return without an exception means "ask for credentials and try again"
+            connected = super.protocolConnect(host, port, user, password);
+            return connected;
+        } catch (MessagingException | RuntimeException e) {
+            METRICS.counter("smtp.connect.failures").increment();
+            throw e;
+        } finally {
+            if (greetedNanos != 0) {
+                CONNECT.record((greetedNanos - start) / 1000);
+            }
+            if (connected && greetedNanos != 0) {
+                AUTH.recordSince(greetedNanos);
+            }
+            // Skip the credential-less first attempt that never opened a socket
+            event.end();
+            if (greetedNanos != 0 && event.shouldCommit()) {
+                event.host = host;
+                String configuredPort = session.getProperty("mail.smtp.port");
+                event.port = port != -1 ? port : configuredPort != null ? Integer.parseInt(configuredPort) : 25;
+                event.success = connected;
+                event.replyCode = getLastReturnCode();
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void sendMessage(Message message, Address[] addresses) throws MessagingException {
+        SendEvents.MessageSent event = new SendEvents.MessageSent();
+        event.begin();
+        dataBytes = 0;
+        boolean sent = false;
+        try {
+            super.sendMessage(message, addresses);
+            sent = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.host = connectedHost;
+                event.recipients = addresses != null ? addresses.length : 0;
+                event.size = dataBytes;
+                event.success = sent;
+                event.replyCode = getLastReturnCode();
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    protected OutputStream data() throws MessagingException {
+        // Count what goes over the wire, for the message size in MessageSent events
+        return new FilterOutputStream(super.data()) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                dataBytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                dataBytes += len;
+            }
+        };
+    }
+
+    @Override
+    protected boolean ehlo(String domain) throws MessagingException {
+        markGreeted();
+        return super.ehlo(domain);
+    }
+
+    @Override
+    protected void helo(String domain) throws MessagingException {
+        markGreeted();
+        super.helo(domain);
+    }
+
+    private void markGreeted() {
+        if (greetedNanos == 0) {
+            greetedNanos = System.nanoTime();
+        }
+    }
+}
@@ -1,15 +1,45 @@
 package org.example.controllers;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.chart.XYChart;
+import javafx.util.Duration;
 import org.example.views.DashboardView;
 import org.example.utils.AnimationUtils;
+import org.example.utils.LatencyHistogram;
+import org.example.utils.MetricsSnapshot;
+import org.example.utils.MetricsTimeSeries;
+import org.example.utils.PerformanceManager;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Controller for the dashboard view
  */
 public class DashboardController {
     
+    private static final String[][] PIPELINE_STAGES = {
+        {"smtp.connect", "SMTP connect"},
+        {"smtp.auth", "SMTP auth"},
+        {"smtp.data", "SMTP DATA"},
+        {"send.personalize", "Personalisation"},
+        {"send.recipient", "Per recipient"},
+        {"persist.write", "Persistence write"},
+        {"import.file", "File import"}
+    };
+    
+    // Seconds shown in the live charts, and how often they redraw when frames are scarce
+    private static final int LIVE_WINDOW = 120;
+    private static final int THROTTLED_UPDATE_TICKS = 5;
+    
     private final DashboardView view;
     private Runnable navigateToCompose;
+    private final MetricsTimeSeries timeSeries = PerformanceManager.timeSeries();
+    private final double[] liveBuffer = new double[LIVE_WINDOW];
+    private long lastDrawnSample;
+    private int ticksSinceDraw;
     
     public DashboardController(DashboardView view) {
         this.view = view;
@@ -25,6 +55,8 @@ public class DashboardController {
     private void initialize() {
         // Setup event handlers for dashboard buttons
         setupEventHandlers();
+        setupLiveCharts();
+        refreshDashboardData();
     }
     
     private void setupEventHandlers() {
@@ -46,10 +78,94 @@ public class DashboardController {
         });
     }
     
+    private void setupLiveCharts() {
+        // Create the points once; each update only changes their values
+        for (XYChart.Series<Number, Number> series : List.of(view.getThroughputSeries(),
+                view.getLatencyP50Series(), view.getLatencyP99Series())) {
+            for (int i = 0; i < LIVE_WINDOW; i++) {
+                series.getData().add(new XYChart.Data<>(i - (LIVE_WINDOW - 1), 0));
+            }
+        }
+        view.setLiveWindow(LIVE_WINDOW);
+        
+        Timeline liveTimer = new Timeline(new KeyFrame(Duration.seconds(1), e -> updateLiveCharts(false)));
+        liveTimer.setCycleCount(Animation.INDEFINITE);
+        liveTimer.play();
+    }
+    
+    /**
+     * Redraw the live section from the time series: only while the dashboard is on screen,
+     * only when a new sample arrived, and less often while the UI is short of frames
+     */
+    private void updateLiveCharts(boolean force) {
+        ticksSinceDraw++;
+        if (!force) {
+            if (view.getRoot().getScene() == null) return;
+            if (timeSeries.latestTimestamp() == lastDrawnSample) return;
+            if (PerformanceManager.getInstance().shouldThrottleAnimation() && ticksSinceDraw < THROTTLED_UPDATE_TICKS) return;
+        }
+        ticksSinceDraw = 0;
+        lastDrawnSample = timeSeries.latestTimestamp();
+        
+        fillSeries(view.getThroughputSeries(), MetricsTimeSeries.Series.SENT_PER_SECOND);
+        fillSeries(view.getLatencyP50Series(), MetricsTimeSeries.Series.LATENCY_P50_MILLIS);
+        fillSeries(view.getLatencyP99Series(), MetricsTimeSeries.Series.LATENCY_P99_MILLIS);
+        
+        view.setLiveValues(
+            String.format("%.1f", timeSeries.latest(MetricsTimeSeries.Series.SENT_PER_SECOND)),
+            String.format("%.1f%%", timeSeries.latest(MetricsTimeSeries.Series.ERROR_RATE) * 100),
+            String.format("%,.0f", timeSeries.latest(MetricsTimeSeries.Series.QUEUE_DEPTH)),
+            String.format("%.0f / %.0f ms", timeSeries.latest(MetricsTimeSeries.Series.LATENCY_P50_MILLIS),
+                timeSeries.latest(MetricsTimeSeries.Series.LATENCY_P99_MILLIS)));
+    }
+    
+    private void fillSeries(XYChart.Series<Number, Number> series, MetricsTimeSeries.Series source) {
+        int count = timeSeries.read(source, liveBuffer);
+        List<XYChart.Data<Number, Number>> points = series.getData();
+        // Right-align the samples so the newest is at 0 seconds ago
+        int offset = LIVE_WINDOW - count;
+        for (int i = 0; i < LIVE_WINDOW; i++) {
+            double value = i >= offset ? liveBuffer[i - offset] : 0;
+            XYChart.Data<Number, Number> point = points.get(i);
+            if (point.getYValue().doubleValue() != value) {
+                point.setYValue(value);
+            }
+        }
+    }
+    
     private void refreshDashboardData() {
-        // Implement dashboard data refresh logic here
-        // For now, just show a visual feedback
-        // This could update metrics, reload charts, etc.
+        updateLiveCharts(true);
+        MetricsSnapshot snapshot = PerformanceManager.metrics().snapshot();
+        
+        List<String[]> rows = new ArrayList<>();
+        for (String[] stage : PIPELINE_STAGES) {
+            LatencyHistogram.Snapshot histogram = snapshot.getHistogram(stage[0]);
+            if (histogram == null || histogram.getCount() == 0) continue;
+            rows.add(new String[] {
+                stage[1],
+                String.valueOf(histogram.getCount()),
+                formatMicros(histogram.getPercentileMicros(50)),
+                formatMicros(histogram.getPercentileMicros(99)),
+                formatMicros(histogram.getMaxMicros())
+            });
+        }
+        view.setPipelineRows(rows);
+        
+        view.setPipelineSummary(String.format(
+            "📤 %d sent · ⏳ %d deferred · ❌ %d failed · 🔌 %d connection failures · 📥 %d rows imported (%.0f rows/s)",
+            snapshot.getCounter("send.sent"), snapshot.getCounter("send.deferred"),
+            snapshot.getCounter("send.failed"), snapshot.getCounter("smtp.connect.failures"),
+            snapshot.getCounter("import.rows"), snapshot.getGauge("import.rowsPerSecond")));
+    }
+    
+    private static String formatMicros(long micros) {
+        if (micros < 1_000) {
+            return micros + " µs";
+        }
+        if (micros < 1_000_000) {
+            return String.format("%.1f ms", micros / 1_000.0);
+        }
+        return String.format("%.2f s", micros / 1_000_000.0);
     }
     
     public DashboardView getView() {
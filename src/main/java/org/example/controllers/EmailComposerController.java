@@ -2,22 +2,41 @@ package org.example.controllers;
 
 import javafx.application.Platform;
 import javafx.concurrent.Task;
+import javafx.geometry.Insets;
 import javafx.scene.control.Alert;
-import org.example.CsvReader;
-import org.example.ExcelReader;
-import org.example.MailSender;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import org.example.AdaptiveLimiter;
+import org.example.CampaignScheduler;
+import org.example.ContactImporter;
+import org.example.SendEngine;
+import org.example.models.AppendableContactTable;
+import org.example.models.Campaign;
 import org.example.models.Contact;
+import org.example.models.ContactTable;
 import org.example.models.EmailHistory;
 import org.example.models.EmailTemplate;
+import org.example.models.ScheduledCampaign;
 import org.example.utils.DataManager;
+import org.example.utils.MetricsRegistry;
+import org.example.utils.PerformanceManager;
 import org.example.views.EmailComposerView;
 
 import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
 
 /**
  * Controller for Email Composer functionality
@@ -28,12 +47,24 @@ public class EmailComposerController {
     private final List<EmailTemplate> templates;
     private final List<EmailHistory> emailHistory;
     private final DataManager dataManager;
+    private final SendEngine sendEngine;
+    private final CampaignScheduler scheduler;
     
-    public EmailComposerController(EmailComposerView view) {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter SCHEDULE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+    
+    // Import in progress, and the recipients of a send following it, or null; touched on the FX thread only
+    private Task<ContactImporter.Progress> importTask;
+    private AppendableContactTable followingRecipients;
+    
+    public EmailComposerController(EmailComposerView view, DataManager dataManager, SendEngine sendEngine,
+                                   CampaignScheduler scheduler) {
         this.view = view;
         this.templates = new ArrayList<>();
         this.emailHistory = new ArrayList<>();
-        this.dataManager = new DataManager();
+        this.dataManager = dataManager;
+        this.sendEngine = sendEngine;
+        this.scheduler = scheduler;
         initialize();
         loadSampleTemplates();
     }
@@ -42,6 +73,8 @@ public class EmailComposerController {
         // Setup event handlers
         view.getSendEmailBtn().setOnAction(e -> handleSendEmail());
         view.getSaveAsDraftBtn().setOnAction(e -> handleSaveDraft());
+        view.getScheduleBtn().setOnAction(e -> handleSchedule());
+        scheduler.addListener(job -> Platform.runLater(() -> showScheduledStatus(job)));
         view.getLoadTemplateBtn().setOnAction(e -> handleLoadTemplate());
         
         // File selection is already handled in the view
@@ -60,73 +93,52 @@ public class EmailComposerController {
     public void loadContactsFromFile(File file) {
         if (file == null) return;
         
-        Task<List<Contact>> loadTask = new Task<List<Contact>>() {
+        // A new file replaces the list, so stop filling it from the previous one
+        if (importTask != null) {
+            importTask.cancel();
+        }
+        view.getRecipients().clear();
+        
+        Task<ContactImporter.Progress> loadTask = new Task<ContactImporter.Progress>() {
             @Override
-            protected List<Contact> call() throws Exception {
-                List<Contact> contacts = new ArrayList<>();
-                
-                String fileName = file.getName().toLowerCase();
-                if (fileName.endsWith(".xlsx")) {
-                    // Load from Excel
-                    List<Map<String, String>> data = ExcelReader.readExcel(file.getAbsolutePath());
-                    
-                    for (Map<String, String> row : data) {
-                        String name = row.get("name");
-                        String email = row.get("email");
-                        
-                        if (email != null && !email.isEmpty()) {
-                            // Validate email
-                            if (email.matches("^[A-Za-z0-9+_.-]+@(.+)$")) {
-                                contacts.add(new Contact(name != null && !name.isEmpty() ? name : email, email));
-                            }
-                        }
-                    }
-                } else if (fileName.endsWith(".csv")) {
-                    // Load from CSV
-                    List<Map<String, String>> data = CsvReader.readCsv(file.getAbsolutePath());
-                    
-                    for (Map<String, String> row : data) {
-                        // Try common column names for name and email
-                        String name = row.get("name");
-                        if (name == null) name = row.get("Name");
-                        if (name == null) name = row.get("NAME");
-                        
-                        String email = row.get("email");
-                        if (email == null) email = row.get("Email");
-                        if (email == null) email = row.get("EMAIL");
-                        if (email == null) email = row.get("e-mail");
-                        if (email == null) email = row.get("E-mail");
-                        
-                        if (email != null && !email.isEmpty()) {
-                            // Validate email
-                            if (email.matches("^[A-Za-z0-9+_.-]+@(.+)$")) {
-                                contacts.add(new Contact(name != null && !name.isEmpty() ? name : email, email));
-                            }
-                        }
-                    }
-                }
-                
-                return contacts;
+            protected ContactImporter.Progress call() throws Exception {
+                long start = System.nanoTime();
+                // Contacts appear in the list chunk by chunk while the file is still being read
+                ContactImporter.Progress progress = ContactImporter.importFile(file, (chunk, counts) -> {
+                    Platform.runLater(() -> publishImportChunk(this, chunk));
+                    updateMessage(formatImportProgress("Importing", file, counts));
+                });
+                recordImport(start, progress.getRowsRead());
+                return progress;
             }
         };
+        importTask = loadTask;
+        // A send following the replaced import has nothing more coming
+        stopFollowingImport();
+        
+        loadTask.messageProperty().addListener((obs, oldMessage, message) -> {
+            if (importTask == loadTask) {
+                view.setStatusText(message);
+            }
+        });
         
         loadTask.setOnSucceeded(e -> {
-            List<Contact> loadedContacts = loadTask.getValue();
-            Platform.runLater(() -> {
-                view.getRecipients().clear();
-                view.getRecipients().addAll(loadedContacts);
-                view.setStatusText(String.format("Loaded %d contacts from %s", 
-                    loadedContacts.size(), file.getName()));
-            });
+            if (importTask == loadTask) {
+                importTask = null;
+                view.setStatusText(formatImportProgress("Loaded", file, loadTask.getValue()));
+                stopFollowingImport();
+            }
         });
         
         loadTask.setOnFailed(e -> {
-            Platform.runLater(() -> {
+            if (importTask == loadTask) {
+                importTask = null;
                 Throwable exception = loadTask.getException();
                 showAlert("File Loading Error", 
                     "Failed to load contacts from file: " + exception.getMessage());
                 view.setStatusText("Failed to load file: " + exception.getMessage());
-            });
+                stopFollowingImport();
+            }
         });
         
         // Show loading status
@@ -138,11 +150,49 @@ public class EmailComposerController {
         loadThread.start();
     }
     
+    private static String formatImportProgress(String verb, File file, ContactImporter.Progress progress) {
+        return String.format("%s %s: %,d rows read, %,d valid, %,d invalid, %,d duplicates", 
+            verb, file.getName(), progress.getRowsRead(), progress.getValid(), 
+            progress.getInvalid(), progress.getDuplicates());
+    }
+    
+    /**
+     * Show one chunk of a running import, and hand it to a send that is following the import
+     */
+    private void publishImportChunk(Task<?> task, ContactTable chunk) {
+        if (importTask != task) {
+            // Chunk of an import that was replaced by another file
+            return;
+        }
+        view.getRecipients().addAll(chunk);
+        if (followingRecipients != null) {
+            followingRecipients.append(chunk);
+        }
+    }
+    
+    /**
+     * Let a send following the import finish once it has sent what it has
+     */
+    private void stopFollowingImport() {
+        if (followingRecipients != null) {
+            followingRecipients.close();
+            followingRecipients = null;
+        }
+    }
+    
+    private static void recordImport(long startNanos, int rows) {
+        MetricsRegistry metrics = PerformanceManager.metrics();
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        metrics.histogram("import.file").recordSince(startNanos);
+        metrics.counter("import.rows").add(rows);
+        metrics.setGauge("import.rowsPerSecond", rows * 1e9 / elapsedNanos);
+    }
+    
     private void handleSendEmail() {
         // Validate input
         String subject = view.getSubjectField().getText().trim();
         String content = view.getContentArea().getText().trim();
-        List<Contact> recipients = new ArrayList<>(view.getRecipients());
+        ContactTable recipients = view.getRecipients().snapshot();
         
         if (subject.isEmpty()) {
             showAlert("Validation Error", "Please enter an email subject.");
@@ -171,93 +221,61 @@ public class EmailComposerController {
             return;
         }
         
-        // Create email history entry
-        List<String> recipientEmails = recipients.stream()
-            .map(Contact::getEmail)
-            .toList();
-        
-        EmailHistory history = new EmailHistory(subject, content, recipientEmails, senderEmail);
-        history.setStatus(EmailHistory.Status.SENT);
-        history.setSentAt(LocalDateTime.now());
+        // While a file is still importing, one campaign keeps taking its contacts as they arrive
+        Campaign campaign;
+        if (importTask != null) {
+            if (followingRecipients != null) {
+                showAlert("Send In Progress", "The contacts being imported are already being sent as they arrive.");
+                return;
+            }
+            followingRecipients = new AppendableContactTable(recipients);
+            campaign = Campaign.create(subject, content, followingRecipients, senderEmail);
+        } else {
+            // Create the campaign; its history entry and ledger are persisted by the send engine
+            campaign = Campaign.create(subject, content, recipients, senderEmail);
+        }
+        campaign.setPriority(view.getPriorityComboBox().getValue());
         
         // Start sending process
-        sendEmailsAsync(subject, content, recipients, history, senderEmail, emailPassword);
+        sendEmailsAsync(campaign);
     }
     
-    private void sendEmailsAsync(String subject, String content, List<Contact> recipients, EmailHistory history, String senderEmail, String emailPassword) {
+    private void sendEmailsAsync(Campaign campaign) {
         view.showProgress(true);
         view.setProgress(0.0);
-        view.setStatusText("Sending emails...");
+        showConcurrency();
+        view.setStatusText(sendEngine.getQueuedCampaigns() > 0 
+            ? "Queued behind other campaigns..." : "Sending emails...");
+        
+        EmailHistory history = campaign.getHistory();
         
         Task<Void> sendTask = new Task<Void>() {
             @Override
             protected Void call() throws Exception {
-                int total = recipients.size();
-                int successful = 0;
-                int failed = 0;
-                
-                for (int i = 0; i < recipients.size(); i++) {
-                    Contact contact = recipients.get(i);
-                    final int currentIndex = i; // Make a final copy for lambda
-                    
-                    try {
-                        // Personalize content
-                        String personalizedContent = personalizeContent(content, contact);
-                        
-                        // Get email settings
-                        var settings = dataManager.loadSettings();
-                        String smtpHost = (String) settings.get("smtpHost");
-                        String smtpPort = (String) settings.get("smtpPort");
-                        boolean enableSSL = (Boolean) settings.get("enableSSL");
-                        boolean enableSTARTTLS = (Boolean) settings.get("enableSTARTTLS");
-                        
-                        // Send email using static method with settings
-                        MailSender.sendMail(contact.getEmail(), subject, personalizedContent, 
-                                          senderEmail, emailPassword, smtpHost, smtpPort, enableSSL, enableSTARTTLS);
-                        successful++;
-                        
-                        Platform.runLater(() -> {
-                            view.setStatusText(String.format("Sent to %s (%d/%d)", 
-                                contact.getEmail(), currentIndex + 1, total));
-                        });
-                        
-                    } catch (Exception e) {
-                        failed++;
-                        System.err.println("Failed to send to " + contact.getEmail() + ": " + e.getMessage());
+                // The total grows while a following send takes contacts from the import
+                sendEngine.send(campaign, (done, total, contact, success) -> Platform.runLater(() -> {
+                    if (success) {
+                        view.setStatusText(String.format("Sent to %s (%d/%d)", contact.getEmail(), done, total));
                     }
-                    
-                    // Update progress
-                    double progress = (double) (currentIndex + 1) / total;
-                    Platform.runLater(() -> view.setProgress(progress));
-                    
-                    // Small delay to avoid overwhelming the mail server
-                    Thread.sleep(1000);
-                }
-                
-                // Update history
-                history.setSuccessfulDeliveries(successful);
-                history.setFailedDeliveries(failed);
-                if (successful > 0) {
-                    history.setStatus(EmailHistory.Status.DELIVERED);
-                    history.setDeliveredAt(LocalDateTime.now());
-                }
-                
+                    view.setProgress((double) done / total);
+                    showConcurrency();
+                }));
                 return null;
             }
         };
         
         sendTask.setOnSucceeded(e -> {
             Platform.runLater(() -> {
-                view.showProgress(false);
                 int successful = history.getSuccessfulDeliveries();
                 int failed = history.getFailedDeliveries();
                 
-                view.setStatusText(String.format("Email sending completed! Success: %d, Failed: %d", 
-                    successful, failed));
-                
                 // Add to history
                 emailHistory.add(history);
                 
+                view.showProgress(false);
+                view.setStatusText(String.format("Email sending completed! Success: %d, Failed: %d", 
+                    successful, failed));
+                
                 // Show completion dialog
                 showAlert("Email Sent", 
                     String.format("Email sending completed!\n\nSuccessful: %d\nFailed: %d\nSuccess Rate: %.1f%%",
@@ -267,6 +285,10 @@ public class EmailComposerController {
         
         sendTask.setOnFailed(e -> {
             Platform.runLater(() -> {
+                if (followingRecipients != null && campaign.getRecipientSource() == followingRecipients) {
+                    // Stop following the import; the contacts stay in the list
+                    stopFollowingImport();
+                }
                 view.showProgress(false);
                 Throwable exception = sendTask.getException();
                 view.setStatusText("Email sending failed: " + exception.getMessage());
@@ -280,15 +302,97 @@ public class EmailComposerController {
         sendThread.start();
     }
     
-    private String personalizeContent(String content, Contact contact) {
-        String personalized = content;
+    private void handleSchedule() {
+        String subject = view.getSubjectField().getText().trim();
+        String content = view.getContentArea().getText().trim();
+        List<Contact> recipients = view.getRecipients().snapshot().asContactList();
         
-        // Replace placeholders
-        personalized = personalized.replace("{name}", contact.getName() != null ? contact.getName() : "Valued Customer");
-        personalized = personalized.replace("{email}", contact.getEmail());
-        personalized = personalized.replace("{company}", contact.getCompany() != null ? contact.getCompany() : "your organization");
+        if (subject.isEmpty() || content.isEmpty() || recipients.isEmpty()) {
+            showAlert("Validation Error", "Please enter a subject, content and at least one recipient before scheduling.");
+            return;
+        }
         
-        return personalized;
+        Optional<ScheduledCampaign> choice = showScheduleDialog();
+        if (choice.isEmpty()) {
+            return;
+        }
+        
+        ScheduledCampaign chosen = choice.get();
+        try {
+            ScheduledCampaign job = scheduler.schedule(subject, content, recipients, 
+                chosen.getScheduledAt(), chosen.getSpreadMinutes());
+            String window = job.getSpreadMinutes() > 0 
+                ? String.format(" over %d minutes", job.getSpreadMinutes()) : "";
+            showAlert("Campaign Scheduled", String.format("\"%s\" will be sent to %d recipients on %s%s.", 
+                subject, recipients.size(), job.getScheduledAt().format(SCHEDULE_FORMAT), window));
+        } catch (IOException e) {
+            showAlert("Scheduling Error", "Failed to schedule campaign: " + e.getMessage());
+        }
+    }
+    
+    private void showConcurrency() {
+        AdaptiveLimiter limiter = sendEngine.getConcurrencyLimiter();
+        view.setConcurrencyText(String.format("⚡ %d parallel sends · %d ms per message · %.0f%% deferred", 
+            limiter.getLimit(), limiter.getLatencyMillis(), limiter.getErrorRate() * 100));
+    }
+    
+    /**
+     * Ask for the send time and spread window; the result only carries those two fields
+     */
+    private Optional<ScheduledCampaign> showScheduleDialog() {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Schedule Campaign");
+        dialog.setHeaderText("Choose when to send this campaign");
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        
+        LocalDateTime defaultTime = LocalDateTime.now().plusHours(1).withMinute(0).withSecond(0).withNano(0);
+        DatePicker datePicker = new DatePicker(defaultTime.toLocalDate());
+        TextField timeField = new TextField(defaultTime.toLocalTime().format(TIME_FORMAT));
+        timeField.setPromptText("HH:mm");
+        Spinner<Integer> spreadSpinner = new Spinner<>(0, 24 * 60, 0, 15);
+        spreadSpinner.setEditable(true);
+        
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20));
+        grid.addRow(0, new Label("Date:"), datePicker);
+        grid.addRow(1, new Label("Time (HH:mm):"), timeField);
+        grid.addRow(2, new Label("Spread over (minutes):"), spreadSpinner);
+        dialog.getDialogPane().setContent(grid);
+        
+        Optional<ButtonType> result = dialog.showAndWait();
+        if (result.isEmpty() || result.get() != ButtonType.OK) {
+            return Optional.empty();
+        }
+        
+        LocalDate date = datePicker.getValue();
+        LocalTime time;
+        try {
+            time = LocalTime.parse(timeField.getText().trim(), TIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            showAlert("Validation Error", "Please enter the time as HH:mm, e.g. 09:30.");
+            return Optional.empty();
+        }
+        if (date == null) {
+            showAlert("Validation Error", "Please pick a date.");
+            return Optional.empty();
+        }
+        
+        ScheduledCampaign choice = new ScheduledCampaign();
+        choice.setScheduledAt(LocalDateTime.of(date, time));
+        choice.setSpreadMinutes(spreadSpinner.getValue());
+        return Optional.of(choice);
+    }
+    
+    private void showScheduledStatus(ScheduledCampaign job) {
+        switch (job.getStatus()) {
+            case SCHEDULED -> view.setStatusText("⏰ Scheduled: " + job.getSubject() + " on " + job.getScheduledAt().format(SCHEDULE_FORMAT));
+            case RUNNING -> view.setStatusText("📤 Sending scheduled campaign: " + job.getSubject());
+            case COMPLETED -> view.setStatusText("✅ Scheduled campaign sent: " + job.getSubject());
+            case CANCELLED -> view.setStatusText("Scheduled campaign cancelled: " + job.getSubject());
+            case FAILED -> view.setStatusText("❌ Scheduled campaign failed: " + job.getErrorMessage());
+        }
     }
     
     private void handleSaveDraft() {
@@ -300,19 +404,40 @@ public class EmailComposerController {
             return;
         }
         
-        // Create draft entry
-        List<String> recipientEmails = view.getRecipients().stream()
-            .map(Contact::getEmail)
-            .toList();
+        // Create draft entry; it is written to disk off the FX thread
+        ContactTable recipients = view.getRecipients().snapshot();
+        String senderEmail = getEmailCredentialFromSettings("senderEmail");
         
-        EmailHistory draft = new EmailHistory(subject, content, recipientEmails, 
-            getEmailCredentialFromSettings("senderEmail"));
-        draft.setStatus(EmailHistory.Status.DRAFT);
+        Task<EmailHistory> saveTask = new Task<EmailHistory>() {
+            @Override
+            protected EmailHistory call() {
+                List<String> recipientEmails = new ArrayList<>(recipients.size());
+                for (int i = 0; i < recipients.size(); i++) {
+                    recipientEmails.add(recipients.getEmail(i));
+                }
+                
+                EmailHistory draft = new EmailHistory(subject, content, recipientEmails, senderEmail);
+                draft.setStatus(EmailHistory.Status.DRAFT);
+                dataManager.addHistoryEntry(draft);
+                return draft;
+            }
+        };
         
-        emailHistory.add(draft);
+        saveTask.setOnSucceeded(e -> {
+            emailHistory.add(saveTask.getValue());
+            view.setStatusText("Draft saved successfully!");
+            showAlert("Draft Saved", "Your email draft has been saved successfully.");
+        });
+        
+        saveTask.setOnFailed(e -> {
+            view.setStatusText("Failed to save draft: " + saveTask.getException().getMessage());
+            showAlert("Save Draft", "Failed to save draft: " + saveTask.getException().getMessage());
+        });
         
-        view.setStatusText("Draft saved successfully!");
-        showAlert("Draft Saved", "Your email draft has been saved successfully.");
+        view.setStatusText("Saving draft...");
+        Thread saveThread = new Thread(saveTask);
+        saveThread.setDaemon(true);
+        saveThread.start();
     }
     
     private void handleLoadTemplate() {
@@ -1,26 +1,66 @@
 package org.example.controllers;
 
+import javafx.animation.PauseTransition;
+import javafx.concurrent.Task;
 import javafx.scene.control.Alert;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+import org.example.SendEngine;
+import org.example.models.Campaign;
+import org.example.models.DeliveryLedger;
 import org.example.models.EmailHistory;
+import org.example.models.EmailHistorySummary;
+import org.example.models.HistoryPartition;
+import org.example.utils.DataManager;
+import org.example.utils.HistoryExporter;
+import org.example.utils.HistoryPageSource;
+import org.example.utils.PartitionedHistoryPageSource;
 import org.example.views.ContactHistoryView;
 
-import java.time.LocalDateTime;
+import java.io.File;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 /**
  * Controller for Email History functionality
  */
 public class HistoryController {
     
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_DETAIL_RECIPIENTS = 20;
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
+    
     private final ContactHistoryView view;
-    private List<EmailHistory> allHistory;
+    private final DataManager dataManager;
+    private final SendEngine sendEngine;
+    private List<HistoryPartition> manifest;
+    private HistoryPageSource pageSource;
+    private int pageIndex;
+    private Task<EmailHistory> detailsTask;
+    private Task<Long> exportTask;
+    private Task<List<EmailHistorySummary>> filterTask;
+    private Task<List<EmailHistorySummary>> pageTask;
+    // History changes and manifest reloads run one at a time, so their results arrive in order
+    private final ExecutorService historyThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "HistoryController-Update");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
     
-    public HistoryController(ContactHistoryView view) {
+    public HistoryController(ContactHistoryView view, DataManager dataManager, SendEngine sendEngine) {
         this.view = view;
-        this.allHistory = new ArrayList<>();
+        this.dataManager = dataManager;
+        this.sendEngine = sendEngine;
+        this.manifest = new ArrayList<>();
+        this.pageSource = HistoryPageSource.of(List.of());
         initialize();
-        loadSampleHistory();
+        loadHistory();
     }
     
     private void initialize() {
@@ -28,48 +68,197 @@ public class HistoryController {
         view.getRefreshBtn().setOnAction(e -> handleRefresh());
         view.getExportBtn().setOnAction(e -> handleExport());
         view.getDeleteBtn().setOnAction(e -> handleDelete());
+        view.getDeleteItem().setOnAction(e -> handleDelete());
+        view.getViewDetailsItem().setOnAction(e -> 
+            showDetails(view.getHistoryTableView().getSelectionModel().getSelectedItem()));
+        view.getResendItem().setOnAction(e -> handleResendFailed());
         
-        // Search and filter handlers
-        view.getSearchField().textProperty().addListener((obs, oldVal, newVal) -> applyFilters());
+        // Search and filter handlers; typing only filters once the user pauses
+        searchDelay.setOnFinished(e -> applyFilters());
+        view.getSearchField().textProperty().addListener((obs, oldVal, newVal) -> searchDelay.playFromStart());
         view.getStatusFilterComboBox().valueProperty().addListener((obs, oldVal, newVal) -> applyFilters());
         view.getStartDatePicker().valueProperty().addListener((obs, oldVal, newVal) -> applyFilters());
         view.getEndDatePicker().valueProperty().addListener((obs, oldVal, newVal) -> applyFilters());
         
-        // Table selection handler
+        // Paging handlers
+        view.getPreviousPageBtn().setOnAction(e -> showPage(pageIndex - 1));
+        view.getNextPageBtn().setOnAction(e -> showPage(pageIndex + 1));
+        
+        // Table selection handler - body and recipients are only read from disk for the selected row
         view.getHistoryTableView().getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
             view.getDeleteBtn().setDisable(newVal == null);
+            view.getResendItem().setDisable(newVal == null || newVal.getFailedDeliveries() == 0);
+            showDetails(newVal);
         });
         
         view.getDeleteBtn().setDisable(true);
+        view.getResendItem().setDisable(true);
     }
     
     private void handleRefresh() {
         view.setStatusText("Refreshing email history...");
-        
-        // In a real application, this would reload from database or file
-        // For now, we'll just refresh the current data
-        applyFilters();
-        updateStatistics();
-        
-        view.setStatusText("Email history refreshed");
+        updateHistory(null, () -> "Email history refreshed");
     }
     
     private void handleExport() {
-        if (view.getEmailHistory().isEmpty()) {
+        // The export button doubles as cancel while an export is running
+        if (exportTask != null && exportTask.isRunning()) {
+            exportTask.cancel();
+            return;
+        }
+        
+        if (totalEntries() == 0) {
             showAlert("Export Error", "No email history data to export.");
             return;
         }
         
-        // Simulate export functionality
-        showAlert("Export", 
-            "Export functionality would save the email history to a CSV or Excel file.\\n\\n" +
-            "This feature is coming soon!");
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Email History");
+        fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+            new FileChooser.ExtensionFilter("Excel Files", "*.xlsx")
+        );
+        fileChooser.setInitialFileName("email-history.csv");
+        
+        File file = fileChooser.showSaveDialog(view.getRoot().getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        
+        HistoryExporter.Format format = file.getName().toLowerCase().endsWith(".xlsx") 
+            ? HistoryExporter.Format.XLSX : HistoryExporter.Format.CSV;
+        LocalDate startDate = view.getStartDatePicker().getValue();
+        LocalDate endDate = view.getEndDatePicker().getValue();
+        HistoryExporter exporter = new HistoryExporter(dataManager);
+        
+        Task<Long> task = new Task<Long>() {
+            @Override
+            protected Long call() throws Exception {
+                return exporter.export(file.toPath(), format, startDate, endDate, this::isCancelled,
+                    (rows, done, total) -> {
+                        updateProgress(done, Math.max(1, total));
+                        updateMessage(String.format("Exporting... %,d rows (%d/%d emails)", rows, done, total));
+                    });
+            }
+        };
+        
+        task.messageProperty().addListener((obs, oldVal, newVal) -> view.setStatusText(newVal));
+        
+        task.setOnSucceeded(e -> {
+            view.setExporting(false);
+            view.setStatusText(String.format("Exported %,d rows to %s", task.getValue(), file.getName()));
+        });
+        
+        task.setOnCancelled(e -> {
+            view.setExporting(false);
+            view.setStatusText("Export cancelled");
+        });
+        
+        task.setOnFailed(e -> {
+            view.setExporting(false);
+            if (!(task.getException() instanceof CancellationException)) {
+                view.setStatusText("Export failed: " + task.getException().getMessage());
+                showAlert("Export Error", "Failed to export history: " + task.getException().getMessage());
+            }
+        });
+        
+        exportTask = task;
+        view.setExporting(true);
+        view.getExportProgress().progressProperty().bind(task.progressProperty());
+        
+        // Run export in background thread
+        Thread exportThread = new Thread(task);
+        exportThread.setDaemon(true);
+        exportThread.start();
+    }
+    
+    private void handleResendFailed() {
+        EmailHistorySummary selected = view.getHistoryTableView().getSelectionModel().getSelectedItem();
+        if (selected == null) {
+            showAlert("No Selection", "Please select an email history entry to resend.");
+            return;
+        }
+        
+        view.setStatusText("Preparing resend...");
         
-        view.setStatusText("Export feature coming soon");
+        // Build the retry campaign from the stored entry and ledger off the FX thread
+        Task<Campaign> prepareTask = new Task<Campaign>() {
+            @Override
+            protected Campaign call() throws Exception {
+                EmailHistory original = dataManager.loadHistoryEntry(selected);
+                DeliveryLedger ledger = dataManager.loadLedger(selected);
+                if (original == null || ledger == null) {
+                    throw new Exception("No per-recipient delivery outcomes were recorded for this email, " +
+                        "so its failed recipients can't be identified.");
+                }
+                return sendEngine.createRetryCampaign(original, ledger);
+            }
+        };
+        
+        prepareTask.setOnSucceeded(e -> {
+            Campaign campaign = prepareTask.getValue();
+            if (campaign == null) {
+                view.setStatusText("Nothing to resend");
+                showAlert("Resend", "All recipients of this email were delivered successfully.");
+                return;
+            }
+            
+            Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
+            confirmDialog.setTitle("Confirm Resend");
+            confirmDialog.setHeaderText("Resend to Failed Recipients");
+            confirmDialog.setContentText(String.format("Resend \"%s\" to %d failed or deferred recipient(s)?", 
+                campaign.getSubject(), campaign.getRecipients().size()));
+            
+            confirmDialog.showAndWait().ifPresent(result -> {
+                if (result.getButtonData().isDefaultButton()) {
+                    sendRetryCampaign(campaign);
+                } else {
+                    view.setStatusText("Resend cancelled");
+                }
+            });
+        });
+        
+        prepareTask.setOnFailed(e -> {
+            view.setStatusText("Resend unavailable");
+            showAlert("Resend", prepareTask.getException().getMessage());
+        });
+        
+        Thread prepareThread = new Thread(prepareTask);
+        prepareThread.setDaemon(true);
+        prepareThread.start();
+    }
+    
+    private void sendRetryCampaign(Campaign campaign) {
+        Task<Void> sendTask = new Task<Void>() {
+            @Override
+            protected Void call() throws Exception {
+                sendEngine.send(campaign, (done, total, contact, success) -> 
+                    updateMessage(String.format("Resending... %d/%d", done, total)));
+                return null;
+            }
+        };
+        
+        sendTask.messageProperty().addListener((obs, oldVal, newVal) -> view.setStatusText(newVal));
+        
+        sendTask.setOnSucceeded(e -> {
+            EmailHistory history = campaign.getHistory();
+            updateHistory(null, () -> String.format("Resend completed! Success: %d, Failed: %d", 
+                history.getSuccessfulDeliveries(), history.getFailedDeliveries()));
+        });
+        
+        sendTask.setOnFailed(e -> {
+            view.setStatusText("Resend failed: " + sendTask.getException().getMessage());
+            showAlert("Sending Error", "Failed to resend emails: " + sendTask.getException().getMessage());
+        });
+        
+        view.setStatusText("Resending...");
+        Thread sendThread = new Thread(sendTask);
+        sendThread.setDaemon(true);
+        sendThread.start();
     }
     
     private void handleDelete() {
-        EmailHistory selected = view.getHistoryTableView().getSelectionModel().getSelectedItem();
+        EmailHistorySummary selected = view.getHistoryTableView().getSelectionModel().getSelectedItem();
         if (selected == null) {
             showAlert("No Selection", "Please select an email history entry to delete.");
             return;
@@ -79,33 +268,83 @@ public class HistoryController {
         Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
         confirmDialog.setTitle("Confirm Deletion");
         confirmDialog.setHeaderText("Delete Email History");
-        confirmDialog.setContentText("Are you sure you want to delete this email history entry?\\n\\nSubject: " + selected.getSubject());
+        confirmDialog.setContentText("Are you sure you want to delete this email history entry?\n\nSubject: " + selected.getSubject());
         
         confirmDialog.showAndWait().ifPresent(result -> {
             if (result.getButtonData().isDefaultButton()) {
-                allHistory.remove(selected);
-                view.getEmailHistory().remove(selected);
-                updateStatistics();
-                view.setStatusText("Email history entry deleted");
+                view.setStatusText("Deleting email history entry...");
+                updateHistory(() -> dataManager.deleteHistoryEntry(selected), () -> "Email history entry deleted");
             }
         });
     }
     
     private void applyFilters() {
-        List<EmailHistory> filteredHistory = new ArrayList<>(allHistory);
-        
-        // Apply search filter
         String searchText = view.getSearchField().getText().toLowerCase().trim();
+        String statusFilter = view.getStatusFilterComboBox().getValue();
+        LocalDate startDate = view.getStartDatePicker().getValue();
+        LocalDate endDate = view.getEndDatePicker().getValue();
+        
+        boolean filtered = !searchText.isEmpty() || startDate != null || endDate != null
+            || (statusFilter != null && !statusFilter.equals("All Status"));
+        
+        if (!filtered) {
+            if (filterTask != null) {
+                filterTask.cancel();
+                filterTask = null;
+            }
+            // Unfiltered view pages straight over the partitions
+            pageSource = new PartitionedHistoryPageSource(dataManager, manifest);
+            showPage(0);
+            view.setStatusText("Showing " + pageSource.size() + " of " + totalEntries() + " entries");
+            return;
+        }
+        
+        // Partitions are read and filtered off the FX thread; a newer filter supersedes this one
+        Task<List<EmailHistorySummary>> task = new Task<List<EmailHistorySummary>>() {
+            @Override
+            protected List<EmailHistorySummary> call() {
+                return filterSummaries(searchText, statusFilter, startDate, endDate);
+            }
+        };
+        
+        task.setOnSucceeded(e -> {
+            // Only the current page is bound to the table
+            List<EmailHistorySummary> filteredHistory = task.getValue();
+            pageSource = HistoryPageSource.of(filteredHistory);
+            showPage(0);
+            view.setStatusText("Showing " + filteredHistory.size() + " of " + totalEntries() + " entries");
+        });
+        
+        task.setOnFailed(e -> view.setStatusText("Failed to filter history: " + task.getException().getMessage()));
+        
+        startFilterTask(task);
+        view.setStatusText("Filtering...");
+    }
+    
+    private void startFilterTask(Task<List<EmailHistorySummary>> task) {
+        if (filterTask != null) {
+            filterTask.cancel();
+        }
+        filterTask = task;
+        Thread filterThread = new Thread(task);
+        filterThread.setDaemon(true);
+        filterThread.start();
+    }
+    
+    private List<EmailHistorySummary> filterSummaries(String searchText, String statusFilter, 
+            LocalDate startDate, LocalDate endDate) {
+        // Only partitions overlapping the date range are opened
+        List<EmailHistorySummary> filteredHistory = dataManager.loadHistorySummaries(startDate, endDate);
+        
+        // Apply search filter (bodies are not held in memory, so search covers subject and sender)
         if (!searchText.isEmpty()) {
             filteredHistory.removeIf(history -> 
-                !history.getSubject().toLowerCase().contains(searchText) &&
-                !history.getSenderEmail().toLowerCase().contains(searchText) &&
-                !history.getContent().toLowerCase().contains(searchText)
+                !containsIgnoreCase(history.getSubject(), searchText) &&
+                !containsIgnoreCase(history.getSenderEmail(), searchText)
             );
         }
         
         // Apply status filter
-        String statusFilter = view.getStatusFilterComboBox().getValue();
         if (statusFilter != null && !statusFilter.equals("All Status")) {
             filteredHistory.removeIf(history -> 
                 !history.getStatus().name().equalsIgnoreCase(statusFilter)
@@ -113,84 +352,152 @@ public class HistoryController {
         }
         
         // Apply date filters
-        if (view.getStartDatePicker().getValue() != null) {
+        if (startDate != null) {
             filteredHistory.removeIf(history -> {
                 if (history.getSentAt() == null) return true;
-                return history.getSentAt().toLocalDate().isBefore(view.getStartDatePicker().getValue());
+                return history.getSentAt().toLocalDate().isBefore(startDate);
             });
         }
         
-        if (view.getEndDatePicker().getValue() != null) {
+        if (endDate != null) {
             filteredHistory.removeIf(history -> {
                 if (history.getSentAt() == null) return true;
-                return history.getSentAt().toLocalDate().isAfter(view.getEndDatePicker().getValue());
+                return history.getSentAt().toLocalDate().isAfter(endDate);
             });
         }
         
-        // Update the observable list
-        view.getEmailHistory().setAll(filteredHistory);
+        return filteredHistory;
+    }
+    
+    private void showPage(int index) {
+        int pageCount = pageSource.pageCount(PAGE_SIZE);
+        pageIndex = Math.max(0, Math.min(index, pageCount - 1));
+        view.setPageInfo(pageIndex, pageCount);
+        
+        // A page may have to open partitions, so it is read off the FX thread; a newer page supersedes it
+        if (pageTask != null) {
+            pageTask.cancel();
+        }
+        HistoryPageSource source = pageSource;
+        int offset = pageIndex * PAGE_SIZE;
+        Task<List<EmailHistorySummary>> task = new Task<List<EmailHistorySummary>>() {
+            @Override
+            protected List<EmailHistorySummary> call() {
+                return new ArrayList<>(source.page(offset, PAGE_SIZE));
+            }
+        };
+        
+        task.setOnSucceeded(e -> view.getEmailHistory().setAll(task.getValue()));
+        task.setOnFailed(e -> view.setStatusText("Failed to load history page: " + task.getException().getMessage()));
+        
+        pageTask = task;
+        Thread pageThread = new Thread(task);
+        pageThread.setDaemon(true);
+        pageThread.start();
+    }
+    
+    private void showDetails(EmailHistorySummary summary) {
+        if (detailsTask != null) {
+            detailsTask.cancel();
+        }
+        if (summary == null) {
+            view.showDetails("Select an entry to view its content", "", "");
+            return;
+        }
+        
+        view.showDetails(summary.getSubject(), "Loading...", "");
         
-        view.setStatusText("Showing " + filteredHistory.size() + " of " + allHistory.size() + " entries");
+        Task<EmailHistory> task = new Task<EmailHistory>() {
+            @Override
+            protected EmailHistory call() {
+                return dataManager.loadHistoryEntry(summary);
+            }
+        };
+        
+        task.setOnSucceeded(e -> {
+            EmailHistory entry = task.getValue();
+            if (entry == null) {
+                view.showDetails(summary.getSubject(), "Details are not available for this entry", "");
+                return;
+            }
+            view.showDetails(entry.getSubject(), entry.getRecipients() != null 
+                    ? formatRecipients(entry.getRecipients()) : "To: " + entry.getTotalRecipients() + " recipients", 
+                entry.getContent() != null ? entry.getContent() : "");
+        });
+        
+        task.setOnFailed(e -> view.showDetails(summary.getSubject(), 
+            "Failed to load details: " + task.getException().getMessage(), ""));
+        
+        detailsTask = task;
+        Thread detailsThread = new Thread(task);
+        detailsThread.setDaemon(true);
+        detailsThread.start();
+    }
+    
+    private String formatRecipients(List<String> recipients) {
+        if (recipients == null || recipients.isEmpty()) {
+            return "No recipients";
+        }
+        String shown = String.join(", ", recipients.subList(0, Math.min(MAX_DETAIL_RECIPIENTS, recipients.size())));
+        if (recipients.size() > MAX_DETAIL_RECIPIENTS) {
+            shown += " and " + (recipients.size() - MAX_DETAIL_RECIPIENTS) + " more";
+        }
+        return "To: " + shown;
+    }
+    
+    private static boolean containsIgnoreCase(String value, String searchText) {
+        return value != null && value.toLowerCase().contains(searchText);
+    }
+    
+    private int totalEntries() {
+        return manifest.stream().mapToInt(HistoryPartition::getCount).sum();
     }
     
     private void updateStatistics() {
-        int total = allHistory.size();
-        int successful = (int) allHistory.stream()
-            .mapToInt(EmailHistory::getSuccessfulDeliveries)
+        // Totals come from the manifest, so no partition has to be opened
+        int total = totalEntries();
+        int successful = manifest.stream()
+            .mapToInt(HistoryPartition::getSuccessfulDeliveries)
             .sum();
-        int failed = (int) allHistory.stream()
-            .mapToInt(EmailHistory::getFailedDeliveries)
+        int failed = manifest.stream()
+            .mapToInt(HistoryPartition::getFailedDeliveries)
             .sum();
         
-        double successRate = total > 0 ? (double) successful / (successful + failed) * 100.0 : 0.0;
+        double successRate = successful + failed > 0 ? (double) successful / (successful + failed) * 100.0 : 0.0;
         
         view.updateStatistics(total, successful, failed, successRate);
     }
     
-    private void loadSampleHistory() {
-        // Add sample email history data
-        List<String> recipients1 = List.of("user1@example.com", "user2@example.com", "user3@example.com");
-        EmailHistory history1 = new EmailHistory("Welcome to Our Service", 
-            "Welcome email content here...", recipients1, "admin@company.com");
-        history1.setStatus(EmailHistory.Status.DELIVERED);
-        history1.setSentAt(LocalDateTime.now().minusDays(1));
-        history1.setDeliveredAt(LocalDateTime.now().minusDays(1).plusMinutes(5));
-        history1.setSuccessfulDeliveries(3);
-        history1.setFailedDeliveries(0);
-        
-        List<String> recipients2 = List.of("customer1@example.com", "customer2@example.com");
-        EmailHistory history2 = new EmailHistory("Monthly Newsletter", 
-            "Newsletter content here...", recipients2, "marketing@company.com");
-        history2.setStatus(EmailHistory.Status.DELIVERED);
-        history2.setSentAt(LocalDateTime.now().minusDays(3));
-        history2.setDeliveredAt(LocalDateTime.now().minusDays(3).plusMinutes(2));
-        history2.setSuccessfulDeliveries(2);
-        history2.setFailedDeliveries(0);
-        
-        List<String> recipients3 = List.of("client@example.com");
-        EmailHistory history3 = new EmailHistory("Meeting Reminder", 
-            "Meeting reminder content...", recipients3, "admin@company.com");
-        history3.setStatus(EmailHistory.Status.SENT);
-        history3.setSentAt(LocalDateTime.now().minusHours(2));
-        history3.setSuccessfulDeliveries(1);
-        history3.setFailedDeliveries(0);
-        
-        List<String> recipients4 = List.of("test@example.com", "invalid-email", "user@test.com");
-        EmailHistory history4 = new EmailHistory("Test Email Campaign", 
-            "Test campaign content...", recipients4, "test@company.com");
-        history4.setStatus(EmailHistory.Status.DELIVERED);
-        history4.setSentAt(LocalDateTime.now().minusDays(7));
-        history4.setDeliveredAt(LocalDateTime.now().minusDays(7).plusMinutes(10));
-        history4.setSuccessfulDeliveries(2);
-        history4.setFailedDeliveries(1);
-        
-        allHistory.addAll(List.of(history1, history2, history3, history4));
-        
-        // Apply initial filters and update statistics
-        applyFilters();
-        updateStatistics();
-        
-        view.setStatusText("Loaded " + allHistory.size() + " email history entries");
+    private void loadHistory() {
+        // Startup reads only the partition manifest
+        updateHistory(null, () -> "Loaded " + totalEntries() + " email history entries");
+    }
+    
+    /**
+     * Apply a change to the stored history (if any) and reload the manifest on the history
+     * thread, then refresh the table, statistics and status text on the FX thread
+     */
+    private void updateHistory(Runnable change, Supplier<String> doneMessage) {
+        Task<List<HistoryPartition>> task = new Task<List<HistoryPartition>>() {
+            @Override
+            protected List<HistoryPartition> call() {
+                if (change != null) {
+                    change.run();
+                }
+                return dataManager.loadHistoryManifest();
+            }
+        };
+        
+        task.setOnSucceeded(e -> {
+            manifest = task.getValue();
+            applyFilters();
+            updateStatistics();
+            view.setStatusText(doneMessage.get());
+        });
+        
+        task.setOnFailed(e -> view.setStatusText("Failed to update history: " + task.getException().getMessage()));
+        
+        historyThread.execute(task);
     }
     
     private void showAlert(String title, String message) {
@@ -203,14 +510,11 @@ public class HistoryController {
     
     // Public methods for adding new history entries
     public void addEmailHistory(EmailHistory history) {
-        allHistory.add(history);
-        applyFilters();
-        updateStatistics();
-        view.setStatusText("New email history entry added");
+        updateHistory(() -> dataManager.addHistoryEntry(history), () -> "New email history entry added");
     }
     
-    public List<EmailHistory> getAllHistory() {
-        return new ArrayList<>(allHistory);
+    public List<EmailHistorySummary> getAllHistory() {
+        return dataManager.loadHistorySummaries();
     }
     
     public ContactHistoryView getView() {
@@ -1,19 +1,33 @@
 package org.example.controllers;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.scene.control.Button;
+import javafx.util.Duration;
+import org.example.CampaignScheduler;
+import org.example.SendEngine;
+import org.example.utils.PerformanceManager;
 import org.example.utils.ThemeManager;
 import org.example.utils.DataManager;
 import org.example.views.*;
 import org.example.controllers.*;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Main controller for handling navigation and theme management
  */
 public class MainController {
 
+    // Checkpoints are written after the send engine has drained, so this only covers the disk writes
+    private static final int SCHEDULER_CHECKPOINT_SECONDS = 10;
+
     private final MainView mainView;
     private final ThemeManager themeManager;
     private final DataManager dataManager;
+    private final SendEngine sendEngine;
+    private final CampaignScheduler campaignScheduler;
 
     // View controllers
     private DashboardController dashboardController;
@@ -23,11 +37,15 @@ public class MainController {
     private SettingsController settingsController;
 
     private Button currentActiveBtn;
+    private Timeline overlayTimer;
 
     public MainController(MainView mainView, ThemeManager themeManager) {
         this.mainView = mainView;
         this.themeManager = themeManager;
         this.dataManager = new DataManager();
+        this.sendEngine = new SendEngine(dataManager);
+        this.campaignScheduler = new CampaignScheduler(dataManager, sendEngine);
+        campaignScheduler.start();
 
         initialize();
         setupNavigationHandlers();
@@ -39,6 +57,52 @@ public class MainController {
 
     private void initialize() {
         currentActiveBtn = mainView.getDashboardBtn();
+        // Start frame timing and long-frame detection from the first pulse
+        PerformanceManager.getInstance();
+    }
+    
+    /**
+     * Show or hide the frame timing overlay at the bottom of the window
+     */
+    public void togglePerformanceOverlay() {
+        boolean visible = !mainView.isPerformanceOverlayVisible();
+        mainView.setPerformanceOverlayVisible(visible);
+        if (visible) {
+            if (overlayTimer == null) {
+                overlayTimer = new Timeline(new KeyFrame(Duration.millis(500),
+                    e -> mainView.setPerformanceOverlayText(PerformanceManager.getInstance().getFrameStats())));
+                overlayTimer.setCycleCount(Animation.INDEFINITE);
+            }
+            mainView.setPerformanceOverlayText(PerformanceManager.getInstance().getFrameStats());
+            overlayTimer.play();
+        } else if (overlayTimer != null) {
+            overlayTimer.stop();
+        }
+    }
+
+    /**
+     * Stop background services before the application exits
+     */
+    public void shutdown() {
+        // Interrupt scheduled jobs first so they checkpoint instead of completing, then let
+        // the engine settle what is in flight before the jobs write their checkpoints
+        campaignScheduler.shutdown();
+        if (!sendEngine.shutdown()) {
+            System.err.println("⚠️  Some messages were still being sent at exit");
+        }
+        try {
+            if (!campaignScheduler.awaitTermination(SCHEDULER_CHECKPOINT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("⚠️  Scheduled campaigns did not checkpoint before exit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        PerformanceManager performanceManager = PerformanceManager.getInstance();
+        if (performanceManager.getJankDetector().getLongFrameCount() > 0) {
+            System.out.print(performanceManager.getJankReport(10));
+        }
+        performanceManager.shutdown();
     }
 
     private void setupNavigationHandlers() {
@@ -111,7 +175,7 @@ public class MainController {
         
         if (emailComposerController == null) {
             EmailComposerView emailComposerView = new EmailComposerView();
-            emailComposerController = new EmailComposerController(emailComposerView);
+            emailComposerController = new EmailComposerController(emailComposerView, dataManager, sendEngine, campaignScheduler);
         }
         mainView.setContent(emailComposerController.getView().getRoot());
     }
@@ -127,7 +191,7 @@ public class MainController {
     private void showHistory() {
         if (historyController == null) {
             ContactHistoryView historyView = new ContactHistoryView();
-            historyController = new HistoryController(historyView);
+            historyController = new HistoryController(historyView, dataManager, sendEngine);
         }
         mainView.setContent(historyController.getView().getRoot());
     }
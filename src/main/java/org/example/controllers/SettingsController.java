@@ -2,14 +2,29 @@ package org.example.controllers;
 
 import javafx.application.Platform;
 import javafx.concurrent.Task;
+import javafx.geometry.Insets;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.PasswordField;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import org.example.MailSender;
+import org.example.models.SmtpAccount;
 import org.example.utils.DataManager;
 import org.example.utils.ThemeManager;
 import org.example.views.SettingsView;
 
 import jakarta.mail.*;
 import jakarta.mail.internet.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 
 /**
@@ -21,6 +36,7 @@ public class SettingsController {
     private final DataManager dataManager;
     private final ThemeManager themeManager;
     private Map<String, Object> currentSettings;
+    private final List<Map<String, Object>> extraAccounts = new ArrayList<>();
     
     public SettingsController(SettingsView view, DataManager dataManager, ThemeManager themeManager) {
         this.view = view;
@@ -37,6 +53,8 @@ public class SettingsController {
         view.getSaveSettingsBtn().setOnAction(e -> handleSaveSettings());
         view.getTestConnectionBtn().setOnAction(e -> handleTestConnection());
         view.getResetToDefaultBtn().setOnAction(e -> handleResetToDefault());
+        view.getAddAccountBtn().setOnAction(e -> handleAddAccount());
+        view.getRemoveAccountBtn().setOnAction(e -> handleRemoveAccount());
         
         // Theme change handlers
         view.getLightThemeRadio().setOnAction(e -> handleThemeChange(false));
@@ -60,6 +78,7 @@ public class SettingsController {
         });
     }
     
+    @SuppressWarnings("unchecked")
     private void loadSettingsIntoView() {
         // Email settings
         view.getSenderEmailField().setText((String) currentSettings.getOrDefault("senderEmail", ""));
@@ -68,6 +87,21 @@ public class SettingsController {
         view.getSmtpPortField().setText(String.valueOf(currentSettings.getOrDefault("smtpPort", "587")));
         view.getEnableSSLCheckBox().setSelected((Boolean) currentSettings.getOrDefault("enableSSL", false));
         view.getEnableSTARTTLSCheckBox().setSelected((Boolean) currentSettings.getOrDefault("enableSTARTTLS", true));
+        view.getDirectDeliveryCheckBox().setSelected("direct".equals(currentSettings.get("deliveryMode")));
+        
+        // Additional sending accounts
+        extraAccounts.clear();
+        Object accounts = currentSettings.get("smtpAccounts");
+        if (accounts instanceof List) {
+            for (Object account : (List<?>) accounts) {
+                if (account instanceof Map) {
+                    extraAccounts.add(new LinkedHashMap<>((Map<String, Object>) account));
+                }
+            }
+        }
+        refreshAccountsList();
+        view.getRotationComboBox().getSelectionModel().select(
+            "quota".equals(currentSettings.get("accountRotation")) ? 1 : 0);
         
         // Theme settings
         boolean darkTheme = (Boolean) currentSettings.getOrDefault("darkTheme", false);
@@ -103,6 +137,10 @@ public class SettingsController {
         currentSettings.put("smtpPort", view.getSmtpPortField().getText().trim());
         currentSettings.put("enableSSL", view.getEnableSSLCheckBox().isSelected());
         currentSettings.put("enableSTARTTLS", view.getEnableSTARTTLSCheckBox().isSelected());
+        currentSettings.put("deliveryMode", view.getDirectDeliveryCheckBox().isSelected() ? "direct" : "relay");
+        currentSettings.put("smtpAccounts", new ArrayList<>(extraAccounts));
+        currentSettings.put("accountRotation", view.getRotationComboBox().getSelectionModel().getSelectedIndex() == 1 
+            ? "quota" : "round-robin");
         
         // Theme settings
         currentSettings.put("darkTheme", view.getDarkThemeRadio().isSelected());
@@ -195,6 +233,84 @@ public class SettingsController {
         });
     }
     
+    private void handleAddAccount() {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Add Sending Account");
+        dialog.setHeaderText("Another SMTP account or relay to share the sending load");
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        
+        TextField emailField = new TextField();
+        emailField.setPromptText("sender@example.com");
+        PasswordField passwordField = new PasswordField();
+        TextField hostField = new TextField(view.getSmtpHostField().getText().trim());
+        TextField portField = new TextField(view.getSmtpPortField().getText().trim());
+        CheckBox sslCheckBox = new CheckBox("Enable SSL");
+        CheckBox starttlsCheckBox = new CheckBox("Enable STARTTLS");
+        starttlsCheckBox.setSelected(true);
+        Spinner<Integer> quotaSpinner = new Spinner<>(0, 1_000_000, 0, 100);
+        quotaSpinner.setEditable(true);
+        
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20));
+        grid.addRow(0, new Label("Sender Email:"), emailField);
+        grid.addRow(1, new Label("App Password:"), passwordField);
+        grid.addRow(2, new Label("SMTP Host:"), hostField);
+        grid.addRow(3, new Label("SMTP Port:"), portField);
+        grid.addRow(4, sslCheckBox, starttlsCheckBox);
+        grid.addRow(5, new Label("Daily quota (0 = none):"), quotaSpinner);
+        dialog.getDialogPane().setContent(grid);
+        
+        Optional<ButtonType> result = dialog.showAndWait();
+        if (result.isEmpty() || result.get() != ButtonType.OK) {
+            return;
+        }
+        
+        String email = emailField.getText().trim();
+        String host = hostField.getText().trim();
+        String port = portField.getText().trim();
+        if (!email.matches("^[A-Za-z0-9+_.-]+@(.+)$") || passwordField.getText().isEmpty() || host.isEmpty()
+                || !port.matches("\\d{1,5}")) {
+            showAlert(Alert.AlertType.ERROR, "Validation Error", 
+                "Please enter a valid email address, password, SMTP host and port.");
+            return;
+        }
+        
+        Map<String, Object> account = new LinkedHashMap<>();
+        account.put("senderEmail", email);
+        account.put("emailPassword", passwordField.getText());
+        account.put("smtpHost", host);
+        account.put("smtpPort", port);
+        account.put("enableSSL", sslCheckBox.isSelected());
+        account.put("enableSTARTTLS", starttlsCheckBox.isSelected());
+        account.put("dailyQuota", quotaSpinner.getValue());
+        extraAccounts.add(account);
+        refreshAccountsList();
+        view.setStatusText("Account added. Save settings to start using it.");
+    }
+    
+    private void handleRemoveAccount() {
+        int index = view.getExtraAccountsList().getSelectionModel().getSelectedIndex();
+        if (index < 0) {
+            showAlert(Alert.AlertType.WARNING, "No Selection", "Please select an account to remove.");
+            return;
+        }
+        extraAccounts.remove(index);
+        refreshAccountsList();
+    }
+    
+    private void refreshAccountsList() {
+        List<String> items = new ArrayList<>();
+        for (Map<String, Object> account : extraAccounts) {
+            SmtpAccount smtpAccount = SmtpAccount.fromSettings(account);
+            String quota = smtpAccount.getDailyQuota() > 0 
+                ? String.format("%,d/day", smtpAccount.getDailyQuota()) : "no daily limit";
+            items.add(String.format("📧 %s  (%s)", smtpAccount, quota));
+        }
+        view.getExtraAccountsList().getItems().setAll(items);
+    }
+    
     private void handleThemeChange(boolean isDark) {
         themeManager.setDarkTheme(isDark);
         view.setStatusText("Theme changed to " + (isDark ? "dark" : "light") + " mode");
@@ -213,6 +329,9 @@ public class SettingsController {
             props.put("mail.smtp.starttls.enable", "true");
         }
         
+        // Fail within the configured timeouts instead of hanging on an unreachable server
+        MailSender.applyTimeouts(props);
+        
         Session session = Session.getInstance(props, new Authenticator() {
             @Override
             protected PasswordAuthentication getPasswordAuthentication() {
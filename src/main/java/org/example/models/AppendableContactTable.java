@@ -0,0 +1,90 @@
+package org.example.models;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Recipients that keep arriving while they are being sent, e.g. from a running import.
+ *
+ * Rows are appended in chunks until {@link #close()}; a campaign over this source stays
+ * open and sends each chunk as it arrives, so one send of a file still being read is one
+ * campaign with one ledger and one history entry. Listeners run on the appending thread
+ * after every append and on close. Thread-safe.
+ */
+public final class AppendableContactTable implements RecipientSource {
+
+    private final ContactTable rows;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private boolean closed;
+
+    /**
+     * Start with the rows of a table, which this takes ownership of
+     */
+    public AppendableContactTable(ContactTable initialRows) {
+        this.rows = initialRows;
+    }
+
+    @Override
+    public synchronized int size() {
+        return rows.size();
+    }
+
+    @Override
+    public synchronized String getName(int index) {
+        return rows.getName(index);
+    }
+
+    @Override
+    public synchronized String getEmail(int index) {
+        return rows.getEmail(index);
+    }
+
+    @Override
+    public synchronized String getCompany(int index) {
+        return rows.getCompany(index);
+    }
+
+    @Override
+    public synchronized Contact getContact(int index) {
+        return rows.getContact(index);
+    }
+
+    /**
+     * Append the rows of a chunk
+     *
+     * @throws IllegalStateException once closed
+     */
+    public void append(ContactTable chunk) {
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("No more recipients can be added");
+            }
+            rows.addAll(chunk);
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * No more rows will be appended
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Run a callback after every append and on close
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.models;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manifest of one incremental backup: every data file with the content hashes of its chunks
+ */
+public class BackupSnapshot {
+
+    /**
+     * One backed-up file, relative to the data directory
+     */
+    public static class FileEntry {
+        private String path;
+        private long size;
+        private long lastModified;
+        private List<String> chunks = new ArrayList<>();
+
+        public FileEntry() {
+        }
+
+        public FileEntry(String path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+
+        public long getSize() { return size; }
+        public void setSize(long size) { this.size = size; }
+
+        public long getLastModified() { return lastModified; }
+        public void setLastModified(long lastModified) { this.lastModified = lastModified; }
+
+        public List<String> getChunks() { return chunks; }
+        public void setChunks(List<String> chunks) { this.chunks = chunks; }
+    }
+
+    private String id;
+    private LocalDateTime createdAt;
+    private List<FileEntry> files = new ArrayList<>();
+    private long totalBytes;
+    private long newBytes;
+
+    public BackupSnapshot() {
+    }
+
+    public BackupSnapshot(String id) {
+        this.id = id;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public List<FileEntry> getFiles() { return files; }
+    public void setFiles(List<FileEntry> files) { this.files = files; }
+
+    /**
+     * Size of all files in the snapshot
+     */
+    public long getTotalBytes() { return totalBytes; }
+    public void setTotalBytes(long totalBytes) { this.totalBytes = totalBytes; }
+
+    /**
+     * Bytes actually added to the chunk store by this snapshot
+     */
+    public long getNewBytes() { return newBytes; }
+    public void setNewBytes(long newBytes) { this.newBytes = newBytes; }
+
+    @Override
+    public String toString() {
+        return id + " (" + files.size() + " files)";
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A unit of work for the send engine: one subject/body sent to a list of recipients,
+ * with its history entry and per-recipient delivery ledger
+ */
+public class Campaign {
+
+    /**
+     * Send queue level. Levels share the send workers in proportion to their weight.
+     */
+    public enum Priority {
+        TRANSACTIONAL("Transactional", 16), NORMAL("Normal", 4), BULK("Bulk", 1);
+
+        private final String displayName;
+        private final int weight;
+
+        Priority(String displayName, int weight) {
+            this.displayName = displayName;
+            this.weight = weight;
+        }
+
+        public int getWeight() { return weight; }
+
+        @Override
+        public String toString() { return displayName; }
+    }
+
+    /**
+     * No extra pause: the campaign is paced only by the send engine's global rate limit
+     */
+    public static final long DEFAULT_SEND_INTERVAL_MILLIS = 0;
+
+    private final EmailHistory history;
+    private final List<Contact> recipients;
+    private final DeliveryLedger ledger;
+    private RecipientSource recipientSource;
+    private long sendIntervalMillis = DEFAULT_SEND_INTERVAL_MILLIS;
+    private Priority priority = Priority.NORMAL;
+
+    public Campaign(EmailHistory history, List<Contact> recipients) {
+        this(history, recipients, new DeliveryLedger(history.getId(), recipients.size()));
+    }
+
+    /**
+     * Campaign continuing from an existing ledger; recipients that are no longer
+     * pending are skipped when sending
+     */
+    public Campaign(EmailHistory history, List<Contact> recipients, DeliveryLedger ledger) {
+        this.history = history;
+        this.recipients = recipients;
+        this.ledger = ledger;
+    }
+
+    /**
+     * Build a campaign for a new history entry from the given recipients
+     */
+    public static Campaign create(String subject, String content, List<Contact> recipients, String senderEmail) {
+        List<String> emails = new ArrayList<>(recipients.size());
+        List<String> names = new ArrayList<>(recipients.size());
+        for (Contact contact : recipients) {
+            emails.add(contact.getEmail());
+            names.add(contact.getName());
+        }
+
+        EmailHistory history = new EmailHistory(subject, content, emails, senderEmail);
+        history.setRecipientNames(names);
+        return new Campaign(history, recipients);
+    }
+
+    /**
+     * Build a campaign whose history entry and recipients read through to the source
+     * instead of copying it. A {@link MappedContactTable} is too large to copy into the
+     * history entry at all; its entry only records the count, and the send engine saves
+     * the rows next to the ledger instead.
+     */
+    public static Campaign create(String subject, String content, RecipientSource recipients, String senderEmail) {
+        EmailHistory history;
+        if (recipients instanceof MappedContactTable) {
+            history = new EmailHistory();
+            history.setSubject(subject);
+            history.setContent(content);
+            history.setSenderEmail(senderEmail);
+            history.setTotalRecipients(recipients.size());
+        } else {
+            history = new EmailHistory(subject, content, recipients.emailList(), senderEmail);
+            history.setRecipientNames(recipients.nameList());
+        }
+        Campaign campaign = new Campaign(history, recipients.asContactList());
+        campaign.recipientSource = recipients;
+        return campaign;
+    }
+
+    public EmailHistory getHistory() { return history; }
+    public String getSubject() { return history.getSubject(); }
+    public String getContent() { return history.getContent(); }
+    public List<Contact> getRecipients() { return recipients; }
+    public DeliveryLedger getLedger() { return ledger; }
+
+    /**
+     * Source the recipients read through to, or null if they were given as a list
+     */
+    public RecipientSource getRecipientSource() { return recipientSource; }
+
+    /**
+     * Minimum pause between two messages of this campaign, on top of the global rate limit
+     */
+    public long getSendIntervalMillis() { return sendIntervalMillis; }
+    public void setSendIntervalMillis(long sendIntervalMillis) { this.sendIntervalMillis = sendIntervalMillis; }
+
+    public Priority getPriority() { return priority; }
+    public void setPriority(Priority priority) { this.priority = priority; }
+}
@@ -31,7 +31,18 @@ public class Contact {
         this.company = company;
         this.notes = notes;
     }
-    
+
+    /**
+     * Contact read back from a {@link ContactTable}, sharing the table's load time
+     */
+    Contact(String name, String email, String company, LocalDateTime loadedAt) {
+        this.name = name;
+        this.email = email;
+        this.company = company;
+        this.createdAt = loadedAt;
+        this.updatedAt = loadedAt;
+    }
+
     // Getters and Setters
     public String getName() { return name; }
     public void setName(String name) { 
@@ -0,0 +1,454 @@
+package org.example.models;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Recipient list stored column by column instead of as one {@link Contact} per row.
+ *
+ * Names and emails are UTF-8 bytes packed into one growing array per column, found by a
+ * start offset and length per row, so a row costs its bytes plus a few ints rather than
+ * two String objects. Companies repeat heavily and are kept once each in a dictionary, with
+ * a code per row. Contacts are built on demand by {@link #getContact(int)} and
+ * {@link #asContactList()}, e.g. for the visible rows of a list or the recipient being
+ * sent, and share the table's load time instead of reading the clock per row.
+ *
+ * Not thread-safe; fill a table on one thread and hand it over, or send a {@link #copy()}.
+ */
+public class ContactTable implements RecipientSource {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int FORMAT_MAGIC = 0x52435031; // "RCP1"
+    private static final int NULL_LENGTH = -1;
+
+    /**
+     * Receives the rows of a recipient list as they are read
+     */
+    public interface EmailVisitor {
+        void visit(int row, String email) throws IOException;
+    }
+
+    private final Utf8Column names;
+    private final Utf8Column emails;
+    private final DictionaryColumn companies;
+    private final LocalDateTime loadedAt;
+    private int size;
+
+    public ContactTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public ContactTable(int capacity) {
+        int initial = Math.max(1, capacity);
+        names = new Utf8Column(initial, 16);
+        emails = new Utf8Column(initial, 24);
+        companies = new DictionaryColumn(initial);
+        loadedAt = LocalDateTime.now();
+    }
+
+    private ContactTable(ContactTable other) {
+        names = new Utf8Column(other.names);
+        emails = new Utf8Column(other.emails);
+        companies = new DictionaryColumn(other.companies);
+        loadedAt = other.loadedAt;
+        size = other.size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String getName(int index) {
+        checkIndex(index);
+        return names.get(index);
+    }
+
+    @Override
+    public String getEmail(int index) {
+        checkIndex(index);
+        return emails.get(index);
+    }
+
+    @Override
+    public String getCompany(int index) {
+        checkIndex(index);
+        return companies.get(index);
+    }
+
+    @Override
+    public Contact getContact(int index) {
+        checkIndex(index);
+        return new Contact(names.get(index), emails.get(index), companies.get(index), loadedAt);
+    }
+
+    public void add(String name, String email, String company) {
+        names.add(size, name);
+        emails.add(size, email);
+        companies.add(size, company);
+        size++;
+    }
+
+    public void add(Contact contact) {
+        add(contact.getName(), contact.getEmail(), contact.getCompany());
+    }
+
+    /**
+     * Append every row of another table
+     */
+    public void addAll(ContactTable other) {
+        names.addAll(size, other.names, other.size);
+        emails.addAll(size, other.emails, other.size);
+        companies.addAll(size, other.companies, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Remove a row; its bytes stay in the column until the table is copied
+     */
+    public void remove(int index) {
+        checkIndex(index);
+        names.remove(index, size);
+        emails.remove(index, size);
+        companies.remove(index, size);
+        size--;
+    }
+
+    public void clear() {
+        names.clear();
+        emails.clear();
+        companies.clear();
+        size = 0;
+    }
+
+    /**
+     * Index of the first row with the given email, or -1; matches like {@link Contact#equals}
+     */
+    public int indexOfEmail(String email) {
+        return emails.indexOf(email, size);
+    }
+
+    /**
+     * Independent copy with exactly the current rows
+     */
+    public ContactTable copy() {
+        if (names.hasGaps(size) || emails.hasGaps(size)) {
+            ContactTable compacted = new ContactTable(size);
+            compacted.addAll(this);
+            return compacted;
+        }
+        return new ContactTable(this);
+    }
+
+    @Override
+    public List<Contact> asContactList() {
+        return new ContactListView();
+    }
+
+    /**
+     * Approximate heap used by the columns, in bytes
+     */
+    public long getFootprintBytes() {
+        return names.footprint() + emails.footprint() + companies.footprint();
+    }
+
+    /**
+     * Write recipients row by row: name, email and company, each a length (-1 for null)
+     * and UTF-8 bytes
+     */
+    public static void writeTo(List<Contact> recipients, DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_MAGIC);
+        out.writeInt(recipients.size());
+        for (Contact contact : recipients) {
+            writeField(out, contact.getName());
+            writeField(out, contact.getEmail());
+            writeField(out, contact.getCompany());
+        }
+    }
+
+    /**
+     * Read the given rows of recipients written by {@link #writeTo}, in ascending order,
+     * skipping the rest without decoding them
+     */
+    public static ContactTable readFrom(DataInputStream in, int[] rows) throws IOException {
+        if (in.readInt() != FORMAT_MAGIC) {
+            throw new IOException("Not a recipient list");
+        }
+        int size = in.readInt();
+        ContactTable table = new ContactTable(rows.length);
+        int next = 0;
+        for (int row = 0; row < size && next < rows.length; row++) {
+            if (row != rows[next]) {
+                for (int field = 0; field < 3; field++) {
+                    skipField(in);
+                }
+                continue;
+            }
+            table.add(readField(in), readField(in), readField(in));
+            next++;
+        }
+        return table;
+    }
+
+    /**
+     * Stream the emails of recipients written by {@link #writeTo}, skipping names and
+     * companies without decoding them
+     */
+    public static void forEachEmail(DataInputStream in, EmailVisitor visitor) throws IOException {
+        if (in.readInt() != FORMAT_MAGIC) {
+            throw new IOException("Not a recipient list");
+        }
+        int size = in.readInt();
+        for (int row = 0; row < size; row++) {
+            skipField(in);
+            visitor.visit(row, readField(in));
+            skipField(in);
+        }
+    }
+
+    private static void writeField(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readField(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipField(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length > 0) {
+            in.skipNBytes(length);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " recipients");
+        }
+    }
+
+    private static int grownCapacity(int current, int min) {
+        return Math.max(min, current + (current >> 1));
+    }
+
+    /**
+     * Strings as UTF-8 in one byte array; a length of -1 marks a null
+     */
+    private static final class Utf8Column {
+        private byte[] bytes;
+        private int used;
+        private int[] starts;
+        private int[] lengths;
+
+        Utf8Column(int rows, int bytesPerRow) {
+            bytes = new byte[rows * bytesPerRow];
+            starts = new int[rows];
+            lengths = new int[rows];
+        }
+
+        Utf8Column(Utf8Column other) {
+            bytes = Arrays.copyOf(other.bytes, other.used);
+            used = other.used;
+            starts = other.starts.clone();
+            lengths = other.lengths.clone();
+        }
+
+        String get(int row) {
+            int length = lengths[row];
+            return length < 0 ? null : new String(bytes, starts[row], length, StandardCharsets.UTF_8);
+        }
+
+        void add(int row, String value) {
+            if (row == starts.length) {
+                int capacity = grownCapacity(starts.length, row + 1);
+                starts = Arrays.copyOf(starts, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            starts[row] = used;
+            if (value == null) {
+                lengths[row] = -1;
+                return;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            if (used + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, grownCapacity(bytes.length, used + encoded.length));
+            }
+            System.arraycopy(encoded, 0, bytes, used, encoded.length);
+            used += encoded.length;
+            lengths[row] = encoded.length;
+        }
+
+        /**
+         * Copy the first {@code count} rows of another column, without decoding them
+         */
+        void addAll(int row, Utf8Column other, int count) {
+            if (row + count > starts.length) {
+                int capacity = grownCapacity(starts.length, row + count);
+                starts = Arrays.copyOf(starts, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            for (int i = 0; i < count; i++) {
+                int length = other.lengths[i];
+                starts[row + i] = used;
+                lengths[row + i] = length;
+                if (length > 0) {
+                    if (used + length > bytes.length) {
+                        bytes = Arrays.copyOf(bytes, grownCapacity(bytes.length, used + length));
+                    }
+                    System.arraycopy(other.bytes, other.starts[i], bytes, used, length);
+                    used += length;
+                }
+            }
+        }
+
+        void remove(int row, int size) {
+            int tail = size - row - 1;
+            System.arraycopy(starts, row + 1, starts, row, tail);
+            System.arraycopy(lengths, row + 1, lengths, row, tail);
+        }
+
+        void clear() {
+            used = 0;
+        }
+
+        int indexOf(String value, int size) {
+            if (value == null) {
+                for (int i = 0; i < size; i++) {
+                    if (lengths[i] < 0) return i;
+                }
+                return -1;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < size; i++) {
+                if (lengths[i] == encoded.length
+                        && Arrays.equals(bytes, starts[i], starts[i] + lengths[i], encoded, 0, encoded.length)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Whether removed rows left unused bytes behind
+         */
+        boolean hasGaps(int size) {
+            long live = 0;
+            for (int i = 0; i < size; i++) {
+                live += Math.max(0, lengths[i]);
+            }
+            return live != used;
+        }
+
+        long footprint() {
+            return bytes.length + 8L * starts.length;
+        }
+    }
+
+    /**
+     * Strings stored once each, with an int code per row; -1 marks a null
+     */
+    private static final class DictionaryColumn {
+        private final List<String> values;
+        private final Map<String, Integer> codesByValue;
+        private int[] codes;
+
+        DictionaryColumn(int rows) {
+            values = new ArrayList<>();
+            codesByValue = new HashMap<>();
+            codes = new int[rows];
+        }
+
+        DictionaryColumn(DictionaryColumn other) {
+            values = new ArrayList<>(other.values);
+            codesByValue = new HashMap<>(other.codesByValue);
+            codes = other.codes.clone();
+        }
+
+        String get(int row) {
+            int code = codes[row];
+            return code < 0 ? null : values.get(code);
+        }
+
+        void add(int row, String value) {
+            if (row == codes.length) {
+                codes = Arrays.copyOf(codes, grownCapacity(codes.length, row + 1));
+            }
+            if (value == null) {
+                codes[row] = -1;
+                return;
+            }
+            Integer code = codesByValue.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codesByValue.put(value, code);
+            }
+            codes[row] = code;
+        }
+
+        void addAll(int row, DictionaryColumn other, int count) {
+            if (row + count > codes.length) {
+                codes = Arrays.copyOf(codes, grownCapacity(codes.length, row + count));
+            }
+            for (int i = 0; i < count; i++) {
+                add(row + i, other.get(i));
+            }
+        }
+
+        void remove(int row, int size) {
+            System.arraycopy(codes, row + 1, codes, row, size - row - 1);
+        }
+
+        void clear() {
+            values.clear();
+            codesByValue.clear();
+        }
+
+        long footprint() {
+            long strings = 0;
+            for (String value : values) {
+                strings += 56 + value.length();
+            }
+            return 4L * codes.length + strings;
+        }
+    }
+
+    private final class ContactListView extends AbstractList<Contact> implements RandomAccess {
+        @Override
+        public Contact get(int index) {
+            return getContact(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
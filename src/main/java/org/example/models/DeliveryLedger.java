@@ -0,0 +1,249 @@
+package org.example.models;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Per-recipient delivery outcomes for one campaign.
+ *
+ * Outcomes are kept as one 16-byte row per recipient, indexed by the recipient's position in
+ * {@link EmailHistory#getRecipients()} (status byte, attempt count, last SMTP reply code and
+ * last attempt time), so a 40k-recipient campaign costs well under a megabyte and can be
+ * queried for "retry failed only". Ledgers of {@link #MAPPED_THRESHOLD} recipients or more
+ * live in a memory-mapped temporary file instead of on the heap, in 1 GB segments that rows
+ * never straddle, like {@link MappedContactTable}.
+ */
+public class DeliveryLedger {
+
+    public enum RecipientStatus {
+        PENDING, SENT, FAILED, DEFERRED;
+
+        private static final RecipientStatus[] VALUES = values();
+
+        static RecipientStatus of(byte code) {
+            return VALUES[code];
+        }
+    }
+
+    /**
+     * Recipients from which the ledger is kept off the heap
+     */
+    public static final int MAPPED_THRESHOLD = 1 << 20;
+
+    private static final int FORMAT_MAGIC = 0x444C4731; // "DLG1"
+
+    private static final int ROW_SHIFT = 4;
+    private static final int SEGMENT_ROW_SHIFT = 30 - ROW_SHIFT;
+    private static final int SEGMENT_ROW_MASK = (1 << SEGMENT_ROW_SHIFT) - 1;
+    private static final int STATUS = 0;
+    private static final int ATTEMPTS = 1;
+    private static final int SMTP_CODE = 2;
+    private static final int TIMESTAMP = 8;
+
+    private final String campaignId;
+    private int size;
+    private ByteBuffer[] segments;
+
+    public DeliveryLedger(String campaignId, int size) {
+        this.campaignId = campaignId;
+        this.size = size;
+        this.segments = allocate(size);
+    }
+
+    /**
+     * Add pending recipients at the end, for a campaign whose recipients are still arriving
+     */
+    public synchronized void grow(int newSize) {
+        if (newSize <= size) {
+            return;
+        }
+        int capacity = 0;
+        for (ByteBuffer segment : segments) {
+            capacity += segment.capacity() >>> ROW_SHIFT;
+        }
+        if (newSize > capacity) {
+            ByteBuffer[] grown = allocate((int) Math.min(Integer.MAX_VALUE, Math.max(newSize, 2L * capacity)));
+            for (int i = 0; i < segments.length; i++) {
+                grown[i].put(0, segments[i], 0, segments[i].capacity());
+            }
+            segments = grown;
+        }
+        size = newSize;
+    }
+
+    /**
+     * Record the outcome of a delivery attempt. An SMTP code of 0 means no reply was received.
+     */
+    public synchronized void record(int index, RecipientStatus status, int smtpCode) {
+        ByteBuffer segment = segment(index);
+        int row = row(index);
+        segment.put(row + STATUS, (byte) status.ordinal());
+        byte attempts = segment.get(row + ATTEMPTS);
+        if (attempts != Byte.MAX_VALUE) {
+            segment.put(row + ATTEMPTS, (byte) (attempts + 1));
+        }
+        segment.putShort(row + SMTP_CODE, (short) smtpCode);
+        segment.putLong(row + TIMESTAMP, System.currentTimeMillis());
+    }
+
+    public synchronized RecipientStatus getStatus(int index) {
+        return RecipientStatus.of(segment(index).get(row(index) + STATUS));
+    }
+
+    public synchronized int getAttempts(int index) {
+        return segment(index).get(row(index) + ATTEMPTS);
+    }
+
+    public synchronized int getSmtpCode(int index) {
+        return segment(index).getShort(row(index) + SMTP_CODE);
+    }
+
+    /**
+     * Epoch millis of the last attempt, or 0 if never attempted
+     */
+    public synchronized long getTimestamp(int index) {
+        return segment(index).getLong(row(index) + TIMESTAMP);
+    }
+
+    public synchronized int count(RecipientStatus status) {
+        byte code = (byte) status.ordinal();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (segment(i).get(row(i) + STATUS) == code) count++;
+        }
+        return count;
+    }
+
+    /**
+     * First recipient index at or after {@code from} in the given status, or -1 if none
+     */
+    public synchronized int nextWithStatus(int from, RecipientStatus status) {
+        byte code = (byte) status.ordinal();
+        for (int i = Math.max(0, from); i < size; i++) {
+            if (segment(i).get(row(i) + STATUS) == code) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Recipient indices currently in any of the given statuses, in ascending order
+     */
+    public synchronized int[] indicesWithStatus(RecipientStatus first, RecipientStatus... rest) {
+        Set<RecipientStatus> wanted = EnumSet.of(first, rest);
+        boolean[] match = new boolean[RecipientStatus.VALUES.length];
+        for (RecipientStatus status : wanted) {
+            match[status.ordinal()] = true;
+        }
+
+        int[] indices = new int[16];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (match[segment(i).get(row(i) + STATUS)]) {
+                if (count == indices.length) {
+                    indices = Arrays.copyOf(indices, count * 2);
+                }
+                indices[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    public String getCampaignId() {
+        return campaignId;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Write the ledger column by column
+     */
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_MAGIC);
+        out.writeUTF(campaignId);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) out.writeByte(segment(i).get(row(i) + STATUS));
+        for (int i = 0; i < size; i++) out.writeByte(segment(i).get(row(i) + ATTEMPTS));
+        for (int i = 0; i < size; i++) out.writeShort(segment(i).getShort(row(i) + SMTP_CODE));
+        for (int i = 0; i < size; i++) out.writeLong(segment(i).getLong(row(i) + TIMESTAMP));
+    }
+
+    /**
+     * Read a ledger written by {@link #writeTo(DataOutputStream)}
+     */
+    public static DeliveryLedger readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_MAGIC) {
+            throw new IOException("Not a delivery ledger");
+        }
+        DeliveryLedger ledger = new DeliveryLedger(in.readUTF(), in.readInt());
+        for (int i = 0; i < ledger.size; i++) ledger.segment(i).put(ledger.row(i) + STATUS, in.readByte());
+        for (int i = 0; i < ledger.size; i++) ledger.segment(i).put(ledger.row(i) + ATTEMPTS, in.readByte());
+        for (int i = 0; i < ledger.size; i++) ledger.segment(i).putShort(ledger.row(i) + SMTP_CODE, in.readShort());
+        for (int i = 0; i < ledger.size; i++) ledger.segment(i).putLong(ledger.row(i) + TIMESTAMP, in.readLong());
+        return ledger;
+    }
+
+    private ByteBuffer segment(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " recipients");
+        }
+        return segments[index >>> SEGMENT_ROW_SHIFT];
+    }
+
+    private int row(int index) {
+        return (index & SEGMENT_ROW_MASK) << ROW_SHIFT;
+    }
+
+    private static ByteBuffer[] allocate(int size) {
+        int segmentCount = (int) (((long) size + SEGMENT_ROW_MASK) >>> SEGMENT_ROW_SHIFT);
+        if (size < MAPPED_THRESHOLD) {
+            return new ByteBuffer[] { ByteBuffer.allocate(size << ROW_SHIFT) };
+        }
+        try {
+            return map(size, segmentCount);
+        } catch (IOException e) {
+            System.err.println("Failed to map delivery ledger, keeping it in memory: " + e.getMessage());
+            ByteBuffer[] segments = new ByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                segments[i] = ByteBuffer.allocate(segmentRows(size, i) << ROW_SHIFT);
+            }
+            return segments;
+        }
+    }
+
+    private static ByteBuffer[] map(int size, int segmentCount) throws IOException {
+        Path file = Files.createTempFile("ledger-", ".dat");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // A fresh file reads as zeros, i.e. every recipient PENDING with no attempts
+            ByteBuffer[] segments = new ByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long start = (long) i << 30;
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, (long) segmentRows(size, i) << ROW_SHIFT);
+            }
+            return segments;
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Mapped files cannot be deleted on some platforms; leave it for the exit hook
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    private static int segmentRows(int size, int segment) {
+        return Math.min(1 << SEGMENT_ROW_SHIFT, size - (segment << SEGMENT_ROW_SHIFT));
+    }
+}
@@ -15,6 +15,7 @@ public class EmailHistory {
     private String subject;
     private String content;
     private List<String> recipients;
+    private List<String> recipientNames;
     private String senderEmail;
     private Status status;
     private LocalDateTime sentAt;
@@ -54,6 +55,12 @@ public class EmailHistory {
         this.totalRecipients = recipients != null ? recipients.size() : 0;
     }
     
+    /**
+     * Display names parallel to {@link #getRecipients()}, used to personalise resends (may be null)
+     */
+    public List<String> getRecipientNames() { return recipientNames; }
+    public void setRecipientNames(List<String> recipientNames) { this.recipientNames = recipientNames; }
+    
     public String getSenderEmail() { return senderEmail; }
     public void setSenderEmail(String senderEmail) { this.senderEmail = senderEmail; }
     
@@ -0,0 +1,79 @@
+package org.example.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight email history row without the body or recipient list.
+ * The full {@link EmailHistory} is loaded on demand when an entry is selected.
+ */
+public class EmailHistorySummary {
+
+    private String id;
+    private String subject;
+    private String senderEmail;
+    private EmailHistory.Status status;
+    private LocalDateTime sentAt;
+    private LocalDateTime deliveredAt;
+    private int totalRecipients;
+    private int successfulDeliveries;
+    private int failedDeliveries;
+
+    public EmailHistorySummary() {
+        this.status = EmailHistory.Status.DRAFT;
+    }
+
+    /**
+     * Build a summary row from a full history entry
+     */
+    public static EmailHistorySummary of(EmailHistory history) {
+        EmailHistorySummary summary = new EmailHistorySummary();
+        summary.id = history.getId();
+        summary.subject = history.getSubject();
+        summary.senderEmail = history.getSenderEmail();
+        summary.status = history.getStatus();
+        summary.sentAt = history.getSentAt();
+        summary.deliveredAt = history.getDeliveredAt();
+        summary.totalRecipients = history.getTotalRecipients();
+        summary.successfulDeliveries = history.getSuccessfulDeliveries();
+        summary.failedDeliveries = history.getFailedDeliveries();
+        return summary;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getSenderEmail() { return senderEmail; }
+    public void setSenderEmail(String senderEmail) { this.senderEmail = senderEmail; }
+
+    public EmailHistory.Status getStatus() { return status; }
+    public void setStatus(EmailHistory.Status status) { this.status = status; }
+
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+
+    public LocalDateTime getDeliveredAt() { return deliveredAt; }
+    public void setDeliveredAt(LocalDateTime deliveredAt) { this.deliveredAt = deliveredAt; }
+
+    public int getTotalRecipients() { return totalRecipients; }
+    public void setTotalRecipients(int totalRecipients) { this.totalRecipients = totalRecipients; }
+
+    public int getSuccessfulDeliveries() { return successfulDeliveries; }
+    public void setSuccessfulDeliveries(int successfulDeliveries) { this.successfulDeliveries = successfulDeliveries; }
+
+    public int getFailedDeliveries() { return failedDeliveries; }
+    public void setFailedDeliveries(int failedDeliveries) { this.failedDeliveries = failedDeliveries; }
+
+    public double getSuccessRate() {
+        if (totalRecipients == 0) return 0.0;
+        return (double) successfulDeliveries / totalRecipients * 100.0;
+    }
+
+    @Override
+    public String toString() {
+        return subject + " (" + status + ")";
+    }
+}
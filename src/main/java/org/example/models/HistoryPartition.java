@@ -0,0 +1,89 @@
+package org.example.models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Manifest entry describing one monthly partition of the email history
+ */
+public class HistoryPartition {
+
+    public static final String UNDATED_KEY = "undated";
+
+    private String key;
+    private int count;
+    private int successfulDeliveries;
+    private int failedDeliveries;
+    private LocalDateTime minSentAt;
+    private LocalDateTime maxSentAt;
+
+    public HistoryPartition() {
+    }
+
+    public HistoryPartition(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Partition key for a send date: yyyy-MM, or "undated" for drafts
+     */
+    public static String keyFor(LocalDateTime sentAt) {
+        return sentAt != null ? YearMonth.from(sentAt).toString() : UNDATED_KEY;
+    }
+
+    /**
+     * Whether this partition may hold entries sent within the given (inclusive, nullable) range
+     */
+    public boolean overlaps(LocalDate from, LocalDate to) {
+        if (isUndated()) {
+            return from == null && to == null;
+        }
+        YearMonth month = YearMonth.parse(key);
+        if (from != null && month.atEndOfMonth().isBefore(from)) return false;
+        if (to != null && month.atDay(1).isAfter(to)) return false;
+        return true;
+    }
+
+    public boolean isUndated() {
+        return UNDATED_KEY.equals(key);
+    }
+
+    /**
+     * Fold a summary row into the partition statistics
+     */
+    public void include(EmailHistorySummary summary) {
+        count++;
+        successfulDeliveries += summary.getSuccessfulDeliveries();
+        failedDeliveries += summary.getFailedDeliveries();
+        LocalDateTime sentAt = summary.getSentAt();
+        if (sentAt != null) {
+            if (minSentAt == null || sentAt.isBefore(minSentAt)) minSentAt = sentAt;
+            if (maxSentAt == null || sentAt.isAfter(maxSentAt)) maxSentAt = sentAt;
+        }
+    }
+
+    // Getters and Setters
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public int getSuccessfulDeliveries() { return successfulDeliveries; }
+    public void setSuccessfulDeliveries(int successfulDeliveries) { this.successfulDeliveries = successfulDeliveries; }
+
+    public int getFailedDeliveries() { return failedDeliveries; }
+    public void setFailedDeliveries(int failedDeliveries) { this.failedDeliveries = failedDeliveries; }
+
+    public LocalDateTime getMinSentAt() { return minSentAt; }
+    public void setMinSentAt(LocalDateTime minSentAt) { this.minSentAt = minSentAt; }
+
+    public LocalDateTime getMaxSentAt() { return maxSentAt; }
+    public void setMaxSentAt(LocalDateTime maxSentAt) { this.maxSentAt = maxSentAt; }
+
+    @Override
+    public String toString() {
+        return key + " (" + count + ")";
+    }
+}
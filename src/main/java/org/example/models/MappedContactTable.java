@@ -0,0 +1,231 @@
+package org.example.models;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+/**
+ * Recipients kept in memory-mapped files outside the Java heap, for campaigns too large
+ * to hold as a {@link ContactTable}.
+ *
+ * A {@link Writer} appends rows sequentially to a data file and a file of 8-byte row
+ * offsets; {@link Writer#finish()} maps both read-only and deletes the files, so the
+ * recipients stay readable until the table is garbage collected and the disk space is
+ * returned then. Each row is three fields, each a 2-byte length (0xFFFF for null) and
+ * UTF-8 bytes. The files are mapped in 1 GB segments and a row never straddles two, so
+ * volume is limited by disk rather than heap. Reads are safe from any number of threads.
+ */
+public final class MappedContactTable implements RecipientSource {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int MAX_FIELD_BYTES = NULL_LENGTH - 1;
+
+    private final ByteBuffer[] data;
+    private final ByteBuffer[] offsets;
+    private final int size;
+    private final LocalDateTime loadedAt = LocalDateTime.now();
+
+    private MappedContactTable(ByteBuffer[] data, ByteBuffer[] offsets, int size) {
+        this.data = data;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    /**
+     * Start writing a table into temporary files in the given directory
+     */
+    public static Writer writer(Path directory) throws IOException {
+        return new Writer(directory);
+    }
+
+    /**
+     * Start writing a table into the system temporary directory
+     */
+    public static Writer writer() throws IOException {
+        return writer(Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getName(int index) {
+        return field(index, 0);
+    }
+
+    @Override
+    public String getEmail(int index) {
+        return field(index, 1);
+    }
+
+    @Override
+    public String getCompany(int index) {
+        return field(index, 2);
+    }
+
+    @Override
+    public Contact getContact(int index) {
+        return new Contact(getName(index), getEmail(index), getCompany(index), loadedAt);
+    }
+
+    private String field(int index, int field) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " recipients");
+        }
+        long offsetPosition = (long) index << 3;
+        long rowOffset = offsets[(int) (offsetPosition >>> SEGMENT_SHIFT)].getLong((int) (offsetPosition & (SEGMENT_SIZE - 1)));
+
+        // Absolute reads only, so concurrent readers never disturb each other
+        ByteBuffer segment = data[(int) (rowOffset >>> SEGMENT_SHIFT)];
+        int position = (int) (rowOffset & (SEGMENT_SIZE - 1));
+        for (int i = 0; i < field; i++) {
+            int length = Short.toUnsignedInt(segment.getShort(position));
+            position += 2 + (length == NULL_LENGTH ? 0 : length);
+        }
+        int length = Short.toUnsignedInt(segment.getShort(position));
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        segment.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer[] map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            ByteBuffer[] segments = new ByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start));
+            }
+            return segments;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Mapped files cannot be deleted on some platforms; leave it for the exit hook
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Sequential writer; call {@link #finish()} to get the table, or {@link #close()} to
+     * abandon it
+     */
+    public static final class Writer implements Closeable {
+        private final Path dataFile;
+        private final Path offsetFile;
+        private final DataOutputStream dataOut;
+        private final DataOutputStream offsetOut;
+        private final byte[][] fields = new byte[3][];
+        private long position;
+        private int size;
+        private boolean finished;
+
+        private Writer(Path directory) throws IOException {
+            dataFile = Files.createTempFile(directory, "recipients-", ".dat");
+            offsetFile = Files.createTempFile(directory, "recipients-", ".idx");
+            dataOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataFile), 1 << 16));
+            offsetOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(offsetFile), 1 << 16));
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void add(String name, String email, String company) throws IOException {
+            if (size == Integer.MAX_VALUE) {
+                throw new IOException("Too many recipients for one table");
+            }
+            fields[0] = encode(name);
+            fields[1] = encode(email);
+            fields[2] = encode(company);
+            int rowBytes = 0;
+            for (byte[] field : fields) {
+                rowBytes += 2 + (field != null ? field.length : 0);
+            }
+
+            // Keep every row inside one mapped segment
+            long segmentEnd = ((position >>> SEGMENT_SHIFT) + 1) << SEGMENT_SHIFT;
+            if (position + rowBytes > segmentEnd) {
+                for (long pad = position; pad < segmentEnd; pad++) {
+                    dataOut.write(0);
+                }
+                position = segmentEnd;
+            }
+
+            offsetOut.writeLong(position);
+            for (byte[] field : fields) {
+                if (field == null) {
+                    dataOut.writeShort(NULL_LENGTH);
+                } else {
+                    dataOut.writeShort(field.length);
+                    dataOut.write(field);
+                }
+            }
+            position += rowBytes;
+            size++;
+        }
+
+        public void add(Contact contact) throws IOException {
+            add(contact.getName(), contact.getEmail(), contact.getCompany());
+        }
+
+        /**
+         * Map what was written and release the files
+         */
+        public MappedContactTable finish() throws IOException {
+            finished = true;
+            try {
+                dataOut.close();
+                offsetOut.close();
+                return new MappedContactTable(map(dataFile), map(offsetFile), size);
+            } finally {
+                delete(dataFile);
+                delete(offsetFile);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            try {
+                dataOut.close();
+                offsetOut.close();
+            } finally {
+                delete(dataFile);
+                delete(offsetFile);
+            }
+        }
+
+        private static byte[] encode(String value) {
+            if (value == null) {
+                return null;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_FIELD_BYTES) {
+                throw new IllegalArgumentException("Recipient field longer than " + MAX_FIELD_BYTES + " bytes");
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.models;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Read-only recipients addressed by index, wherever they are stored.
+ *
+ * Implemented by the on-heap {@link ContactTable} and the memory-mapped
+ * {@link MappedContactTable}. The list views read through to the source on every
+ * {@code get}, so a campaign built from them holds no per-recipient objects of its own.
+ */
+public interface RecipientSource {
+
+    int size();
+
+    String getName(int index);
+
+    String getEmail(int index);
+
+    String getCompany(int index);
+
+    Contact getContact(int index);
+
+    /**
+     * Read-only list view creating a {@link Contact} for each element read
+     */
+    default List<Contact> asContactList() {
+        return new AbstractList<>() {
+            @Override
+            public Contact get(int index) {
+                return getContact(index);
+            }
+
+            @Override
+            public int size() {
+                return RecipientSource.this.size();
+            }
+        };
+    }
+
+    /**
+     * Read-only view of the email column
+     */
+    default List<String> emailList() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return getEmail(index);
+            }
+
+            @Override
+            public int size() {
+                return RecipientSource.this.size();
+            }
+        };
+    }
+
+    /**
+     * Read-only view of the name column
+     */
+    default List<String> nameList() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return getName(index);
+            }
+
+            @Override
+            public int size() {
+                return RecipientSource.this.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * A campaign waiting to be sent at a later time, optionally spread over a time window.
+ * Recipients are spooled to disk separately so the job list stays small.
+ */
+public class ScheduledCampaign {
+    public enum Status {
+        SCHEDULED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private String id;
+    private String subject;
+    private String content;
+    private LocalDateTime scheduledAt;
+    private int spreadMinutes;
+    private int recipientCount;
+    private int sentCount;
+    private Status status;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String errorMessage;
+
+    public ScheduledCampaign() {
+        this.id = java.util.UUID.randomUUID().toString();
+        this.status = Status.SCHEDULED;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public ScheduledCampaign(String subject, String content, int recipientCount, LocalDateTime scheduledAt, int spreadMinutes) {
+        this();
+        this.subject = subject;
+        this.content = content;
+        this.recipientCount = recipientCount;
+        this.scheduledAt = scheduledAt;
+        this.spreadMinutes = spreadMinutes;
+    }
+
+    /**
+     * End of the send window; equal to the start time when the campaign is not spread
+     */
+    public LocalDateTime getWindowEnd() {
+        return scheduledAt != null ? scheduledAt.plusMinutes(spreadMinutes) : null;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+
+    public LocalDateTime getScheduledAt() { return scheduledAt; }
+    public void setScheduledAt(LocalDateTime scheduledAt) { this.scheduledAt = scheduledAt; }
+
+    public int getSpreadMinutes() { return spreadMinutes; }
+    public void setSpreadMinutes(int spreadMinutes) { this.spreadMinutes = spreadMinutes; }
+
+    public int getRecipientCount() { return recipientCount; }
+    public void setRecipientCount(int recipientCount) { this.recipientCount = recipientCount; }
+
+    /**
+     * Recipients already handed to the send engine; a restarted job resumes from here
+     */
+    public int getSentCount() { return sentCount; }
+    public void setSentCount(int sentCount) { this.sentCount = sentCount; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    /**
+     * When the job completed, was cancelled or failed; null while it is pending or running
+     */
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    @Override
+    public String toString() {
+        return subject + " @ " + scheduledAt + " (" + status + ")";
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.models;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * SMTP server and credentials used to send mail. Two accounts are equal when they
+ * would open identical connections, so an account can key a connection pool; the
+ * daily quota is bookkeeping and does not take part in equality.
+ */
+public class SmtpAccount {
+    private String host;
+    private String port;
+    private String username;
+    private String password;
+    private boolean enableSSL;
+    private boolean enableSTARTTLS;
+    private int dailyQuota;
+
+    public SmtpAccount() {
+    }
+
+    public SmtpAccount(String host, String port, String username, String password,
+                       boolean enableSSL, boolean enableSTARTTLS) {
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.enableSSL = enableSSL;
+        this.enableSTARTTLS = enableSTARTTLS;
+    }
+
+    /**
+     * Build the account from the email section of the application settings
+     */
+    public static SmtpAccount fromSettings(Map<String, Object> settings) {
+        Object host = settings.get("smtpHost");
+        Object port = settings.get("smtpPort");
+        SmtpAccount account = new SmtpAccount(
+            host != null ? host.toString() : "smtp.gmail.com",
+            port != null ? port.toString() : "587",
+            String.valueOf(settings.getOrDefault("senderEmail", "")).trim(),
+            String.valueOf(settings.getOrDefault("emailPassword", "")),
+            Boolean.TRUE.equals(settings.get("enableSSL")),
+            Boolean.TRUE.equals(settings.get("enableSTARTTLS")));
+        Object quota = settings.get("dailyQuota");
+        account.setDailyQuota(quota instanceof Number ? ((Number) quota).intValue() : 0);
+        return account;
+    }
+
+    /**
+     * All sending accounts: the primary account from the email settings followed by the
+     * entries of the "smtpAccounts" list, which use the same keys. Accounts without
+     * credentials and duplicates are left out.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<SmtpAccount> listFromSettings(Map<String, Object> settings) {
+        LinkedHashSet<SmtpAccount> accounts = new LinkedHashSet<>();
+        SmtpAccount primary = fromSettings(settings);
+        if (primary.hasCredentials()) {
+            accounts.add(primary);
+        }
+        Object extra = settings.get("smtpAccounts");
+        if (extra instanceof List) {
+            for (Object entry : (List<Object>) extra) {
+                if (!(entry instanceof Map)) continue;
+                SmtpAccount account = fromSettings((Map<String, Object>) entry);
+                if (account.hasCredentials()) {
+                    accounts.add(account);
+                }
+            }
+        }
+        return new ArrayList<>(accounts);
+    }
+
+    public boolean hasCredentials() {
+        return username != null && !username.isEmpty() && password != null && !password.isEmpty();
+    }
+
+    // Getters and Setters
+    public String getHost() { return host; }
+    public void setHost(String host) { this.host = host; }
+
+    public String getPort() { return port; }
+    public void setPort(String port) { this.port = port; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public boolean isEnableSSL() { return enableSSL; }
+    public void setEnableSSL(boolean enableSSL) { this.enableSSL = enableSSL; }
+
+    public boolean isEnableSTARTTLS() { return enableSTARTTLS; }
+    public void setEnableSTARTTLS(boolean enableSTARTTLS) { this.enableSTARTTLS = enableSTARTTLS; }
+
+    /** Messages this account may send per day, 0 for no limit */
+    public int getDailyQuota() { return dailyQuota; }
+    public void setDailyQuota(int dailyQuota) { this.dailyQuota = Math.max(0, dailyQuota); }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof SmtpAccount)) return false;
+        SmtpAccount other = (SmtpAccount) obj;
+        return enableSSL == other.enableSSL && enableSTARTTLS == other.enableSTARTTLS
+            && Objects.equals(host, other.host) && Objects.equals(port, other.port)
+            && Objects.equals(username, other.username) && Objects.equals(password, other.password);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(host, port, username, password, enableSSL, enableSTARTTLS);
+    }
+
+    @Override
+    public String toString() {
+        return username + "@" + host + ":" + port;
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.utils;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind file writer running on a dedicated I/O thread.
+ * Rapid successive writes to the same file are coalesced so only the latest content
+ * is written, and every write goes to a temp file that is atomically moved over the
+ * target, so callers (usually the FX thread) never block on disk and files are never
+ * left half-written.
+ */
+public class AsyncFileWriter {
+
+    private static final long COALESCE_DELAY_MILLIS = 250;
+    // Time to write and move a file into place, shared with DataManager's direct writes
+    static final LatencyHistogram WRITE_TIME = PerformanceManager.metrics().histogram("persist.write");
+    private static final AsyncFileWriter INSTANCE = new AsyncFileWriter();
+
+    private final ScheduledExecutorService executor;
+    private final Map<Path, byte[]> pendingWrites = new ConcurrentHashMap<>();
+
+    private AsyncFileWriter() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DataManager-IO");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Don't lose coalesced writes when the app exits
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "DataManager-IO-flush"));
+    }
+
+    public static AsyncFileWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queue content to be written to a file. If a write to the same file is already
+     * pending, its content is replaced and no additional write is scheduled.
+     */
+    public void write(Path target, byte[] content) {
+        if (pendingWrites.put(target, content) == null) {
+            executor.schedule(() -> writePending(target), COALESCE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Content queued for a file but not yet on disk, or null if nothing is pending.
+     * Readers use this so a load right after a save sees the saved data.
+     */
+    public byte[] getPendingContent(Path target) {
+        return pendingWrites.get(target);
+    }
+
+    /**
+     * Discard any pending write for a file (e.g. when the file is being deleted)
+     */
+    public void cancel(Path target) {
+        pendingWrites.remove(target);
+    }
+
+    /**
+     * Block until all pending writes are on disk
+     */
+    public void flush() {
+        if (executor.isShutdown()) {
+            pendingWrites.keySet().forEach(this::writePending);
+            return;
+        }
+
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(() -> {
+            pendingWrites.keySet().forEach(this::writePending);
+            done.countDown();
+        });
+
+        try {
+            if (!done.await(10, TimeUnit.SECONDS)) {
+                System.err.println("Timed out waiting for pending data writes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePending(Path target) {
+        byte[] content = pendingWrites.get(target);
+        if (content == null) {
+            return;
+        }
+
+        try {
+            writeAtomically(target, content);
+        } catch (IOException e) {
+            System.err.println("Failed to write " + target.getFileName() + ": " + e.getMessage());
+        } finally {
+            // Keep newer content queued while this write was in progress
+            pendingWrites.remove(target, content);
+            if (pendingWrites.containsKey(target)) {
+                executor.schedule(() -> writePending(target), COALESCE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Synchronously write a file via a temp file and atomic move
+     */
+    public static void writeAtomically(Path target, byte[] content) throws IOException {
+        long start = System.nanoTime();
+        Path temp = createTempFile(target);
+        try {
+            Files.write(temp, content);
+            moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        WRITE_TIME.recordSince(start);
+    }
+
+    /**
+     * Create a temp file next to the target, so the final move stays on one file system
+     */
+    public static Path createTempFile(Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, target.getFileName().toString() + ".", ".tmp");
+    }
+
+    /**
+     * Replace the target with a fully written temp file
+     */
+    public static void moveAtomically(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package org.example.utils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.models.BackupSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Content-addressed, incremental backup store.
+ *
+ * Files are split into fixed-size chunks stored once under chunks/xx/&lt;sha-256&gt;, and each
+ * backup is a small snapshot manifest under snapshots/ listing the chunk hashes of every file.
+ * Files unchanged since the previous snapshot (same size and modification time) are not even
+ * re-read, unchanged history partitions cost nothing, and single-chunk history files are
+ * hard-linked into the store instead of copied where the file system allows it.
+ */
+public class BackupStore {
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final String CHUNKS_DIR = "chunks";
+    private static final String SNAPSHOTS_DIR = "snapshots";
+
+    // History files are only ever replaced via atomic move, never modified in place,
+    // so their inode can safely be shared with the chunk store
+    private static final String LINKABLE_PREFIX = "history/";
+
+    private final Path backupDirectory;
+    private final ObjectMapper objectMapper;
+
+    public BackupStore(Path backupDirectory) {
+        this.backupDirectory = backupDirectory;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Back up every regular file under the data directory (except temp files and the
+     * backup directory itself) as a new snapshot
+     */
+    public BackupSnapshot createSnapshot(Path dataDirectory) throws IOException {
+        Files.createDirectories(backupDirectory.resolve(CHUNKS_DIR));
+        Files.createDirectories(backupDirectory.resolve(SNAPSHOTS_DIR));
+
+        // Previous snapshot lets unchanged files skip hashing entirely
+        Map<String, BackupSnapshot.FileEntry> previous = new HashMap<>();
+        BackupSnapshot latest = loadLatestSnapshot();
+        if (latest != null) {
+            for (BackupSnapshot.FileEntry entry : latest.getFiles()) {
+                previous.put(entry.getPath(), entry);
+            }
+        }
+
+        String id = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS"));
+        BackupSnapshot snapshot = new BackupSnapshot(id);
+        Path absoluteBackup = backupDirectory.toAbsolutePath().normalize();
+
+        List<Path> files;
+        try (var paths = Files.walk(dataDirectory)) {
+            files = paths.filter(Files::isRegularFile)
+                .filter(path -> !path.toAbsolutePath().normalize().startsWith(absoluteBackup))
+                .filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+                .sorted()
+                .toList();
+        }
+
+        for (Path file : files) {
+            String relative = dataDirectory.relativize(file).toString().replace('\\', '/');
+            long size = Files.size(file);
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+            BackupSnapshot.FileEntry entry = new BackupSnapshot.FileEntry(relative, size, lastModified);
+            BackupSnapshot.FileEntry unchanged = previous.get(relative);
+            if (unchanged != null && unchanged.getSize() == size && unchanged.getLastModified() == lastModified
+                    && unchanged.getChunks().stream().allMatch(hash -> Files.exists(chunkPath(hash)))) {
+                entry.setChunks(new ArrayList<>(unchanged.getChunks()));
+            } else {
+                snapshot.setNewBytes(snapshot.getNewBytes() + storeChunks(file, entry, relative.startsWith(LINKABLE_PREFIX)));
+            }
+
+            snapshot.getFiles().add(entry);
+            snapshot.setTotalBytes(snapshot.getTotalBytes() + size);
+        }
+
+        Path snapshotFile = backupDirectory.resolve(SNAPSHOTS_DIR).resolve(id + ".json");
+        AsyncFileWriter.writeAtomically(snapshotFile, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(snapshot));
+        return snapshot;
+    }
+
+    /**
+     * Restore a snapshot into the target directory, verifying every chunk hash
+     */
+    public void restoreSnapshot(String snapshotId, Path targetDirectory) throws IOException {
+        BackupSnapshot snapshot = loadSnapshot(snapshotId);
+        if (snapshot == null) {
+            throw new IOException("Backup snapshot not found: " + snapshotId);
+        }
+
+        for (BackupSnapshot.FileEntry entry : snapshot.getFiles()) {
+            Path target = targetDirectory.resolve(entry.getPath()).normalize();
+            if (!target.startsWith(targetDirectory.normalize())) {
+                throw new IOException("Invalid path in snapshot: " + entry.getPath());
+            }
+
+            Path temp = AsyncFileWriter.createTempFile(target);
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    for (String hash : entry.getChunks()) {
+                        byte[] chunk = Files.readAllBytes(chunkPath(hash));
+                        if (!hash.equals(sha256(chunk, chunk.length))) {
+                            throw new IOException("Corrupt backup chunk " + hash + " in " + entry.getPath());
+                        }
+                        out.write(chunk);
+                    }
+                }
+                AsyncFileWriter.moveAtomically(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * All snapshots, oldest first
+     */
+    public List<BackupSnapshot> listSnapshots() {
+        Path snapshotsDir = backupDirectory.resolve(SNAPSHOTS_DIR);
+        List<BackupSnapshot> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(snapshotsDir)) {
+            return snapshots;
+        }
+
+        try (var paths = Files.list(snapshotsDir)) {
+            for (Path path : paths.filter(p -> p.toString().endsWith(".json")).sorted().toList()) {
+                try {
+                    snapshots.add(objectMapper.readValue(path.toFile(), BackupSnapshot.class));
+                } catch (IOException e) {
+                    System.err.println("Skipping unreadable backup snapshot " + path.getFileName() + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list backup snapshots: " + e.getMessage());
+        }
+        return snapshots;
+    }
+
+    public BackupSnapshot loadLatestSnapshot() {
+        List<BackupSnapshot> snapshots = listSnapshots();
+        return snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+    }
+
+    public BackupSnapshot loadSnapshot(String snapshotId) throws IOException {
+        Path snapshotFile = backupDirectory.resolve(SNAPSHOTS_DIR).resolve(snapshotId + ".json");
+        if (!Files.exists(snapshotFile)) {
+            return null;
+        }
+        return objectMapper.readValue(snapshotFile.toFile(), BackupSnapshot.class);
+    }
+
+    /**
+     * Split a file into chunks, storing any not already present. Returns bytes newly stored.
+     */
+    private long storeChunks(Path file, BackupSnapshot.FileEntry entry, boolean linkable) throws IOException {
+        long stored = 0;
+
+        // Whole-file hard link when the file fits in one chunk and is never modified in place
+        if (linkable && entry.getSize() <= CHUNK_SIZE) {
+            // Link under a temporary name and hash the linked inode, so the chunk holds exactly
+            // the content its name promises even if the file is replaced meanwhile
+            Path link = backupDirectory.resolve(CHUNKS_DIR).resolve("link-" + UUID.randomUUID() + ".tmp");
+            try {
+                Files.createLink(link, file);
+            } catch (IOException | UnsupportedOperationException e) {
+                link = null;
+            }
+            try {
+                byte[] content = Files.readAllBytes(link != null ? link : file);
+                String hash = sha256(content, content.length);
+                entry.getChunks().add(hash);
+                Path chunk = chunkPath(hash);
+                if (!Files.exists(chunk)) {
+                    Files.createDirectories(chunk.getParent());
+                    if (link != null) {
+                        AsyncFileWriter.moveAtomically(link, chunk);
+                    } else {
+                        AsyncFileWriter.writeAtomically(chunk, content);
+                    }
+                    stored += content.length;
+                }
+            } finally {
+                if (link != null) {
+                    Files.deleteIfExists(link);
+                }
+            }
+            return stored;
+        }
+
+        byte[] buffer = new byte[CHUNK_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int length;
+            while ((length = in.readNBytes(buffer, 0, CHUNK_SIZE)) > 0) {
+                String hash = sha256(buffer, length);
+                entry.getChunks().add(hash);
+                Path chunk = chunkPath(hash);
+                if (!Files.exists(chunk)) {
+                    AsyncFileWriter.writeAtomically(chunk, Arrays.copyOf(buffer, length));
+                    stored += length;
+                }
+            }
+        }
+        return stored;
+    }
+
+    private Path chunkPath(String hash) {
+        return backupDirectory.resolve(CHUNKS_DIR).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static String sha256(byte[] data, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data, 0, length);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Serialisation format used by {@link DataManager} for bulk data files (history partitions
+ * and spooled campaign data). Settings, templates and exports always stay JSON.
+ */
+public class DataCodec {
+    
+    private final String name;
+    private final String extension;
+    private final ObjectMapper mapper;
+    
+    private DataCodec(String name, String extension, ObjectMapper mapper) {
+        this.name = name;
+        this.extension = extension;
+        this.mapper = mapper;
+        this.mapper.registerModule(new JavaTimeModule());
+        this.mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+    
+    /**
+     * Compact JSON (no pretty printing)
+     */
+    public static DataCodec json() {
+        return new DataCodec("json", ".json", new ObjectMapper());
+    }
+    
+    /**
+     * Binary Smile encoding with shared property names and string values
+     */
+    public static DataCodec binary() {
+        SmileFactory factory = SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build();
+        return new DataCodec("binary", ".smile", new ObjectMapper(factory));
+    }
+    
+    /**
+     * Look up a codec by its settings name, defaulting to JSON
+     */
+    public static DataCodec forName(String name) {
+        return "binary".equalsIgnoreCase(name) ? binary() : json();
+    }
+    
+    public <T> void write(File file, T value) throws IOException {
+        mapper.writeValue(file, value);
+    }
+    
+    public <T> T read(File file, Class<T> type) throws IOException {
+        return mapper.readValue(file, type);
+    }
+    
+    public <T> T read(File file, TypeReference<T> type) throws IOException {
+        return mapper.readValue(file, type);
+    }
+    
+    /**
+     * Open a token stream over a file, for reading part of a large value without binding it
+     */
+    public JsonParser openParser(File file) throws IOException {
+        return mapper.createParser(file);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * File extension including the leading dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
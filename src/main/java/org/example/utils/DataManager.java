@@ -1,17 +1,36 @@
 package org.example.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.models.BackupSnapshot;
+import org.example.models.Contact;
+import org.example.models.ContactTable;
+import org.example.models.DeliveryLedger;
 import org.example.models.EmailHistory;
+import org.example.models.EmailHistorySummary;
 import org.example.models.EmailTemplate;
+import org.example.models.HistoryPartition;
+import org.example.models.ScheduledCampaign;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Data manager for JSON-based persistence of application data
@@ -21,15 +40,80 @@ public class DataManager {
     private static final String APP_DIR = "EmailSender";
     private static final String TEMPLATES_FILE = "templates.json";
     private static final String HISTORY_FILE = "history.json";
+    private static final String HISTORY_DIR = "history";
+    private static final String HISTORY_STAGING_DIR = "history.new";
+    private static final String HISTORY_PREVIOUS_DIR = "history.old";
+    private static final String HISTORY_MANIFEST_FILE = "manifest";
+    private static final String HISTORY_INDEX_FILE = "index";
+    private static final String LEDGER_EXTENSION = ".ledger";
+    private static final String RECIPIENTS_EXTENSION = ".recipients";
     private static final String SETTINGS_FILE = "settings.json";
+    private static final String ACCOUNT_USAGE_FILE = "account-usage.json";
+    private static final String SCHEDULE_DIR = "schedule";
+    private static final String SCHEDULE_JOBS_FILE = "jobs";
+    
+    // History index is read-modify-written, so serialise access across DataManager instances
+    private static final Object HISTORY_LOCK = new Object();
+    private static final Object SCHEDULE_LOCK = new Object();
+    
+    // "maxHistoryEntries" by settings file (-1: no limit), so adding history does not re-read
+    // settings; updated whenever settings are saved
+    private static final Map<Path, Integer> HISTORY_LIMITS = new ConcurrentHashMap<>();
+    
+    // Newest month first, undated drafts last
+    private static final Comparator<HistoryPartition> PARTITION_ORDER = Comparator.comparing(
+        (HistoryPartition partition) -> partition.isUndated() ? "" : partition.getKey()).reversed();
     
     private final ObjectMapper objectMapper;
     private final Path dataDirectory;
     
+    // Codec for bulk data files; files in the other format are still read, so switching
+    // "storageFormat" migrates data gradually as partitions are rewritten
+    private final DataCodec codec;
+    private final DataCodec fallbackCodec;
+    private final AsyncFileWriter fileWriter = AsyncFileWriter.getInstance();
+    
     public DataManager() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper = createObjectMapper();
         this.dataDirectory = getOrCreateDataDirectory();
+        this.codec = chooseCodec();
+        this.fallbackCodec = "json".equals(codec.getName()) ? DataCodec.binary() : DataCodec.json();
+    }
+    
+    /**
+     * Data manager over an explicit directory and codec (used by tooling such as benchmarks)
+     */
+    DataManager(Path dataDirectory, DataCodec codec) {
+        this.objectMapper = createObjectMapper();
+        this.dataDirectory = dataDirectory;
+        this.codec = codec;
+        this.fallbackCodec = "json".equals(codec.getName()) ? DataCodec.binary() : DataCodec.json();
+    }
+    
+    /**
+     * The codec set as "storageFormat", or else the one the stored history already uses:
+     * existing JSON data stays JSON, and only a fresh data directory starts out binary
+     */
+    private DataCodec chooseCodec() {
+        Object format = loadSettings().get("storageFormat");
+        if (format != null) {
+            return DataCodec.forName(String.valueOf(format));
+        }
+        Path historyDir = dataDirectory.resolve(HISTORY_DIR);
+        DataCodec binary = DataCodec.binary();
+        if (Files.exists(historyDir.resolve(HISTORY_MANIFEST_FILE + binary.getExtension()))) {
+            return binary;
+        }
+        boolean existingData = Files.exists(historyDir) || Files.exists(dataDirectory.resolve(HISTORY_FILE))
+            || Files.exists(dataDirectory.resolve(SCHEDULE_DIR));
+        return existingData ? DataCodec.json() : binary;
+    }
+    
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return mapper;
     }
     
     /**
@@ -55,12 +139,12 @@ public class DataManager {
     // Template persistence
     
     /**
-     * Save templates to JSON file
+     * Save templates to JSON file. The write is coalesced and performed atomically on the I/O thread.
      */
     public void saveTemplates(List<EmailTemplate> templates) {
         try {
             Path templatesFile = dataDirectory.resolve(TEMPLATES_FILE);
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(templatesFile.toFile(), templates);
+            fileWriter.write(templatesFile, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(templates));
         } catch (IOException e) {
             System.err.println("Failed to save templates: " + e.getMessage());
         }
@@ -71,14 +155,16 @@ public class DataManager {
      */
     public List<EmailTemplate> loadTemplates() {
         Path templatesFile = dataDirectory.resolve(TEMPLATES_FILE);
+        byte[] pending = fileWriter.getPendingContent(templatesFile);
         
-        if (!Files.exists(templatesFile)) {
+        if (pending == null && !Files.exists(templatesFile)) {
             return new ArrayList<>();
         }
         
         try {
-            return objectMapper.readValue(templatesFile.toFile(), 
-                new TypeReference<List<EmailTemplate>>() {});
+            TypeReference<List<EmailTemplate>> type = new TypeReference<List<EmailTemplate>>() {};
+            return pending != null ? objectMapper.readValue(pending, type) 
+                : objectMapper.readValue(templatesFile.toFile(), type);
         } catch (IOException e) {
             System.err.println("Failed to load templates: " + e.getMessage());
             return new ArrayList<>();
@@ -86,66 +172,683 @@ public class DataManager {
     }
     
     // Email history persistence
+    //
+    // History is partitioned by send month: history/manifest lists each partition
+    // with its entry count, delivery totals and min/max send date; history/<yyyy-MM>/index
+    // holds that month's summary rows, history/<yyyy-MM>/<id> the full entries and
+    // history/<yyyy-MM>/<id>.ledger their per-recipient delivery outcomes and
+    // history/<yyyy-MM>/<id>.recipients the full recipients of campaigns with some left to resend.
+    // File extensions follow the configured codec (.smile or .json).
+    // Startup reads only the manifest, date-filtered queries open only overlapping partitions,
+    // and retention drops whole partitions.
     
     /**
-     * Save email history to JSON file
+     * Save email history, replacing everything currently stored.
+     * The new history is built in a staging directory and swapped in only once complete, so a
+     * crash leaves either the old or the new history; ledgers and recipients of kept entries are carried over.
      */
     public void saveHistory(List<EmailHistory> history) {
+        synchronized (HISTORY_LOCK) {
+            SendEvents.HistoryFlush event = new SendEvents.HistoryFlush();
+            event.begin();
+            try {
+                recoverHistorySwap();
+                Path historyDir = dataDirectory.resolve(HISTORY_DIR);
+                Path stagingDir = dataDirectory.resolve(HISTORY_STAGING_DIR);
+                deleteRecursively(stagingDir);
+                Map<String, List<Path>> sidecars = findSidecarFiles(historyDir);
+                
+                Map<String, List<EmailHistory>> byPartition = new TreeMap<>();
+                for (EmailHistory entry : history) {
+                    byPartition.computeIfAbsent(HistoryPartition.keyFor(entry.getSentAt()), 
+                        key -> new ArrayList<>()).add(entry);
+                }
+                
+                List<HistoryPartition> manifest = new ArrayList<>();
+                for (Map.Entry<String, List<EmailHistory>> partition : byPartition.entrySet()) {
+                    Path partitionDir = getPartitionDirectory(stagingDir, partition.getKey());
+                    List<EmailHistorySummary> index = new ArrayList<>();
+                    for (EmailHistory entry : partition.getValue()) {
+                        writeHistoryEntry(partitionDir, entry);
+                        index.add(EmailHistorySummary.of(entry));
+                        for (Path sidecar : sidecars.getOrDefault(entry.getId(), List.of())) {
+                            Files.copy(sidecar, partitionDir.resolve(sidecar.getFileName()));
+                        }
+                    }
+                    manifest.add(writePartitionIndex(stagingDir, partition.getKey(), index));
+                }
+                writeHistoryManifest(stagingDir, manifest);
+                swapInHistory(stagingDir);
+            } catch (IOException e) {
+                System.err.println("Failed to save history: " + e.getMessage());
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "save";
+                event.entries = history.size();
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Append a single history entry, rewriting only its month's partition index
+     */
+    public void addHistoryEntry(EmailHistory entry) {
+        synchronized (HISTORY_LOCK) {
+            SendEvents.HistoryFlush event = new SendEvents.HistoryFlush();
+            event.begin();
+            String key = HistoryPartition.keyFor(entry.getSentAt());
+            try {
+                writeHistoryEntry(getPartitionDirectory(key), entry);
+                
+                List<EmailHistorySummary> index = loadPartitionSummaries(key);
+                index.removeIf(summary -> summary.getId().equals(entry.getId()));
+                index.add(EmailHistorySummary.of(entry));
+                
+                List<HistoryPartition> manifest = loadHistoryManifest();
+                manifest.removeIf(partition -> partition.getKey().equals(key));
+                manifest.add(writePartitionIndex(key, index));
+                writeHistoryManifest(manifest);
+            } catch (IOException e) {
+                System.err.println("Failed to save history entry: " + e.getMessage());
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "add";
+                event.partition = key;
+                event.entries = 1;
+                event.commit();
+            }
+            
+            int maxEntries = getHistoryLimit();
+            if (maxEntries >= 0) {
+                enforceHistoryRetention(maxEntries);
+            }
+        }
+    }
+    
+    /**
+     * Load the partition manifest, newest partition first
+     */
+    public List<HistoryPartition> loadHistoryManifest() {
+        synchronized (HISTORY_LOCK) {
+            recoverHistorySwap();
+            migrateLegacyHistory();
+            try {
+                List<HistoryPartition> manifest = readDataFile(dataDirectory.resolve(HISTORY_DIR), 
+                    HISTORY_MANIFEST_FILE, new TypeReference<List<HistoryPartition>>() {});
+                if (manifest == null) {
+                    return new ArrayList<>();
+                }
+                manifest.sort(PARTITION_ORDER);
+                return manifest;
+            } catch (IOException e) {
+                System.err.println("Failed to load history manifest: " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+    }
+    
+    /**
+     * Load summary rows of a single partition, newest first
+     */
+    public List<EmailHistorySummary> loadPartitionSummaries(String partitionKey) {
+        try {
+            List<EmailHistorySummary> index = readDataFile(dataDirectory.resolve(HISTORY_DIR).resolve(partitionKey), 
+                HISTORY_INDEX_FILE, new TypeReference<List<EmailHistorySummary>>() {});
+            if (index == null) {
+                return new ArrayList<>();
+            }
+            index.sort(Comparator.comparing(EmailHistorySummary::getSentAt, 
+                Comparator.nullsFirst(Comparator.naturalOrder())).reversed());
+            return index;
+        } catch (IOException e) {
+            System.err.println("Failed to load history partition " + partitionKey + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Load lightweight summary rows for all stored history entries
+     */
+    public List<EmailHistorySummary> loadHistorySummaries() {
+        return loadHistorySummaries(null, null);
+    }
+    
+    /**
+     * Load summary rows sent within an inclusive date range, opening only overlapping partitions.
+     * Either bound may be null; undated entries (drafts) are only included when both are.
+     */
+    public List<EmailHistorySummary> loadHistorySummaries(LocalDate from, LocalDate to) {
+        List<EmailHistorySummary> summaries = new ArrayList<>();
+        for (HistoryPartition partition : loadHistoryManifest()) {
+            if (partition.overlaps(from, to)) {
+                summaries.addAll(loadPartitionSummaries(partition.getKey()));
+            }
+        }
+        return summaries;
+    }
+    
+    /**
+     * Load the full history entry (body and recipients) behind a summary row
+     */
+    public EmailHistory loadHistoryEntry(EmailHistorySummary summary) {
+        Path partitionDir = dataDirectory.resolve(HISTORY_DIR)
+            .resolve(HistoryPartition.keyFor(summary.getSentAt()));
+        
         try {
-            Path historyFile = dataDirectory.resolve(HISTORY_FILE);
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(historyFile.toFile(), history);
+            return readDataFile(partitionDir, summary.getId(), new TypeReference<EmailHistory>() {});
+        } catch (IOException e) {
+            System.err.println("Failed to load history entry: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Delete a single history entry
+     */
+    public void deleteHistoryEntry(EmailHistorySummary summary) {
+        synchronized (HISTORY_LOCK) {
+            String key = HistoryPartition.keyFor(summary.getSentAt());
+            try {
+                List<EmailHistorySummary> index = loadPartitionSummaries(key);
+                index.removeIf(row -> row.getId().equals(summary.getId()));
+                deleteDataFile(dataDirectory.resolve(HISTORY_DIR).resolve(key), summary.getId());
+                Files.deleteIfExists(dataDirectory.resolve(HISTORY_DIR).resolve(key)
+                    .resolve(summary.getId() + LEDGER_EXTENSION));
+                Files.deleteIfExists(dataDirectory.resolve(HISTORY_DIR).resolve(key)
+                    .resolve(summary.getId() + RECIPIENTS_EXTENSION));
+                
+                List<HistoryPartition> manifest = loadHistoryManifest();
+                manifest.removeIf(partition -> partition.getKey().equals(key));
+                if (index.isEmpty()) {
+                    deleteRecursively(dataDirectory.resolve(HISTORY_DIR).resolve(key));
+                } else {
+                    manifest.add(writePartitionIndex(key, index));
+                }
+                writeHistoryManifest(manifest);
+            } catch (IOException e) {
+                System.err.println("Failed to delete history entry: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Save the per-recipient delivery ledger of a history entry next to the entry itself
+     */
+    public void saveLedger(EmailHistory entry, DeliveryLedger ledger) {
+        SendEvents.HistoryFlush event = new SendEvents.HistoryFlush();
+        event.begin();
+        String key = HistoryPartition.keyFor(entry.getSentAt());
+        // Under the history lock, so a saveHistory swapping in a staged directory cannot drop it
+        synchronized (HISTORY_LOCK) {
+            try {
+                writeLedgerFile(getPartitionDirectory(key).resolve(entry.getId() + LEDGER_EXTENSION), ledger);
+            } catch (IOException e) {
+                System.err.println("Failed to save delivery ledger: " + e.getMessage());
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "ledger";
+            event.partition = key;
+            event.entries = 1;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Load the per-recipient delivery ledger behind a summary row, or null if none was recorded
+     */
+    public DeliveryLedger loadLedger(EmailHistorySummary summary) {
+        Path ledgerFile = dataDirectory.resolve(HISTORY_DIR)
+            .resolve(HistoryPartition.keyFor(summary.getSentAt()))
+            .resolve(summary.getId() + LEDGER_EXTENSION);
+        
+        return readLedgerFile(ledgerFile);
+    }
+    
+    /**
+     * Save the full recipients (including personalisation fields) of a history entry next to
+     * its ledger, so a resend can rebuild them
+     */
+    public void saveRecipients(EmailHistory entry, List<Contact> recipients) {
+        String key = HistoryPartition.keyFor(entry.getSentAt());
+        long start = System.nanoTime();
+        synchronized (HISTORY_LOCK) {
+            try {
+                Path target = getPartitionDirectory(key).resolve(entry.getId() + RECIPIENTS_EXTENSION);
+                Path temp = AsyncFileWriter.createTempFile(target);
+                try {
+                    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                            new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                        ContactTable.writeTo(recipients, out);
+                    }
+                    AsyncFileWriter.moveAtomically(temp, target);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                AsyncFileWriter.WRITE_TIME.recordSince(start);
+            } catch (IOException e) {
+                System.err.println("Failed to save recipients: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Load the given recipient rows (ascending) of a history entry, or null if its recipients
+     * were not saved
+     */
+    public ContactTable loadRecipients(EmailHistory entry, int[] rows) {
+        Path recipientsFile = dataDirectory.resolve(HISTORY_DIR)
+            .resolve(HistoryPartition.keyFor(entry.getSentAt()))
+            .resolve(entry.getId() + RECIPIENTS_EXTENSION);
+        if (!Files.exists(recipientsFile)) {
+            return null;
+        }
+        
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(recipientsFile))))) {
+            return ContactTable.readFrom(in, rows);
         } catch (IOException e) {
-            System.err.println("Failed to save history: " + e.getMessage());
+            System.err.println("Failed to load recipients: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Stream the recipient emails behind a summary row in ledger order, without loading the
+     * entry's body or binding its recipient list. Returns false if no recipients were stored.
+     */
+    public boolean forEachRecipient(EmailHistorySummary summary, ContactTable.EmailVisitor visitor) throws IOException {
+        Path partitionDir = dataDirectory.resolve(HISTORY_DIR)
+            .resolve(HistoryPartition.keyFor(summary.getSentAt()));
+        
+        // Campaigns too large to list in the entry keep their recipients only in the sidecar
+        Path recipientsFile = partitionDir.resolve(summary.getId() + RECIPIENTS_EXTENSION);
+        if (Files.exists(recipientsFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(Files.newInputStream(recipientsFile))))) {
+                ContactTable.forEachEmail(in, visitor);
+            }
+            return true;
+        }
+        
+        DataCodec entryCodec = codec;
+        Path entryFile = partitionDir.resolve(summary.getId() + codec.getExtension());
+        if (!Files.exists(entryFile)) {
+            entryCodec = fallbackCodec;
+            entryFile = partitionDir.resolve(summary.getId() + fallbackCodec.getExtension());
+            if (!Files.exists(entryFile)) {
+                return false;
+            }
+        }
+        
+        try (JsonParser parser = entryCodec.openParser(entryFile.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!"recipients".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                int row = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    visitor.visit(row++, parser.getValueAsString());
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Drop the oldest monthly partitions until at most {@code maxEntries} remain.
+     * The newest partition is always kept, so the limit is approximate by up to one month.
+     */
+    public void enforceHistoryRetention(int maxEntries) {
+        synchronized (HISTORY_LOCK) {
+            List<HistoryPartition> manifest = loadHistoryManifest();
+            int total = manifest.stream().mapToInt(HistoryPartition::getCount).sum();
+            
+            List<HistoryPartition> dated = manifest.stream()
+                .filter(partition -> !partition.isUndated())
+                .sorted(Comparator.comparing(HistoryPartition::getKey))
+                .toList();
+            
+            boolean changed = false;
+            for (int i = 0; i < dated.size() - 1 && total > maxEntries; i++) {
+                HistoryPartition oldest = dated.get(i);
+                try {
+                    deleteRecursively(dataDirectory.resolve(HISTORY_DIR).resolve(oldest.getKey()));
+                    manifest.remove(oldest);
+                    total -= oldest.getCount();
+                    changed = true;
+                } catch (IOException e) {
+                    System.err.println("Failed to drop history partition " + oldest.getKey() + ": " + e.getMessage());
+                }
+            }
+            
+            if (changed) {
+                try {
+                    writeHistoryManifest(manifest);
+                } catch (IOException e) {
+                    System.err.println("Failed to save history manifest: " + e.getMessage());
+                }
+            }
         }
     }
     
     /**
-     * Load email history from JSON file
+     * Load the complete email history including bodies
      */
     public List<EmailHistory> loadHistory() {
-        Path historyFile = dataDirectory.resolve(HISTORY_FILE);
+        List<EmailHistory> history = new ArrayList<>();
+        for (EmailHistorySummary summary : loadHistorySummaries()) {
+            EmailHistory entry = loadHistoryEntry(summary);
+            if (entry != null) {
+                history.add(entry);
+            }
+        }
+        return history;
+    }
+    
+    // Scheduled campaign persistence
+
+    /**
+     * Save the list of scheduled campaigns (without recipients)
+     */
+    public void saveScheduledCampaigns(List<ScheduledCampaign> campaigns) {
+        synchronized (SCHEDULE_LOCK) {
+            try {
+                writeDataFile(getScheduleDirectory(), SCHEDULE_JOBS_FILE, campaigns);
+            } catch (IOException e) {
+                System.err.println("Failed to save scheduled campaigns: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Load the list of scheduled campaigns, including finished ones
+     */
+    public List<ScheduledCampaign> loadScheduledCampaigns() {
+        synchronized (SCHEDULE_LOCK) {
+            try {
+                List<ScheduledCampaign> campaigns = readDataFile(dataDirectory.resolve(SCHEDULE_DIR),
+                    SCHEDULE_JOBS_FILE, new TypeReference<List<ScheduledCampaign>>() {});
+                return campaigns != null ? campaigns : new ArrayList<>();
+            } catch (IOException e) {
+                System.err.println("Failed to load scheduled campaigns: " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Spool the recipients of a scheduled campaign to disk until it runs
+     */
+    public void saveSpool(String campaignId, List<Contact> recipients) throws IOException {
+        writeDataFile(getScheduleDirectory(), campaignId, recipients);
+    }
+
+    /**
+     * Load spooled recipients, or null if the spool is missing
+     */
+    public List<Contact> loadSpool(String campaignId) {
+        try {
+            return readDataFile(dataDirectory.resolve(SCHEDULE_DIR), campaignId, new TypeReference<List<Contact>>() {});
+        } catch (IOException e) {
+            System.err.println("Failed to load spooled recipients: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void deleteSpool(String campaignId) {
+        try {
+            deleteDataFile(dataDirectory.resolve(SCHEDULE_DIR), campaignId);
+            Files.deleteIfExists(dataDirectory.resolve(SCHEDULE_DIR).resolve(campaignId + LEDGER_EXTENSION));
+        } catch (IOException e) {
+            System.err.println("Failed to delete spooled recipients: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checkpoint the ledger of a running scheduled campaign so it can resume after a restart
+     */
+    public void saveSpoolLedger(String campaignId, DeliveryLedger ledger) throws IOException {
+        writeLedgerFile(getScheduleDirectory().resolve(campaignId + LEDGER_EXTENSION), ledger);
+    }
+
+    public DeliveryLedger loadSpoolLedger(String campaignId) {
+        return readLedgerFile(dataDirectory.resolve(SCHEDULE_DIR).resolve(campaignId + LEDGER_EXTENSION));
+    }
+
+    private Path getScheduleDirectory() throws IOException {
+        Path scheduleDir = dataDirectory.resolve(SCHEDULE_DIR);
+        Files.createDirectories(scheduleDir);
+        return scheduleDir;
+    }
+
+    private void writeLedgerFile(Path target, DeliveryLedger ledger) throws IOException {
+        long start = System.nanoTime();
+        Path temp = AsyncFileWriter.createTempFile(target);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                ledger.writeTo(out);
+            }
+            AsyncFileWriter.moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        AsyncFileWriter.WRITE_TIME.recordSince(start);
+    }
+    
+    private DeliveryLedger readLedgerFile(Path ledgerFile) {
+        if (!Files.exists(ledgerFile)) {
+            return null;
+        }
         
-        if (!Files.exists(historyFile)) {
-            return new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(ledgerFile))))) {
+            return DeliveryLedger.readFrom(in);
+        } catch (IOException e) {
+            System.err.println("Failed to load delivery ledger: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private Path getPartitionDirectory(String partitionKey) throws IOException {
+        return getPartitionDirectory(dataDirectory.resolve(HISTORY_DIR), partitionKey);
+    }
+    
+    private Path getPartitionDirectory(Path historyDir, String partitionKey) throws IOException {
+        Path partitionDir = historyDir.resolve(partitionKey);
+        Files.createDirectories(partitionDir);
+        return partitionDir;
+    }
+    
+    private void writeHistoryEntry(Path partitionDir, EmailHistory entry) throws IOException {
+        writeDataFile(partitionDir, entry.getId(), entry);
+    }
+    
+    private HistoryPartition writePartitionIndex(String partitionKey, List<EmailHistorySummary> index) throws IOException {
+        return writePartitionIndex(dataDirectory.resolve(HISTORY_DIR), partitionKey, index);
+    }
+    
+    private HistoryPartition writePartitionIndex(Path historyDir, String partitionKey, 
+            List<EmailHistorySummary> index) throws IOException {
+        writeDataFile(getPartitionDirectory(historyDir, partitionKey), HISTORY_INDEX_FILE, index);
+        
+        HistoryPartition partition = new HistoryPartition(partitionKey);
+        index.forEach(partition::include);
+        return partition;
+    }
+    
+    private void writeHistoryManifest(List<HistoryPartition> manifest) throws IOException {
+        writeHistoryManifest(dataDirectory.resolve(HISTORY_DIR), manifest);
+    }
+    
+    private void writeHistoryManifest(Path historyDir, List<HistoryPartition> manifest) throws IOException {
+        Files.createDirectories(historyDir);
+        manifest.sort(PARTITION_ORDER);
+        writeDataFile(historyDir, HISTORY_MANIFEST_FILE, manifest);
+    }
+    
+    /**
+     * Ledger and recipient files under a history directory by entry id
+     */
+    private Map<String, List<Path>> findSidecarFiles(Path historyDir) throws IOException {
+        Map<String, List<Path>> sidecars = new HashMap<>();
+        if (!Files.exists(historyDir)) {
+            return sidecars;
+        }
+        try (var paths = Files.walk(historyDir, 2)) {
+            paths.forEach(path -> {
+                String fileName = path.getFileName().toString();
+                for (String extension : List.of(LEDGER_EXTENSION, RECIPIENTS_EXTENSION)) {
+                    if (fileName.endsWith(extension)) {
+                        sidecars.computeIfAbsent(fileName.substring(0, fileName.length() - extension.length()), 
+                            id -> new ArrayList<>()).add(path);
+                    }
+                }
+            });
+        }
+        return sidecars;
+    }
+    
+    /**
+     * Replace the history directory with a complete staging directory: the live directory is
+     * moved aside, the staging one renamed into place, and only then the old one deleted
+     */
+    private void swapInHistory(Path stagingDir) throws IOException {
+        Path historyDir = dataDirectory.resolve(HISTORY_DIR);
+        Path previousDir = dataDirectory.resolve(HISTORY_PREVIOUS_DIR);
+        deleteRecursively(previousDir);
+        if (Files.exists(historyDir)) {
+            Files.move(historyDir, previousDir, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(stagingDir, historyDir, StandardCopyOption.ATOMIC_MOVE);
+        deleteRecursively(previousDir);
+    }
+    
+    /**
+     * Finish or roll back a history swap interrupted by a crash
+     */
+    private void recoverHistorySwap() {
+        Path historyDir = dataDirectory.resolve(HISTORY_DIR);
+        Path stagingDir = dataDirectory.resolve(HISTORY_STAGING_DIR);
+        Path previousDir = dataDirectory.resolve(HISTORY_PREVIOUS_DIR);
+        try {
+            if (!Files.exists(historyDir) && Files.exists(previousDir)) {
+                // The staging directory is complete once the live one has been moved aside
+                Files.move(Files.exists(stagingDir) ? stagingDir : previousDir, historyDir, 
+                    StandardCopyOption.ATOMIC_MOVE);
+            }
+            deleteRecursively(stagingDir);
+            deleteRecursively(previousDir);
+        } catch (IOException e) {
+            System.err.println("Failed to recover history directory: " + e.getMessage());
+        }
+    }
+    
+    // Codec-aware data files: "<baseName><extension>" in the configured format, falling
+    // back to a file in the other format when only that one exists
+    
+    private <T> T readDataFile(Path directory, String baseName, TypeReference<T> type) throws IOException {
+        Path file = directory.resolve(baseName + codec.getExtension());
+        if (Files.exists(file)) {
+            return codec.read(file.toFile(), type);
+        }
+        Path fallbackFile = directory.resolve(baseName + fallbackCodec.getExtension());
+        if (Files.exists(fallbackFile)) {
+            return fallbackCodec.read(fallbackFile.toFile(), type);
+        }
+        return null;
+    }
+    
+    private void writeDataFile(Path directory, String baseName, Object value) throws IOException {
+        long start = System.nanoTime();
+        Path target = directory.resolve(baseName + codec.getExtension());
+        Path temp = AsyncFileWriter.createTempFile(target);
+        try {
+            codec.write(temp.toFile(), value);
+            AsyncFileWriter.moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        AsyncFileWriter.WRITE_TIME.recordSince(start);
+        Files.deleteIfExists(directory.resolve(baseName + fallbackCodec.getExtension()));
+    }
+    
+    private void deleteDataFile(Path directory, String baseName) throws IOException {
+        Files.deleteIfExists(directory.resolve(baseName + codec.getExtension()));
+        Files.deleteIfExists(directory.resolve(baseName + fallbackCodec.getExtension()));
+    }
+    
+    /**
+     * Split a single-file history.json into monthly partitions
+     */
+    private void migrateLegacyHistory() {
+        Path legacyFile = dataDirectory.resolve(HISTORY_FILE);
+        if (!Files.exists(legacyFile)) {
+            return;
         }
         
         try {
-            return objectMapper.readValue(historyFile.toFile(), 
+            List<EmailHistory> legacy = objectMapper.readValue(legacyFile.toFile(), 
                 new TypeReference<List<EmailHistory>>() {});
+            saveHistory(legacy);
+            Files.delete(legacyFile);
         } catch (IOException e) {
-            System.err.println("Failed to load history: " + e.getMessage());
-            return new ArrayList<>();
+            System.err.println("Failed to migrate history: " + e.getMessage());
         }
     }
     
     // Settings persistence
     
     /**
-     * Save application settings to JSON file
+     * Save application settings to JSON file. The write is coalesced and performed atomically on the I/O thread.
      */
     public void saveSettings(Map<String, Object> settings) {
         try {
             Path settingsFile = dataDirectory.resolve(SETTINGS_FILE);
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(settingsFile.toFile(), settings);
+            HISTORY_LIMITS.put(settingsFile, historyLimit(settings));
+            fileWriter.write(settingsFile, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(settings));
         } catch (IOException e) {
             System.err.println("Failed to save settings: " + e.getMessage());
         }
     }
     
+    private int getHistoryLimit() {
+        return HISTORY_LIMITS.computeIfAbsent(dataDirectory.resolve(SETTINGS_FILE), file -> historyLimit(loadSettings()));
+    }
+    
+    private static int historyLimit(Map<String, Object> settings) {
+        Object maxEntries = settings.get("maxHistoryEntries");
+        return maxEntries instanceof Number ? ((Number) maxEntries).intValue() : -1;
+    }
+    
     /**
      * Load application settings from JSON file
      */
     public Map<String, Object> loadSettings() {
         Path settingsFile = dataDirectory.resolve(SETTINGS_FILE);
         Map<String, Object> defaultSettings = getDefaultSettings();
+        byte[] pending = fileWriter.getPendingContent(settingsFile);
         
-        if (!Files.exists(settingsFile)) {
+        if (pending == null && !Files.exists(settingsFile)) {
             return defaultSettings;
         }
         
         try {
-            Map<String, Object> loadedSettings = objectMapper.readValue(settingsFile.toFile(), 
-                new TypeReference<Map<String, Object>>() {});
+            TypeReference<Map<String, Object>> type = new TypeReference<Map<String, Object>>() {};
+            Map<String, Object> loadedSettings = pending != null ? objectMapper.readValue(pending, type) 
+                : objectMapper.readValue(settingsFile.toFile(), type);
             
             // Merge loaded settings with defaults to ensure all keys exist
             defaultSettings.putAll(loadedSettings);
@@ -156,6 +859,50 @@ public class DataManager {
         }
     }
     
+    /**
+     * Save how many messages each sending account sent on {@code day}, so daily quotas
+     * survive a restart. The write is coalesced like settings writes.
+     */
+    public void saveAccountUsage(LocalDate day, Map<String, Integer> usage) {
+        try {
+            Map<String, Object> content = new LinkedHashMap<>();
+            content.put("day", day.toString());
+            content.put("sent", usage);
+            fileWriter.write(dataDirectory.resolve(ACCOUNT_USAGE_FILE), objectMapper.writeValueAsBytes(content));
+        } catch (IOException e) {
+            System.err.println("Failed to save account usage: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Messages sent by each account on {@code day}; empty if the saved usage is from another day
+     */
+    public Map<String, Integer> loadAccountUsage(LocalDate day) {
+        Path usageFile = dataDirectory.resolve(ACCOUNT_USAGE_FILE);
+        byte[] content = fileWriter.getPendingContent(usageFile);
+        try {
+            if (content == null) {
+                if (!Files.exists(usageFile)) {
+                    return new HashMap<>();
+                }
+                content = Files.readAllBytes(usageFile);
+            }
+            Map<String, Object> saved = objectMapper.readValue(content, new TypeReference<Map<String, Object>>() {});
+            Map<String, Integer> usage = new HashMap<>();
+            if (day.toString().equals(saved.get("day")) && saved.get("sent") instanceof Map) {
+                ((Map<?, ?>) saved.get("sent")).forEach((account, sent) -> {
+                    if (sent instanceof Number) {
+                        usage.put(String.valueOf(account), ((Number) sent).intValue());
+                    }
+                });
+            }
+            return usage;
+        } catch (IOException e) {
+            System.err.println("Failed to load account usage: " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+    
     /**
      * Get default application settings
      */
@@ -169,6 +916,16 @@ public class DataManager {
         defaults.put("smtpPort", "587");
         defaults.put("enableSSL", false);
         defaults.put("enableSTARTTLS", true);
+        defaults.put("deliveryMode", "relay");
+        defaults.put("smtpConnections", 2);
+        defaults.put("maxSmtpConnections", 8);
+        defaults.put("adaptiveConcurrency", true);
+        defaults.put("smtpConnectTimeoutSeconds", 15);
+        defaults.put("smtpReadTimeoutSeconds", 60);
+        defaults.put("smtpWriteTimeoutSeconds", 60);
+        defaults.put("circuitBreakerFailures", 5);
+        defaults.put("circuitBreakerOpenSeconds", 30);
+        defaults.put("sendRatePerSecond", 1.0);
         
         // Appearance settings
         defaults.put("darkTheme", false);
@@ -180,6 +937,7 @@ public class DataManager {
         defaults.put("autoSaveDrafts", true);
         defaults.put("confirmBeforeSend", true);
         defaults.put("maxHistoryEntries", 1000);
+        // No "storageFormat" default: without one the format follows the data on disk
         
         return defaults;
     }
@@ -207,6 +965,13 @@ public class DataManager {
         objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, history);
     }
     
+    /**
+     * Get the codec used for bulk data files
+     */
+    public DataCodec getCodec() {
+        return codec;
+    }
+    
     /**
      * Get data directory path
      */
@@ -218,40 +983,68 @@ public class DataManager {
      * Clear all data files (for reset functionality)
      */
     public void clearAllData() {
+        fileWriter.cancel(dataDirectory.resolve(TEMPLATES_FILE));
+        fileWriter.cancel(dataDirectory.resolve(SETTINGS_FILE));
+        HISTORY_LIMITS.remove(dataDirectory.resolve(SETTINGS_FILE));
         try {
             Files.deleteIfExists(dataDirectory.resolve(TEMPLATES_FILE));
             Files.deleteIfExists(dataDirectory.resolve(HISTORY_FILE));
             Files.deleteIfExists(dataDirectory.resolve(SETTINGS_FILE));
+            deleteRecursively(dataDirectory.resolve(HISTORY_DIR));
+            deleteRecursively(dataDirectory.resolve(HISTORY_STAGING_DIR));
+            deleteRecursively(dataDirectory.resolve(HISTORY_PREVIOUS_DIR));
+            deleteRecursively(dataDirectory.resolve(SCHEDULE_DIR));
         } catch (IOException e) {
             System.err.println("Failed to clear data files: " + e.getMessage());
         }
     }
     
     /**
-     * Backup data to a specified directory
+     * Back up all data files to a specified directory as an incremental, deduplicated snapshot
      */
-    public void backupData(Path backupDirectory) throws IOException {
-        if (!Files.exists(backupDirectory)) {
-            Files.createDirectories(backupDirectory);
-        }
-        
-        // Copy all data files to backup directory
-        String timestamp = java.time.LocalDateTime.now().format(
-            java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+    public BackupSnapshot backupData(Path backupDirectory) throws IOException {
+        // Make sure coalesced settings/template writes are on disk first
+        fileWriter.flush();
         
-        Path templatesFile = dataDirectory.resolve(TEMPLATES_FILE);
-        if (Files.exists(templatesFile)) {
-            Files.copy(templatesFile, backupDirectory.resolve("templates-" + timestamp + ".json"));
+        synchronized (HISTORY_LOCK) {
+            return new BackupStore(backupDirectory).createSnapshot(dataDirectory);
         }
-        
-        Path historyFile = dataDirectory.resolve(HISTORY_FILE);
-        if (Files.exists(historyFile)) {
-            Files.copy(historyFile, backupDirectory.resolve("history-" + timestamp + ".json"));
+    }
+    
+    /**
+     * Replace all data files with the contents of a backup snapshot (the latest if id is null)
+     */
+    public BackupSnapshot restoreBackup(Path backupDirectory, String snapshotId) throws IOException {
+        BackupStore store = new BackupStore(backupDirectory);
+        BackupSnapshot snapshot = snapshotId != null ? store.loadSnapshot(snapshotId) : store.loadLatestSnapshot();
+        if (snapshot == null) {
+            throw new IOException("No backup snapshot found in " + backupDirectory);
         }
         
-        Path settingsFile = dataDirectory.resolve(SETTINGS_FILE);
-        if (Files.exists(settingsFile)) {
-            Files.copy(settingsFile, backupDirectory.resolve("settings-" + timestamp + ".json"));
+        fileWriter.flush();
+        synchronized (HISTORY_LOCK) {
+            clearAllData();
+            store.restoreSnapshot(snapshot.getId(), dataDirectory);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * List backup snapshots in a directory, oldest first
+     */
+    public List<BackupSnapshot> listBackups(Path backupDirectory) {
+        return new BackupStore(backupDirectory).listSnapshots();
+    }
+    
+    private void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (var paths = Files.walk(path)) {
+            List<Path> all = paths.sorted(Comparator.reverseOrder()).toList();
+            for (Path p : all) {
+                Files.deleteIfExists(p);
+            }
         }
     }
 }
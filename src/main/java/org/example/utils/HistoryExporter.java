@@ -0,0 +1,234 @@
+package org.example.utils;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.example.models.DeliveryLedger;
+import org.example.models.EmailHistorySummary;
+import org.example.models.HistoryPartition;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Streams email history to CSV or XLSX with one row per recipient.
+ * Rows are built from the partitions' summary indexes, one partition at a time, with each
+ * entry's recipients streamed from disk rather than loading the entry, and XLSX output goes
+ * through POI's windowed {@link SXSSFWorkbook}, so memory stays bounded regardless of how
+ * many rows are exported. CSV cells that a spreadsheet would read as a formula are quoted.
+ */
+public class HistoryExporter {
+
+    public enum Format { CSV, XLSX }
+
+    /**
+     * Progress callback, invoked from the exporting thread
+     */
+    public interface ProgressListener {
+        void onProgress(long rowsWritten, int entriesDone, int entriesTotal);
+    }
+
+    private static final String[] HEADERS = {
+        "Campaign ID", "Subject", "Sender", "Sent At", "Campaign Status", "Recipient",
+        "Delivery Status", "Attempts", "Last SMTP Code", "Last Attempt"
+    };
+    private static final int ROW_WINDOW = 200;
+    private static final int MAX_ROWS_PER_SHEET = 1_048_575;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final DataManager dataManager;
+
+    public HistoryExporter(DataManager dataManager) {
+        this.dataManager = dataManager;
+    }
+
+    /**
+     * Export history sent within the (nullable, inclusive) date range to a file.
+     * Returns the number of rows written; throws {@link CancellationException} when cancelled,
+     * in which case the partial file is removed.
+     */
+    public long export(Path target, Format format, LocalDate from, LocalDate to,
+                       BooleanSupplier cancelled, ProgressListener listener) throws IOException {
+        List<HistoryPartition> partitions = dataManager.loadHistoryManifest().stream()
+            .filter(partition -> partition.overlaps(from, to))
+            .toList();
+        int entriesTotal = partitions.stream().mapToInt(HistoryPartition::getCount).sum();
+
+        Path temp = AsyncFileWriter.createTempFile(target);
+        try {
+            long rows;
+            try (RowWriter writer = format == Format.XLSX ? new XlsxRowWriter(temp) : new CsvRowWriter(temp)) {
+                writer.write(HEADERS);
+                rows = writeRows(writer, partitions, from, to, entriesTotal, cancelled, listener);
+            }
+            AsyncFileWriter.moveAtomically(temp, target);
+            return rows;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private long writeRows(RowWriter writer, List<HistoryPartition> partitions, LocalDate from, LocalDate to,
+                           int entriesTotal, BooleanSupplier cancelled, ProgressListener listener) throws IOException {
+        long rows = 0;
+        int entriesDone = 0;
+        String[] row = new String[HEADERS.length];
+
+        for (HistoryPartition partition : partitions) {
+            for (EmailHistorySummary summary : dataManager.loadPartitionSummaries(partition.getKey())) {
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException("Export cancelled");
+                }
+                entriesDone++;
+                if (!inRange(summary.getSentAt(), from, to)) {
+                    continue;
+                }
+
+                row[0] = summary.getId();
+                row[1] = summary.getSubject();
+                row[2] = summary.getSenderEmail();
+                row[3] = summary.getSentAt() != null ? summary.getSentAt().format(DATE_FORMAT) : "";
+                row[4] = summary.getStatus() != null ? summary.getStatus().name() : "";
+
+                // Per-recipient outcomes, when the campaign recorded a ledger
+                DeliveryLedger ledger = dataManager.loadLedger(summary);
+                long[] written = {0};
+                dataManager.forEachRecipient(summary, (i, email) -> {
+                    row[5] = email;
+                    if (ledger != null && i < ledger.size()) {
+                        row[6] = ledger.getStatus(i).name();
+                        row[7] = String.valueOf(ledger.getAttempts(i));
+                        row[8] = ledger.getSmtpCode(i) != 0 ? String.valueOf(ledger.getSmtpCode(i)) : "";
+                        row[9] = ledger.getTimestamp(i) != 0 ? LocalDateTime.ofInstant(
+                            Instant.ofEpochMilli(ledger.getTimestamp(i)), ZoneId.systemDefault()).format(DATE_FORMAT) : "";
+                    } else {
+                        row[6] = row[7] = row[8] = row[9] = "";
+                    }
+                    writer.write(row);
+                    if ((++written[0] & 0xFFF) == 0 && cancelled.getAsBoolean()) {
+                        throw new CancellationException("Export cancelled");
+                    }
+                });
+                rows += written[0];
+
+                listener.onProgress(rows, entriesDone, entriesTotal);
+            }
+        }
+
+        listener.onProgress(rows, entriesTotal, entriesTotal);
+        return rows;
+    }
+
+    private static boolean inRange(LocalDateTime sentAt, LocalDate from, LocalDate to) {
+        if (from == null && to == null) return true;
+        if (sentAt == null) return false;
+        LocalDate date = sentAt.toLocalDate();
+        return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    /**
+     * Sink for exported rows
+     */
+    private interface RowWriter extends AutoCloseable {
+        void write(String[] values) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final BufferedWriter writer;
+
+        CsvRowWriter(Path file) throws IOException {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void write(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) writer.write(',');
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value == null) return "";
+            // Keep spreadsheet apps from evaluating subjects or addresses as formulas
+            if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static class XlsxRowWriter implements RowWriter {
+        private final Path file;
+        private final SXSSFWorkbook workbook;
+        private Sheet sheet;
+        private int sheetRows;
+        private int sheetCount;
+        private String[] headers;
+
+        XlsxRowWriter(Path file) {
+            this.file = file;
+            this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+            this.workbook.setCompressTempFiles(true);
+        }
+
+        @Override
+        public void write(String[] values) {
+            // Roll over to a new sheet at Excel's row limit, repeating the header
+            if (sheet == null || sheetRows >= MAX_ROWS_PER_SHEET) {
+                boolean rollover = sheet != null;
+                sheet = workbook.createSheet("History" + (sheetCount == 0 ? "" : " " + (sheetCount + 1)));
+                sheetCount++;
+                sheetRows = 0;
+                if (rollover) {
+                    appendRow(headers);
+                }
+            }
+            if (headers == null) {
+                headers = values.clone();
+            }
+            appendRow(values);
+        }
+
+        private void appendRow(String[] values) {
+            Row row = sheet.createRow(sheetRows++);
+            for (int i = 0; i < values.length; i++) {
+                Cell cell = row.createCell(i);
+                cell.setCellValue(values[i] != null ? values[i] : "");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Closing the workbook also deletes its temp files
+            try (workbook; OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.utils;
+
+import org.example.models.EmailHistorySummary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Paging data source for the history table. The table only ever holds one page
+ * of summary rows; bodies and recipient lists are loaded separately on selection.
+ */
+public interface HistoryPageSource {
+
+    /**
+     * Total number of rows available from this source
+     */
+    int size();
+
+    /**
+     * Fetch up to {@code limit} rows starting at {@code offset}
+     */
+    List<EmailHistorySummary> page(int offset, int limit);
+
+    /**
+     * Number of pages for the given page size
+     */
+    default int pageCount(int pageSize) {
+        return Math.max(1, (size() + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Source backed by an already filtered list of summary rows
+     */
+    static HistoryPageSource of(List<EmailHistorySummary> rows) {
+        List<EmailHistorySummary> snapshot = new ArrayList<>(rows);
+        return new HistoryPageSource() {
+            @Override
+            public int size() {
+                return snapshot.size();
+            }
+
+            @Override
+            public List<EmailHistorySummary> page(int offset, int limit) {
+                if (offset >= snapshot.size()) {
+                    return Collections.emptyList();
+                }
+                return snapshot.subList(Math.max(0, offset), Math.min(snapshot.size(), offset + limit));
+            }
+        };
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Frame-time recorder and long-frame detector for the JavaFX thread.
+ *
+ * {@link #onPulse()} is called at the start of every pulse and records the time since the
+ * previous one into the "ui.frame" histogram. While a pulse is overdue a watchdog thread
+ * samples the FX thread's stack every few milliseconds; when the late pulse finally arrives
+ * the stall is charged to the application method seen most often in those samples, so a
+ * 200 ms filter or save on the FX thread shows up by name instead of as one missing frame
+ * in an FPS count.
+ */
+public class JankDetector {
+
+    public static final long DEFAULT_THRESHOLD_NANOS = 50_000_000;
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 10;
+    private static final int MAX_OFFENDERS = 100;
+    private static final String UNKNOWN_SITE = "(no sample during the stall)";
+
+    /**
+     * Where long frames were spent, by application method
+     */
+    public static final class Offender {
+        private final String site;
+        private int count;
+        private long totalNanos;
+        private long worstNanos;
+
+        private Offender(String site) {
+            this.site = site;
+        }
+
+        private Offender(Offender other) {
+            this.site = other.site;
+            this.count = other.count;
+            this.totalNanos = other.totalNanos;
+            this.worstNanos = other.worstNanos;
+        }
+
+        public String getSite() { return site; }
+        public int getCount() { return count; }
+        public long getTotalMillis() { return totalNanos / 1_000_000; }
+        public long getWorstMillis() { return worstNanos / 1_000_000; }
+    }
+
+    private final LatencyHistogram frameTimes;
+    private final LongAdder longFrames;
+    private final long thresholdNanos;
+
+    private volatile Thread fxThread;
+    private volatile long lastPulseNanos;
+    private ScheduledExecutorService watchdog;
+
+    // Guarded by this: stack samples of the current stall, and offenders so far
+    private final Map<String, Integer> stallSamples = new HashMap<>();
+    private final Map<String, Offender> offenders = new HashMap<>();
+
+    public JankDetector(MetricsRegistry registry, long thresholdNanos) {
+        this.frameTimes = registry.histogram("ui.frame");
+        this.longFrames = registry.counter("ui.longFrames");
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    /**
+     * Record a pulse; call first thing in every pulse, on the FX thread
+     */
+    public void onPulse() {
+        long now = System.nanoTime();
+        long previous = lastPulseNanos;
+        lastPulseNanos = now;
+        if (fxThread == null) {
+            fxThread = Thread.currentThread();
+            startWatchdog();
+        }
+        if (previous == 0) {
+            return;
+        }
+
+        long frameNanos = now - previous;
+        frameTimes.record(frameNanos / 1000);
+        synchronized (this) {
+            if (frameNanos >= thresholdNanos) {
+                longFrames.increment();
+                charge(mostSampledSite(), frameNanos);
+            }
+            stallSamples.clear();
+        }
+    }
+
+    public LatencyHistogram.Snapshot getFrameTimes() {
+        return frameTimes.snapshot();
+    }
+
+    public long getLongFrameCount() {
+        return longFrames.sum();
+    }
+
+    /**
+     * Offenders with the most stall time first
+     */
+    public synchronized List<Offender> getWorstOffenders(int limit) {
+        List<Offender> result = new ArrayList<>();
+        for (Offender offender : offenders.values()) {
+            result.add(new Offender(offender));
+        }
+        result.sort(Comparator.comparingLong((Offender offender) -> offender.totalNanos).reversed());
+        return result.subList(0, Math.min(limit, result.size()));
+    }
+
+    public synchronized void stop() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+            watchdog = null;
+        }
+    }
+
+    private synchronized void startWatchdog() {
+        if (watchdog != null) {
+            return;
+        }
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FxJankWatchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::sampleIfOverdue, SAMPLE_INTERVAL_MILLIS, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void sampleIfOverdue() {
+        Thread thread = fxThread;
+        long last = lastPulseNanos;
+        // Start sampling halfway to the threshold, so short stalls still get a sample
+        if (thread == null || System.nanoTime() - last < thresholdNanos / 2) {
+            return;
+        }
+        String site = siteOf(thread.getStackTrace());
+        synchronized (this) {
+            // Drop a sample that raced with the pulse ending the stall
+            if (lastPulseNanos == last) {
+                stallSamples.merge(site, 1, Integer::sum);
+            }
+        }
+    }
+
+    private String mostSampledSite() {
+        String best = UNKNOWN_SITE;
+        int bestCount = 0;
+        for (Map.Entry<String, Integer> sample : stallSamples.entrySet()) {
+            if (sample.getValue() > bestCount) {
+                best = sample.getKey();
+                bestCount = sample.getValue();
+            }
+        }
+        return best;
+    }
+
+    private void charge(String site, long frameNanos) {
+        Offender offender = offenders.get(site);
+        if (offender == null) {
+            if (offenders.size() >= MAX_OFFENDERS) {
+                // Forget the least costly site to stay bounded
+                offenders.values().stream()
+                    .min(Comparator.comparingLong(candidate -> candidate.totalNanos))
+                    .ifPresent(least -> offenders.remove(least.site));
+            }
+            offender = new Offender(site);
+            offenders.put(site, offender);
+        }
+        offender.count++;
+        offender.totalNanos += frameNanos;
+        offender.worstNanos = Math.max(offender.worstNanos, frameNanos);
+    }
+
+    /**
+     * The innermost application frame, e.g. "HistoryController.applyFilters:212", or the
+     * top frame when the FX thread is in library code only
+     */
+    static String siteOf(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (className.startsWith("org.example.") && !className.startsWith(JankDetector.class.getName())) {
+                return format(frame);
+            }
+        }
+        return stack.length > 0 ? format(stack[0]) : UNKNOWN_SITE;
+    }
+
+    private static String format(StackTraceElement frame) {
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        return simpleName + "." + frame.getMethodName() + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with log-linear buckets, in the style of HdrHistogram.
+ *
+ * Values are recorded in microseconds. Below 128 µs every value has its own bucket; above,
+ * each power of two is split into 64 linear buckets, so any value is reported within about
+ * 1.6% from 0 µs up to about 19 hours, in a fixed 2048-slot array. Recording is lock-free
+ * (one atomic increment plus a max update) and safe from any thread; snapshots copy the
+ * counts without stopping writers, so a snapshot taken during recording may be off by the
+ * few values recorded while it was copied.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Record one duration in microseconds
+     */
+    public void record(long micros) {
+        long value = Math.max(0, Math.min(MAX_VALUE, micros));
+        counts.incrementAndGet(indexOf(value));
+        totalMicros.add(value);
+        if (value > maxMicros.get()) {
+            maxMicros.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Record the time elapsed since a {@link System#nanoTime()} reading
+     */
+    public void recordSince(long startNanos) {
+        record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = copyCounts(copy);
+        return new Snapshot(copy, count, totalMicros.sum(), maxMicros.get());
+    }
+
+    /**
+     * Copy the bucket counts into an array of {@link #bucketCount()} slots without allocating
+     *
+     * @return the total count
+     */
+    long copyCounts(long[] target) {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            target[i] = counts.get(i);
+            count += target[i];
+        }
+        return count;
+    }
+
+    static int bucketCount() {
+        return BUCKETS;
+    }
+
+    /**
+     * Value at the given percentile of bucket counts with the given total, 0 when empty
+     */
+    static long percentileOf(long[] counts, long count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(counts.length - 1);
+    }
+
+    /**
+     * Forget everything recorded so far
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalMicros.reset();
+        maxMicros.set(0);
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + mantissa;
+    }
+
+    /**
+     * Middle of the value range a bucket covers
+     */
+    static long valueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int octave = (index - LINEAR_LIMIT) / SUB_BUCKETS;
+        int mantissa = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = octave + 1;
+        return ((long) mantissa << shift) + (1L << shift) / 2;
+    }
+
+    /**
+     * Immutable view of a histogram; durations in microseconds
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+
+        private Snapshot(long[] counts, long count, long totalMicros, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.totalMicros = totalMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() { return count; }
+        public long getMaxMicros() { return maxMicros; }
+        public long getTotalMicros() { return totalMicros; }
+
+        public double getMeanMicros() {
+            return count > 0 ? (double) totalMicros / count : 0;
+        }
+
+        /**
+         * Value at the given percentile (0-100), 0 when nothing was recorded
+         */
+        public long getPercentileMicros(double percentile) {
+            return Math.min(percentileOf(counts, count, percentile), maxMicros);
+        }
+
+        /**
+         * Distribution of what was recorded since an earlier snapshot of the same histogram
+         */
+        public Snapshot since(Snapshot earlier) {
+            long[] delta = new long[counts.length];
+            long deltaCount = 0;
+            for (int i = 0; i < counts.length; i++) {
+                delta[i] = Math.max(0, counts[i] - earlier.counts[i]);
+                deltaCount += delta[i];
+            }
+            long deltaMax = 0;
+            for (int i = delta.length - 1; i >= 0; i--) {
+                if (delta[i] > 0) {
+                    deltaMax = Math.min(valueOf(i), maxMicros);
+                    break;
+                }
+            }
+            return new Snapshot(delta, deltaCount, Math.max(0, totalMicros - earlier.totalMicros), deltaMax);
+        }
+    }
+}
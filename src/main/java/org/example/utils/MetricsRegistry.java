@@ -0,0 +1,80 @@
+package org.example.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Named counters, gauges and latency histograms for the work users wait on.
+ *
+ * Metrics are created on first use and live for the rest of the run. Counters and
+ * histograms are lock-free to update, so hot paths (one record per message) can call
+ * them from any thread; look a metric up once and keep the reference where a path is
+ * very hot. Readers take a {@link MetricsSnapshot} and compare it with an earlier one
+ * for rates and recent latency.
+ */
+public class MetricsRegistry {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Register a gauge read on every snapshot, replacing one of the same name
+     */
+    public void gauge(String name, DoubleSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Set a gauge to a fixed value, e.g. the throughput of the last import
+     */
+    public void setGauge(String name, double value) {
+        gauges.put(name, () -> value);
+    }
+
+    /**
+     * Current value of a gauge, or 0 if there is none by that name
+     */
+    public double gaugeValue(String name) {
+        DoubleSupplier gauge = gauges.get(name);
+        if (gauge == null) {
+            return 0;
+        }
+        try {
+            return gauge.getAsDouble();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to read gauge " + name + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+
+        Map<String, Double> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, gauge) -> {
+            try {
+                gaugeValues.put(name, gauge.getAsDouble());
+            } catch (RuntimeException e) {
+                System.err.println("Failed to read gauge " + name + ": " + e.getMessage());
+            }
+        });
+
+        Map<String, LatencyHistogram.Snapshot> histogramValues = new TreeMap<>();
+        histograms.forEach((name, histogram) -> histogramValues.put(name, histogram.snapshot()));
+
+        return new MetricsSnapshot(System.currentTimeMillis(), counterValues, gaugeValues, histogramValues);
+    }
+}
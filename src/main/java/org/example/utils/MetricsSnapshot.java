@@ -0,0 +1,54 @@
+package org.example.utils;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Point-in-time copy of every metric in a {@link MetricsRegistry}, sorted by name
+ */
+public class MetricsSnapshot {
+
+    private final long timestampMillis;
+    private final Map<String, Long> counters;
+    private final Map<String, Double> gauges;
+    private final Map<String, LatencyHistogram.Snapshot> histograms;
+
+    MetricsSnapshot(long timestampMillis, Map<String, Long> counters, Map<String, Double> gauges,
+                    Map<String, LatencyHistogram.Snapshot> histograms) {
+        this.timestampMillis = timestampMillis;
+        this.counters = Collections.unmodifiableMap(counters);
+        this.gauges = Collections.unmodifiableMap(gauges);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    public long getTimestampMillis() { return timestampMillis; }
+    public Map<String, Long> getCounters() { return counters; }
+    public Map<String, Double> getGauges() { return gauges; }
+    public Map<String, LatencyHistogram.Snapshot> getHistograms() { return histograms; }
+
+    public long getCounter(String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    public double getGauge(String name) {
+        return gauges.getOrDefault(name, 0.0);
+    }
+
+    /**
+     * Histogram by name, or null if nothing was ever recorded under it
+     */
+    public LatencyHistogram.Snapshot getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * Per-second rate of a counter between an earlier snapshot and this one
+     */
+    public double rate(MetricsSnapshot earlier, String counter) {
+        long elapsedMillis = timestampMillis - earlier.timestampMillis;
+        if (elapsedMillis <= 0) {
+            return 0;
+        }
+        return (getCounter(counter) - earlier.getCounter(counter)) * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.utils;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The last few minutes of send metrics, one sample per second.
+ *
+ * Samples live in a ring buffer of primitive arrays sized once up front, so sampling
+ * allocates nothing and the oldest second is simply overwritten. A daemon thread takes
+ * a sample every second from the {@link MetricsRegistry}: messages per second and error
+ * rate from the send counters, queue depth from the "send.pending" gauge, and latency
+ * percentiles of the recipients sent in that second from the "send.recipient" histogram.
+ */
+public class MetricsTimeSeries {
+
+    public enum Series {
+        /** Messages accepted by the server per second */
+        SENT_PER_SECOND,
+        /** Share of attempts that failed or were deferred, 0 to 1 */
+        ERROR_RATE,
+        /** Recipients waiting to be sent */
+        QUEUE_DEPTH,
+        /** Median per-recipient send time in milliseconds */
+        LATENCY_P50_MILLIS,
+        /** 99th percentile per-recipient send time in milliseconds */
+        LATENCY_P99_MILLIS
+    }
+
+    public static final int DEFAULT_CAPACITY = 300;
+
+    private static final Series[] SERIES = Series.values();
+
+    private final int capacity;
+    private final long[] timestamps;
+    private final double[][] values;
+
+    // Guarded by this
+    private int next;
+    private int size;
+
+    // Sampler state, only touched by the sampling thread
+    private final MetricsRegistry registry;
+    private final LongAdder sent;
+    private final LongAdder failed;
+    private final LongAdder deferred;
+    private final LatencyHistogram latency;
+    private long[] previousCounts = new long[LatencyHistogram.bucketCount()];
+    private long[] currentCounts = new long[LatencyHistogram.bucketCount()];
+    private final long[] deltaCounts = new long[LatencyHistogram.bucketCount()];
+    private long previousSent;
+    private long previousErrors;
+    private long previousNanos;
+    private ScheduledExecutorService sampler;
+
+    public MetricsTimeSeries(MetricsRegistry registry, int capacity) {
+        this.registry = registry;
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.values = new double[SERIES.length][capacity];
+        this.sent = registry.counter("send.sent");
+        this.failed = registry.counter("send.failed");
+        this.deferred = registry.counter("send.deferred");
+        this.latency = registry.histogram("send.recipient");
+    }
+
+    /**
+     * Sample once per second on a daemon thread until {@link #stop()}
+     */
+    public synchronized void start() {
+        if (sampler != null) {
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MetricsSampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> {
+            try {
+                sample();
+            } catch (RuntimeException e) {
+                System.err.println("Failed to sample metrics: " + e.getMessage());
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    /**
+     * Take one sample; the first call only sets the baseline
+     */
+    void sample() {
+        long now = System.nanoTime();
+        long sentTotal = sent.sum();
+        long errorTotal = failed.sum() + deferred.sum();
+        long latencyCount = latency.copyCounts(currentCounts);
+
+        if (previousNanos != 0) {
+            double seconds = Math.max(1e-3, (now - previousNanos) / 1e9);
+            long sentDelta = sentTotal - previousSent;
+            long errorDelta = errorTotal - previousErrors;
+            long attempts = sentDelta + errorDelta;
+
+            long deltaCount = 0;
+            for (int i = 0; i < deltaCounts.length; i++) {
+                deltaCounts[i] = Math.max(0, currentCounts[i] - previousCounts[i]);
+                deltaCount += deltaCounts[i];
+            }
+
+            synchronized (this) {
+                timestamps[next] = System.currentTimeMillis();
+                values[Series.SENT_PER_SECOND.ordinal()][next] = sentDelta / seconds;
+                values[Series.ERROR_RATE.ordinal()][next] = attempts > 0 ? (double) errorDelta / attempts : 0;
+                values[Series.QUEUE_DEPTH.ordinal()][next] = registry.gaugeValue("send.pending");
+                values[Series.LATENCY_P50_MILLIS.ordinal()][next] =
+                    LatencyHistogram.percentileOf(deltaCounts, deltaCount, 50) / 1000.0;
+                values[Series.LATENCY_P99_MILLIS.ordinal()][next] =
+                    LatencyHistogram.percentileOf(deltaCounts, deltaCount, 99) / 1000.0;
+                next = (next + 1) % capacity;
+                size = Math.min(capacity, size + 1);
+            }
+        }
+
+        long[] swap = previousCounts;
+        previousCounts = currentCounts;
+        currentCounts = swap;
+        previousSent = sentTotal;
+        previousErrors = errorTotal;
+        previousNanos = now;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Copy the most recent samples of a series, oldest first, into {@code target}
+     *
+     * @return the number of samples copied: the smaller of the target length and the
+     *         samples taken so far
+     */
+    public synchronized int read(Series series, double[] target) {
+        int count = Math.min(target.length, size);
+        double[] column = values[series.ordinal()];
+        int start = (next - count + capacity) % capacity;
+        for (int i = 0; i < count; i++) {
+            target[i] = column[(start + i) % capacity];
+        }
+        return count;
+    }
+
+    /**
+     * Most recent sample of a series, 0 before the first one
+     */
+    public synchronized double latest(Series series) {
+        return size > 0 ? values[series.ordinal()][(next - 1 + capacity) % capacity] : 0;
+    }
+
+    /**
+     * Wall-clock time of the most recent sample in milliseconds, 0 before the first one
+     */
+    public synchronized long latestTimestamp() {
+        return size > 0 ? timestamps[(next - 1 + capacity) % capacity] : 0;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.utils;
+
+import org.example.models.EmailHistorySummary;
+import org.example.models.HistoryPartition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * History page source that reads monthly partitions on demand. Only the partitions
+ * covering the requested page are opened, and at most a few are cached at a time,
+ * so memory stays bounded however large the history grows. Pages may be read from
+ * background threads.
+ */
+public class PartitionedHistoryPageSource implements HistoryPageSource {
+
+    private static final int CACHED_PARTITIONS = 3;
+
+    private final DataManager dataManager;
+    private final List<HistoryPartition> partitions;
+    private final int size;
+    private final Map<String, List<EmailHistorySummary>> cache =
+        new LinkedHashMap<>(CACHED_PARTITIONS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<EmailHistorySummary>> eldest) {
+                return size() > CACHED_PARTITIONS;
+            }
+        };
+
+    /**
+     * @param partitions manifest entries in display order (newest first)
+     */
+    public PartitionedHistoryPageSource(DataManager dataManager, List<HistoryPartition> partitions) {
+        this.dataManager = dataManager;
+        this.partitions = new ArrayList<>(partitions);
+        this.size = partitions.stream().mapToInt(HistoryPartition::getCount).sum();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized List<EmailHistorySummary> page(int offset, int limit) {
+        List<EmailHistorySummary> page = new ArrayList<>(limit);
+        int partitionStart = 0;
+
+        for (HistoryPartition partition : partitions) {
+            int partitionEnd = partitionStart + partition.getCount();
+            if (partitionEnd > offset) {
+                List<EmailHistorySummary> rows = getPartition(partition.getKey());
+                int from = Math.max(0, offset - partitionStart);
+                for (int i = from; i < rows.size() && page.size() < limit; i++) {
+                    page.add(rows.get(i));
+                }
+                if (page.size() >= limit) {
+                    break;
+                }
+            }
+            partitionStart = partitionEnd;
+        }
+
+        return page;
+    }
+
+    private List<EmailHistorySummary> getPartition(String key) {
+        return cache.computeIfAbsent(key, dataManager::loadPartitionSummaries);
+    }
+}
@@ -2,37 +2,94 @@ package org.example.utils;
 
 import javafx.animation.AnimationTimer;
 import javafx.scene.Node;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Performance manager for optimizing JavaFX application performance
+ * Performance manager for optimizing JavaFX application performance.
+ *
+ * Also owns the application's {@link MetricsRegistry} (see {@link #metrics()}), which is
+ * usable without the JavaFX toolkit. Metric names in use:
+ * <ul>
+ *   <li>smtp.connect, smtp.auth, smtp.data - connection setup, EHLO/STARTTLS/AUTH, message transfer</li>
+ *   <li>send.personalize, send.recipient - per-recipient template work and total time;
+ *       counters send.sent, send.failed, send.deferred, smtp.connect.failures</li>
+ *   <li>import.file - contact file load time; counter import.rows, gauge import.rowsPerSecond</li>
+ *   <li>persist.write - atomic data file writes</li>
+ *   <li>gauges send.queue.campaigns, send.pending, send.concurrency.limit, send.inflight,
+ *       jvm.heap.usedPercent, ui.fps</li>
+ *   <li>ui.frame - time between JavaFX pulses; counter ui.longFrames (see {@link JankDetector})</li>
+ * </ul>
+ *
+ * Deferred work ({@link #defer(Runnable)}, and animations registered while too many are
+ * running) is queued from any thread and run on the JavaFX thread, first in first out, on
+ * every pulse until the per-pulse time budget is used up. At least one task runs per pulse,
+ * so a slow task delays the queue but never starves it.
  */
 public class PerformanceManager {
     
-    private static PerformanceManager instance;
+    private static final MetricsRegistry METRICS = new MetricsRegistry();
+    private static final MetricsTimeSeries TIME_SERIES = new MetricsTimeSeries(METRICS, MetricsTimeSeries.DEFAULT_CAPACITY);
+    
+    static {
+        METRICS.gauge("jvm.heap.usedPercent", PerformanceManager::heapUsedPercent);
+    }
+    
+    // Share of a 60 fps frame (16.7 ms) left to deferred work, and the cut when frames drop
+    private static final long DEFAULT_FRAME_BUDGET_NANOS = 4_000_000;
+    private static final long LOW_FPS_FRAME_BUDGET_NANOS = 1_000_000;
+    
     private final ConcurrentHashMap<Node, AnimationTimer> activeAnimations = new ConcurrentHashMap<>();
-    private final List<Runnable> deferredTasks = new ArrayList<>();
+    private final Queue<Runnable> deferredTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<Node> pendingAnimations = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<Node, AnimationTimer> pendingAnimationTimers = new ConcurrentHashMap<>();
+    private final AtomicInteger deferredTaskCount = new AtomicInteger();
+    private final JankDetector jankDetector = new JankDetector(METRICS, JankDetector.DEFAULT_THRESHOLD_NANOS);
+    
+    // FX thread only
     private long lastFrameTime = 0;
     private int frameCount = 0;
-    private double averageFPS = 60.0;
+    
+    // Written on the FX thread, read anywhere
+    private volatile double averageFPS = 60.0;
+    private volatile long frameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
     
     // Performance settings
-    private boolean enableGpuAcceleration = true;
-    private boolean enableAnimationThrottling = true;
-    private boolean enableMemoryOptimizations = true;
-    private int maxConcurrentAnimations = 10;
+    private volatile boolean enableGpuAcceleration = true;
+    private volatile boolean enableAnimationThrottling = true;
+    private volatile boolean enableMemoryOptimizations = true;
+    private volatile int maxConcurrentAnimations = 10;
     
     private PerformanceManager() {
         setupPerformanceMonitoring();
+        METRICS.gauge("ui.fps", () -> averageFPS);
+    }
+    
+    /**
+     * The application-wide metrics registry
+     */
+    public static MetricsRegistry metrics() {
+        return METRICS;
+    }
+    
+    /**
+     * Per-second history of the send metrics, sampling from the first call on
+     */
+    public static MetricsTimeSeries timeSeries() {
+        TIME_SERIES.start();
+        return TIME_SERIES;
     }
     
     public static PerformanceManager getInstance() {
-        if (instance == null) {
-            instance = new PerformanceManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
+    }
+    
+    // Created on first use, once, by the class loader's initialization lock
+    private static final class Holder {
+        private static final PerformanceManager INSTANCE = new PerformanceManager();
     }
     
     /**
@@ -42,6 +99,7 @@ public class PerformanceManager {
         AnimationTimer perfTimer = new AnimationTimer() {
             @Override
             public void handle(long currentTime) {
+                jankDetector.onPulse();
                 if (lastFrameTime == 0) {
                     lastFrameTime = currentTime;
                     return;
@@ -51,16 +109,17 @@ public class PerformanceManager {
                 
                 // Update FPS every second
                 if (currentTime - lastFrameTime >= 1_000_000_000L) {
-                    averageFPS = frameCount;
+                    // Frames over the actual elapsed time, which a long last frame stretches
+                    averageFPS = frameCount * 1e9 / (currentTime - lastFrameTime);
                     frameCount = 0;
                     lastFrameTime = currentTime;
                     
                     // Auto-adjust performance settings based on FPS
                     adjustPerformanceSettings();
-                    
-                    // Process deferred tasks during idle time
-                    processDeferredTasks();
                 }
+                
+                startPendingAnimations();
+                processDeferredTasks();
             }
         };
         perfTimer.start();
@@ -74,26 +133,27 @@ public class PerformanceManager {
             // Performance is poor, enable aggressive optimizations
             enableAnimationThrottling = true;
             maxConcurrentAnimations = 5;
+            frameBudgetNanos = LOW_FPS_FRAME_BUDGET_NANOS;
             cleanupUnusedResources();
         } else if (averageFPS > 50) {
             // Performance is good, can be more lenient
             maxConcurrentAnimations = 15;
+            frameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
         }
     }
     
     /**
-     * Register an animation for monitoring
+     * Register an animation for monitoring. Call on the JavaFX thread; when too many
+     * animations are running it starts once one of them is unregistered.
      */
     public void registerAnimation(Node node, AnimationTimer animation) {
         if (activeAnimations.size() >= maxConcurrentAnimations && enableAnimationThrottling) {
-            // Defer animation if too many are running
-            deferredTasks.add(() -> {
-                activeAnimations.put(node, animation);
-                animation.start();
-            });
+            // Defer animation if too many are running; a node keeps its place in line
+            if (pendingAnimationTimers.put(node, animation) == null) {
+                pendingAnimations.add(node);
+            }
         } else {
-            activeAnimations.put(node, animation);
-            animation.start();
+            startAnimation(node, animation);
         }
     }
     
@@ -101,6 +161,7 @@ public class PerformanceManager {
      * Unregister an animation
      */
     public void unregisterAnimation(Node node) {
+        pendingAnimationTimers.remove(node);
         AnimationTimer animation = activeAnimations.remove(node);
         if (animation != null) {
             animation.stop();
@@ -108,16 +169,68 @@ public class PerformanceManager {
     }
     
     /**
-     * Process deferred tasks during idle time
+     * Run a task on the JavaFX thread within a later pulse's time budget. Safe to call from
+     * any thread; tasks run in the order they were deferred.
+     */
+    public void defer(Runnable task) {
+        deferredTasks.add(task);
+        deferredTaskCount.incrementAndGet();
+    }
+    
+    /**
+     * Time per pulse spent on deferred tasks, in nanoseconds
+     */
+    public long getFrameBudgetNanos() {
+        return frameBudgetNanos;
+    }
+    
+    public void setFrameBudgetNanos(long nanos) {
+        this.frameBudgetNanos = Math.max(0, nanos);
+    }
+    
+    private void startAnimation(Node node, AnimationTimer animation) {
+        AnimationTimer previous = activeAnimations.put(node, animation);
+        if (previous != null && previous != animation) {
+            previous.stop();
+        }
+        animation.start();
+    }
+    
+    /**
+     * Start deferred animations, oldest first, while slots are free
+     */
+    private void startPendingAnimations() {
+        while (activeAnimations.size() < maxConcurrentAnimations || !enableAnimationThrottling) {
+            Node node = pendingAnimations.poll();
+            if (node == null) {
+                return;
+            }
+            AnimationTimer animation = pendingAnimationTimers.remove(node);
+            if (animation != null) {
+                startAnimation(node, animation);
+            }
+        }
+    }
+    
+    /**
+     * Run deferred tasks until the pulse's time budget is spent; always at least one, so
+     * the queue drains even when a single task is over budget
      */
     private void processDeferredTasks() {
-        if (!deferredTasks.isEmpty() && activeAnimations.size() < maxConcurrentAnimations) {
-            int tasksToProcess = Math.min(3, deferredTasks.size());
-            for (int i = 0; i < tasksToProcess; i++) {
-                Runnable task = deferredTasks.remove(0);
+        long deadline = System.nanoTime() + frameBudgetNanos;
+        Runnable task;
+        do {
+            task = deferredTasks.poll();
+            if (task == null) {
+                return;
+            }
+            deferredTaskCount.decrementAndGet();
+            try {
                 task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Deferred task failed: " + e.getMessage());
             }
-        }
+        } while (System.nanoTime() < deadline);
     }
     
     /**
@@ -201,6 +314,48 @@ public class PerformanceManager {
         return averageFPS;
     }
     
+    public JankDetector getJankDetector() {
+        return jankDetector;
+    }
+    
+    /**
+     * One-line frame timing summary, e.g. for the debug overlay
+     */
+    public String getFrameStats() {
+        LatencyHistogram.Snapshot frames = jankDetector.getFrameTimes();
+        String stats = String.format("🎞️ %.1f fps | frame p50 %.1f ms, p99 %.1f ms, max %.0f ms | %d long frames",
+            averageFPS,
+            frames.getPercentileMicros(50) / 1000.0,
+            frames.getPercentileMicros(99) / 1000.0,
+            frames.getMaxMicros() / 1000.0,
+            jankDetector.getLongFrameCount());
+        List<JankDetector.Offender> worst = jankDetector.getWorstOffenders(3);
+        if (!worst.isEmpty()) {
+            StringBuilder offenders = new StringBuilder(" | worst:");
+            for (JankDetector.Offender offender : worst) {
+                offenders.append(' ').append(offender.getSite())
+                    .append(" (").append(offender.getCount()).append("×, max ")
+                    .append(offender.getWorstMillis()).append(" ms)");
+            }
+            stats += offenders;
+        }
+        return stats;
+    }
+    
+    /**
+     * Multi-line report of the code that held up the FX thread longest, worst first
+     */
+    public String getJankReport(int limit) {
+        StringBuilder report = new StringBuilder("Long frames (over ")
+            .append(JankDetector.DEFAULT_THRESHOLD_NANOS / 1_000_000).append(" ms): ")
+            .append(jankDetector.getLongFrameCount()).append('\n');
+        for (JankDetector.Offender offender : jankDetector.getWorstOffenders(limit)) {
+            report.append(String.format("  %6d ms total  %5d ms worst  %4d×  %s%n",
+                offender.getTotalMillis(), offender.getWorstMillis(), offender.getCount(), offender.getSite()));
+        }
+        return report.toString();
+    }
+    
     /**
      * Get performance statistics
      */
@@ -209,12 +364,16 @@ public class PerformanceManager {
             "FPS: %.1f | Active Animations: %d | Deferred Tasks: %d | Memory Usage: %.1f%%",
             averageFPS,
             activeAnimations.size(),
-            deferredTasks.size(),
+            deferredTaskCount.get() + pendingAnimationTimers.size(),
             getMemoryUsagePercent()
         );
     }
     
     private double getMemoryUsagePercent() {
+        return heapUsedPercent();
+    }
+    
+    private static double heapUsedPercent() {
         Runtime runtime = Runtime.getRuntime();
         long maxMemory = runtime.maxMemory();
         long totalMemory = runtime.totalMemory();
@@ -263,6 +422,10 @@ public class PerformanceManager {
     public void shutdown() {
         activeAnimations.values().forEach(AnimationTimer::stop);
         activeAnimations.clear();
+        pendingAnimations.clear();
+        pendingAnimationTimers.clear();
         deferredTasks.clear();
+        deferredTaskCount.set(0);
+        jankDetector.stop();
     }
 }
@@ -0,0 +1,83 @@
+package org.example.utils;
+
+/**
+ * Token bucket rate limiter. Tokens refill continuously at {@code permitsPerSecond}
+ * up to {@code burst}; {@link #acquire()} blocks until a token is available.
+ */
+public class RateLimiter {
+
+    private double permitsPerSecond;
+    private double burst;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public RateLimiter(double permitsPerSecond, double burst) {
+        setRate(permitsPerSecond, burst);
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Change the rate; tokens already in the bucket are kept up to the new burst size
+     */
+    public synchronized void setRate(double permitsPerSecond, double burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + permitsPerSecond);
+        }
+        refill();
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.tokens = Math.min(tokens, this.burst);
+    }
+
+    public synchronized double getRate() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * Take one token, waiting for it if necessary
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (true) {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return;
+            }
+            long waitNanos = (long) ((1 - tokens) / permitsPerSecond * 1_000_000_000L);
+            long waitMillis = Math.max(1, waitNanos / 1_000_000);
+            wait(waitMillis);
+        }
+    }
+
+    /**
+     * Take one token if available right now
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Milliseconds until a token will be available, 0 if one is available now
+     */
+    public synchronized long millisUntilAvailable() {
+        refill();
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / permitsPerSecond * 1000);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (lastRefillNanos != 0) {
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * permitsPerSecond);
+        }
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for campaign sends, imports and persistence.
+ *
+ * Start a recording with {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}
+ * and open it in JDK Mission Control; the events appear under "Email Sender". Without a
+ * recording the JIT removes the event objects, so emitting them costs next to nothing.
+ * Fields that take work to compute are only filled in after {@code shouldCommit()}.
+ */
+public final class SendEvents {
+
+    private SendEvents() {
+    }
+
+    @Name("org.example.CampaignStart")
+    @Label("Campaign Start")
+    @Category({"Email Sender", "Campaign"})
+    @Description("A campaign was queued for sending")
+    public static final class CampaignStart extends Event {
+        @Label("Campaign Id")
+        public String campaignId;
+        @Label("Subject")
+        public String subject;
+        @Label("Recipients")
+        public int recipients;
+        @Label("Pending Recipients")
+        @Description("Recipients not yet sent, less than Recipients when a campaign resumes")
+        public int pending;
+        @Label("Priority")
+        public String priority;
+        @Label("Direct Delivery")
+        public boolean direct;
+    }
+
+    @Name("org.example.CampaignEnd")
+    @Label("Campaign End")
+    @Category({"Email Sender", "Campaign"})
+    @Description("A campaign finished; the duration covers queueing and sending")
+    public static final class CampaignEnd extends Event {
+        @Label("Campaign Id")
+        public String campaignId;
+        @Label("Sent")
+        public int sent;
+        @Label("Failed")
+        public int failed;
+        @Label("Deferred")
+        public int deferred;
+        @Label("Cancelled")
+        public boolean cancelled;
+    }
+
+    @Name("org.example.SmtpConnect")
+    @Label("SMTP Connect")
+    @Category({"Email Sender", "SMTP"})
+    @Description("Connection setup to an SMTP server, including TLS and authentication")
+    public static final class SmtpConnect extends Event {
+        @Label("Host")
+        public String host;
+        @Label("Port")
+        public int port;
+        @Label("Success")
+        public boolean success;
+        @Label("Reply Code")
+        @Description("Last SMTP reply code, -1 if the server never answered")
+        public int replyCode;
+    }
+
+    @Name("org.example.MessageSent")
+    @Label("Message Sent")
+    @Category({"Email Sender", "SMTP"})
+    @Description("One message transferred to an SMTP server; the duration is the send latency")
+    @StackTrace(false)
+    public static final class MessageSent extends Event {
+        @Label("Host")
+        public String host;
+        @Label("Recipients")
+        public int recipients;
+        @Label("Size")
+        @DataAmount
+        public long size;
+        @Label("Success")
+        public boolean success;
+        @Label("Reply Code")
+        public int replyCode;
+    }
+
+    @Name("org.example.ImportChunk")
+    @Label("Import Chunk")
+    @Category({"Email Sender", "Import"})
+    @Description("A block of rows read from a contact file")
+    @StackTrace(false)
+    public static final class ImportChunk extends Event {
+        /** Rows per event, so large files show progress without one event per row */
+        public static final int ROWS = 1_000;
+
+        @Label("File")
+        public String file;
+        @Label("First Row")
+        public int firstRow;
+        @Label("Rows")
+        public int rows;
+
+        /**
+         * Begin a chunk starting at the given data row (0-based)
+         */
+        public static ImportChunk start(String file, int firstRow) {
+            ImportChunk chunk = new ImportChunk();
+            chunk.begin();
+            chunk.file = file;
+            chunk.firstRow = firstRow;
+            return chunk;
+        }
+
+        /**
+         * End the chunk after the given number of rows, skipping empty chunks
+         */
+        public void finish(int rows) {
+            end();
+            if (rows > 0 && shouldCommit()) {
+                this.rows = rows;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.example.HistoryFlush")
+    @Label("History Flush")
+    @Category({"Email Sender", "Persistence"})
+    @Description("History or delivery ledger written to disk")
+    public static final class HistoryFlush extends Event {
+        @Label("Operation")
+        @Description("add, save or ledger")
+        public String operation;
+        @Label("Partition")
+        public String partition;
+        @Label("Entries")
+        public int entries;
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timer wheel for coarse-grained timers such as scheduled campaigns.
+ *
+ * Timers are hashed into one of {@code wheelSize} buckets by deadline tick; each tick the
+ * worker thread expires only the current bucket, so scheduling and cancelling are O(1)
+ * regardless of how many timers are pending. Timers further away than one revolution
+ * carry a remaining-rounds counter. Tasks run on the wheel thread and must be short;
+ * hand real work off to an executor.
+ */
+public class TimerWheel {
+
+    /**
+     * Handle for a scheduled task
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Timeout>> buckets;
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final long startMillis;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long currentTick;
+
+    /**
+     * @param tickMillis timer resolution
+     * @param wheelSize  number of buckets, rounded up to a power of two
+     */
+    public TimerWheel(String name, long tickMillis, int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.startMillis = System.currentTimeMillis();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Run a task after the given delay (rounded up to the next tick). Past deadlines fire on the next tick.
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        long deadline = System.currentTimeMillis() + Math.max(0, delayMillis);
+        long deadlineTick = (deadline - startMillis + tickMillis - 1) / tickMillis;
+        Timeout timeout = new Timeout(task, deadlineTick);
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long nextTickMillis = startMillis + (currentTick + 1) * tickMillis;
+            long sleep = nextTickMillis - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (!running) return;
+                    continue;
+                }
+            }
+            currentTick++;
+            transferNewTimeouts();
+            expire(buckets.get((int) (currentTick & mask)));
+        }
+    }
+
+    private void transferNewTimeouts() {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (timeout.cancelled) continue;
+            long tick = Math.max(timeout.deadlineTick, currentTick);
+            timeout.remainingRounds = (tick - currentTick) / buckets.size();
+            buckets.get((int) (tick & mask)).add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Timer task failed: " + e.getMessage());
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+}
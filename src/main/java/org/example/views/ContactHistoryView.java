@@ -7,7 +7,7 @@ import javafx.geometry.Pos;
 import javafx.scene.chart.*;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
-import org.example.models.EmailHistory;
+import org.example.models.EmailHistorySummary;
 import org.example.utils.AnimationUtils;
 
 import java.time.LocalDate;
@@ -20,8 +20,8 @@ import java.time.format.DateTimeFormatter;
 public class ContactHistoryView {
     
     private VBox root;
-    private TableView<EmailHistory> historyTableView;
-    private ObservableList<EmailHistory> emailHistory;
+    private TableView<EmailHistorySummary> historyTableView;
+    private ObservableList<EmailHistorySummary> emailHistory;
     private TextField searchField;
     private ComboBox<String> statusFilterComboBox;
     private DatePicker startDatePicker;
@@ -30,6 +30,18 @@ public class ContactHistoryView {
     private Button exportBtn;
     private Button deleteBtn;
     private Label statusLabel;
+    private ProgressBar exportProgress;
+    
+    // Paging and details components
+    private Button previousPageBtn;
+    private Button nextPageBtn;
+    private Label pageLabel;
+    private Label detailsHeaderLabel;
+    private Label detailsRecipientsLabel;
+    private TextArea detailsContentArea;
+    private MenuItem viewDetailsItem;
+    private MenuItem resendItem;
+    private MenuItem deleteItem;
     
     // Statistics components
     private Label totalEmailsLabel;
@@ -96,7 +108,14 @@ public class ContactHistoryView {
         statusLabel = new Label("Email history and analytics");
         statusLabel.getStyleClass().addAll("body-small", "status-text");
         
-        header.getChildren().addAll(title, spacer, actionButtons, statusLabel);
+        // Export progress, shown only while an export is running
+        exportProgress = new ProgressBar(0);
+        exportProgress.getStyleClass().add("modern-progress-bar");
+        exportProgress.setPrefWidth(150);
+        exportProgress.setVisible(false);
+        exportProgress.setManaged(false);
+        
+        header.getChildren().addAll(title, spacer, actionButtons, exportProgress, statusLabel);
         
         return header;
     }
@@ -191,7 +210,7 @@ public class ContactHistoryView {
         
         searchField = new TextField();
         searchField.getStyleClass().add("modern-text-field");
-        searchField.setPromptText("Search by subject, recipient, or content...");
+        searchField.setPromptText("Search by subject or sender...");
         searchField.setPrefWidth(250);
         
         searchBox.getChildren().addAll(searchLabel, searchField);
@@ -261,21 +280,21 @@ public class ContactHistoryView {
         historyTableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         
         // Table columns
-        TableColumn<EmailHistory, String> subjectColumn = new TableColumn<>("Subject");
+        TableColumn<EmailHistorySummary, String> subjectColumn = new TableColumn<>("Subject");
         subjectColumn.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getSubject()));
         subjectColumn.setPrefWidth(200);
         
-        TableColumn<EmailHistory, String> recipientsColumn = new TableColumn<>("Recipients");
+        TableColumn<EmailHistorySummary, String> recipientsColumn = new TableColumn<>("Recipients");
         recipientsColumn.setCellValueFactory(data -> {
-            int count = data.getValue().getRecipients().size();
+            int count = data.getValue().getTotalRecipients();
             String text = count == 1 ? "1 recipient" : count + " recipients";
             return new javafx.beans.property.SimpleStringProperty(text);
         });
         recipientsColumn.setPrefWidth(120);
         
-        TableColumn<EmailHistory, String> statusColumn = new TableColumn<>("Status");
+        TableColumn<EmailHistorySummary, String> statusColumn = new TableColumn<>("Status");
         statusColumn.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getStatus().name()));
-        statusColumn.setCellFactory(col -> new TableCell<EmailHistory, String>() {
+        statusColumn.setCellFactory(col -> new TableCell<EmailHistorySummary, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
@@ -291,7 +310,7 @@ public class ContactHistoryView {
         });
         statusColumn.setPrefWidth(100);
         
-        TableColumn<EmailHistory, String> sentDateColumn = new TableColumn<>("Sent Date");
+        TableColumn<EmailHistorySummary, String> sentDateColumn = new TableColumn<>("Sent Date");
         sentDateColumn.setCellValueFactory(data -> {
             LocalDateTime sentAt = data.getValue().getSentAt();
             String dateStr = sentAt != null ? sentAt.format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")) : "-";
@@ -299,14 +318,14 @@ public class ContactHistoryView {
         });
         sentDateColumn.setPrefWidth(150);
         
-        TableColumn<EmailHistory, String> successRateColumn = new TableColumn<>("Success Rate");
+        TableColumn<EmailHistorySummary, String> successRateColumn = new TableColumn<>("Success Rate");
         successRateColumn.setCellValueFactory(data -> {
             double rate = data.getValue().getSuccessRate();
             return new javafx.beans.property.SimpleStringProperty(String.format("%.1f%%", rate));
         });
         successRateColumn.setPrefWidth(100);
         
-        TableColumn<EmailHistory, String> senderColumn = new TableColumn<>("Sender");
+        TableColumn<EmailHistorySummary, String> senderColumn = new TableColumn<>("Sender");
         senderColumn.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getSenderEmail()));
         senderColumn.setPrefWidth(180);
         
@@ -314,13 +333,46 @@ public class ContactHistoryView {
         
         // Context menu for table
         ContextMenu contextMenu = new ContextMenu();
-        MenuItem viewDetailsItem = new MenuItem("📄 View Details");
-        MenuItem resendItem = new MenuItem("📤 Resend");
-        MenuItem deleteItem = new MenuItem("🗑️ Delete");
+        viewDetailsItem = new MenuItem("📄 View Details");
+        resendItem = new MenuItem("📤 Resend to Failed");
+        deleteItem = new MenuItem("🗑️ Delete");
         contextMenu.getItems().addAll(viewDetailsItem, resendItem, new SeparatorMenuItem(), deleteItem);
         historyTableView.setContextMenu(contextMenu);
         
-        tableSection.getChildren().addAll(tableTitle, historyTableView);
+        // Pager
+        HBox pagerRow = new HBox(12);
+        pagerRow.setAlignment(Pos.CENTER_RIGHT);
+        
+        previousPageBtn = new Button("◀ Previous");
+        previousPageBtn.getStyleClass().addAll("btn-ghost", "modern-button");
+        
+        pageLabel = new Label("Page 1 of 1");
+        pageLabel.getStyleClass().add("body-small");
+        
+        nextPageBtn = new Button("Next ▶");
+        nextPageBtn.getStyleClass().addAll("btn-ghost", "modern-button");
+        
+        pagerRow.getChildren().addAll(previousPageBtn, pageLabel, nextPageBtn);
+        
+        // Details of the selected entry, loaded on demand
+        VBox detailsBox = new VBox(8);
+        
+        detailsHeaderLabel = new Label("Select an entry to view its content");
+        detailsHeaderLabel.getStyleClass().add("field-label");
+        
+        detailsRecipientsLabel = new Label();
+        detailsRecipientsLabel.getStyleClass().add("body-small");
+        detailsRecipientsLabel.setWrapText(true);
+        
+        detailsContentArea = new TextArea();
+        detailsContentArea.getStyleClass().add("modern-text-area");
+        detailsContentArea.setEditable(false);
+        detailsContentArea.setWrapText(true);
+        detailsContentArea.setPrefRowCount(6);
+        
+        detailsBox.getChildren().addAll(detailsHeaderLabel, detailsRecipientsLabel, detailsContentArea);
+        
+        tableSection.getChildren().addAll(tableTitle, historyTableView, pagerRow, detailsBox);
         
         AnimationUtils.addHoverScaleEffect(tableSection, 1.01);
         
@@ -329,8 +381,8 @@ public class ContactHistoryView {
     
     // Getters for controller access
     public VBox getRoot() { return root; }
-    public TableView<EmailHistory> getHistoryTableView() { return historyTableView; }
-    public ObservableList<EmailHistory> getEmailHistory() { return emailHistory; }
+    public TableView<EmailHistorySummary> getHistoryTableView() { return historyTableView; }
+    public ObservableList<EmailHistorySummary> getEmailHistory() { return emailHistory; }
     public TextField getSearchField() { return searchField; }
     public ComboBox<String> getStatusFilterComboBox() { return statusFilterComboBox; }
     public DatePicker getStartDatePicker() { return startDatePicker; }
@@ -340,6 +392,35 @@ public class ContactHistoryView {
     public Button getDeleteBtn() { return deleteBtn; }
     public Label getStatusLabel() { return statusLabel; }
     public PieChart getStatusChart() { return statusChart; }
+    public Button getPreviousPageBtn() { return previousPageBtn; }
+    public Button getNextPageBtn() { return nextPageBtn; }
+    public MenuItem getViewDetailsItem() { return viewDetailsItem; }
+    public MenuItem getResendItem() { return resendItem; }
+    public MenuItem getDeleteItem() { return deleteItem; }
+    
+    public ProgressBar getExportProgress() { return exportProgress; }
+    
+    public void setExporting(boolean exporting) {
+        exportBtn.setText(exporting ? "✖ Cancel Export" : "📊 Export");
+        exportProgress.setVisible(exporting);
+        exportProgress.setManaged(exporting);
+        if (!exporting) {
+            exportProgress.progressProperty().unbind();
+            exportProgress.setProgress(0);
+        }
+    }
+    
+    public void setPageInfo(int pageIndex, int pageCount) {
+        pageLabel.setText("Page " + (pageIndex + 1) + " of " + pageCount);
+        previousPageBtn.setDisable(pageIndex <= 0);
+        nextPageBtn.setDisable(pageIndex >= pageCount - 1);
+    }
+    
+    public void showDetails(String header, String recipients, String content) {
+        detailsHeaderLabel.setText(header);
+        detailsRecipientsLabel.setText(recipients);
+        detailsContentArea.setText(content);
+    }
     
     public void setStatusText(String text) {
         statusLabel.setText(text);
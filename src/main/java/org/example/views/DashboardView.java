@@ -3,6 +3,7 @@ package org.example.views;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.chart.AreaChart;
+import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.PieChart;
 import javafx.scene.chart.XYChart;
@@ -12,6 +13,8 @@ import javafx.scene.layout.*;
 import javafx.scene.shape.Circle;
 import org.example.utils.AnimationUtils;
 
+import java.util.List;
+
 /**
  * Modern dashboard view with animated cards, charts, and metrics
  */
@@ -20,6 +23,15 @@ public class DashboardView {
     private VBox root;
     private javafx.scene.control.Button newEmailBtn;
     private javafx.scene.control.Button refreshBtn;
+    private Label liveThroughputLabel;
+    private Label liveErrorRateLabel;
+    private Label liveQueueLabel;
+    private Label liveLatencyLabel;
+    private XYChart.Series<Number, Number> throughputSeries;
+    private XYChart.Series<Number, Number> latencyP50Series;
+    private XYChart.Series<Number, Number> latencyP99Series;
+    private GridPane pipelineGrid;
+    private Label pipelineSummaryLabel;
     
     public DashboardView() {
         createDashboard();
@@ -36,16 +48,22 @@ public class DashboardView {
         // Metrics cards row
         HBox metricsRow = createMetricsCards();
         
+        // Live sending metrics
+        VBox liveSection = createLiveSection();
+        
         // Charts row
         HBox chartsRow = createChartsRow();
         
+        // Send pipeline metrics
+        VBox pipelineSection = createPipelineSection();
+        
         // Activity section
         VBox activitySection = createActivitySection();
         
-        root.getChildren().addAll(header, metricsRow, chartsRow, activitySection);
+        root.getChildren().addAll(header, metricsRow, liveSection, chartsRow, pipelineSection, activitySection);
         
         // Add staggered entrance animations
-        AnimationUtils.staggeredEntrance(header, metricsRow, chartsRow, activitySection).play();
+        AnimationUtils.staggeredEntrance(header, metricsRow, liveSection, chartsRow, pipelineSection, activitySection).play();
     }
     
     private HBox createDashboardHeader() {
@@ -157,6 +175,117 @@ public class DashboardView {
         return card;
     }
     
+    private VBox createLiveSection() {
+        VBox section = new VBox(16);
+        section.getStyleClass().add("activity-section");
+        
+        Label title = new Label("📡 Live Sending");
+        title.getStyleClass().addAll("title-3", "section-title");
+        
+        liveThroughputLabel = new Label("0.0");
+        liveErrorRateLabel = new Label("0.0%");
+        liveQueueLabel = new Label("0");
+        liveLatencyLabel = new Label("–");
+        
+        HBox values = new HBox(20);
+        values.getChildren().addAll(
+            createLiveValue("📤", "Messages / sec", liveThroughputLabel),
+            createLiveValue("⚠️", "Error Rate", liveErrorRateLabel),
+            createLiveValue("📬", "Queue Depth", liveQueueLabel),
+            createLiveValue("⏱️", "Latency p50 / p99", liveLatencyLabel)
+        );
+        values.getChildren().forEach(card -> HBox.setHgrow(card, Priority.ALWAYS));
+        
+        throughputSeries = new XYChart.Series<>();
+        throughputSeries.setName("Messages / sec");
+        latencyP50Series = new XYChart.Series<>();
+        latencyP50Series.setName("p50 (ms)");
+        latencyP99Series = new XYChart.Series<>();
+        latencyP99Series.setName("p99 (ms)");
+        
+        HBox charts = new HBox(20);
+        VBox throughputCard = createLiveChart("Throughput", "Messages / sec", List.of(throughputSeries));
+        VBox latencyCard = createLiveChart("Latency", "Milliseconds", List.of(latencyP50Series, latencyP99Series));
+        charts.getChildren().addAll(throughputCard, latencyCard);
+        HBox.setHgrow(throughputCard, Priority.ALWAYS);
+        HBox.setHgrow(latencyCard, Priority.ALWAYS);
+        
+        section.getChildren().addAll(title, values, charts);
+        return section;
+    }
+    
+    private VBox createLiveValue(String icon, String title, Label valueLabel) {
+        VBox card = new VBox(8);
+        card.getStyleClass().addAll("dashboard-card", "metric-card");
+        card.setPadding(new Insets(16));
+        card.setMaxWidth(Double.MAX_VALUE);
+        
+        Label titleLabel = new Label(icon + " " + title);
+        titleLabel.getStyleClass().addAll("body-medium", "metric-title");
+        valueLabel.getStyleClass().addAll("title-2", "metric-value");
+        
+        card.getChildren().addAll(titleLabel, valueLabel);
+        return card;
+    }
+    
+    private VBox createLiveChart(String title, String yLabel, List<XYChart.Series<Number, Number>> series) {
+        VBox card = new VBox(12);
+        card.getStyleClass().addAll("dashboard-card", "chart-card");
+        card.setPadding(new Insets(24));
+        
+        Label titleLabel = new Label(title);
+        titleLabel.getStyleClass().addAll("title-3", "chart-title");
+        
+        NumberAxis xAxis = new NumberAxis();
+        xAxis.setLabel("Seconds ago");
+        xAxis.setAutoRanging(false);
+        xAxis.setTickUnit(30);
+        NumberAxis yAxis = new NumberAxis();
+        yAxis.setLabel(yLabel);
+        yAxis.setForceZeroInRange(true);
+        
+        // Points are updated in place every second; animating them would only cost frames
+        LineChart<Number, Number> chart = new LineChart<>(xAxis, yAxis);
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        chart.setLegendVisible(series.size() > 1);
+        chart.setPrefHeight(200);
+        chart.getData().addAll(series);
+        
+        card.getChildren().addAll(titleLabel, chart);
+        return card;
+    }
+    
+    /**
+     * Set the window of the live charts; the controller fills the series with one point per second
+     */
+    public void setLiveWindow(int seconds) {
+        for (XYChart.Series<Number, Number> series : List.of(throughputSeries, latencyP50Series, latencyP99Series)) {
+            NumberAxis xAxis = (NumberAxis) series.getChart().getXAxis();
+            xAxis.setLowerBound(-(seconds - 1));
+            xAxis.setUpperBound(0);
+        }
+    }
+    
+    public void setLiveValues(String throughput, String errorRate, String queueDepth, String latency) {
+        liveThroughputLabel.setText(throughput);
+        liveErrorRateLabel.setText(errorRate);
+        liveQueueLabel.setText(queueDepth);
+        liveLatencyLabel.setText(latency);
+    }
+    
+    public XYChart.Series<Number, Number> getThroughputSeries() {
+        return throughputSeries;
+    }
+    
+    public XYChart.Series<Number, Number> getLatencyP50Series() {
+        return latencyP50Series;
+    }
+    
+    public XYChart.Series<Number, Number> getLatencyP99Series() {
+        return latencyP99Series;
+    }
+    
     private HBox createChartsRow() {
         HBox row = new HBox(20);
         row.setAlignment(Pos.CENTER);
@@ -245,6 +374,56 @@ public class DashboardView {
         return card;
     }
     
+    private VBox createPipelineSection() {
+        VBox section = new VBox(16);
+        section.getStyleClass().add("activity-section");
+        
+        Label title = new Label("⚙️ Send Pipeline");
+        title.getStyleClass().addAll("title-3", "section-title");
+        
+        VBox card = new VBox(12);
+        card.getStyleClass().addAll("dashboard-card", "activity-card");
+        card.setPadding(new Insets(24));
+        
+        pipelineGrid = new GridPane();
+        pipelineGrid.setHgap(24);
+        pipelineGrid.setVgap(6);
+        
+        pipelineSummaryLabel = new Label("No sends yet");
+        pipelineSummaryLabel.getStyleClass().addAll("body-small", "activity-time");
+        
+        card.getChildren().addAll(pipelineGrid, pipelineSummaryLabel);
+        section.getChildren().addAll(title, card);
+        
+        setPipelineRows(List.of());
+        return section;
+    }
+    
+    /**
+     * Show one row per pipeline stage: name, count, p50, p99, max
+     */
+    public void setPipelineRows(List<String[]> rows) {
+        pipelineGrid.getChildren().clear();
+        String[] headers = {"Stage", "Count", "p50", "p99", "Max"};
+        for (int column = 0; column < headers.length; column++) {
+            Label label = new Label(headers[column]);
+            label.getStyleClass().addAll("body-small", "metric-title");
+            pipelineGrid.add(label, column, 0);
+        }
+        for (int row = 0; row < rows.size(); row++) {
+            String[] cells = rows.get(row);
+            for (int column = 0; column < cells.length; column++) {
+                Label label = new Label(cells[column]);
+                label.getStyleClass().add("body-medium");
+                pipelineGrid.add(label, column, row + 1);
+            }
+        }
+    }
+    
+    public void setPipelineSummary(String text) {
+        pipelineSummaryLabel.setText(text);
+    }
+    
     private VBox createActivitySection() {
         VBox section = new VBox(16);
         section.getStyleClass().add("activity-section");
@@ -1,12 +1,11 @@
 package org.example.views;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
+import org.example.models.Campaign;
 import org.example.models.Contact;
 import org.example.models.EmailTemplate;
 import org.example.utils.AnimationUtils;
@@ -25,23 +24,25 @@ public class EmailComposerView {
     private TextField subjectField;
     private TextArea contentArea;
     private ListView<Contact> recipientsListView;
-    private ObservableList<Contact> recipients;
+    private final RecipientListModel recipients = new RecipientListModel();
     private Label fileSelectionLabel;
     private Button selectFileBtn;
     private Button addRecipientBtn;
     private Button sendEmailBtn;
     private Button saveAsDraftBtn;
+    private Button scheduleBtn;
+    private ComboBox<Campaign.Priority> priorityComboBox;
     private Button loadTemplateBtn;
     private Button newEmailBtn;
     private ComboBox<EmailTemplate> templateComboBox;
     private CheckBox isHtmlCheckBox;
     private ProgressBar sendingProgress;
+    private Label concurrencyLabel;
     private Label statusLabel;
     private File selectedFile;
     private Consumer<File> fileSelectionHandler;
     
     public EmailComposerView() {
-        recipients = FXCollections.observableArrayList();
         createEmailComposer();
     }
     
@@ -181,9 +182,12 @@ public class EmailComposerView {
         manualRow.getChildren().addAll(nameField, emailField, addRecipientBtn);
         
         // Recipients list
-        recipientsListView = new ListView<>(recipients);
+        recipientsListView = new ListView<>();
+        recipientsListView.itemsProperty().bind(recipients.itemsProperty());
         recipientsListView.getStyleClass().add("modern-list-view");
         recipientsListView.setPrefHeight(120);
+        // Fixed height lets the list skip measuring rows, which matters with large imports
+        recipientsListView.setFixedCellSize(60);
         recipientsListView.setCellFactory(lv -> new ContactListCell());
         
         // Recipients count
@@ -191,8 +195,8 @@ public class EmailComposerView {
         recipientsCount.getStyleClass().addAll("body-small", "recipients-count");
         
         // Bind count to list size
-        recipients.addListener((javafx.beans.Observable obs) -> {
-            int count = recipients.size();
+        recipients.sizeProperty().addListener((obs, oldCount, newCount) -> {
+            int count = newCount.intValue();
             recipientsCount.setText(count + " recipient" + (count != 1 ? "s" : ""));
         });
         
@@ -285,6 +289,12 @@ public class EmailComposerView {
         sendingProgress.setPrefWidth(Double.MAX_VALUE);
         sendingProgress.setVisible(false);
         
+        // Live reading of the send engine's adaptive concurrency, shown while sending
+        concurrencyLabel = new Label();
+        concurrencyLabel.getStyleClass().addAll("body-small", "status-text");
+        concurrencyLabel.setVisible(false);
+        concurrencyLabel.setManaged(false);
+        
         // Action buttons
         HBox buttonsRow = new HBox(12);
         buttonsRow.setAlignment(Pos.CENTER_LEFT);
@@ -295,18 +305,28 @@ public class EmailComposerView {
         saveAsDraftBtn = new Button("💾 Save Draft");
         saveAsDraftBtn.getStyleClass().addAll("btn-secondary", "modern-button");
         
+        scheduleBtn = new Button("⏰ Schedule");
+        scheduleBtn.getStyleClass().addAll("btn-secondary", "modern-button");
+        
+        priorityComboBox = new ComboBox<>();
+        priorityComboBox.getItems().setAll(Campaign.Priority.values());
+        priorityComboBox.setValue(Campaign.Priority.NORMAL);
+        priorityComboBox.getStyleClass().add("modern-combo-box");
+        priorityComboBox.setTooltip(new Tooltip("Transactional mail is sent ahead of normal and bulk campaigns"));
+        
         Button previewBtn = new Button("👀 Preview");
         previewBtn.getStyleClass().addAll("btn-outline", "modern-button");
         
         Button clearBtn = new Button("✉️ New Email");
         clearBtn.getStyleClass().addAll("btn-outline", "modern-button", "new-email-btn");
         
-        buttonsRow.getChildren().addAll(sendEmailBtn, saveAsDraftBtn, previewBtn, clearBtn);
+        buttonsRow.getChildren().addAll(sendEmailBtn, priorityComboBox, scheduleBtn, saveAsDraftBtn, previewBtn, clearBtn);
         
-        section.getChildren().addAll(sectionTitle, sendingProgress, buttonsRow);
+        section.getChildren().addAll(sectionTitle, sendingProgress, concurrencyLabel, buttonsRow);
         
         // Add button animations
         AnimationUtils.addHoverScaleEffect(sendEmailBtn);
+        AnimationUtils.addHoverScaleEffect(scheduleBtn);
         AnimationUtils.addHoverScaleEffect(saveAsDraftBtn);
         AnimationUtils.addHoverScaleEffect(previewBtn);
         AnimationUtils.addHoverScaleEffect(clearBtn);
@@ -369,9 +389,8 @@ public class EmailComposerView {
             return;
         }
         
-        Contact contact = new Contact(name, email);
-        if (!recipients.contains(contact)) {
-            recipients.add(contact);
+        if (!recipients.containsEmail(email)) {
+            recipients.add(name, email, null);
             statusLabel.setText("Added recipient: " + email);
         } else {
             showAlert("Duplicate Email", "This email address is already in the recipients list.");
@@ -407,8 +426,38 @@ public class EmailComposerView {
         alert.showAndWait();
     }
     
-    // Custom ListCell for contacts
+    // Custom ListCell for contacts; the nodes are built once and reused as the list scrolls
     private class ContactListCell extends ListCell<Contact> {
+        private final HBox container = new HBox(10);
+        private final Label nameLabel = new Label();
+        private final Label emailLabel = new Label();
+        
+        ContactListCell() {
+            container.setAlignment(Pos.CENTER_LEFT);
+            
+            Label emailIcon = new Label("📧");
+            
+            VBox info = new VBox(2);
+            nameLabel.getStyleClass().add("contact-name");
+            emailLabel.getStyleClass().addAll("body-small", "contact-email");
+            info.getChildren().addAll(nameLabel, emailLabel);
+            
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            
+            Button removeBtn = new Button("✕");
+            removeBtn.getStyleClass().addAll("btn-icon", "remove-btn");
+            removeBtn.setOnAction(e -> {
+                Contact contact = getItem();
+                if (contact != null) {
+                    recipients.remove(getIndex());
+                    statusLabel.setText("Removed: " + contact.getEmail());
+                }
+            });
+            
+            container.getChildren().addAll(emailIcon, info, spacer, removeBtn);
+        }
+        
         @Override
         protected void updateItem(Contact contact, boolean empty) {
             super.updateItem(contact, empty);
@@ -417,30 +466,8 @@ public class EmailComposerView {
                 setText(null);
                 setGraphic(null);
             } else {
-                HBox container = new HBox(10);
-                container.setAlignment(Pos.CENTER_LEFT);
-                
-                Label emailIcon = new Label("📧");
-                
-                VBox info = new VBox(2);
-                Label nameLabel = new Label(contact.getName());
-                nameLabel.getStyleClass().add("contact-name");
-                Label emailLabel = new Label(contact.getEmail());
-                emailLabel.getStyleClass().addAll("body-small", "contact-email");
-                
-                info.getChildren().addAll(nameLabel, emailLabel);
-                
-                Region spacer = new Region();
-                HBox.setHgrow(spacer, Priority.ALWAYS);
-                
-                Button removeBtn = new Button("✕");
-                removeBtn.getStyleClass().addAll("btn-icon", "remove-btn");
-                removeBtn.setOnAction(e -> {
-                    recipients.remove(contact);
-                    statusLabel.setText("Removed: " + contact.getEmail());
-                });
-                
-                container.getChildren().addAll(emailIcon, info, spacer, removeBtn);
+                nameLabel.setText(contact.getName());
+                emailLabel.setText(contact.getEmail());
                 setGraphic(container);
                 setText(null);
             }
@@ -451,9 +478,11 @@ public class EmailComposerView {
     public VBox getRoot() { return root; }
     public TextField getSubjectField() { return subjectField; }
     public TextArea getContentArea() { return contentArea; }
-    public ObservableList<Contact> getRecipients() { return recipients; }
+    public RecipientListModel getRecipients() { return recipients; }
     public Button getSendEmailBtn() { return sendEmailBtn; }
     public Button getSaveAsDraftBtn() { return saveAsDraftBtn; }
+    public Button getScheduleBtn() { return scheduleBtn; }
+    public ComboBox<Campaign.Priority> getPriorityComboBox() { return priorityComboBox; }
     public Button getLoadTemplateBtn() { return loadTemplateBtn; }
     public ComboBox<EmailTemplate> getTemplateComboBox() { return templateComboBox; }
     public CheckBox getIsHtmlCheckBox() { return isHtmlCheckBox; }
@@ -471,6 +500,12 @@ public class EmailComposerView {
     
     public void showProgress(boolean show) {
         sendingProgress.setVisible(show);
+        concurrencyLabel.setVisible(show);
+        concurrencyLabel.setManaged(show);
+    }
+    
+    public void setConcurrencyText(String text) {
+        concurrencyLabel.setText(text);
     }
     
     public void setFileSelectionHandler(Consumer<File> handler) {
@@ -23,6 +23,7 @@ public class MainView {
     private HBox headerBar;
     private Button themeToggleBtn;
     private Button sidebarToggleBtn;
+    private Label performanceOverlay;
     
     private boolean sidebarCollapsed = false;
     private static final double SIDEBAR_WIDTH_EXPANDED = 240;
@@ -57,6 +58,26 @@ public class MainView {
         root.setLeft(sidebar);
         root.setCenter(contentArea);
         root.setTop(headerBar);
+        
+        // Debug strip with frame timings, hidden until toggled
+        performanceOverlay = new Label();
+        performanceOverlay.getStyleClass().add("body-small");
+        performanceOverlay.setStyle("-fx-font-family: monospace; -fx-padding: 4 12; "
+            + "-fx-background-color: rgba(0,0,0,0.75); -fx-text-fill: #7CFC00;");
+        performanceOverlay.setMaxWidth(Double.MAX_VALUE);
+        setPerformanceOverlayVisible(false);
+    }
+    
+    public void setPerformanceOverlayVisible(boolean visible) {
+        root.setBottom(visible ? performanceOverlay : null);
+    }
+    
+    public boolean isPerformanceOverlayVisible() {
+        return root.getBottom() == performanceOverlay;
+    }
+    
+    public void setPerformanceOverlayText(String text) {
+        performanceOverlay.setText(text);
     }
     
     private void setupSidebar() {
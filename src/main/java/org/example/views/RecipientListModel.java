@@ -0,0 +1,132 @@
+package org.example.views;
+
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import org.example.models.Contact;
+import org.example.models.ContactTable;
+
+/**
+ * The composer's recipients, kept in a {@link ContactTable} and shown through a thin
+ * observable list adapter.
+ *
+ * The list view only asks the adapter for the rows on screen, so a Contact is built for
+ * those and nothing else, however many recipients are loaded. Adding or removing a single
+ * recipient fires a one-row change and an import chunk one change for the chunk; replacing
+ * the whole list swaps in a new adapter instead of firing a change event that lists every
+ * row. Use on the JavaFX thread.
+ */
+public class RecipientListModel {
+
+    private ContactTable store = new ContactTable();
+    private final ReadOnlyObjectWrapper<ObservableList<Contact>> items =
+        new ReadOnlyObjectWrapper<>(new StoreAdapter(store));
+    private final ReadOnlyIntegerWrapper size = new ReadOnlyIntegerWrapper();
+
+    /**
+     * The list to show, replaced whenever all recipients are replaced
+     */
+    public ReadOnlyObjectProperty<ObservableList<Contact>> itemsProperty() {
+        return items.getReadOnlyProperty();
+    }
+
+    public ReadOnlyIntegerProperty sizeProperty() {
+        return size.getReadOnlyProperty();
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public boolean isEmpty() {
+        return store.isEmpty();
+    }
+
+    public boolean containsEmail(String email) {
+        return store.indexOfEmail(email) >= 0;
+    }
+
+    public void add(String name, String email, String company) {
+        store.add(name, email, company);
+        adapter().fireAdded(store.size() - 1, store.size());
+        size.set(store.size());
+    }
+
+    /**
+     * Append the rows of a table, e.g. one chunk of a running import, as a single change
+     */
+    public void addAll(ContactTable rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int from = store.size();
+        store.addAll(rows);
+        adapter().fireAdded(from, store.size());
+        size.set(store.size());
+    }
+
+    public void remove(int index) {
+        Contact removed = store.getContact(index);
+        store.remove(index);
+        adapter().fireRemoved(index, removed);
+        size.set(store.size());
+    }
+
+    /**
+     * Replace every recipient with the rows of a store, e.g. one filled by a background
+     * import. The model takes ownership of the store.
+     */
+    public void replaceAll(ContactTable replacement) {
+        store = replacement;
+        items.set(new StoreAdapter(store));
+        size.set(store.size());
+    }
+
+    public void clear() {
+        replaceAll(new ContactTable());
+    }
+
+    /**
+     * Copy of the current recipients, safe to send while the list keeps changing
+     */
+    public ContactTable snapshot() {
+        return store.copy();
+    }
+
+    private StoreAdapter adapter() {
+        return (StoreAdapter) items.get();
+    }
+
+    private static final class StoreAdapter extends ObservableListBase<Contact> {
+        private final ContactTable store;
+
+        private StoreAdapter(ContactTable store) {
+            this.store = store;
+        }
+
+        @Override
+        public Contact get(int index) {
+            return store.getContact(index);
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+
+        private void fireAdded(int from, int to) {
+            beginChange();
+            nextAdd(from, to);
+            endChange();
+        }
+
+        private void fireRemoved(int index, Contact removed) {
+            beginChange();
+            nextRemove(index, removed);
+            endChange();
+        }
+    }
+}
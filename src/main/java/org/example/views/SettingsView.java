@@ -18,6 +18,11 @@ public class SettingsView {
     private TextField smtpPortField;
     private CheckBox enableSSLCheckBox;
     private CheckBox enableSTARTTLSCheckBox;
+    private CheckBox directDeliveryCheckBox;
+    private ListView<String> extraAccountsList;
+    private Button addAccountBtn;
+    private Button removeAccountBtn;
+    private ComboBox<String> rotationComboBox;
     private Button saveSettingsBtn;
     private Button testConnectionBtn;
     private Button resetToDefaultBtn;
@@ -189,7 +194,61 @@ public class SettingsView {
         
         securityBox.getChildren().addAll(enableSSLCheckBox, enableSTARTTLSCheckBox);
         
-        smtpConfig.getChildren().addAll(smtpConfigTitle, hostRow, portRow, securityBox);
+        // Direct-to-MX delivery
+        directDeliveryCheckBox = new CheckBox("Deliver directly to recipient mail servers (MX)");
+        directDeliveryCheckBox.getStyleClass().add("modern-check-box");
+        
+        Label directHelp = new Label("For high volumes. Needs outbound port 25; the SMTP host above is used as a fallback.");
+        directHelp.getStyleClass().addAll("body-small", "help-text");
+        directHelp.setWrapText(true);
+        directHelp.setMaxWidth(500);
+        
+        smtpConfig.getChildren().addAll(smtpConfigTitle, hostRow, portRow, securityBox, directDeliveryCheckBox, directHelp);
+        
+        // Additional sending accounts
+        VBox accountsConfig = new VBox(16);
+        accountsConfig.getStyleClass().addAll("glass-card", "settings-section");
+        
+        Label accountsTitle = new Label("👥 Additional Sending Accounts");
+        accountsTitle.getStyleClass().addAll("title-3", "section-title");
+        
+        extraAccountsList = new ListView<>();
+        extraAccountsList.getStyleClass().add("modern-list-view");
+        extraAccountsList.setPrefHeight(120);
+        extraAccountsList.setMaxWidth(500);
+        extraAccountsList.setPlaceholder(new Label("Only the account above is used"));
+        
+        HBox accountButtons = new HBox(12);
+        accountButtons.setAlignment(Pos.CENTER_LEFT);
+        
+        addAccountBtn = new Button("➕ Add Account");
+        addAccountBtn.getStyleClass().addAll("btn-secondary", "modern-button");
+        
+        removeAccountBtn = new Button("🗑️ Remove");
+        removeAccountBtn.getStyleClass().addAll("btn-outline", "modern-button");
+        
+        accountButtons.getChildren().addAll(addAccountBtn, removeAccountBtn);
+        
+        HBox rotationRow = new HBox(12);
+        rotationRow.setAlignment(Pos.CENTER_LEFT);
+        
+        Label rotationLabel = new Label("Rotation:");
+        rotationLabel.getStyleClass().add("settings-label");
+        rotationLabel.setPrefWidth(150);
+        
+        rotationComboBox = new ComboBox<>();
+        rotationComboBox.getItems().addAll("Round robin", "By remaining daily quota");
+        rotationComboBox.getStyleClass().add("modern-combo-box");
+        rotationComboBox.getSelectionModel().selectFirst();
+        
+        rotationRow.getChildren().addAll(rotationLabel, rotationComboBox);
+        
+        Label accountsHelp = new Label("Sends are spread over all accounts. An account that fails to log in or gets rate limited is paused and the message moves to the next one.");
+        accountsHelp.getStyleClass().addAll("body-small", "help-text");
+        accountsHelp.setWrapText(true);
+        accountsHelp.setMaxWidth(500);
+        
+        accountsConfig.getChildren().addAll(accountsTitle, extraAccountsList, accountButtons, rotationRow, accountsHelp);
         
         // Action Buttons
         HBox actionButtons = new HBox(12);
@@ -206,11 +265,12 @@ public class SettingsView {
         
         actionButtons.getChildren().addAll(saveSettingsBtn, testConnectionBtn, resetToDefaultBtn);
         
-        content.getChildren().addAll(emailConfig, smtpConfig, actionButtons);
+        content.getChildren().addAll(emailConfig, smtpConfig, accountsConfig, actionButtons);
         
         // Add animations
         AnimationUtils.addHoverScaleEffect(emailConfig, 1.01);
         AnimationUtils.addHoverScaleEffect(smtpConfig, 1.01);
+        AnimationUtils.addHoverScaleEffect(accountsConfig, 1.01);
         AnimationUtils.addHoverScaleEffect(saveSettingsBtn);
         AnimationUtils.addHoverScaleEffect(testConnectionBtn);
         AnimationUtils.addHoverScaleEffect(resetToDefaultBtn);
@@ -354,6 +414,11 @@ public class SettingsView {
     public TextField getSmtpPortField() { return smtpPortField; }
     public CheckBox getEnableSSLCheckBox() { return enableSSLCheckBox; }
     public CheckBox getEnableSTARTTLSCheckBox() { return enableSTARTTLSCheckBox; }
+    public CheckBox getDirectDeliveryCheckBox() { return directDeliveryCheckBox; }
+    public ListView<String> getExtraAccountsList() { return extraAccountsList; }
+    public Button getAddAccountBtn() { return addAccountBtn; }
+    public Button getRemoveAccountBtn() { return removeAccountBtn; }
+    public ComboBox<String> getRotationComboBox() { return rotationComboBox; }
     public Button getSaveSettingsBtn() { return saveSettingsBtn; }
     public Button getTestConnectionBtn() { return testConnectionBtn; }
     public Button getResetToDefaultBtn() { return resetToDefaultBtn; }
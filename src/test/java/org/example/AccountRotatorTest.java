@@ -0,0 +1,196 @@
+package org.example;
+
+import org.example.AccountRotator.Strategy;
+import org.example.models.SmtpAccount;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountRotatorTest {
+
+    private final AccountRotator rotator = new AccountRotator();
+
+    @Test
+    void roundRobinTakesTurns() {
+        SmtpAccount a = account("a", 0);
+        SmtpAccount b = account("b", 0);
+        SmtpAccount c = account("c", 0);
+        rotator.configure(List.of(a, b, c), Strategy.ROUND_ROBIN);
+
+        assertEquals(List.of(a, b, c, a, b, c), picks(6));
+    }
+
+    @Test
+    void quotaStrategySharesByRemainingQuota() {
+        SmtpAccount large = account("large", 300);
+        SmtpAccount small = account("small", 100);
+        rotator.configure(List.of(large, small), Strategy.QUOTA);
+
+        Map<SmtpAccount, Integer> counts = counts(picks(40));
+
+        assertEquals(30, counts.get(large));
+        assertEquals(10, counts.get(small));
+    }
+
+    @Test
+    void unlimitedAccountsWeighAtLeastAThousand() {
+        SmtpAccount unlimited = account("unlimited", 0);
+        SmtpAccount limited = account("limited", 100);
+        rotator.configure(List.of(unlimited, limited), Strategy.QUOTA);
+
+        Map<SmtpAccount, Integer> counts = counts(picks(110));
+
+        assertEquals(100, counts.get(unlimited));
+        assertEquals(10, counts.get(limited));
+    }
+
+    @Test
+    void accountsOutOfQuotaAreSkipped() {
+        SmtpAccount limited = account("limited", 2);
+        SmtpAccount unlimited = account("unlimited", 0);
+        rotator.configure(List.of(limited, unlimited), Strategy.ROUND_ROBIN);
+
+        rotator.recordSuccess(limited);
+        rotator.recordSuccess(limited);
+
+        assertEquals(List.of(unlimited, unlimited, unlimited), picks(3));
+        assertEquals(Map.of(keyOf(limited), 2), rotator.getUsage());
+    }
+
+    @Test
+    void usedUpQuotasWaitForTheNextDay() {
+        SmtpAccount only = account("only", 1);
+        rotator.configure(List.of(only), Strategy.QUOTA);
+        long now = System.currentTimeMillis();
+        assertEquals(now, rotator.availableAt(now));
+
+        rotator.recordSuccess(only);
+
+        assertNull(rotator.pick(List.of()));
+        ZoneId zone = ZoneId.systemDefault();
+        assertEquals(LocalDate.now(zone).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(),
+            rotator.availableAt(now));
+    }
+
+    @Test
+    void excludedAccountsAreNotPickedAgain() {
+        SmtpAccount a = account("a", 0);
+        SmtpAccount b = account("b", 0);
+        rotator.configure(List.of(a, b), Strategy.ROUND_ROBIN);
+
+        assertEquals(b, rotator.pick(List.of(a)));
+        assertNull(rotator.pick(List.of(a, b)));
+    }
+
+    @Test
+    void recipientFailuresAreNotWorthAnotherAccount() {
+        SmtpAccount a = account("a", 0);
+        rotator.configure(List.of(a), Strategy.ROUND_ROBIN);
+
+        assertFalse(rotator.recordFailure(a, 550));
+        assertTrue(rotator.recordFailure(a, 0), "unreachable server");
+        assertTrue(rotator.recordFailure(a, 421), "busy server");
+        assertEquals("active, 0 sent today", rotator.describe().get(a));
+    }
+
+    @Test
+    void failedAuthenticationFailsOverToTheNextAccount() {
+        SmtpAccount broken = account("broken", 0);
+        SmtpAccount healthy = account("healthy", 0);
+        rotator.configure(List.of(broken, healthy), Strategy.ROUND_ROBIN);
+
+        assertTrue(rotator.recordFailure(broken, 535));
+
+        assertEquals(List.of(healthy, healthy, healthy), picks(3));
+        assertTrue(rotator.describe().get(broken).startsWith("cooling down"), rotator.describe().get(broken));
+    }
+
+    @Test
+    void repeatedRateLimitingPausesTheAccount() {
+        SmtpAccount throttled = account("throttled", 0);
+        SmtpAccount other = account("other", 0);
+        rotator.configure(List.of(throttled, other), Strategy.ROUND_ROBIN);
+
+        rotator.recordFailure(throttled, 451);
+        rotator.recordFailure(throttled, 451);
+        assertEquals(List.of(throttled, other), picks(2));
+
+        rotator.recordFailure(throttled, 451);
+        assertEquals(List.of(other, other), picks(2));
+    }
+
+    @Test
+    void coolingDownAccountIsStillUsedWhenItIsTheOnlyOne() {
+        SmtpAccount only = account("only", 0);
+        rotator.configure(List.of(only), Strategy.ROUND_ROBIN);
+
+        rotator.recordFailure(only, 535);
+
+        assertEquals(only, rotator.pick(List.of()));
+        assertTrue(rotator.getAccountsToProbe().isEmpty(), "not before the cooldown is over");
+    }
+
+    @Test
+    void restoredUsageCountsAgainstTheQuota() {
+        SmtpAccount limited = account("limited", 5);
+        rotator.restoreUsage(LocalDate.now(), Map.of(keyOf(limited), 5));
+        rotator.configure(List.of(limited), Strategy.QUOTA);
+
+        assertNull(rotator.pick(List.of()));
+        assertEquals("daily quota used, 5 sent today", rotator.describe().get(limited));
+    }
+
+    @Test
+    void usageFromAnotherDayIsIgnored() {
+        SmtpAccount limited = account("limited", 5);
+        rotator.configure(List.of(limited), Strategy.QUOTA);
+        rotator.restoreUsage(LocalDate.now().minusDays(1), Map.of(keyOf(limited), 5));
+
+        assertEquals(limited, rotator.pick(List.of()));
+        assertTrue(rotator.getUsage().isEmpty());
+    }
+
+    @Test
+    void reconfiguringKeepsUsageOfRemainingAccounts() {
+        SmtpAccount kept = account("kept", 3);
+        rotator.configure(List.of(kept), Strategy.ROUND_ROBIN);
+        rotator.recordSuccess(kept);
+
+        rotator.configure(List.of(kept, account("added", 0)), Strategy.QUOTA);
+
+        assertEquals(Map.of(keyOf(kept), 1), rotator.getUsage());
+    }
+
+    private static SmtpAccount account(String name, int dailyQuota) {
+        SmtpAccount account = new SmtpAccount("smtp." + name + ".example", "587", name + "@example.com", "secret", false, true);
+        account.setDailyQuota(dailyQuota);
+        return account;
+    }
+
+    private static String keyOf(SmtpAccount account) {
+        return account.getUsername() + "@" + account.getHost() + ":" + account.getPort();
+    }
+
+    private List<SmtpAccount> picks(int count) {
+        List<SmtpAccount> picked = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            picked.add(rotator.pick(List.of()));
+        }
+        return picked;
+    }
+
+    private static Map<SmtpAccount, Integer> counts(List<SmtpAccount> picked) {
+        Map<SmtpAccount, Integer> counts = new HashMap<>();
+        for (SmtpAccount account : picked) {
+            counts.merge(account, 1, Integer::sum);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,149 @@
+package org.example;
+
+import org.example.AdaptiveLimiter.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void growsAdditivelyWhileEveryPermitIsInUse() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 10);
+
+        // About one more permit per round of sends that used the whole limit
+        fullRound(limiter, Outcome.SUCCESS);
+        assertEquals(2, limiter.getLimit());
+        fullRound(limiter, Outcome.SUCCESS);
+        fullRound(limiter, Outcome.SUCCESS);
+        assertEquals(3, limiter.getLimit());
+
+        for (int round = 0; round < 100; round++) {
+            fullRound(limiter, Outcome.SUCCESS);
+        }
+        assertEquals(10, limiter.getLimit(), "never above the maximum");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void doesNotGrowWhileTheLimitIsNotTheBottleneck() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 10);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(MILLIS, Outcome.SUCCESS);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void overloadBacksOffMultiplicatively() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 20);
+
+        // Without a measured round trip every overload signal counts
+        limiter.acquire();
+        limiter.release(MILLIS, Outcome.OVERLOAD);
+        assertEquals(7, limiter.getLimit());
+        limiter.acquire();
+        limiter.release(MILLIS, Outcome.OVERLOAD);
+        assertEquals(4, limiter.getLimit());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.release(MILLIS, Outcome.OVERLOAD);
+        }
+        assertEquals(2, limiter.getLimit(), "never below the minimum");
+        assertEquals(1.0, limiter.getErrorRate(), 0.1);
+    }
+
+    @Test
+    void overloadsWithinOneRoundTripCountOnce() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 1, 20);
+        limiter.acquire();
+        limiter.release(TimeUnit.SECONDS.toNanos(10), Outcome.SUCCESS);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+            limiter.release(MILLIS, Outcome.OVERLOAD);
+        }
+
+        assertEquals(7, limiter.getLimit());
+    }
+
+    @Test
+    void risingLatencyBacksOffGently() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 1, 20);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.release(MILLIS, Outcome.SUCCESS);
+        }
+
+        limiter.acquire();
+        limiter.release(10 * MILLIS, Outcome.SUCCESS);
+
+        assertEquals(9, limiter.getLimit());
+        assertEquals(0.0, limiter.getErrorRate());
+    }
+
+    @Test
+    void ignoredOutcomesLeaveTheLimitAlone() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(3, 1, 10);
+
+        for (int round = 0; round < 20; round++) {
+            fullRound(limiter, Outcome.IGNORE);
+        }
+
+        assertEquals(3, limiter.getLimit());
+        assertEquals(0, limiter.getLatencyMillis());
+        assertEquals(0.0, limiter.getErrorRate());
+    }
+
+    @Test
+    void acquireWaitsForAPermit() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1);
+        limiter.acquire();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        limiter.release();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void newBoundsClampTheLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(8, 1, 10);
+
+        limiter.setBounds(2, 4);
+        assertEquals(4, limiter.getLimit());
+        limiter.setBounds(6, 6);
+        assertEquals(6, limiter.getLimit());
+    }
+
+    private static void fullRound(AdaptiveLimiter limiter, Outcome outcome) throws InterruptedException {
+        int permits = limiter.getLimit();
+        for (int i = 0; i < permits; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < permits; i++) {
+            limiter.release(MILLIS, outcome);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.example;
+
+import com.sun.mail.smtp.SMTPSendFailedException;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("smtp.example.com:587", 3, 1_000);
+        long now = System.currentTimeMillis();
+
+        assertFalse(breaker.recordFailure());
+        assertFalse(breaker.recordFailure());
+        assertTrue(breaker.isClosed());
+        assertEquals(now, breaker.availableAt(now));
+
+        assertTrue(breaker.recordFailure());
+        assertFalse(breaker.isClosed());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        long wait = breaker.availableAt(now) - now;
+        assertTrue(wait > 0 && wait <= 1_000 + 100, "waits " + wait + " ms");
+        assertFalse(breaker.recordFailure(), "only the failure that opened it reports so");
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker("smtp.example.com:587", 3, 1_000);
+
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertTrue(breaker.isClosed());
+    }
+
+    @Test
+    void waitsForAProbeOnceTheOpenPeriodIsOver() {
+        CircuitBreaker breaker = new CircuitBreaker("smtp.example.com:587", 1, 1_000);
+        breaker.recordFailure();
+        long reopensAt = breaker.availableAt(System.currentTimeMillis());
+
+        // Half-open: nothing is sent until a probe answers
+        assertEquals(Long.MAX_VALUE, breaker.availableAt(reopensAt));
+        assertTrue(breaker.isProbeDue());
+        assertFalse(breaker.isClosed());
+
+        breaker.recordProbe(true);
+        long now = System.currentTimeMillis();
+        assertTrue(breaker.isClosed());
+        assertFalse(breaker.isProbeDue());
+        assertEquals(now, breaker.availableAt(now));
+    }
+
+    @Test
+    void failedProbeReopensForTwiceAsLong() {
+        CircuitBreaker breaker = new CircuitBreaker("smtp.example.com:587", 1, 1_000);
+        breaker.recordFailure();
+        breaker.availableAt(breaker.availableAt(System.currentTimeMillis()));
+
+        long now = System.currentTimeMillis();
+        breaker.recordProbe(false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        long wait = breaker.availableAt(now) - now;
+        assertTrue(wait > 1_000 && wait <= 2_000 + 100, "waits " + wait + " ms");
+    }
+
+    @Test
+    void successAfterReopeningRestoresTheInitialOpenPeriod() {
+        CircuitBreaker breaker = new CircuitBreaker("smtp.example.com:587", 1, 1_000);
+        breaker.recordFailure();
+        breaker.availableAt(breaker.availableAt(System.currentTimeMillis()));
+        breaker.recordProbe(false);
+        breaker.recordSuccess();
+
+        long now = System.currentTimeMillis();
+        breaker.recordFailure();
+        long wait = breaker.availableAt(now) - now;
+        assertTrue(wait <= 1_000 + 100, "waits " + wait + " ms");
+    }
+
+    @Test
+    void probeResultsDoNotAffectAClosedBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker("smtp.example.com:587", 2, 1_000);
+
+        breaker.recordProbe(false);
+
+        assertTrue(breaker.isClosed());
+    }
+
+    @Test
+    void recognisesHostFailures() {
+        MessagingException refused = new MessagingException("Could not connect", new ConnectException("refused"));
+        MessagingException wrapped = new MessagingException("Send failed",
+            new MessagingException("Timed out", new SocketTimeoutException("read timed out")));
+        SMTPSendFailedException busy = new SMTPSendFailedException("MAIL", 421, "421 try later", null, null, null, null);
+        SMTPSendFailedException rejected = new SMTPSendFailedException("RCPT", 550, "550 no such user", null, null, null, null);
+
+        assertTrue(CircuitBreaker.isHostFailure(refused));
+        assertTrue(CircuitBreaker.isHostFailure(wrapped));
+        assertTrue(CircuitBreaker.isHostFailure(busy));
+        assertFalse(CircuitBreaker.isHostFailure(rejected));
+        assertFalse(CircuitBreaker.isHostFailure(new MessagingException("No MX record for example.invalid")));
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainThrottleTest {
+
+    @Test
+    void keysAreTheProvidersMainDomain() {
+        assertEquals("gmail.com", DomainThrottle.keyFor("someone@GoogleMail.com"));
+        assertEquals("outlook.com", DomainThrottle.keyFor("someone@hotmail.com"));
+        assertEquals("example.org", DomainThrottle.keyFor("first@sub@example.org "));
+        assertEquals("", DomainThrottle.keyFor("no-domain"));
+        assertEquals("", DomainThrottle.keyFor(null));
+    }
+
+    @Test
+    void capsMessagesInFlightPerDomain() {
+        DomainThrottle throttle = new DomainThrottle(Map.of("domainLimits",
+            Map.of("example.com", Map.of("maxConcurrent", 2, "perMinute", 0))));
+        long now = System.currentTimeMillis();
+
+        assertTrue(throttle.tryAcquire("example.com"));
+        assertTrue(throttle.tryAcquire("example.com"));
+        assertFalse(throttle.tryAcquire("example.com"));
+        assertEquals(Long.MAX_VALUE, throttle.availableAt("example.com", now));
+
+        throttle.release("example.com");
+        assertEquals(now, throttle.availableAt("example.com", now));
+        assertTrue(throttle.tryAcquire("example.com"));
+    }
+
+    @Test
+    void aliasesShareOneBudget() {
+        DomainThrottle throttle = new DomainThrottle(Map.of("domainLimits",
+            Map.of("gmail.com", Map.of("maxConcurrent", 1, "perMinute", 0))));
+
+        assertTrue(throttle.tryAcquire(DomainThrottle.keyFor("a@gmail.com")));
+        assertFalse(throttle.tryAcquire(DomainThrottle.keyFor("b@googlemail.com")));
+
+        throttle.release(DomainThrottle.keyFor("a@gmail.com"));
+        assertTrue(throttle.tryAcquire(DomainThrottle.keyFor("b@googlemail.com")));
+    }
+
+    @Test
+    void perMinuteLimitDelaysTheNextMessage() {
+        DomainThrottle throttle = new DomainThrottle(Map.of("domainLimits",
+            Map.of("slow.example", Map.of("maxConcurrent", 5, "perMinute", 6))));
+        long now = System.currentTimeMillis();
+
+        assertTrue(throttle.tryAcquire("slow.example"));
+        throttle.release("slow.example");
+        assertFalse(throttle.tryAcquire("slow.example"));
+
+        // Six per minute is one every ten seconds
+        long wait = throttle.availableAt("slow.example", now) - now;
+        assertTrue(wait > 9_000 && wait <= 10_000, "waits " + wait + " ms");
+    }
+
+    @Test
+    void unknownDomainsUseTheWildcardLimit() {
+        DomainThrottle throttle = new DomainThrottle(Map.of("domainLimits",
+            Map.of("*", Map.of("maxConcurrent", 1))));
+
+        assertTrue(throttle.tryAcquire("a.example"));
+        assertFalse(throttle.tryAcquire("a.example"));
+        assertTrue(throttle.tryAcquire("b.example"), "each domain gets its own budget");
+    }
+
+    @Test
+    void partialOverridesKeepTheDefaultsForOtherFields() {
+        // Gmail's default is 2 in flight and 120 per minute; only the cap is raised here
+        DomainThrottle throttle = new DomainThrottle(Map.of("domainLimits",
+            Map.of("gmail.com", Map.of("maxConcurrent", 10))));
+
+        assertTrue(throttle.tryAcquire("gmail.com"));
+        assertFalse(throttle.tryAcquire("gmail.com"), "the per-minute default still applies");
+    }
+
+    @Test
+    void untouchedDomainsAreAvailableImmediately() {
+        DomainThrottle throttle = new DomainThrottle(Map.of());
+        long now = System.currentTimeMillis();
+
+        assertEquals(now, throttle.availableAt("fresh.example", now));
+        throttle.release("fresh.example");
+        assertEquals(now, throttle.availableAt("fresh.example", now));
+    }
+
+    @Test
+    void reconfiguringKeepsBudgetsInUse() {
+        DomainThrottle throttle = new DomainThrottle(Map.of("domainLimits",
+            Map.of("busy.example", Map.of("maxConcurrent", 1))));
+        assertTrue(throttle.tryAcquire("busy.example"));
+
+        throttle.configure(Map.of("domainLimits", Map.of("busy.example", Map.of("maxConcurrent", 3))));
+        assertFalse(throttle.tryAcquire("busy.example"), "the old cap holds until the domain is idle");
+
+        throttle.release("busy.example");
+        throttle.configure(Map.of("domainLimits", Map.of("busy.example", Map.of("maxConcurrent", 3))));
+        assertTrue(throttle.tryAcquire("busy.example"));
+        assertTrue(throttle.tryAcquire("busy.example"));
+        assertTrue(throttle.tryAcquire("busy.example"));
+        assertFalse(throttle.tryAcquire("busy.example"));
+    }
+}
@@ -0,0 +1,191 @@
+package org.example;
+
+import org.example.models.Campaign;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SendQueueTest {
+
+    private final SendQueue<FakeJob> queue = new SendQueue<>();
+
+    @Test
+    void levelsShareTurnsByWeight() throws Exception {
+        queue.add(new FakeJob("t", Campaign.Priority.TRANSACTIONAL, 1000));
+        queue.add(new FakeJob("n", Campaign.Priority.NORMAL, 1000));
+        queue.add(new FakeJob("b", Campaign.Priority.BULK, 1000));
+
+        // One full cycle is 16 + 4 + 1 turns
+        Map<Campaign.Priority, Integer> turns = new EnumMap<>(Campaign.Priority.class);
+        for (int i = 0; i < 21 * 10; i++) {
+            turns.merge(queue.take().getJob().priority, 1, Integer::sum);
+        }
+
+        assertEquals(160, turns.get(Campaign.Priority.TRANSACTIONAL));
+        assertEquals(40, turns.get(Campaign.Priority.NORMAL));
+        assertEquals(10, turns.get(Campaign.Priority.BULK));
+    }
+
+    @Test
+    void lowPriorityTurnsAreSpreadOverTheCycle() throws Exception {
+        queue.add(new FakeJob("t", Campaign.Priority.TRANSACTIONAL, 1000));
+        queue.add(new FakeJob("n", Campaign.Priority.NORMAL, 1000));
+
+        // Smooth round robin never gives one level all of its turns in a row
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            order.add(queue.take().getJob().name);
+        }
+        int longestRun = 0;
+        int run = 0;
+        for (int i = 0; i < order.size(); i++) {
+            run = i > 0 && order.get(i).equals(order.get(i - 1)) ? run + 1 : 1;
+            longestRun = Math.max(longestRun, run);
+        }
+
+        assertEquals(4, order.stream().filter("n"::equals).count());
+        assertTrue(longestRun <= 4, "longest run " + longestRun + " in " + order);
+    }
+
+    @Test
+    void campaignsOfOneLevelTakeTurnsOneRecipientAtATime() throws Exception {
+        queue.add(new FakeJob("big", Campaign.Priority.NORMAL, 100));
+        queue.add(new FakeJob("small", Campaign.Priority.NORMAL, 2));
+
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            SendQueue.Dispatch<FakeJob> dispatch = queue.take();
+            order.add(dispatch.getJob().name + dispatch.getIndex());
+        }
+
+        assertEquals(List.of("big0", "small0", "big1", "small1", "big2"), order);
+    }
+
+    @Test
+    void exhaustedJobsLeaveTheQueue() throws Exception {
+        queue.add(new FakeJob("a", Campaign.Priority.NORMAL, 2));
+        queue.add(new FakeJob("b", Campaign.Priority.BULK, 1));
+        assertEquals(2, queue.size());
+
+        for (int i = 0; i < 3; i++) {
+            queue.take();
+        }
+
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void pacedJobsAreSkippedUntilDue() throws Exception {
+        FakeJob paced = new FakeJob("paced", Campaign.Priority.TRANSACTIONAL, 10);
+        paced.eligibleAt = System.currentTimeMillis() + 60_000;
+        queue.add(paced);
+        queue.add(new FakeJob("bulk", Campaign.Priority.BULK, 10));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("bulk", queue.take().getJob().name);
+        }
+
+        paced.eligibleAt = 0;
+        queue.wakeUp();
+        assertEquals("paced", queue.take().getJob().name);
+    }
+
+    @Test
+    void takeWaitsForTheEarliestDueJob() throws Exception {
+        FakeJob paced = new FakeJob("paced", Campaign.Priority.NORMAL, 1);
+        paced.eligibleAt = System.currentTimeMillis() + 100;
+        queue.add(paced);
+
+        long start = System.nanoTime();
+        assertEquals("paced", queue.take().getJob().name);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 90);
+    }
+
+    @Test
+    void jobWithoutCapacityIsPassedOver() throws Exception {
+        FakeJob throttled = new FakeJob("throttled", Campaign.Priority.NORMAL, 5);
+        throttled.capacity = 0;
+        queue.add(throttled);
+        queue.add(new FakeJob("open", Campaign.Priority.NORMAL, 5));
+
+        assertEquals("open", queue.take().getJob().name);
+        assertEquals(2, queue.size(), "a job without capacity stays queued");
+    }
+
+    @Test
+    void brokenJobIsDropped() throws Exception {
+        FakeJob broken = new FakeJob("broken", Campaign.Priority.NORMAL, 5);
+        broken.failure = new IllegalStateException("boom");
+        queue.add(broken);
+        queue.add(new FakeJob("healthy", Campaign.Priority.NORMAL, 5));
+
+        assertEquals("healthy", queue.take().getJob().name);
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void closeReleasesBlockedWorkers() throws Exception {
+        CompletableFuture<SendQueue.Dispatch<FakeJob>> taken = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        queue.close();
+
+        assertNull(taken.get(2, TimeUnit.SECONDS));
+        assertNull(queue.take());
+    }
+
+    private static final class FakeJob implements SendQueue.Job {
+        private final String name;
+        private final Campaign.Priority priority;
+        private final int recipients;
+        private int next;
+        private volatile long eligibleAt;
+        private int capacity = Integer.MAX_VALUE;
+        private RuntimeException failure;
+
+        private FakeJob(String name, Campaign.Priority priority, int recipients) {
+            this.name = name;
+            this.priority = priority;
+            this.recipients = recipients;
+        }
+
+        @Override
+        public Campaign.Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < recipients;
+        }
+
+        @Override
+        public long getEligibleAt(long nowMillis) {
+            return eligibleAt;
+        }
+
+        @Override
+        public int next(long nowMillis) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (capacity == 0) {
+                return -1;
+            }
+            capacity--;
+            return next++;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactTableTest {
+
+    @Test
+    void storesRowsColumnByColumn() {
+        ContactTable table = new ContactTable(1);
+        table.add("Zoë", "zoe@example.com", "Ünïcode GmbH");
+        table.add(null, "nameless@example.com", null);
+        table.add("", "empty@example.com", "");
+
+        assertEquals(3, table.size());
+        assertEquals("Zoë", table.getName(0));
+        assertEquals("Ünïcode GmbH", table.getCompany(0));
+        assertNull(table.getName(1));
+        assertNull(table.getCompany(1));
+        assertEquals("", table.getName(2));
+        assertEquals("", table.getCompany(2));
+        assertEquals("empty@example.com", table.getContact(2).getEmail());
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        ContactTable table = new ContactTable(2);
+        for (int i = 0; i < 10_000; i++) {
+            table.add("Name " + i, "user" + i + "@example.com", "Company " + (i % 3));
+        }
+
+        assertEquals(10_000, table.size());
+        assertEquals("user9999@example.com", table.getEmail(9_999));
+        assertEquals("Company 0", table.getCompany(9_999));
+    }
+
+    @Test
+    void removeShiftsLaterRows() {
+        ContactTable table = table(5);
+        table.remove(1);
+
+        assertEquals(4, table.size());
+        assertEquals("user0@example.com", table.getEmail(0));
+        assertEquals("user2@example.com", table.getEmail(1));
+        assertEquals(-1, table.indexOfEmail("user1@example.com"));
+        assertEquals(3, table.indexOfEmail("user4@example.com"));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getEmail(4));
+    }
+
+    @Test
+    void copyIsIndependentAndCompacted() {
+        ContactTable table = table(4);
+        table.remove(0);
+        ContactTable copy = table.copy();
+        table.add("Late", "late@example.com", null);
+
+        assertEquals(3, copy.size());
+        assertEquals(List.of("user1@example.com", "user2@example.com", "user3@example.com"), emails(copy));
+        assertEquals(4, table.size());
+    }
+
+    @Test
+    void addAllAppendsEveryRow() {
+        ContactTable table = table(2);
+        ContactTable chunk = new ContactTable();
+        chunk.add("Other", "other@example.com", "Company 1");
+        chunk.add(null, "null@example.com", null);
+        table.addAll(chunk);
+
+        assertEquals(List.of("user0@example.com", "user1@example.com", "other@example.com", "null@example.com"),
+            emails(table));
+        assertEquals("Company 1", table.getCompany(2));
+        assertNull(table.getName(3));
+    }
+
+    @Test
+    void clearEmptiesTheTable() {
+        ContactTable table = table(3);
+        table.clear();
+        table.add("Again", "again@example.com", "Fresh");
+
+        assertEquals(1, table.size());
+        assertEquals("again@example.com", table.getEmail(0));
+        assertEquals("Fresh", table.getCompany(0));
+    }
+
+    @Test
+    void contactListViewTracksTheTable() {
+        ContactTable table = table(2);
+        List<Contact> view = table.asContactList();
+        table.add("Third", "third@example.com", null);
+
+        assertEquals(3, view.size());
+        assertEquals("third@example.com", view.get(2).getEmail());
+    }
+
+    @Test
+    void recipientFileRoundTripsAllRows() throws IOException {
+        List<Contact> recipients = table(3).asContactList();
+        List<Contact> withNulls = new ArrayList<>(recipients);
+        withNulls.add(new Contact(null, "nulls@example.com"));
+
+        ContactTable read = ContactTable.readFrom(input(withNulls), new int[] { 0, 1, 2, 3 });
+
+        assertEquals(emails(withNulls), emails(read));
+        assertEquals("Name 1", read.getName(1));
+        assertEquals("Company 1", read.getCompany(1));
+        assertNull(read.getName(3));
+        assertNull(read.getCompany(3));
+    }
+
+    @Test
+    void recipientFileReadsOnlyTheRequestedRows() throws IOException {
+        List<Contact> recipients = table(6).asContactList();
+
+        ContactTable read = ContactTable.readFrom(input(recipients), new int[] { 1, 4, 5 });
+
+        assertEquals(List.of("user1@example.com", "user4@example.com", "user5@example.com"), emails(read));
+        assertEquals("Company 1", read.getCompany(0));
+        assertEquals("Company 0", read.getCompany(1));
+    }
+
+    @Test
+    void recipientFileStreamsEmailsInOrder() throws IOException {
+        List<Contact> recipients = table(4).asContactList();
+        List<String> seen = new ArrayList<>();
+
+        ContactTable.forEachEmail(input(recipients), (row, email) -> seen.add(row + ":" + email));
+
+        assertEquals(List.of("0:user0@example.com", "1:user1@example.com", "2:user2@example.com", "3:user3@example.com"),
+            seen);
+    }
+
+    @Test
+    void rejectsFilesThatAreNotRecipientLists() {
+        DataInputStream garbage = new DataInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 0, 0, 0, 0 }));
+
+        assertThrows(IOException.class, () -> ContactTable.readFrom(garbage, new int[] { 0 }));
+    }
+
+    private static ContactTable table(int rows) {
+        ContactTable table = new ContactTable();
+        for (int i = 0; i < rows; i++) {
+            table.add("Name " + i, "user" + i + "@example.com", "Company " + (i % 2));
+        }
+        return table;
+    }
+
+    private static DataInputStream input(List<Contact> recipients) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            ContactTable.writeTo(recipients, out);
+        }
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private static List<String> emails(ContactTable table) {
+        return emails(table.asContactList());
+    }
+
+    private static List<String> emails(List<Contact> contacts) {
+        List<String> emails = new ArrayList<>();
+        for (Contact contact : contacts) {
+            emails.add(contact.getEmail());
+        }
+        return emails;
+    }
+}
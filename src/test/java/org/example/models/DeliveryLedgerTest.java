@@ -0,0 +1,119 @@
+package org.example.models;
+
+import org.example.models.DeliveryLedger.RecipientStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryLedgerTest {
+
+    @Test
+    void recordsTheLatestAttempt() {
+        DeliveryLedger ledger = new DeliveryLedger("campaign", 3);
+        long before = System.currentTimeMillis();
+        ledger.record(1, RecipientStatus.DEFERRED, 451);
+        ledger.record(1, RecipientStatus.SENT, 250);
+
+        assertEquals(RecipientStatus.PENDING, ledger.getStatus(0));
+        assertEquals(0, ledger.getAttempts(0));
+        assertEquals(0, ledger.getTimestamp(0));
+        assertEquals(RecipientStatus.SENT, ledger.getStatus(1));
+        assertEquals(2, ledger.getAttempts(1));
+        assertEquals(250, ledger.getSmtpCode(1));
+        assertTrue(ledger.getTimestamp(1) >= before);
+    }
+
+    @Test
+    void attemptCountSaturates() {
+        DeliveryLedger ledger = new DeliveryLedger("campaign", 1);
+        for (int i = 0; i < 200; i++) {
+            ledger.record(0, RecipientStatus.DEFERRED, 421);
+        }
+
+        assertEquals(Byte.MAX_VALUE, ledger.getAttempts(0));
+    }
+
+    @Test
+    void findsRecipientsByStatus() {
+        DeliveryLedger ledger = new DeliveryLedger("campaign", 6);
+        ledger.record(0, RecipientStatus.SENT, 250);
+        ledger.record(2, RecipientStatus.FAILED, 550);
+        ledger.record(3, RecipientStatus.DEFERRED, 451);
+        ledger.record(5, RecipientStatus.FAILED, 0);
+
+        assertEquals(2, ledger.count(RecipientStatus.FAILED));
+        assertEquals(2, ledger.count(RecipientStatus.PENDING));
+        assertArrayEquals(new int[] { 2, 3, 5 }, ledger.indicesWithStatus(RecipientStatus.FAILED, RecipientStatus.DEFERRED));
+        assertEquals(1, ledger.nextWithStatus(0, RecipientStatus.PENDING));
+        assertEquals(4, ledger.nextWithStatus(2, RecipientStatus.PENDING));
+        assertEquals(-1, ledger.nextWithStatus(5, RecipientStatus.PENDING));
+    }
+
+    @Test
+    void growAddsPendingRecipientsAndKeepsOutcomes() {
+        DeliveryLedger ledger = new DeliveryLedger("campaign", 2);
+        ledger.record(1, RecipientStatus.SENT, 250);
+        ledger.grow(40);
+        ledger.grow(10);
+
+        assertEquals(40, ledger.size());
+        assertEquals(RecipientStatus.SENT, ledger.getStatus(1));
+        assertEquals(39, ledger.count(RecipientStatus.PENDING));
+        assertThrows(IndexOutOfBoundsException.class, () -> ledger.getStatus(40));
+    }
+
+    @Test
+    void roundTripsThroughItsFileFormat() throws IOException {
+        DeliveryLedger ledger = new DeliveryLedger("campaign-42", 4);
+        ledger.record(0, RecipientStatus.SENT, 250);
+        ledger.record(3, RecipientStatus.FAILED, 550);
+
+        DeliveryLedger read = DeliveryLedger.readFrom(roundTrip(ledger));
+
+        assertEquals("campaign-42", read.getCampaignId());
+        assertEquals(4, read.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(ledger.getStatus(i), read.getStatus(i));
+            assertEquals(ledger.getAttempts(i), read.getAttempts(i));
+            assertEquals(ledger.getSmtpCode(i), read.getSmtpCode(i));
+            assertEquals(ledger.getTimestamp(i), read.getTimestamp(i));
+        }
+    }
+
+    @Test
+    void largeLedgersLiveOffTheHeapWithTheSameBehaviour() throws IOException {
+        int size = DeliveryLedger.MAPPED_THRESHOLD + 10;
+        DeliveryLedger ledger = new DeliveryLedger("huge", size);
+        ledger.record(size - 1, RecipientStatus.FAILED, 550);
+        ledger.record(7, RecipientStatus.SENT, 250);
+
+        assertEquals(size - 2, ledger.count(RecipientStatus.PENDING));
+        assertEquals(size - 1, ledger.nextWithStatus(8, RecipientStatus.FAILED));
+
+        DeliveryLedger read = DeliveryLedger.readFrom(roundTrip(ledger));
+        assertEquals(RecipientStatus.FAILED, read.getStatus(size - 1));
+        assertEquals(550, read.getSmtpCode(size - 1));
+        assertEquals(RecipientStatus.SENT, read.getStatus(7));
+    }
+
+    @Test
+    void rejectsFilesThatAreNotLedgers() {
+        DataInputStream garbage = new DataInputStream(new ByteArrayInputStream(new byte[] { 0, 0, 0, 0 }));
+
+        assertThrows(IOException.class, () -> DeliveryLedger.readFrom(garbage));
+    }
+
+    private static DataInputStream roundTrip(DeliveryLedger ledger) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            ledger.writeTo(out);
+        }
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
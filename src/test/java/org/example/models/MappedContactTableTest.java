@@ -0,0 +1,151 @@
+package org.example.models;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedContactTableTest {
+
+    // Largest field the 2-byte length prefix can hold, 0xFFFF being the null marker
+    private static final int MAX_FIELD_BYTES = 0xFFFE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackEveryField() throws IOException {
+        MappedContactTable table;
+        try (MappedContactTable.Writer writer = MappedContactTable.writer(directory)) {
+            writer.add("Zoë", "zoe@example.com", "Ünïcode GmbH");
+            writer.add(null, "nameless@example.com", null);
+            writer.add("", "empty@example.com", "");
+            writer.add(new Contact("Contact", "contact@example.com"));
+            assertEquals(4, writer.size());
+            table = writer.finish();
+        }
+
+        assertEquals(4, table.size());
+        assertEquals("Zoë", table.getName(0));
+        assertEquals("Ünïcode GmbH", table.getCompany(0));
+        assertNull(table.getName(1));
+        assertEquals("nameless@example.com", table.getEmail(1));
+        assertNull(table.getCompany(1));
+        assertEquals("", table.getName(2));
+        assertEquals("", table.getCompany(2));
+        assertEquals("Contact", table.getContact(3).getName());
+        assertEquals(List.of("zoe@example.com", "nameless@example.com", "empty@example.com", "contact@example.com"),
+            table.emailList());
+    }
+
+    @Test
+    void keepsFieldsUpToTheLengthLimit() throws IOException {
+        String longest = "x".repeat(MAX_FIELD_BYTES);
+        MappedContactTable table;
+        try (MappedContactTable.Writer writer = MappedContactTable.writer(directory)) {
+            writer.add(longest, "long@example.com", null);
+            writer.add("After", "after@example.com", null);
+            table = writer.finish();
+        }
+
+        assertEquals(longest, table.getName(0));
+        assertEquals("after@example.com", table.getEmail(1));
+    }
+
+    @Test
+    void rejectsFieldsOverTheLengthLimit() throws IOException {
+        try (MappedContactTable.Writer writer = MappedContactTable.writer(directory)) {
+            assertThrows(IllegalArgumentException.class,
+                () -> writer.add("x".repeat(MAX_FIELD_BYTES + 1), "too-long@example.com", null));
+        }
+    }
+
+    @Test
+    void emptyTableHasNoRows() throws IOException {
+        MappedContactTable table;
+        try (MappedContactTable.Writer writer = MappedContactTable.writer(directory)) {
+            table = writer.finish();
+        }
+
+        assertEquals(0, table.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getEmail(0));
+    }
+
+    @Test
+    void indexOutOfRangeIsRejected() throws IOException {
+        MappedContactTable table = table(3);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getEmail(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getEmail(3));
+    }
+
+    @Test
+    void finishReleasesTheFiles() throws IOException {
+        MappedContactTable table = table(100);
+
+        assertEquals(0, fileCount(), "mapped files are deleted once mapped");
+        assertEquals("user99@example.com", table.getEmail(99));
+    }
+
+    @Test
+    void closeWithoutFinishDiscardsTheFiles() throws IOException {
+        MappedContactTable.Writer writer = MappedContactTable.writer(directory);
+        writer.add("Name", "name@example.com", null);
+        assertEquals(2, fileCount());
+
+        writer.close();
+        assertEquals(0, fileCount());
+    }
+
+    @Test
+    void concurrentReadersSeeTheSameRows() throws Exception {
+        MappedContactTable table = table(20_000);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int reader = 0; reader < 4; reader++) {
+                int offset = reader;
+                results.add(readers.submit(() -> {
+                    int mismatches = 0;
+                    for (int i = offset; i < table.size(); i += 3) {
+                        if (!("user" + i + "@example.com").equals(table.getEmail(i))
+                                || !("Company " + (i % 5)).equals(table.getCompany(i))) {
+                            mismatches++;
+                        }
+                    }
+                    return mismatches;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(0, result.get());
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    private MappedContactTable table(int rows) throws IOException {
+        try (MappedContactTable.Writer writer = MappedContactTable.writer(directory)) {
+            for (int i = 0; i < rows; i++) {
+                writer.add("Name " + i, "user" + i + "@example.com", "Company " + (i % 5));
+            }
+            return writer.finish();
+        }
+    }
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.utils;
+
+import org.example.models.BackupSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackupStoreTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    @TempDir
+    Path backupDirectory;
+
+    @TempDir
+    Path restoreDirectory;
+
+    @Test
+    void restoreGivesBackEveryFile() throws Exception {
+        write("settings.json", "{\"darkTheme\":true}");
+        write("history/2024-03/entry.json", "{\"subject\":\"March\"}");
+        byte[] large = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(large);
+        Files.write(dataDirectory.resolve("large.bin"), large);
+
+        BackupStore store = new BackupStore(backupDirectory);
+        BackupSnapshot snapshot = store.createSnapshot(dataDirectory);
+        store.restoreSnapshot(snapshot.getId(), restoreDirectory);
+
+        assertEquals(3, snapshot.getFiles().size());
+        assertEquals("{\"darkTheme\":true}", read(restoreDirectory.resolve("settings.json")));
+        assertEquals("{\"subject\":\"March\"}", read(restoreDirectory.resolve("history/2024-03/entry.json")));
+        assertArrayEquals(large, Files.readAllBytes(restoreDirectory.resolve("large.bin")));
+        assertEquals(4, entry(snapshot, "large.bin").getChunks().size());
+    }
+
+    @Test
+    void laterBackupsStoreOnlyWhatChanged() throws Exception {
+        write("settings.json", "{\"darkTheme\":true}");
+        write("history/2024-03/entry.json", "{\"subject\":\"March\"}");
+        BackupStore store = new BackupStore(backupDirectory);
+
+        BackupSnapshot first = store.createSnapshot(dataDirectory);
+        assertEquals(first.getTotalBytes(), first.getNewBytes());
+
+        // Snapshot ids have millisecond resolution
+        Thread.sleep(5);
+        BackupSnapshot unchanged = store.createSnapshot(dataDirectory);
+        assertEquals(0, unchanged.getNewBytes());
+
+        Thread.sleep(5);
+        write("settings.json", "{\"darkTheme\":false}");
+        BackupSnapshot changed = store.createSnapshot(dataDirectory);
+        assertEquals("{\"darkTheme\":false}".length(), changed.getNewBytes());
+        assertEquals(3, store.listSnapshots().size());
+
+        store.restoreSnapshot(first.getId(), restoreDirectory);
+        assertEquals("{\"darkTheme\":true}", read(restoreDirectory.resolve("settings.json")));
+        store.restoreSnapshot(changed.getId(), restoreDirectory);
+        assertEquals("{\"darkTheme\":false}", read(restoreDirectory.resolve("settings.json")));
+    }
+
+    @Test
+    void historyFilesAreLinkedIntoTheStore() throws Exception {
+        Path historyFile = write("history/2024-03/entry.json", "{\"subject\":\"March\"}");
+        Path settingsFile = write("settings.json", "{\"darkTheme\":true}");
+
+        BackupSnapshot snapshot = new BackupStore(backupDirectory).createSnapshot(dataDirectory);
+
+        assertTrue(Files.isSameFile(historyFile, chunk(entry(snapshot, "history/2024-03/entry.json"))));
+        assertFalse(Files.isSameFile(settingsFile, chunk(entry(snapshot, "settings.json"))),
+            "files modified in place are copied");
+        try (Stream<Path> files = Files.walk(backupDirectory.resolve("chunks"))) {
+            assertTrue(files.noneMatch(path -> path.toString().endsWith(".tmp")), "no temporary links are left");
+        }
+    }
+
+    @Test
+    void identicalFilesShareOneChunk() throws Exception {
+        write("history/2024-03/a.json", "{\"same\":true}");
+        write("history/2024-04/b.json", "{\"same\":true}");
+
+        BackupSnapshot snapshot = new BackupStore(backupDirectory).createSnapshot(dataDirectory);
+
+        assertEquals(entry(snapshot, "history/2024-03/a.json").getChunks(),
+            entry(snapshot, "history/2024-04/b.json").getChunks());
+        assertEquals("{\"same\":true}".length(), snapshot.getNewBytes());
+    }
+
+    @Test
+    void corruptChunksFailTheRestore() throws Exception {
+        write("settings.json", "{\"darkTheme\":true}");
+        BackupStore store = new BackupStore(backupDirectory);
+        BackupSnapshot snapshot = store.createSnapshot(dataDirectory);
+
+        Files.writeString(chunk(entry(snapshot, "settings.json")), "tampered");
+
+        IOException error = assertThrows(IOException.class, () -> store.restoreSnapshot(snapshot.getId(), restoreDirectory));
+        assertTrue(error.getMessage().startsWith("Corrupt backup chunk"), error.getMessage());
+        assertFalse(Files.exists(restoreDirectory.resolve("settings.json")));
+    }
+
+    @Test
+    void unknownSnapshotsAreReported() {
+        BackupStore store = new BackupStore(backupDirectory);
+
+        assertThrows(IOException.class, () -> store.restoreSnapshot("missing", restoreDirectory));
+        assertNull(store.loadLatestSnapshot());
+    }
+
+    private Path write(String relative, String content) throws IOException {
+        Path file = dataDirectory.resolve(relative);
+        Files.createDirectories(file.getParent());
+        // History files are only ever replaced, never rewritten in place
+        AsyncFileWriter.writeAtomically(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String read(Path file) throws IOException {
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private static BackupSnapshot.FileEntry entry(BackupSnapshot snapshot, String path) {
+        return snapshot.getFiles().stream()
+            .filter(entry -> entry.getPath().equals(path))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private Path chunk(BackupSnapshot.FileEntry entry) {
+        String hash = entry.getChunks().get(0);
+        return backupDirectory.resolve("chunks").resolve(hash.substring(0, 2)).resolve(hash);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.utils;
+
+import org.example.models.EmailHistory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compares history load/save time and on-disk size for the JSON and binary codecs.
+ *
+ * Usage: mvn test-compile, then
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; org.example.utils.DataCodecBenchmark [entries]
+ */
+public class DataCodecBenchmark {
+    
+    public static void main(String[] args) throws IOException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<EmailHistory> history = generateHistory(entries);
+        
+        System.out.println("📊 History codec benchmark (" + entries + " entries)");
+        for (DataCodec codec : List.of(DataCodec.json(), DataCodec.binary())) {
+            Path directory = Files.createTempDirectory("emailsender-bench-" + codec.getName());
+            DataManager dataManager = new DataManager(directory, codec);
+            
+            long start = System.nanoTime();
+            dataManager.saveHistory(history);
+            long saveMillis = (System.nanoTime() - start) / 1_000_000;
+            
+            start = System.nanoTime();
+            int summaries = dataManager.loadHistorySummaries().size();
+            long summaryMillis = (System.nanoTime() - start) / 1_000_000;
+            
+            start = System.nanoTime();
+            int loaded = dataManager.loadHistory().size();
+            long loadMillis = (System.nanoTime() - start) / 1_000_000;
+            
+            long bytes = directorySize(directory);
+            
+            System.out.printf("%-7s save %6d ms | summaries %5d ms (%d) | full load %6d ms (%d) | size %,d KB%n",
+                codec.getName(), saveMillis, summaryMillis, summaries, loadMillis, loaded, bytes / 1024);
+            
+            dataManager.clearAllData();
+            try (var paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+    
+    private static List<EmailHistory> generateHistory(int entries) {
+        List<EmailHistory> history = new ArrayList<>(entries);
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        String body = "Dear {name},\n\nHere's our latest newsletter with exciting updates and news! ".repeat(6);
+        
+        for (int i = 0; i < entries; i++) {
+            List<String> recipients = new ArrayList<>();
+            for (int r = 0; r < 5; r++) {
+                recipients.add("user" + (i * 5 + r) + "@example.com");
+            }
+            EmailHistory entry = new EmailHistory("Campaign #" + i, body, recipients, "marketing@company.com");
+            entry.setStatus(EmailHistory.Status.DELIVERED);
+            entry.setSentAt(start.plusMinutes(i * 5L));
+            entry.setDeliveredAt(entry.getSentAt().plusMinutes(2));
+            entry.setSuccessfulDeliveries(4);
+            entry.setFailedDeliveries(1);
+            history.add(entry);
+        }
+        return history;
+    }
+    
+    private static long directorySize(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+}
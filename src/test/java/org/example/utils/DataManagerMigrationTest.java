@@ -0,0 +1,104 @@
+package org.example.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.models.EmailHistory;
+import org.example.models.EmailHistorySummary;
+import org.example.models.HistoryPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataManagerMigrationTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    @ParameterizedTest
+    @ValueSource(strings = { "json", "binary" })
+    void splitsLegacyHistoryIntoMonthlyPartitions(String format) throws Exception {
+        EmailHistory march = entry("March", LocalDateTime.of(2024, 3, 5, 10, 0), "a@example.com", "b@example.com");
+        EmailHistory lateMarch = entry("Late March", LocalDateTime.of(2024, 3, 31, 23, 59), "c@example.com");
+        EmailHistory april = entry("April", LocalDateTime.of(2024, 4, 1, 0, 0), "d@example.com");
+        EmailHistory draft = entry("Draft", null, "e@example.com");
+        writeLegacyHistory(List.of(march, lateMarch, april, draft));
+
+        DataManager dataManager = new DataManager(dataDirectory, DataCodec.forName(format));
+        Map<String, Integer> counts = dataManager.loadHistoryManifest().stream()
+            .collect(Collectors.toMap(HistoryPartition::getKey, HistoryPartition::getCount));
+
+        assertEquals(Map.of("2024-03", 2, "2024-04", 1, HistoryPartition.UNDATED_KEY, 1), counts);
+        assertFalse(Files.exists(dataDirectory.resolve("history.json")), "legacy file is removed once migrated");
+        assertTrue(Files.exists(dataDirectory.resolve("history").resolve("2024-03")
+            .resolve(march.getId() + DataCodec.forName(format).getExtension())));
+    }
+
+    @Test
+    void migratedEntriesKeepTheirContent() throws Exception {
+        EmailHistory march = entry("March", LocalDateTime.of(2024, 3, 5, 10, 0), "a@example.com", "b@example.com");
+        writeLegacyHistory(List.of(march));
+
+        DataManager dataManager = new DataManager(dataDirectory, DataCodec.json());
+        List<EmailHistorySummary> summaries = dataManager.loadHistorySummaries();
+        assertEquals(1, summaries.size());
+        assertEquals("March", summaries.get(0).getSubject());
+        assertEquals(2, summaries.get(0).getTotalRecipients());
+
+        EmailHistory loaded = dataManager.loadHistoryEntry(summaries.get(0));
+        assertNotNull(loaded);
+        assertEquals(march.getId(), loaded.getId());
+        assertEquals("Body of March", loaded.getContent());
+        assertEquals(List.of("a@example.com", "b@example.com"), loaded.getRecipients());
+    }
+
+    @Test
+    void dateRangeOpensOnlyOverlappingPartitions() throws Exception {
+        writeLegacyHistory(List.of(
+            entry("March", LocalDateTime.of(2024, 3, 5, 10, 0), "a@example.com"),
+            entry("April", LocalDateTime.of(2024, 4, 10, 9, 0), "b@example.com"),
+            entry("Draft", null, "c@example.com")));
+
+        DataManager dataManager = new DataManager(dataDirectory, DataCodec.json());
+        List<String> april = dataManager.loadHistorySummaries(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 30))
+            .stream().map(EmailHistorySummary::getSubject).toList();
+
+        assertEquals(List.of("April"), april);
+        assertEquals(3, dataManager.loadHistorySummaries().size(), "unbounded range includes undated drafts");
+    }
+
+    @Test
+    void migrationRunsOnlyOnce() throws Exception {
+        writeLegacyHistory(List.of(entry("March", LocalDateTime.of(2024, 3, 5, 10, 0), "a@example.com")));
+
+        DataManager dataManager = new DataManager(dataDirectory, DataCodec.json());
+        dataManager.loadHistoryManifest();
+        dataManager.addHistoryEntry(entry("April", LocalDateTime.of(2024, 4, 2, 8, 0), "b@example.com"));
+
+        assertEquals(2, new DataManager(dataDirectory, DataCodec.json()).loadHistorySummaries().size());
+    }
+
+    private void writeLegacyHistory(List<EmailHistory> history) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.writeValue(dataDirectory.resolve("history.json").toFile(), history);
+    }
+
+    private static EmailHistory entry(String subject, LocalDateTime sentAt, String... recipients) {
+        EmailHistory entry = new EmailHistory(subject, "Body of " + subject, List.of(recipients), "sender@example.com");
+        entry.setSentAt(sentAt);
+        return entry;
+    }
+}
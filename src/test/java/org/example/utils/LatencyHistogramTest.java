@@ -0,0 +1,118 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    // Just above the largest value a bucket can hold, about 38 hours in microseconds
+    private static final long OVER_MAX = 1L << 37;
+
+    @Test
+    void smallValuesHaveTheirOwnBucket() {
+        for (int value = 0; value < 128; value++) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.valueOf(value));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndOrdered() {
+        int previous = LatencyHistogram.indexOf(0);
+        for (long value = 1; value < (1 << 20); value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index == previous || index == previous + 1, "gap after " + value);
+            previous = index;
+        }
+    }
+
+    @Test
+    void everyBucketMapsBackToItself() {
+        for (int index = 0; index < LatencyHistogram.bucketCount(); index++) {
+            assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.valueOf(index)));
+        }
+    }
+
+    @Test
+    void largestValueFillsTheLastBucket() {
+        assertEquals(LatencyHistogram.bucketCount() - 1, LatencyHistogram.indexOf(OVER_MAX - 1));
+    }
+
+    @Test
+    void reportedValuesStayWithinTheRelativeError() {
+        for (long value = 128; value < OVER_MAX; value = value * 3 / 2 + 7) {
+            long reported = LatencyHistogram.valueOf(LatencyHistogram.indexOf(value));
+            double error = Math.abs(reported - value) / (double) value;
+            assertTrue(error <= 0.016, value + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void percentilesFollowTheRecordedDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(10_000, snapshot.getMaxMicros());
+        assertEquals(5_000.5, snapshot.getMeanMicros(), 0.001);
+        assertEquals(5_000, snapshot.getPercentileMicros(50), 5_000 * 0.016);
+        assertEquals(9_900, snapshot.getPercentileMicros(99), 9_900 * 0.016);
+        assertEquals(10_000, snapshot.getPercentileMicros(100), "never above the recorded maximum");
+        assertEquals(1, snapshot.getPercentileMicros(0));
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMeanMicros());
+        assertEquals(0, snapshot.getPercentileMicros(99));
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.getPercentileMicros(50));
+        assertEquals(OVER_MAX - 1, snapshot.getMaxMicros());
+    }
+
+    @Test
+    void sinceReportsOnlyNewRecordings() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(50_000);
+        }
+        LatencyHistogram.Snapshot before = histogram.snapshot();
+        for (int i = 0; i < 10; i++) {
+            histogram.record(200);
+        }
+
+        LatencyHistogram.Snapshot delta = histogram.snapshot().since(before);
+        assertEquals(10, delta.getCount());
+        assertEquals(2_000, delta.getTotalMicros());
+        assertEquals(200, delta.getPercentileMicros(99), 200 * 0.016);
+        assertTrue(delta.getMaxMicros() < 1_000, "max " + delta.getMaxMicros());
+    }
+
+    @Test
+    void resetForgetsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        histogram.reset();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMaxMicros());
+        assertEquals(0, snapshot.getTotalMicros());
+    }
+}
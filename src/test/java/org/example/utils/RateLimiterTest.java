@@ -0,0 +1,80 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    void startsWithAFullBurst() {
+        RateLimiter limiter = new RateLimiter(0.5, 3);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void reportsTimeUntilTheNextToken() {
+        RateLimiter limiter = new RateLimiter(2, 1);
+        assertEquals(0, limiter.millisUntilAvailable());
+
+        assertTrue(limiter.tryAcquire());
+        long wait = limiter.millisUntilAvailable();
+        assertTrue(wait > 400 && wait <= 500, "waits " + wait + " ms");
+    }
+
+    @Test
+    void acquireWaitsForTheRefill() throws Exception {
+        RateLimiter limiter = new RateLimiter(20, 1);
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        limiter.acquire();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Two tokens at 20 per second take 100 ms to refill
+        assertTrue(elapsed >= 90, "took " + elapsed + " ms");
+    }
+
+    @Test
+    void refillNeverExceedsTheBurst() throws Exception {
+        RateLimiter limiter = new RateLimiter(1000, 2);
+        Thread.sleep(20);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void smallerBurstDropsExtraTokens() {
+        RateLimiter limiter = new RateLimiter(0.5, 5);
+        limiter.setRate(0.5, 1);
+
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void rateChangesTakeEffect() {
+        RateLimiter limiter = new RateLimiter(1, 1);
+        limiter.setRate(4, 1);
+        assertEquals(4, limiter.getRate());
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.millisUntilAvailable() <= 250);
+    }
+
+    @Test
+    void rejectsNonPositiveRates() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1));
+        RateLimiter limiter = new RateLimiter(1, 1);
+        assertThrows(IllegalArgumentException.class, () -> limiter.setRate(-1, 1));
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    // A 4-bucket wheel of 10 ms ticks turns once every 40 ms, so most delays below span rounds
+    private static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 4;
+
+    private final TimerWheel wheel = new TimerWheel("Test-Timer", TICK_MILLIS, WHEEL_SIZE);
+
+    @AfterEach
+    void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    void firesNoEarlierThanItsDeadline() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long[] firedAfter = new long[1];
+        long start = System.nanoTime();
+        wheel.schedule(() -> {
+            firedAfter[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            fired.countDown();
+        }, 35);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(firedAfter[0] >= 35 - TICK_MILLIS, "fired after " + firedAfter[0] + " ms");
+    }
+
+    @Test
+    void timersInTheSameBucketWaitForTheirOwnRound() throws Exception {
+        // 25, 65 and 105 ms are one revolution apart and hash to the same bucket
+        Map<String, Long> firedAt = new ConcurrentHashMap<>();
+        CountDownLatch fired = new CountDownLatch(3);
+        long start = System.nanoTime();
+        for (long delay : new long[] { 105, 25, 65 }) {
+            wheel.schedule(() -> {
+                firedAt.put("t" + delay, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                fired.countDown();
+            }, delay);
+        }
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(firedAt.get("t25") >= 25 - TICK_MILLIS, "t25 at " + firedAt.get("t25"));
+        assertTrue(firedAt.get("t65") >= 65 - TICK_MILLIS, "t65 at " + firedAt.get("t65"));
+        assertTrue(firedAt.get("t105") >= 105 - TICK_MILLIS, "t105 at " + firedAt.get("t105"));
+        assertTrue(firedAt.get("t25") < firedAt.get("t65") && firedAt.get("t65") < firedAt.get("t105"));
+    }
+
+    @Test
+    void delayOfExactlyOneRevolutionWaitsAFullTurn() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long[] firedAfter = new long[1];
+        long start = System.nanoTime();
+        wheel.schedule(() -> {
+            firedAfter[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            fired.countDown();
+        }, TICK_MILLIS * WHEEL_SIZE);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(firedAfter[0] >= TICK_MILLIS * (WHEEL_SIZE - 1), "fired after " + firedAfter[0] + " ms");
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() throws Exception {
+        CountDownLatch fired = new CountDownLatch(2);
+        wheel.schedule(fired::countDown, 0);
+        wheel.schedule(fired::countDown, -5_000);
+
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void cancelledTimersDoNotFire() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch later = new CountDownLatch(1);
+        TimerWheel.Timeout cancelled = wheel.schedule(() -> fired.add("cancelled"), 30);
+        wheel.schedule(() -> {
+            fired.add("kept");
+            later.countDown();
+        }, 80);
+        cancelled.cancel();
+
+        assertTrue(later.await(2, TimeUnit.SECONDS));
+        assertTrue(cancelled.isCancelled());
+        assertEquals(List.of("kept"), fired);
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheWheel() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        wheel.schedule(() -> {
+            throw new IllegalStateException("boom");
+        }, 10);
+        wheel.schedule(fired::countDown, 40);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void stoppedWheelRunsNothing() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        wheel.schedule(fired::countDown, 50);
+        wheel.stop();
+
+        assertFalse(fired.await(200, TimeUnit.MILLISECONDS));
+    }
+}